@@ -0,0 +1,766 @@
+/**
+ * BatchEvaluator - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import structures.BinaryTreeNode;
+
+/**
+ * BatchEvaluator compiles a binary tree representing a symbolic mathematical expression of a
+ * single variable into a program of whole-array operations, and evaluates the expression at
+ * every value of an array at once.
+ *
+ * The values are processed in tiles small enough for every live intermediate result of a tile
+ * to stay in the processor's cache. Each operation of the program reads one or two registers,
+ * which are arrays as long as a tile, and writes another; a register is reused as soon as the
+ * last operation reading it has run, so the number of registers stays close to the depth of
+ * the expression rather than its size. Equal subtrees are evaluated once, as the expression is
+ * put in canonical order by the Canonicalizer first, and subtrees without the variable are
+ * folded into constant registers filled once per call.
+ *
+ * Arithmetic runs on the SIMD lanes of the processor through the incubating Vector API when
+ * the jdk.incubator.vector module is present, and in plain loops otherwise. Functions, and
+ * powers without a small integer exponent, are always evaluated with the scalar Math methods,
+ * like in the Evaluator, as the vector versions are neither faster on every platform nor
+ * equally accurate.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class BatchEvaluator {
+
+	/** The number of values processed at a time; a register holds 4 KiB. */
+	static final int TILE = 512;
+
+	/** The largest magnitude of an integer exponent compiled into multiplications. */
+	private static final int MAX_INTEGER_EXPONENT = 64;
+
+	/** The operation copying a tile of the input values into a register. */
+	private static final int LOAD = 0;
+
+	/** The operation adding two registers. */
+	private static final int ADD = 1;
+
+	/** The operation subtracting a register from another. */
+	private static final int SUBTRACT = 2;
+
+	/** The operation multiplying two registers. */
+	private static final int MULTIPLY = 3;
+
+	/** The operation dividing a register by another. */
+	private static final int DIVIDE = 4;
+
+	/** The operation raising a register to the powers held in another. */
+	private static final int POWER = 5;
+
+	/** The operation raising a register to a small integer exponent. */
+	private static final int POWER_INT = 6;
+
+	/** The operation applying a function to a register. */
+	private static final int APPLY = 7;
+
+	/** The kernels executing the operations, vectorized if the Vector API is present. */
+	private static final Kernels KERNELS = kernels();
+
+	/** The operation of every instruction of the program. */
+	private final int[] myOperations;
+
+	/** The register every instruction of the program writes. */
+	private final int[] myTargets;
+
+	/** The first register every instruction of the program reads. */
+	private final int[] myFirsts;
+
+	/** The second register every instruction reads, or the exponent of a POWER_INT. */
+	private final int[] mySeconds;
+
+	/** The function every APPLY instruction of the program applies, null for the others. */
+	private final DoubleUnaryOperator[] myFunctions;
+
+	/** The registers holding a constant. */
+	private final int[] myConstantRegisters;
+
+	/** The value of every constant register. */
+	private final double[] myConstants;
+
+	/** The number of registers of the program. */
+	private final int myRegisterCount;
+
+	/** The register holding the value of the expression. */
+	private final int myResult;
+
+	/**
+	 * Sets up a batch evaluator running the specified compiled program.
+	 *
+	 * @param theCompiler the compilation holding the program
+	 */
+	private BatchEvaluator(final Compiler theCompiler) {
+		final int size = theCompiler.myInstructions.size();
+		myOperations = new int[size];
+		myTargets = new int[size];
+		myFirsts = new int[size];
+		mySeconds = new int[size];
+		myFunctions = new DoubleUnaryOperator[size];
+		for (int i = 0; i < size; i++) {
+			final Instruction instruction = theCompiler.myInstructions.get(i);
+			myOperations[i] = instruction.myOperation;
+			myTargets[i] = instruction.myTarget;
+			myFirsts[i] = instruction.myFirst;
+			mySeconds[i] = instruction.mySecond;
+			myFunctions[i] = instruction.myFunction;
+		}
+		myConstantRegisters = new int[theCompiler.myConstants.size()];
+		myConstants = new double[myConstantRegisters.length];
+		for (int i = 0; i < myConstants.length; i++) {
+			myConstantRegisters[i] = theCompiler.myConstantRegisters.get(i);
+			myConstants[i] = theCompiler.myConstants.get(i);
+		}
+		myRegisterCount = theCompiler.myRegisterCount;
+		myResult = theCompiler.myResult;
+	}
+
+	/**
+	 * Returns a batch evaluator of the specified root's equivalent expression of the specified
+	 * variable.
+	 *
+	 * @param theRoot		the root node representing the expression being compiled
+	 * @param theVariable	the variable of the expression
+	 * @return a batch evaluator of the expression
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static BatchEvaluator compile(final BinaryTreeNode<String> theRoot,
+	    final String theVariable) {
+		return new BatchEvaluator(new Compiler(Canonicalizer.canonicalize(theRoot),
+		    theVariable));
+	}
+
+	/**
+	 * Returns true if the arithmetic of every batch evaluator runs on SIMD lanes through the
+	 * Vector API, false if it falls back to plain loops.
+	 *
+	 * @return true if the Vector API is used; otherwise false
+	 */
+	public static boolean isVectorized() {
+		return KERNELS.isVectorized();
+	}
+
+	/**
+	 * Returns the value of the expression at every one of the specified values of its
+	 * variable.
+	 *
+	 * @param theValues the values of the variable
+	 * @return the value of the expression at every value, in the same order
+	 */
+	public double[] evaluate(final double[] theValues) {
+		final double[] result = new double[theValues.length];
+		evaluate(theValues, result);
+		return result;
+	}
+
+	/**
+	 * Writes the value of the expression at every one of the specified values of its variable
+	 * into the specified array, at the same index. Both arrays may be the same.
+	 *
+	 * @param theValues		the values of the variable
+	 * @param theResults	the array the values of the expression are written to
+	 * @throws IllegalArgumentException if the result array is shorter than the value array
+	 */
+	public void evaluate(final double[] theValues, final double[] theResults) {
+		evaluate(theValues, theResults, 0, theValues.length);
+	}
+
+	/**
+	 * Writes the value of the expression at the specified range of the specified values of its
+	 * variable into the same range of the specified array.
+	 *
+	 * @param theValues		the values of the variable
+	 * @param theResults	the array the values of the expression are written to
+	 * @param theFrom		the first index of the range, inclusive
+	 * @param theTo			the last index of the range, exclusive
+	 * @throws IllegalArgumentException if the range does not fit in both arrays
+	 */
+	public void evaluate(final double[] theValues, final double[] theResults, final int theFrom,
+	    final int theTo) {
+		if (theFrom < 0 || theFrom > theTo || theTo > theValues.length ||
+		    theTo > theResults.length) {
+			throw new IllegalArgumentException("invalid range [" + theFrom + ", " + theTo +
+			    ") of arrays of " + theValues.length + " and " + theResults.length + " values");
+		}
+		final double[][] registers = new double[myRegisterCount][TILE];
+		for (int i = 0; i < myConstants.length; i++) {
+			Arrays.fill(registers[myConstantRegisters[i]], myConstants[i]);
+		}
+		for (int start = theFrom; start < theTo; start += TILE) {
+			final int length = Math.min(TILE, theTo - start);
+			for (int i = 0; i < myOperations.length; i++) {
+				final double[] target = registers[myTargets[i]];
+				final double[] first = registers[myFirsts[i]];
+				switch (myOperations[i]) {
+					case LOAD:
+						System.arraycopy(theValues, start, target, 0, length);
+						break;
+					case ADD:
+						KERNELS.add(first, registers[mySeconds[i]], target, 0, length);
+						break;
+					case SUBTRACT:
+						KERNELS.subtract(first, registers[mySeconds[i]], target, 0, length);
+						break;
+					case MULTIPLY:
+						KERNELS.multiply(first, registers[mySeconds[i]], target, 0, length);
+						break;
+					case DIVIDE:
+						KERNELS.divide(first, registers[mySeconds[i]], target, 0, length);
+						break;
+					case POWER:
+						KERNELS.power(first, registers[mySeconds[i]], target, 0, length);
+						break;
+					case POWER_INT:
+						KERNELS.power(first, mySeconds[i], target, 0, length);
+						break;
+					default: // APPLY
+						KERNELS.apply(myFunctions[i], first, target, 0, length);
+						break;
+				}
+			}
+			System.arraycopy(registers[myResult], 0, theResults, start, length);
+		}
+	}
+
+	/**
+	 * Returns the number of instructions of the program run for every tile.
+	 *
+	 * @return the number of instructions of the program
+	 */
+	public int getInstructionCount() {
+		return myOperations.length;
+	}
+
+	/**
+	 * Returns the number of registers of the program, including the constant ones.
+	 *
+	 * @return the number of registers of the program
+	 */
+	public int getRegisterCount() {
+		return myRegisterCount;
+	}
+
+	/**
+	 * Returns the vectorized kernels if the Vector API is present, otherwise the scalar ones.
+	 * The vectorized kernels are loaded by name, so this class runs without the
+	 * jdk.incubator.vector module.
+	 *
+	 * @return the kernels executing the operations
+	 */
+	private static Kernels kernels() {
+		Kernels result;
+		try {
+			result = (Kernels) Class.forName("model.VectorKernels").getDeclaredConstructor()
+			    .newInstance();
+		} catch (final ReflectiveOperationException | LinkageError theException) {
+			result = new Kernels();
+		}
+		return result;
+	}
+
+	// INNER CLASS KERNELS
+
+	/**
+	 * Inner class to represent the scalar kernels executing the operations of a program over a
+	 * range of its registers. Every kernel reads each index of its operands before writing the
+	 * same index of its target, so the target may be one of the operands.
+	 */
+	static class Kernels {
+
+		/**
+		 * Returns true if these kernels run on SIMD lanes.
+		 *
+		 * @return false, as these kernels are scalar
+		 */
+		boolean isVectorized() {
+			return false;
+		}
+
+		/**
+		 * Adds the specified registers.
+		 *
+		 * @param theFirst	the first operand
+		 * @param theSecond	the second operand
+		 * @param theTarget	the register the sums are written to
+		 * @param theFrom	the first index of the range, inclusive
+		 * @param theTo		the last index of the range, exclusive
+		 */
+		void add(final double[] theFirst, final double[] theSecond, final double[] theTarget,
+		    final int theFrom, final int theTo) {
+			for (int i = theFrom; i < theTo; i++) {
+				theTarget[i] = theFirst[i] + theSecond[i];
+			}
+		}
+
+		/**
+		 * Subtracts the second specified register from the first.
+		 *
+		 * @param theFirst	the first operand
+		 * @param theSecond	the second operand
+		 * @param theTarget	the register the differences are written to
+		 * @param theFrom	the first index of the range, inclusive
+		 * @param theTo		the last index of the range, exclusive
+		 */
+		void subtract(final double[] theFirst, final double[] theSecond,
+		    final double[] theTarget, final int theFrom, final int theTo) {
+			for (int i = theFrom; i < theTo; i++) {
+				theTarget[i] = theFirst[i] - theSecond[i];
+			}
+		}
+
+		/**
+		 * Multiplies the specified registers.
+		 *
+		 * @param theFirst	the first operand
+		 * @param theSecond	the second operand
+		 * @param theTarget	the register the products are written to
+		 * @param theFrom	the first index of the range, inclusive
+		 * @param theTo		the last index of the range, exclusive
+		 */
+		void multiply(final double[] theFirst, final double[] theSecond,
+		    final double[] theTarget, final int theFrom, final int theTo) {
+			for (int i = theFrom; i < theTo; i++) {
+				theTarget[i] = theFirst[i] * theSecond[i];
+			}
+		}
+
+		/**
+		 * Divides the first specified register by the second.
+		 *
+		 * @param theFirst	the first operand
+		 * @param theSecond	the second operand
+		 * @param theTarget	the register the quotients are written to
+		 * @param theFrom	the first index of the range, inclusive
+		 * @param theTo		the last index of the range, exclusive
+		 */
+		void divide(final double[] theFirst, final double[] theSecond, final double[] theTarget,
+		    final int theFrom, final int theTo) {
+			for (int i = theFrom; i < theTo; i++) {
+				theTarget[i] = theFirst[i] / theSecond[i];
+			}
+		}
+
+		/**
+		 * Raises the first specified register to the powers held in the second.
+		 *
+		 * @param theBase		the register of the bases
+		 * @param theExponent	the register of the exponents
+		 * @param theTarget		the register the powers are written to
+		 * @param theFrom		the first index of the range, inclusive
+		 * @param theTo			the last index of the range, exclusive
+		 */
+		final void power(final double[] theBase, final double[] theExponent,
+		    final double[] theTarget, final int theFrom, final int theTo) {
+			for (int i = theFrom; i < theTo; i++) {
+				theTarget[i] = Math.pow(theBase[i], theExponent[i]);
+			}
+		}
+
+		/**
+		 * Raises the specified register to the specified integer exponent, by repeated
+		 * squaring like the Evaluator.
+		 *
+		 * @param theBase		the register of the bases
+		 * @param theExponent	the integer exponent
+		 * @param theTarget		the register the powers are written to
+		 * @param theFrom		the first index of the range, inclusive
+		 * @param theTo			the last index of the range, exclusive
+		 */
+		void power(final double[] theBase, final int theExponent, final double[] theTarget,
+		    final int theFrom, final int theTo) {
+			for (int i = theFrom; i < theTo; i++) {
+				theTarget[i] = Evaluator.power(theBase[i], theExponent);
+			}
+		}
+
+		/**
+		 * Applies the specified function to the specified register.
+		 *
+		 * @param theFunction	the function being applied
+		 * @param theArgument	the register of the arguments
+		 * @param theTarget		the register the results are written to
+		 * @param theFrom		the first index of the range, inclusive
+		 * @param theTo			the last index of the range, exclusive
+		 */
+		final void apply(final DoubleUnaryOperator theFunction, final double[] theArgument,
+		    final double[] theTarget, final int theFrom, final int theTo) {
+			for (int i = theFrom; i < theTo; i++) {
+				theTarget[i] = theFunction.applyAsDouble(theArgument[i]);
+			}
+		}
+	}
+
+	// INNER CLASS INSTRUCTION
+
+	/**
+	 * Inner class to represent an instruction of a program being compiled, reading and writing
+	 * values until the registers are allocated, and registers afterwards.
+	 */
+	private static final class Instruction {
+
+		/** The operation of the instruction. */
+		private final int myOperation;
+
+		/** The value, then the register, written by the instruction. */
+		private int myTarget;
+
+		/** The first value, then register, read by the instruction. */
+		private int myFirst;
+
+		/** The second value, then register, read, or the exponent of a POWER_INT. */
+		private int mySecond;
+
+		/** The function applied by an APPLY instruction, null for the others. */
+		private final DoubleUnaryOperator myFunction;
+
+		/**
+		 * Sets up an instruction with the specified operation, operands and function.
+		 *
+		 * @param theOperation	the operation of the instruction
+		 * @param theFirst		the first value read
+		 * @param theSecond		the second value read, or the exponent of a POWER_INT
+		 * @param theFunction	the function applied by an APPLY instruction, or null
+		 */
+		Instruction(final int theOperation, final int theFirst, final int theSecond,
+		    final DoubleUnaryOperator theFunction) {
+			myOperation = theOperation;
+			myFirst = theFirst;
+			mySecond = theSecond;
+			myFunction = theFunction;
+		}
+
+		/**
+		 * Returns true if the second operand of this instruction is a value.
+		 *
+		 * @return true if the instruction reads two values; otherwise false
+		 */
+		boolean isBinary() {
+			return myOperation >= ADD && myOperation <= POWER;
+		}
+	}
+
+	// INNER CLASS COMPILER
+
+	/**
+	 * Inner class to represent the compilation of a single expression into a program: the
+	 * expression is first translated into instructions writing a new value each, and the
+	 * values are then allocated to as few registers as possible.
+	 */
+	private static final class Compiler {
+
+		/** The variable of the expression. */
+		private final String myVariable;
+
+		/** The instructions of the program. */
+		private final List<Instruction> myInstructions = new ArrayList<Instruction>();
+
+		/** The value of every distinct node already translated. */
+		private final Map<BinaryTreeNode<String>, Integer> myValues =
+		    new IdentityHashMap<BinaryTreeNode<String>, Integer>();
+
+		/** The value of every distinct leaf already translated, by the leaf's element. */
+		private final Map<String, Integer> myLeaves = new HashMap<String, Integer>();
+
+		/** The value of every distinct constant, by its bits. */
+		private final Map<Long, Integer> myConstantValues = new HashMap<Long, Integer>();
+
+		/** The constant of every value, null for a value computed by an instruction. */
+		private final List<Double> myValueConstants = new ArrayList<Double>();
+
+		/** The register of every constant. */
+		private final List<Integer> myConstantRegisters = new ArrayList<Integer>();
+
+		/** The constants of the program. */
+		private final List<Double> myConstants = new ArrayList<Double>();
+
+		/** The number of registers of the program. */
+		private int myRegisterCount;
+
+		/** The register holding the value of the expression. */
+		private int myResult;
+
+		/**
+		 * Compiles the specified canonical expression of the specified variable.
+		 *
+		 * @param theRoot		the root node of the canonical expression
+		 * @param theVariable	the variable of the expression
+		 * @throws IllegalArgumentException if the expression contains an unknown symbol
+		 */
+		Compiler(final BinaryTreeNode<String> theRoot, final String theVariable) {
+			myVariable = theVariable;
+			final int result = translate(theRoot);
+			allocate(result);
+		}
+
+		/**
+		 * Returns the value of the specified node, translating the node and every distinct
+		 * node below it into instructions if it was not translated yet.
+		 *
+		 * @param theNode the node being translated
+		 * @return the value of the node
+		 * @throws IllegalArgumentException if the expression contains an unknown symbol
+		 */
+		private int translate(final BinaryTreeNode<String> theNode) {
+			Integer result = myValues.get(theNode);
+			if (result != null) {
+				return result;
+			}
+			final String element = theNode.getElement();
+			if (theNode.getRight() != null) {
+				result = translateOperator(element, translate(theNode.getLeft()),
+				    translate(theNode.getRight()));
+			} else if (theNode.getLeft() != null) {
+				final int argument = translate(theNode.getLeft());
+				final String name = ExpressionParser.getFunction(element);
+				final DoubleUnaryOperator function = Evaluator.function(name);
+				if (isConstant(argument)) {
+					result = constant(function.applyAsDouble(myValueConstants.get(argument)));
+				} else {
+					result = instruction(APPLY, argument, -1, function);
+				}
+				final String prefix = element.substring(0, element.length() - name.length());
+				if (!prefix.isEmpty()) { // a coefficient or variable, such as 5sin(<inner>)
+					result = translateOperator("*", leaf(prefix.equals("-") ? "-1" : prefix),
+					    result);
+				}
+			} else {
+				result = leaf(element);
+			}
+			myValues.put(theNode, result);
+			return result;
+		}
+
+		/**
+		 * Returns the value of the specified operator applied to the specified values, folded
+		 * into a constant if both are constants.
+		 *
+		 * @param theOperator	the operator being applied
+		 * @param theLeft		the value of the left operand
+		 * @param theRight		the value of the right operand
+		 * @return the value of the operation
+		 */
+		private int translateOperator(final String theOperator, final int theLeft,
+		    final int theRight) {
+			int result;
+			if (isConstant(theLeft) && isConstant(theRight)) {
+				final double left = myValueConstants.get(theLeft);
+				final double right = myValueConstants.get(theRight);
+				switch (theOperator) {
+					case "+":
+						result = constant(left + right);
+						break;
+					case "-":
+						result = constant(left - right);
+						break;
+					case "*":
+						result = constant(left * right);
+						break;
+					case "/":
+						result = constant(left / right);
+						break;
+					default: // "^"
+						result = constant(Math.pow(left, right));
+						break;
+				}
+			} else if (theOperator.equals("^") && isIntegerConstant(theRight)) {
+				final int exponent = (int) (double) myValueConstants.get(theRight);
+				if (exponent == 0) {
+					result = constant(1);
+				} else if (exponent == 1) {
+					result = theLeft;
+				} else if (exponent == 2) {
+					result = instruction(MULTIPLY, theLeft, theLeft, null);
+				} else {
+					result = instruction(POWER_INT, theLeft, exponent, null);
+				}
+			} else {
+				final int operation;
+				switch (theOperator) {
+					case "+":
+						operation = ADD;
+						break;
+					case "-":
+						operation = SUBTRACT;
+						break;
+					case "*":
+						operation = MULTIPLY;
+						break;
+					case "/":
+						operation = DIVIDE;
+						break;
+					default: // "^"
+						operation = POWER;
+						break;
+				}
+				result = instruction(operation, theLeft, theRight, null);
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the value of the specified leaf element.
+		 *
+		 * @param theLeaf the leaf element, a number or a variable with an optional coefficient
+		 * @return the value of the leaf
+		 * @throws IllegalArgumentException if the leaf is an unknown symbol
+		 */
+		private int leaf(final String theLeaf) {
+			Integer result = myLeaves.get(theLeaf);
+			if (result != null) {
+				return result;
+			}
+			if (ExpressionParser.isNumber(theLeaf)) {
+				result = constant(Double.parseDouble(theLeaf));
+			} else {
+				final String symbol = ExpressionParser.getSymbol(theLeaf);
+				final double coefficient =
+				    Double.parseDouble(ExpressionParser.getCoefficient(theLeaf));
+				if (symbol.equals(myVariable)) {
+					Integer variable = myLeaves.get(myVariable);
+					if (variable == null) {
+						variable = instruction(LOAD, -1, -1, null);
+						myLeaves.put(myVariable, variable);
+					}
+					result = coefficient == 1 ? variable :
+					    instruction(MULTIPLY, constant(coefficient), variable, null);
+				} else if (symbol.equals("e")) {
+					result = constant(coefficient * Math.E);
+				} else {
+					throw new IllegalArgumentException("unknown symbol: " + theLeaf);
+				}
+			}
+			myLeaves.put(theLeaf, result);
+			return result;
+		}
+
+		/**
+		 * Returns the value of the specified constant.
+		 *
+		 * @param theConstant the constant
+		 * @return the value of the constant
+		 */
+		private int constant(final double theConstant) {
+			final Long bits = Double.doubleToRawLongBits(theConstant);
+			Integer result = myConstantValues.get(bits);
+			if (result == null) {
+				result = myValueConstants.size();
+				myValueConstants.add(theConstant);
+				myConstantValues.put(bits, result);
+			}
+			return result;
+		}
+
+		/**
+		 * Returns a new value written by a new instruction with the specified operation,
+		 * operands and function.
+		 *
+		 * @param theOperation	the operation of the instruction
+		 * @param theFirst		the first value read
+		 * @param theSecond		the second value read, or the exponent of a POWER_INT
+		 * @param theFunction	the function applied by an APPLY instruction, or null
+		 * @return the value written by the instruction
+		 */
+		private int instruction(final int theOperation, final int theFirst, final int theSecond,
+		    final DoubleUnaryOperator theFunction) {
+			final Instruction instruction =
+			    new Instruction(theOperation, theFirst, theSecond, theFunction);
+			instruction.myTarget = myValueConstants.size();
+			myValueConstants.add(null);
+			myInstructions.add(instruction);
+			return instruction.myTarget;
+		}
+
+		/**
+		 * Returns true if the specified value is a constant.
+		 *
+		 * @param theValue the value being examined
+		 * @return true if the value is a constant; otherwise false
+		 */
+		private boolean isConstant(final int theValue) {
+			return myValueConstants.get(theValue) != null;
+		}
+
+		/**
+		 * Returns true if the specified value is a constant with an integer value small enough
+		 * to be compiled into multiplications when used as an exponent.
+		 *
+		 * @param theValue the value being examined
+		 * @return true if the value is a small integer constant; otherwise false
+		 */
+		private boolean isIntegerConstant(final int theValue) {
+			final Double constant = myValueConstants.get(theValue);
+			return constant != null && constant == Math.rint(constant) &&
+			    Math.abs(constant) <= MAX_INTEGER_EXPONENT;
+		}
+
+		/**
+		 * Allocates a register to every value read by the program: every constant gets its
+		 * own register, and every computed value takes a free register and frees it after
+		 * the last instruction reading it. The instructions are rewritten to read and write
+		 * registers.
+		 *
+		 * @param theResult the value of the expression
+		 */
+		private void allocate(final int theResult) {
+			final int[] lastUses = new int[myValueConstants.size()];
+			Arrays.fill(lastUses, -1);
+			for (int i = 0; i < myInstructions.size(); i++) {
+				final Instruction instruction = myInstructions.get(i);
+				if (instruction.myOperation != LOAD) {
+					lastUses[instruction.myFirst] = i;
+				}
+				if (instruction.isBinary()) {
+					lastUses[instruction.mySecond] = i;
+				}
+			}
+			lastUses[theResult] = myInstructions.size();
+			final int[] registers = new int[lastUses.length];
+			Arrays.fill(registers, -1);
+			for (int value = 0; value < registers.length; value++) {
+				if (isConstant(value) && lastUses[value] >= 0) {
+					registers[value] = myRegisterCount++;
+					myConstantRegisters.add(registers[value]);
+					myConstants.add(myValueConstants.get(value));
+				}
+			}
+			final List<Integer> free = new ArrayList<Integer>();
+			for (int i = 0; i < myInstructions.size(); i++) {
+				final Instruction instruction = myInstructions.get(i);
+				if (instruction.myOperation != LOAD) {
+					if (!isConstant(instruction.myFirst) && lastUses[instruction.myFirst] == i) {
+						free.add(registers[instruction.myFirst]);
+					}
+					instruction.myFirst = registers[instruction.myFirst];
+				}
+				if (instruction.isBinary()) {
+					if (!isConstant(instruction.mySecond) && lastUses[instruction.mySecond] == i &&
+					    !free.contains(registers[instruction.mySecond])) {
+						free.add(registers[instruction.mySecond]);
+					}
+					instruction.mySecond = registers[instruction.mySecond];
+				}
+				final int value = instruction.myTarget;
+				registers[value] =
+				    free.isEmpty() ? myRegisterCount++ : free.remove(free.size() - 1);
+				instruction.myTarget = registers[value];
+				if (instruction.myOperation == LOAD) {
+					instruction.myFirst = instruction.myTarget;
+				}
+			}
+			myResult = registers[theResult];
+		}
+	}
+
+}
@@ -0,0 +1,780 @@
+/**
+ * BytecodeCompiler - Derivatives Calculator
+ */
+
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTreeNode;
+
+/**
+ * BytecodeCompiler compiles a binary tree representing a symbolic mathematical expression into
+ * a hidden class with a single static method, double eval(double[] vars), whose body evaluates
+ * the expression in straight-line bytecode. Unlike the closures of the Evaluator, the generated
+ * method makes no virtual calls the just-in-time compiler has to see through, so the whole
+ * expression is inlined into one compiled method.
+ *
+ * The expression is put in canonical order by the Canonicalizer first, so equal subtrees share
+ * a node. A shared subtree is evaluated once and kept in a local variable, subtrees without a
+ * variable are folded into constants, and powers with a small integer exponent are compiled
+ * into multiplications, like in the Evaluator. An expression too large for the virtual machine
+ * to compile as a single method, or any expression on a runtime that cannot define classes,
+ * is compiled into a PostfixProgram instead.
+ *
+ * The generated classes are cached by the canonical expression and its variables. The cache
+ * holds them softly, and the classes are defined as hidden classes not tied to their class
+ * loader, so a class is unloaded once the cache has dropped it and no caller still uses it.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public final class BytecodeCompiler {
+
+	/** The largest size of a method's bytecode the virtual machine still compiles. */
+	private static final int HUGE_METHOD_LIMIT = 8000;
+
+	/** The largest magnitude of an integer exponent compiled into multiplications. */
+	private static final int MAX_INTEGER_EXPONENT = 64;
+
+	/** The class file version of the generated classes, that of Java 17. */
+	private static final int CLASS_VERSION = 61;
+
+	/** The internal name of the generated classes, in the package of this class. */
+	private static final String CLASS_NAME = "model/GeneratedExpression";
+
+	/** The descriptor of the generated eval method. */
+	private static final String EVAL_DESCRIPTOR = "([D)D";
+
+	/** The lookup the generated classes are defined with. */
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/** The generated evaluators, by the canonical expression and its variables. */
+	private static final Map<String, CachedReference> CACHE =
+	    new ConcurrentHashMap<String, CachedReference>();
+
+	/** The queue of the cache entries whose evaluator the garbage collector has cleared. */
+	private static final ReferenceQueue<ToDoubleFunction<double[]>> CLEARED =
+	    new ReferenceQueue<ToDoubleFunction<double[]>>();
+
+	/** A private constructor to inhibit external instantiation. */
+	private BytecodeCompiler() {
+		// do nothing
+	}
+
+	/**
+	 * Returns a function evaluating the specified root's equivalent expression at the values
+	 * held in an array, where index i holds the value of the i-th specified variable. The
+	 * function is generated, or taken from the cache if an equal expression was compiled
+	 * before with the same variables.
+	 *
+	 * @param theRoot		the root node representing the expression being compiled
+	 * @param theVariables	the variables of the expression, in the order of the input array
+	 * @return a function evaluating the expression at the values held in an array
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static ToDoubleFunction<double[]> compile(final BinaryTreeNode<String> theRoot,
+	    final List<String> theVariables) {
+		purge();
+		final Generator generator =
+		    new Generator(Canonicalizer.canonicalize(theRoot), theVariables);
+		final String key = generator.getKey();
+		final CachedReference cached = CACHE.get(key);
+		ToDoubleFunction<double[]> result = cached == null ? null : cached.get();
+		if (result == null) {
+			result = generator.generate();
+			CACHE.put(key, new CachedReference(key, result));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of expressions in the cache, including the ones whose evaluator the
+	 * garbage collector has cleared but which were not removed yet.
+	 *
+	 * @return the number of expressions in the cache
+	 */
+	public static int getCacheSize() {
+		purge();
+		return CACHE.size();
+	}
+
+	/**
+	 * Removes every expression from the cache.
+	 */
+	public static void clearCache() {
+		CACHE.clear();
+	}
+
+	/**
+	 * Removes the cache entries whose evaluator the garbage collector has cleared.
+	 */
+	private static void purge() {
+		CachedReference cleared = (CachedReference) CLEARED.poll();
+		while (cleared != null) {
+			CACHE.remove(cleared.myKey, cleared);
+			cleared = (CachedReference) CLEARED.poll();
+		}
+	}
+
+	// INNER CLASS CACHED REFERENCE
+
+	/**
+	 * Inner class to represent a soft reference to a cached evaluator, knowing its cache key.
+	 */
+	private static final class CachedReference extends SoftReference<ToDoubleFunction<double[]>> {
+
+		/** The cache key of the evaluator. */
+		private final String myKey;
+
+		/**
+		 * Sets up this reference to the specified evaluator with the specified cache key.
+		 *
+		 * @param theKey		the cache key of the evaluator
+		 * @param theEvaluator	the evaluator being cached
+		 */
+		CachedReference(final String theKey, final ToDoubleFunction<double[]> theEvaluator) {
+			super(theEvaluator, CLEARED);
+			myKey = theKey;
+		}
+	}
+
+	// INNER CLASS GENERATOR
+
+	/**
+	 * Inner class to represent the generation of the class evaluating a single expression,
+	 * holding the constant pool and the bytecode of the eval method as they are written.
+	 */
+	private static final class Generator {
+
+		/** The root node of the canonical expression. */
+		private final BinaryTreeNode<String> myRoot;
+
+		/** The variables of the expression, in the order of the input array. */
+		private final List<String> myVariables;
+
+		/** The number of parents of every distinct node of the expression. */
+		private final Map<BinaryTreeNode<String>, Integer> myUses =
+		    new IdentityHashMap<BinaryTreeNode<String>, Integer>();
+
+		/** The index of every distinct node of the expression, in post-order. */
+		private final Map<BinaryTreeNode<String>, Integer> myIndices =
+		    new IdentityHashMap<BinaryTreeNode<String>, Integer>();
+
+		/** Whether every distinct node of the expression is free of variables. */
+		private final Map<BinaryTreeNode<String>, Boolean> myIsConstant =
+		    new IdentityHashMap<BinaryTreeNode<String>, Boolean>();
+
+		/** The local variable holding the value of every shared node already evaluated. */
+		private final Map<BinaryTreeNode<String>, Integer> myLocals =
+		    new IdentityHashMap<BinaryTreeNode<String>, Integer>();
+
+		/** The key of the expression in the cache. */
+		private final StringBuilder myKey = new StringBuilder();
+
+		/** The index of every entry of the constant pool, by a description of the entry. */
+		private final Map<String, Integer> myPoolIndices = new HashMap<String, Integer>();
+
+		/** The constant pool written so far. */
+		private final ByteArrayOutputStream myPool = new ByteArrayOutputStream();
+
+		/** The bytecode of the eval method written so far. */
+		private final ByteArrayOutputStream myCode = new ByteArrayOutputStream();
+
+		/** The number of entries of the constant pool, plus one. */
+		private int myPoolCount = 1;
+
+		/** The current depth of the operand stack of the eval method, in slots. */
+		private int myStack;
+
+		/** The greatest depth of the operand stack of the eval method, in slots. */
+		private int myMaxStack;
+
+		/** The next free local variable of the eval method; the first one holds the array. */
+		private int myNextLocal = 1;
+
+		/**
+		 * Sets up the generation of the class evaluating the specified canonical expression.
+		 *
+		 * @param theRoot		the root node of the canonical expression
+		 * @param theVariables	the variables of the expression, in the order of the input array
+		 */
+		Generator(final BinaryTreeNode<String> theRoot, final List<String> theVariables) {
+			myRoot = theRoot;
+			myVariables = theVariables;
+			myKey.append(theVariables).append(':');
+			visit(theRoot);
+		}
+
+		/**
+		 * Returns the key of the expression in the cache, which is equal for two expressions
+		 * if and only if their canonical forms and variables are equal.
+		 *
+		 * @return the key of the expression in the cache
+		 */
+		String getKey() {
+			return myKey.toString();
+		}
+
+		/**
+		 * Counts the parents of the specified node and every distinct node below it, finds
+		 * the ones without a variable and describes the new ones in the key, in post-order.
+		 *
+		 * @param theNode the node being visited
+		 */
+		private void visit(final BinaryTreeNode<String> theNode) {
+			final Integer uses = myUses.get(theNode);
+			if (uses != null) {
+				myUses.put(theNode, uses + 1);
+				return;
+			}
+			myUses.put(theNode, 1);
+			final String element = theNode.getElement();
+			boolean isConstant;
+			if (theNode.getLeft() != null) {
+				visit(theNode.getLeft());
+				isConstant = myIsConstant.get(theNode.getLeft());
+				if (theNode.getRight() != null) {
+					visit(theNode.getRight());
+					isConstant = isConstant && myIsConstant.get(theNode.getRight());
+				} else { // a function, constant unless prefixed with a variable
+					final String prefix = element.substring(0,
+					    element.length() - ExpressionParser.getFunction(element).length());
+					isConstant = isConstant && (prefix.isEmpty() || prefix.equals("-") ||
+					    isConstantLeaf(prefix));
+				}
+			} else {
+				isConstant = isConstantLeaf(element);
+			}
+			myIsConstant.put(theNode, isConstant);
+			myKey.append(element).append(' ').append(index(theNode.getLeft())).append(' ')
+			    .append(index(theNode.getRight())).append(';');
+			myIndices.put(theNode, myIndices.size());
+		}
+
+		/**
+		 * Returns the post-order index of the specified visited node, or -1 for null.
+		 *
+		 * @param theNode the visited node, or null
+		 * @return the post-order index of the node, or -1 for null
+		 */
+		private int index(final BinaryTreeNode<String> theNode) {
+			return theNode == null ? -1 : myIndices.get(theNode);
+		}
+
+		/**
+		 * Returns true if the specified leaf element is a number, or a multiple of Euler's
+		 * number while "e" is not one of the variables.
+		 *
+		 * @param theLeaf the leaf element being examined
+		 * @return true if the leaf element is a constant; otherwise false
+		 */
+		private boolean isConstantLeaf(final String theLeaf) {
+			return ExpressionParser.isNumber(theLeaf) ||
+			    (ExpressionParser.getSymbol(theLeaf).equals("e") && !myVariables.contains("e"));
+		}
+
+		/**
+		 * Generates the bytecode of the expression, defines the hidden class holding it and
+		 * returns an instance of the class, or returns a PostfixProgram's interpreter if the
+		 * bytecode is too large to be compiled by the virtual machine or the class cannot be
+		 * defined at run time.
+		 *
+		 * @return a function evaluating the expression at the values held in an array
+		 * @throws IllegalArgumentException if the expression contains an unknown symbol
+		 */
+		ToDoubleFunction<double[]> generate() {
+			emit(myRoot);
+			instruction(0xaf, -2); // dreturn
+			ToDoubleFunction<double[]> result = null;
+			if (myCode.size() <= HUGE_METHOD_LIMIT) {
+				result = define(classFile());
+			}
+			if (result == null) {
+				result = PostfixProgram.compile(myRoot, myVariables).toFunction();
+			}
+			return result;
+		}
+
+		/**
+		 * Writes the bytecode pushing the value of the specified node onto the stack, keeping
+		 * the value of a node with several parents in a local variable for its other uses.
+		 *
+		 * @param theNode the node being evaluated
+		 * @throws IllegalArgumentException if the expression contains an unknown symbol
+		 */
+		private void emit(final BinaryTreeNode<String> theNode) {
+			final Integer local = myLocals.get(theNode);
+			if (local != null) {
+				localInstruction(0x18, local, 2); // dload
+				return;
+			}
+			final String element = theNode.getElement();
+			if (myIsConstant.get(theNode)) {
+				pushDouble(Evaluator.compile(theNode, myVariables)
+				    .applyAsDouble(new double[myVariables.size()]));
+			} else if (theNode.getRight() != null) {
+				emitOperator(element, theNode.getLeft(), theNode.getRight());
+			} else if (theNode.getLeft() != null) {
+				emitFunction(element, theNode.getLeft());
+			} else {
+				emitLeaf(element);
+			}
+			if (myUses.get(theNode) > 1 && !myIsConstant.get(theNode) &&
+			    theNode.getLeft() != null) {
+				instruction(0x5c, 2); // dup2
+				localInstruction(0x39, myNextLocal, -2); // dstore
+				myLocals.put(theNode, myNextLocal);
+				myNextLocal += 2;
+			}
+		}
+
+		/**
+		 * Writes the bytecode applying the specified operator to the specified operands.
+		 *
+		 * @param theOperator	the operator being applied
+		 * @param theLeft		the left operand
+		 * @param theRight		the right operand
+		 */
+		private void emitOperator(final String theOperator,
+		    final BinaryTreeNode<String> theLeft, final BinaryTreeNode<String> theRight) {
+			double exponent = Double.NaN;
+			if (theOperator.equals("^") && myIsConstant.get(theRight)) {
+				exponent = Evaluator.compile(theRight, myVariables)
+				    .applyAsDouble(new double[myVariables.size()]);
+			}
+			if (exponent == Math.rint(exponent) && Math.abs(exponent) <= MAX_INTEGER_EXPONENT) {
+				if (exponent == 0) {
+					instruction(0x0f, 2); // dconst_1
+				} else if (exponent == 1) {
+					emit(theLeft);
+				} else if (exponent == 2) {
+					emit(theLeft);
+					instruction(0x5c, 2); // dup2
+					instruction(0x6b, -2); // dmul
+				} else {
+					emit(theLeft);
+					instruction(0x10, 1); // bipush
+					myCode.write((int) exponent);
+					invokeStatic("model/Evaluator", "power", "(DI)D", -1);
+				}
+			} else {
+				emit(theLeft);
+				emit(theRight);
+				switch (theOperator) {
+					case "+":
+						instruction(0x63, -2); // dadd
+						break;
+					case "-":
+						instruction(0x67, -2); // dsub
+						break;
+					case "*":
+						instruction(0x6b, -2); // dmul
+						break;
+					case "/":
+						instruction(0x6f, -2); // ddiv
+						break;
+					default: // "^"
+						invokeStatic("java/lang/Math", "pow", "(DD)D", -2);
+						break;
+				}
+			}
+		}
+
+		/**
+		 * Writes the bytecode applying the specified function, with an optional coefficient
+		 * or variable prefix, to the specified argument.
+		 *
+		 * @param theFunction	the function element, such as "sin" or "5sin"
+		 * @param theArgument	the argument of the function
+		 * @throws IllegalArgumentException if the function is not accepted by this calculator
+		 */
+		private void emitFunction(final String theFunction,
+		    final BinaryTreeNode<String> theArgument) {
+			final String name = ExpressionParser.getFunction(theFunction);
+			final String prefix = theFunction.substring(0, theFunction.length() - name.length());
+			if (!prefix.isEmpty()) {
+				emitLeaf(prefix.equals("-") ? "-1" : prefix);
+			}
+			if (name.startsWith("log_")) { // log_<base>
+				emit(theArgument);
+				invokeMath("log");
+				pushDouble(Math.log(Double.parseDouble(name.substring(4))));
+				instruction(0x6f, -2); // ddiv
+			} else {
+				switch (name) {
+					case "sec":
+					case "csc":
+					case "cot":
+						instruction(0x0f, 2); // dconst_1
+						emit(theArgument);
+						invokeMath(name.equals("sec") ? "cos" : name.equals("csc") ? "sin" : "tan");
+						instruction(0x6f, -2); // ddiv
+						break;
+					case "arcsec":
+					case "arccsc":
+						instruction(0x0f, 2); // dconst_1
+						emit(theArgument);
+						instruction(0x6f, -2); // ddiv
+						invokeMath(name.equals("arcsec") ? "acos" : "asin");
+						break;
+					case "arccot":
+						pushDouble(Math.PI / 2);
+						emit(theArgument);
+						invokeMath("atan");
+						instruction(0x67, -2); // dsub
+						break;
+					case "arcsin":
+					case "arccos":
+					case "arctan":
+						emit(theArgument);
+						invokeMath("a" + name.substring(3));
+						break;
+					case "ln":
+						emit(theArgument);
+						invokeMath("log");
+						break;
+					case "abs":
+					case "sin":
+					case "cos":
+					case "tan":
+					case "log":
+						emit(theArgument);
+						invokeMath(name);
+						break;
+					default:
+						throw new IllegalArgumentException("unknown function: " + theFunction);
+				}
+			}
+			if (!prefix.isEmpty()) {
+				instruction(0x6b, -2); // dmul
+			}
+		}
+
+		/**
+		 * Writes the bytecode pushing the value of the specified leaf onto the stack.
+		 *
+		 * @param theLeaf the leaf element, a number or a variable with an optional coefficient
+		 * @throws IllegalArgumentException if the leaf is an unknown symbol
+		 */
+		private void emitLeaf(final String theLeaf) {
+			if (ExpressionParser.isNumber(theLeaf)) {
+				pushDouble(Double.parseDouble(theLeaf));
+			} else {
+				final String symbol = ExpressionParser.getSymbol(theLeaf);
+				final double coefficient =
+				    Double.parseDouble(ExpressionParser.getCoefficient(theLeaf));
+				final int slot = myVariables.indexOf(symbol);
+				if (slot >= 0) {
+					if (coefficient != 1) {
+						pushDouble(coefficient);
+					}
+					instruction(0x2a, 1); // aload_0
+					pushInt(slot);
+					instruction(0x31, 0); // daload
+					if (coefficient != 1) {
+						instruction(0x6b, -2); // dmul
+					}
+				} else if (symbol.equals("e")) {
+					pushDouble(coefficient * Math.E);
+				} else {
+					throw new IllegalArgumentException("unknown symbol: " + theLeaf);
+				}
+			}
+		}
+
+		/**
+		 * Writes the bytecode pushing the specified double constant onto the stack.
+		 *
+		 * @param theValue the constant being pushed
+		 */
+		private void pushDouble(final double theValue) {
+			if (Double.doubleToRawLongBits(theValue) == 0) {
+				instruction(0x0e, 2); // dconst_0
+			} else if (theValue == 1) {
+				instruction(0x0f, 2); // dconst_1
+			} else {
+				instruction(0x14, 2); // ldc2_w
+				writeShort(myCode, constant("D" + Double.doubleToRawLongBits(theValue), 6,
+				    theValue));
+			}
+		}
+
+		/**
+		 * Writes the bytecode pushing the specified non-negative int constant onto the stack.
+		 *
+		 * @param theValue the constant being pushed
+		 */
+		private void pushInt(final int theValue) {
+			if (theValue <= 5) {
+				instruction(0x03 + theValue, 1); // iconst_<n>
+			} else if (theValue <= Byte.MAX_VALUE) {
+				instruction(0x10, 1); // bipush
+				myCode.write(theValue);
+			} else {
+				instruction(0x11, 1); // sipush
+				writeShort(myCode, theValue);
+			}
+		}
+
+		/**
+		 * Writes the bytecode calling the specified one-argument method of the Math class.
+		 *
+		 * @param theName the name of the method
+		 */
+		private void invokeMath(final String theName) {
+			invokeStatic("java/lang/Math", theName, "(D)D", 0);
+		}
+
+		/**
+		 * Writes the bytecode calling the specified static method.
+		 *
+		 * @param theOwner		the internal name of the class declaring the method
+		 * @param theName		the name of the method
+		 * @param theDescriptor	the descriptor of the method
+		 * @param theStackDelta	the change of the stack depth the call makes, in slots
+		 */
+		private void invokeStatic(final String theOwner, final String theName,
+		    final String theDescriptor, final int theStackDelta) {
+			instruction(0xb8, theStackDelta); // invokestatic
+			writeShort(myCode, methodRef(theOwner, theName, theDescriptor));
+		}
+
+		/**
+		 * Writes the bytecode of an instruction accessing the specified local variable, using
+		 * the wide form if the index of the local variable does not fit in a byte.
+		 *
+		 * @param theOpcode		the opcode of the instruction
+		 * @param theLocal		the index of the local variable
+		 * @param theStackDelta	the change of the stack depth the instruction makes, in slots
+		 */
+		private void localInstruction(final int theOpcode, final int theLocal,
+		    final int theStackDelta) {
+			if (theLocal > 0xff) {
+				myCode.write(0xc4); // wide
+				instruction(theOpcode, theStackDelta);
+				writeShort(myCode, theLocal);
+			} else {
+				instruction(theOpcode, theStackDelta);
+				myCode.write(theLocal);
+			}
+		}
+
+		/**
+		 * Writes the specified opcode and tracks the depth of the operand stack.
+		 *
+		 * @param theOpcode		the opcode being written
+		 * @param theStackDelta	the change of the stack depth the instruction makes, in slots
+		 */
+		private void instruction(final int theOpcode, final int theStackDelta) {
+			myCode.write(theOpcode);
+			myStack += theStackDelta;
+			myMaxStack = Math.max(myMaxStack, myStack);
+		}
+
+		/**
+		 * Returns the index of the constant pool entry described by the specified key, adding
+		 * the entry if it does not exist yet.
+		 *
+		 * @param theKey	the description of the entry, unique to its tag and contents
+		 * @param theTag	the tag of the entry
+		 * @param theValue	the value of the entry: a String, the Integer indices it refers
+		 *                  to, or a Double
+		 * @return the index of the entry
+		 */
+		private int constant(final String theKey, final int theTag, final Object... theValue) {
+			Integer result = myPoolIndices.get(theKey);
+			if (result == null) {
+				final ByteArrayOutputStream entry = new ByteArrayOutputStream();
+				entry.write(theTag);
+				if (theValue[0] instanceof String) { // CONSTANT_Utf8
+					final byte[] bytes = ((String) theValue[0]).getBytes(StandardCharsets.UTF_8);
+					writeShort(entry, bytes.length);
+					entry.writeBytes(bytes);
+				} else if (theValue[0] instanceof Double) { // CONSTANT_Double
+					final long bits = Double.doubleToRawLongBits((Double) theValue[0]);
+					writeShort(entry, (int) (bits >>> 48));
+					writeShort(entry, (int) (bits >>> 32));
+					writeShort(entry, (int) (bits >>> 16));
+					writeShort(entry, (int) bits);
+				} else { // CONSTANT_Class, CONSTANT_NameAndType and CONSTANT_Methodref
+					for (Object index : theValue) {
+						writeShort(entry, (Integer) index);
+					}
+				}
+				result = myPoolCount;
+				myPoolIndices.put(theKey, result);
+				myPool.writeBytes(entry.toByteArray());
+				myPoolCount += theTag == 6 ? 2 : 1; // a double takes two entries
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the index of the constant pool entry holding the specified String.
+		 *
+		 * @param theString the String being held
+		 * @return the index of the entry
+		 */
+		private int utf8(final String theString) {
+			return constant("U" + theString, 1, theString);
+		}
+
+		/**
+		 * Returns the index of the constant pool entry referring to the specified class.
+		 *
+		 * @param theName the internal name of the class
+		 * @return the index of the entry
+		 */
+		private int classRef(final String theName) {
+			return constant("C" + theName, 7, utf8(theName));
+		}
+
+		/**
+		 * Returns the index of the constant pool entry referring to the specified method.
+		 *
+		 * @param theOwner		the internal name of the class declaring the method
+		 * @param theName		the name of the method
+		 * @param theDescriptor	the descriptor of the method
+		 * @return the index of the entry
+		 */
+		private int methodRef(final String theOwner, final String theName,
+		    final String theDescriptor) {
+			final int nameAndType = constant("N" + theName + theDescriptor, 12, utf8(theName),
+			    utf8(theDescriptor));
+			return constant("M" + theOwner + '.' + theName + theDescriptor, 10,
+			    classRef(theOwner), nameAndType);
+		}
+
+		/**
+		 * Returns the class file of a public final class implementing ToDoubleFunction with
+		 * a public no-argument constructor, the generated static eval method and an
+		 * applyAsDouble method calling it.
+		 *
+		 * @return the bytes of the class file
+		 */
+		private byte[] classFile() {
+			final int thisClass = classRef(CLASS_NAME);
+			final int superClass = classRef("java/lang/Object");
+			final int function = classRef("java/util/function/ToDoubleFunction");
+			final int code = utf8("Code");
+
+			final ByteArrayOutputStream constructor = new ByteArrayOutputStream();
+			constructor.write(0x2a); // aload_0
+			constructor.write(0xb7); // invokespecial
+			writeShort(constructor, methodRef("java/lang/Object", "<init>", "()V"));
+			constructor.write(0xb1); // return
+
+			final ByteArrayOutputStream bridge = new ByteArrayOutputStream();
+			bridge.write(0x2b); // aload_1
+			bridge.write(0xc0); // checkcast
+			writeShort(bridge, classRef("[D"));
+			bridge.write(0xb8); // invokestatic
+			writeShort(bridge, methodRef(CLASS_NAME, "eval", EVAL_DESCRIPTOR));
+			bridge.write(0xaf); // dreturn
+
+			final int[] names = {utf8("<init>"), utf8("eval"), utf8("applyAsDouble")};
+			final int[] descriptors = {utf8("()V"), utf8(EVAL_DESCRIPTOR),
+			    utf8("(Ljava/lang/Object;)D")};
+
+			final ByteArrayOutputStream result = new ByteArrayOutputStream();
+			writeShort(result, 0xcafe);
+			writeShort(result, 0xbabe);
+			writeShort(result, 0);
+			writeShort(result, CLASS_VERSION);
+			writeShort(result, myPoolCount);
+			result.writeBytes(myPool.toByteArray());
+			writeShort(result, 0x0031); // public final super
+			writeShort(result, thisClass);
+			writeShort(result, superClass);
+			writeShort(result, 1);
+			writeShort(result, function);
+			writeShort(result, 0); // no fields
+			writeShort(result, 3);
+			writeMethod(result, 0x0001, names[0], descriptors[0], code, 1, 1, constructor);
+			writeMethod(result, 0x0009, names[1], descriptors[1], code, myMaxStack,
+			    myNextLocal, myCode);
+			writeMethod(result, 0x0001, names[2], descriptors[2], code, 2, 2, bridge);
+			writeShort(result, 0); // no attributes
+			return result.toByteArray();
+		}
+
+		/**
+		 * Defines a hidden class from the specified class file and returns a new instance of
+		 * it, or null if the runtime does not support defining classes, such as an image
+		 * compiled ahead of time.
+		 *
+		 * @param theClassFile the bytes of the class file
+		 * @return a new instance of the hidden class, or null if it cannot be defined
+		 */
+		@SuppressWarnings("unchecked")
+		private static ToDoubleFunction<double[]> define(final byte[] theClassFile) {
+			ToDoubleFunction<double[]> result = null;
+			try {
+				result = (ToDoubleFunction<double[]>) LOOKUP.defineHiddenClass(theClassFile, true)
+				    .lookupClass().getDeclaredConstructor().newInstance();
+			} catch (final UnsupportedOperationException | SecurityException theException) {
+				result = null;
+			} catch (final ReflectiveOperationException theException) {
+				throw new IllegalStateException("cannot define the generated class",
+				    theException);
+			}
+			return result;
+		}
+
+		/**
+		 * Writes a method with a Code attribute holding the specified bytecode and no
+		 * exception handlers.
+		 *
+		 * @param theOut		the stream the method is written to
+		 * @param theAccess		the access flags of the method
+		 * @param theName		the constant pool index of the name of the method
+		 * @param theDescriptor	the constant pool index of the descriptor of the method
+		 * @param theCodeName	the constant pool index of the String "Code"
+		 * @param theMaxStack	the greatest depth of the operand stack, in slots
+		 * @param theMaxLocals	the number of local variable slots
+		 * @param theCode		the bytecode of the method
+		 */
+		private static void writeMethod(final ByteArrayOutputStream theOut, final int theAccess,
+		    final int theName, final int theDescriptor, final int theCodeName,
+		    final int theMaxStack, final int theMaxLocals, final ByteArrayOutputStream theCode) {
+			writeShort(theOut, theAccess);
+			writeShort(theOut, theName);
+			writeShort(theOut, theDescriptor);
+			writeShort(theOut, 1);
+			writeShort(theOut, theCodeName);
+			final int length = 12 + theCode.size();
+			writeShort(theOut, length >>> 16);
+			writeShort(theOut, length);
+			writeShort(theOut, theMaxStack);
+			writeShort(theOut, theMaxLocals);
+			writeShort(theOut, theCode.size() >>> 16);
+			writeShort(theOut, theCode.size());
+			theOut.writeBytes(theCode.toByteArray());
+			writeShort(theOut, 0); // no exception handlers
+			writeShort(theOut, 0); // no attributes
+		}
+
+		/**
+		 * Writes the low two bytes of the specified value, the high byte first.
+		 *
+		 * @param theOut	the stream the bytes are written to
+		 * @param theValue	the value being written
+		 */
+		private static void writeShort(final ByteArrayOutputStream theOut, final int theValue) {
+			theOut.write(theValue >>> 8);
+			theOut.write(theValue);
+		}
+	}
+
+}
@@ -0,0 +1,245 @@
+/**
+ * Canonicalizer - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import structures.BinaryTreeNode;
+
+/**
+ * Canonicalizer rewrites a mathematical expression into a canonical form in which the
+ * operands of every addition and multiplication are in a fixed order, so expressions which
+ * differ only in the order or grouping of those operands, such as "x * 5" and "5 * x", become
+ * identical trees.
+ *
+ * A chain of the same commutative operator, such as "a + (b + c)", is flattened, its operands
+ * sorted and the chain rebuilt from the left; a chain longer than a fixed limit keeps its
+ * deeper links as operands of their own, so an expression sharing one chain from many places
+ * is not flattened into an exponentially long list.
+ *
+ * The order sorts by kind first, constants before variables before functions before
+ * operators, then constants by value, variables by name, and functions and operators by
+ * element, structural hash and finally their children. Structurally equal subtrees of the
+ * result are the same node, so the order compares them in constant time.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class Canonicalizer {
+
+	/** The largest number of operands flattened into a single chain. */
+	private static final int MAX_CHAIN = 256;
+
+	/** The rank of a numeric constant. */
+	private static final int RANK_NUMBER = 0;
+
+	/** The rank of a variable, with or without a coefficient. */
+	private static final int RANK_VARIABLE = 1;
+
+	/** The rank of a function. */
+	private static final int RANK_FUNCTION = 2;
+
+	/** The rank of an operator. */
+	private static final int RANK_OPERATOR = 3;
+
+	/** A private constructor to inhibit external instantiation. */
+	private Canonicalizer() {
+		// do nothing
+	}
+
+	/**
+	 * Returns a binary tree node representing the canonical form of the specified root's
+	 * equivalent expression. Every distinct node is visited once.
+	 *
+	 * @param theRoot the root node representing the expression being canonicalized
+	 * @return a binary tree node representing the canonical expression
+	 */
+	public static BinaryTreeNode<String> canonicalize(final BinaryTreeNode<String> theRoot) {
+		return new Pass().canonicalize(theRoot);
+	}
+
+	/**
+	 * Returns true if the specified operator is commutative.
+	 *
+	 * @param theOperator the operator being examined
+	 * @return true if the operator is "+" or "*"; otherwise false
+	 */
+	public static boolean isCommutative(final String theOperator) {
+		return theOperator.equals("+") || theOperator.equals("*");
+	}
+
+	/**
+	 * Returns the rank of the kind of the specified node in the canonical order: numeric
+	 * constants first, then variables, functions and operators.
+	 *
+	 * @param theNode the node being ranked
+	 * @return the rank of the node's kind
+	 */
+	static int rank(final BinaryTreeNode<String> theNode) {
+		final String element = theNode.getElement();
+		int result = RANK_VARIABLE;
+		if (Differentiator.isOperator(element)) {
+			result = RANK_OPERATOR;
+		} else if (ExpressionParser.isFunction(element)) {
+			result = RANK_FUNCTION;
+		} else if (ExpressionParser.isNumber(element)) {
+			result = RANK_NUMBER;
+		}
+		return result;
+	}
+
+	// INNER CLASS PASS
+
+	/**
+	 * Inner class to represent a single canonicalization, holding the canonical form and
+	 * structural hash of every node it has visited.
+	 */
+	private static final class Pass implements Comparator<BinaryTreeNode<String>> {
+
+		/** The canonical form of every visited node, by node identity. */
+		private final Map<BinaryTreeNode<String>, BinaryTreeNode<String>> myCanonical =
+		    new IdentityHashMap<>();
+
+		/** The structural hash of every canonical node, by node identity. */
+		private final Map<BinaryTreeNode<String>, Integer> myHashes = new IdentityHashMap<>();
+
+		/** The id of every canonical node, by node identity. */
+		private final Map<BinaryTreeNode<String>, Integer> myIds = new IdentityHashMap<>();
+
+		/** The canonical node of every distinct structure, by its element and child ids. */
+		private final Map<String, BinaryTreeNode<String>> myInterned = new HashMap<>();
+
+		/**
+		 * Returns the canonical form of the specified root.
+		 *
+		 * @param theRoot the root node being canonicalized
+		 * @return the canonical node of the root
+		 */
+		BinaryTreeNode<String> canonicalize(final BinaryTreeNode<String> theRoot) {
+			BinaryTreeNode<String> result = myCanonical.get(theRoot);
+			if (result == null) {
+				ResourceGovernor.checkpoint();
+				final String element = theRoot.getElement();
+				if (isCommutative(element)) {
+					final List<BinaryTreeNode<String>> operands = new ArrayList<>();
+					flatten(theRoot, element, operands);
+					operands.sort(this);
+					result = operands.get(0);
+					for (int i = 1; i < operands.size(); i++) {
+						result = intern(element, result, operands.get(i));
+					}
+				} else {
+					final BinaryTreeNode<String> left =
+					    theRoot.getLeft() == null ? null : canonicalize(theRoot.getLeft());
+					final BinaryTreeNode<String> right =
+					    theRoot.getRight() == null ? null : canonicalize(theRoot.getRight());
+					result = intern(element, left, right);
+				}
+				myCanonical.put(theRoot, result);
+			}
+			return result;
+		}
+
+		/**
+		 * Adds the canonical forms of the operands of the specified chain of the specified
+		 * operator to the specified list, up to the largest chain length.
+		 *
+		 * @param theRoot		the root node of the chain
+		 * @param theOperator	the operator of the chain
+		 * @param theOperands	the operands found so far
+		 */
+		private void flatten(final BinaryTreeNode<String> theRoot, final String theOperator,
+		    final List<BinaryTreeNode<String>> theOperands) {
+			if (theRoot.getElement().equals(theOperator) && theOperands.size() < MAX_CHAIN) {
+				ResourceGovernor.checkpoint();
+				flatten(theRoot.getLeft(), theOperator, theOperands);
+				flatten(theRoot.getRight(), theOperator, theOperands);
+			} else {
+				theOperands.add(canonicalize(theRoot));
+			}
+		}
+
+		/**
+		 * Returns the canonical node of the specified element and canonical children, the
+		 * same node for every structurally equal subtree of this pass.
+		 *
+		 * @param theElement	the element of the node
+		 * @param theLeft		the canonical left child, or null
+		 * @param theRight		the canonical right child, or null
+		 * @return the canonical node
+		 */
+		private BinaryTreeNode<String> intern(final String theElement,
+		    final BinaryTreeNode<String> theLeft, final BinaryTreeNode<String> theRight) {
+			final int leftId = theLeft == null ? -1 : myIds.get(theLeft);
+			final int rightId = theRight == null ? -1 : myIds.get(theRight);
+			final String key = theElement + "(" + leftId + "," + rightId + ")";
+			BinaryTreeNode<String> result = myInterned.get(key);
+			if (result == null) {
+				result = new BinaryTreeNode<String>(theElement, theLeft, theRight);
+				myInterned.put(key, result);
+				myIds.put(result, myIds.size());
+				myHashes.put(result, 31 * (31 * theElement.hashCode() + hash(theLeft)) +
+				    hash(theRight));
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the structural hash of the specified canonical node, or zero for null.
+		 *
+		 * @param theNode the canonical node, or null
+		 * @return the structural hash of the node
+		 */
+		private int hash(final BinaryTreeNode<String> theNode) {
+			return theNode == null ? 0 : myHashes.get(theNode);
+		}
+
+		/**
+		 * Compares the specified canonical nodes in the canonical order.
+		 *
+		 * @param theFirst	the first canonical node
+		 * @param theSecond	the second canonical node
+		 * @return a negative number, zero or a positive number as the first node comes before,
+		 *         is equal to or comes after the second
+		 */
+		@Override
+		public int compare(final BinaryTreeNode<String> theFirst,
+		    final BinaryTreeNode<String> theSecond) {
+			int result = 0;
+			if (theFirst != theSecond && theFirst != null && theSecond != null) {
+				final String first = theFirst.getElement();
+				final String second = theSecond.getElement();
+				result = Integer.compare(rank(theFirst), rank(theSecond));
+				if (result == 0 && rank(theFirst) == RANK_NUMBER) {
+					result = Double.compare(Constant.valueOf(first).doubleValue(),
+					    Constant.valueOf(second).doubleValue());
+				} else if (result == 0 && rank(theFirst) == RANK_VARIABLE) {
+					result = ExpressionParser.getSymbol(first).compareTo(
+					    ExpressionParser.getSymbol(second));
+				}
+				if (result == 0) {
+					result = first.compareTo(second);
+				}
+				if (result == 0) {
+					result = Integer.compare(hash(theFirst), hash(theSecond));
+				}
+				if (result == 0) {
+					result = compare(theFirst.getLeft(), theSecond.getLeft());
+				}
+				if (result == 0) {
+					result = compare(theFirst.getRight(), theSecond.getRight());
+				}
+			} else if (theFirst != theSecond) {
+				result = theFirst == null ? -1 : 1;
+			}
+			return result;
+		}
+	}
+
+}
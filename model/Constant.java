@@ -0,0 +1,661 @@
+/**
+ * Constant - Derivatives Calculator
+ */
+
+package model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import structures.BinaryTreeNode;
+
+/**
+ * Constant is an immutable numeric constant of the numeric tower used when folding constants.
+ * In the EXACT mode constants are rationals of two longs, promoted to BigIntegers only when a
+ * result overflows, so sums such as "0.1 + 0.2" fold to exactly "0.3". In the DECIMAL mode
+ * constants are BigDecimals rounded to DECIMAL_CONTEXT, and in the DOUBLE mode they are
+ * doubles. A constant which cannot be represented exactly, such as "2 ^ 0.5", is a double.
+ *
+ * Every constant is written in a single deterministic form: without a fraction if it is an
+ * integer, and without an exponent otherwise. Parsed leaves are cached, so the constants of a
+ * tree are parsed once however many times the tree is simplified. An exact fraction without
+ * a finite decimal expansion, such as 1/3, is put back into a tree as the quotient "1 / 3"
+ * rather than as a rounded leaf, so folding it again is still exact.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public final class Constant {
+
+	/** The precision of DECIMAL constants and of the decimals of non-terminating fractions. */
+	public static final MathContext DECIMAL_CONTEXT = MathContext.DECIMAL64;
+
+	/** The number of parsed leaves cached before the cache is cleared. */
+	private static final int CACHE_CAPACITY = 4096;
+
+	/** The largest number of bits of an exact power before it is computed as a double. */
+	private static final int MAX_EXACT_BITS = 4096;
+
+	/** The longest String of digits which always fits in a long. */
+	private static final int MAX_LONG_DIGITS = 18;
+
+	/** The parsed constant of every recently parsed leaf. */
+	private static final Map<String, Constant> CACHE = new ConcurrentHashMap<String, Constant>();
+
+	/** The mode of the constants parsed from leaves. */
+	private static volatile Mode myMode = Mode.EXACT;
+
+	/** The mode this constant was computed in. */
+	private final Mode myKind;
+
+	/** The numerator of an exact constant which fits in a long. */
+	private final long myNumerator;
+
+	/** The positive denominator of an exact constant which fits in a long. */
+	private final long myDenominator;
+
+	/** The numerator of an exact constant which overflows a long, otherwise null. */
+	private final BigInteger myBigNumerator;
+
+	/** The positive denominator of an exact constant which overflows a long, otherwise null. */
+	private final BigInteger myBigDenominator;
+
+	/** The value of a DECIMAL constant, otherwise null. */
+	private final BigDecimal myDecimal;
+
+	/** The value of a DOUBLE constant. */
+	private final double myDouble;
+
+	/**
+	 * Creates a constant of the specified kind holding the specified values.
+	 *
+	 * @param theKind			the mode the constant was computed in
+	 * @param theNumerator		the numerator of an exact constant which fits in a long
+	 * @param theDenominator	the denominator of an exact constant which fits in a long
+	 * @param theBigNumerator	the numerator of an exact constant which overflows a long
+	 * @param theBigDenominator	the denominator of an exact constant which overflows a long
+	 * @param theDecimal		the value of a DECIMAL constant
+	 * @param theDouble			the value of a DOUBLE constant
+	 */
+	private Constant(final Mode theKind, final long theNumerator, final long theDenominator,
+	    final BigInteger theBigNumerator, final BigInteger theBigDenominator,
+	    final BigDecimal theDecimal, final double theDouble) {
+		myKind = theKind;
+		myNumerator = theNumerator;
+		myDenominator = theDenominator;
+		myBigNumerator = theBigNumerator;
+		myBigDenominator = theBigDenominator;
+		myDecimal = theDecimal;
+		myDouble = theDouble;
+	}
+
+	/**
+	 * Sets the mode of the constants parsed from leaves, clearing the parsed leaves.
+	 *
+	 * @param theMode the mode of the constants parsed from leaves
+	 */
+	public static void setMode(final Mode theMode) {
+		myMode = theMode;
+		CACHE.clear();
+	}
+
+	/**
+	 * Returns the mode of the constants parsed from leaves.
+	 *
+	 * @return the mode of the constants parsed from leaves
+	 */
+	public static Mode getMode() {
+		return myMode;
+	}
+
+	/**
+	 * Returns the constant of the specified leaf in the current mode. A leaf which is not a
+	 * number of the form "-12.5", such as "Infinity", is parsed as a double.
+	 *
+	 * @param theLeaf the leaf holding a number
+	 * @return the constant of the leaf
+	 * @throws NumberFormatException if the leaf is not a number
+	 */
+	public static Constant valueOf(final String theLeaf) {
+		Constant result = CACHE.get(theLeaf);
+		if (result == null) {
+			result = parse(theLeaf, myMode);
+			if (CACHE.size() >= CACHE_CAPACITY) {
+				CACHE.clear();
+			}
+			CACHE.put(theLeaf, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the constant of the specified node in the current mode: a leaf holding a number
+	 * or the quotient of two such leaves, as written by toNode.
+	 *
+	 * @param theNode the node being read
+	 * @return the constant of the node, or null if the node is not a constant
+	 */
+	public static Constant valueOf(final BinaryTreeNode<String> theNode) {
+		Constant result = null;
+		final BinaryTreeNode<String> left = theNode.getLeft();
+		final BinaryTreeNode<String> right = theNode.getRight();
+		if (left == null && right == null) {
+			if (ExpressionParser.isNumber(theNode.getElement())) {
+				result = valueOf(theNode.getElement());
+			}
+		} else if (theNode.getElement().equals("/") && left != null && right != null &&
+		    left.getLeft() == null && right.getLeft() == null) {
+			final Constant dividend = valueOf(left);
+			final Constant divisor = valueOf(right);
+			if (dividend != null && divisor != null) {
+				result = dividend.divide(divisor);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the exact constant of the specified integer.
+	 *
+	 * @param theValue the value of the constant
+	 * @return the exact constant of the integer
+	 */
+	public static Constant valueOf(final long theValue) {
+		return new Constant(Mode.EXACT, theValue, 1, null, null, null, 0);
+	}
+
+	/**
+	 * Returns the DOUBLE constant of the specified value.
+	 *
+	 * @param theValue the value of the constant
+	 * @return the DOUBLE constant of the value
+	 */
+	public static Constant valueOf(final double theValue) {
+		return new Constant(Mode.DOUBLE, 0, 1, null, null, null, theValue);
+	}
+
+	/**
+	 * Returns the constant of the specified leaf in the specified mode.
+	 *
+	 * @param theLeaf	the leaf holding a number
+	 * @param theMode	the mode of the constant
+	 * @return the constant of the leaf
+	 */
+	private static Constant parse(final String theLeaf, final Mode theMode) {
+		Constant result = null;
+		if (!ExpressionParser.isNumber(theLeaf) || theMode == Mode.DOUBLE) {
+			result = valueOf(Double.parseDouble(theLeaf));
+		} else if (theMode == Mode.DECIMAL) {
+			result = decimal(new BigDecimal(theLeaf));
+		} else if (theLeaf.indexOf('.') < 0 && theLeaf.length() <= MAX_LONG_DIGITS) {
+			result = valueOf(Long.parseLong(theLeaf));
+		} else {
+			final BigDecimal value = new BigDecimal(theLeaf);
+			result = value.scale() > 0 ?
+			    rational(value.unscaledValue(), BigInteger.TEN.pow(value.scale())) :
+			    rational(value.toBigIntegerExact(), BigInteger.ONE);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the DECIMAL constant of the specified value.
+	 *
+	 * @param theValue the value of the constant
+	 * @return the DECIMAL constant of the value
+	 */
+	private static Constant decimal(final BigDecimal theValue) {
+		return new Constant(Mode.DECIMAL, 0, 1, null, null, theValue, 0);
+	}
+
+	/**
+	 * Returns the exact constant of the specified fraction in lowest terms.
+	 *
+	 * @param theNumerator		the numerator of the fraction
+	 * @param theDenominator	the non-zero denominator of the fraction
+	 * @return the exact constant of the fraction
+	 */
+	private static Constant rational(final long theNumerator, final long theDenominator) {
+		Constant result = null;
+		if (theNumerator == Long.MIN_VALUE || theDenominator == Long.MIN_VALUE) {
+			result = rational(BigInteger.valueOf(theNumerator),
+			    BigInteger.valueOf(theDenominator));
+		} else {
+			final long gcd = gcd(Math.abs(theNumerator), Math.abs(theDenominator));
+			final long sign = theDenominator < 0 ? -1 : 1;
+			result = new Constant(Mode.EXACT, sign * theNumerator / gcd,
+			    sign * theDenominator / gcd, null, null, null, 0);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the exact constant of the specified fraction in lowest terms, held in longs if
+	 * it fits.
+	 *
+	 * @param theNumerator		the numerator of the fraction
+	 * @param theDenominator	the non-zero denominator of the fraction
+	 * @return the exact constant of the fraction
+	 */
+	private static Constant rational(final BigInteger theNumerator,
+	    final BigInteger theDenominator) {
+		final BigInteger gcd = theNumerator.gcd(theDenominator);
+		BigInteger numerator = theNumerator.divide(gcd);
+		BigInteger denominator = theDenominator.divide(gcd);
+		if (denominator.signum() < 0) {
+			numerator = numerator.negate();
+			denominator = denominator.negate();
+		}
+		Constant result = null;
+		if (numerator.bitLength() < Long.SIZE && denominator.bitLength() < Long.SIZE) {
+			result = new Constant(Mode.EXACT, numerator.longValue(), denominator.longValue(),
+			    null, null, null, 0);
+		} else {
+			result = new Constant(Mode.EXACT, 0, 1, numerator, denominator, null, 0);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the greatest common divisor of the specified non-negative numbers.
+	 *
+	 * @param theFirst	the first non-negative number
+	 * @param theSecond	the second non-negative number
+	 * @return the greatest common divisor of the two numbers
+	 */
+	private static long gcd(final long theFirst, final long theSecond) {
+		long first = theFirst;
+		long second = theSecond;
+		while (second != 0) {
+			final long remainder = first % second;
+			first = second;
+			second = remainder;
+		}
+		return first == 0 ? 1 : first;
+	}
+
+	/**
+	 * Returns the sum of this constant and the specified constant.
+	 *
+	 * @param theOther the constant being added
+	 * @return the sum of the two constants
+	 */
+	public Constant add(final Constant theOther) {
+		Constant result = null;
+		final Mode kind = kind(theOther);
+		if (kind == Mode.DOUBLE) {
+			result = valueOf(doubleValue() + theOther.doubleValue());
+		} else if (kind == Mode.DECIMAL) {
+			result = decimal(decimalValue().add(theOther.decimalValue(), DECIMAL_CONTEXT));
+		} else if (isLong() && theOther.isLong()) {
+			try {
+				result = rational(Math.addExact(
+				    Math.multiplyExact(myNumerator, theOther.myDenominator),
+				    Math.multiplyExact(theOther.myNumerator, myDenominator)),
+				    Math.multiplyExact(myDenominator, theOther.myDenominator));
+			} catch (final ArithmeticException theException) {
+				result = null;
+			}
+		}
+		if (result == null) {
+			result = rational(numerator().multiply(theOther.denominator())
+			    .add(theOther.numerator().multiply(denominator())),
+			    denominator().multiply(theOther.denominator()));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the difference of this constant and the specified constant.
+	 *
+	 * @param theOther the constant being subtracted
+	 * @return the difference of the two constants
+	 */
+	public Constant subtract(final Constant theOther) {
+		return add(theOther.negate());
+	}
+
+	/**
+	 * Returns the product of this constant and the specified constant.
+	 *
+	 * @param theOther the constant being multiplied
+	 * @return the product of the two constants
+	 */
+	public Constant multiply(final Constant theOther) {
+		Constant result = null;
+		final Mode kind = kind(theOther);
+		if (kind == Mode.DOUBLE) {
+			result = valueOf(doubleValue() * theOther.doubleValue());
+		} else if (kind == Mode.DECIMAL) {
+			result = decimal(decimalValue().multiply(theOther.decimalValue(), DECIMAL_CONTEXT));
+		} else if (isLong() && theOther.isLong()) {
+			try {
+				result = rational(Math.multiplyExact(myNumerator, theOther.myNumerator),
+				    Math.multiplyExact(myDenominator, theOther.myDenominator));
+			} catch (final ArithmeticException theException) {
+				result = null;
+			}
+		}
+		if (result == null) {
+			result = rational(numerator().multiply(theOther.numerator()),
+			    denominator().multiply(theOther.denominator()));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the quotient of this constant and the specified constant. A division by zero
+	 * is a double, such as Infinity or NaN.
+	 *
+	 * @param theOther the divisor
+	 * @return the quotient of the two constants
+	 */
+	public Constant divide(final Constant theOther) {
+		Constant result = null;
+		final Mode kind = kind(theOther);
+		if (kind == Mode.DOUBLE || theOther.isZero()) {
+			result = valueOf(doubleValue() / theOther.doubleValue());
+		} else if (kind == Mode.DECIMAL) {
+			result = decimal(decimalValue().divide(theOther.decimalValue(), DECIMAL_CONTEXT));
+		} else {
+			result = multiply(theOther.reciprocal());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this constant raised to the specified exponent. The power is exact if this
+	 * constant is exact and the exponent is a small integer, and a double otherwise.
+	 *
+	 * @param theExponent the exponent
+	 * @return the power of this constant
+	 */
+	public Constant pow(final Constant theExponent) {
+		Constant result = null;
+		final Mode kind = kind(theExponent);
+		final boolean isInteger = theExponent.isInteger() &&
+		    Math.abs(theExponent.doubleValue()) <= Integer.MAX_VALUE;
+		final int exponent = isInteger ? (int) theExponent.doubleValue() : 0;
+		if (!isInteger || kind == Mode.DOUBLE || isZero() && exponent < 0) {
+			result = valueOf(Math.pow(doubleValue(), theExponent.doubleValue()));
+		} else if (kind == Mode.DECIMAL) {
+			result = decimal(decimalValue().pow(exponent, DECIMAL_CONTEXT));
+		} else if ((long) Math.max(numerator().bitLength(), denominator().bitLength()) *
+		    Math.abs(exponent) <= MAX_EXACT_BITS) {
+			final Constant power = rational(numerator().pow(Math.abs(exponent)),
+			    denominator().pow(Math.abs(exponent)));
+			result = exponent < 0 ? power.reciprocal() : power;
+		} else {
+			result = valueOf(Math.pow(doubleValue(), theExponent.doubleValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the negation of this constant.
+	 *
+	 * @return the negation of this constant
+	 */
+	public Constant negate() {
+		Constant result = null;
+		if (myKind == Mode.DOUBLE) {
+			result = valueOf(-myDouble);
+		} else if (myKind == Mode.DECIMAL) {
+			result = decimal(myDecimal.negate());
+		} else if (isLong()) {
+			result = rational(-myNumerator, myDenominator);
+		} else {
+			result = rational(myBigNumerator.negate(), myBigDenominator);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the reciprocal of this non-zero exact constant.
+	 *
+	 * @return the reciprocal of this constant
+	 */
+	private Constant reciprocal() {
+		return isLong() ? rational(myDenominator, myNumerator) :
+		    rational(myBigDenominator, myBigNumerator);
+	}
+
+	/**
+	 * Returns the mode of the result of an operation on this constant and the specified
+	 * constant, which is the least exact of their two modes.
+	 *
+	 * @param theOther the other operand
+	 * @return the mode of the result
+	 */
+	private Mode kind(final Constant theOther) {
+		return myKind.compareTo(theOther.myKind) >= 0 ? myKind : theOther.myKind;
+	}
+
+	/**
+	 * Returns true if this constant is exact and held in longs.
+	 *
+	 * @return true if this constant is exact and held in longs; otherwise false
+	 */
+	private boolean isLong() {
+		return myKind == Mode.EXACT && myBigNumerator == null;
+	}
+
+	/**
+	 * Returns the numerator of this exact constant.
+	 *
+	 * @return the numerator of this exact constant
+	 */
+	private BigInteger numerator() {
+		return myBigNumerator == null ? BigInteger.valueOf(myNumerator) : myBigNumerator;
+	}
+
+	/**
+	 * Returns the denominator of this exact constant.
+	 *
+	 * @return the denominator of this exact constant
+	 */
+	private BigInteger denominator() {
+		return myBigDenominator == null ? BigInteger.valueOf(myDenominator) : myBigDenominator;
+	}
+
+	/**
+	 * Returns the mode this constant was computed in.
+	 *
+	 * @return the mode this constant was computed in
+	 */
+	public Mode getKind() {
+		return myKind;
+	}
+
+	/**
+	 * Returns the sign of this constant: -1, 0 or 1.
+	 *
+	 * @return the sign of this constant
+	 */
+	public int signum() {
+		int result = 0;
+		if (myKind == Mode.DOUBLE) {
+			result = (int) Math.signum(myDouble);
+		} else if (myKind == Mode.DECIMAL) {
+			result = myDecimal.signum();
+		} else {
+			result = isLong() ? Long.signum(myNumerator) : myBigNumerator.signum();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this constant is zero.
+	 *
+	 * @return true if this constant is zero; otherwise false
+	 */
+	public boolean isZero() {
+		return signum() == 0 && !Double.isNaN(myDouble);
+	}
+
+	/**
+	 * Returns true if this constant is one.
+	 *
+	 * @return true if this constant is one; otherwise false
+	 */
+	public boolean isOne() {
+		boolean result = false;
+		if (myKind == Mode.DOUBLE) {
+			result = myDouble == 1;
+		} else if (myKind == Mode.DECIMAL) {
+			result = myDecimal.compareTo(BigDecimal.ONE) == 0;
+		} else {
+			result = isLong() && myNumerator == 1 && myDenominator == 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this constant is an integer.
+	 *
+	 * @return true if this constant is an integer; otherwise false
+	 */
+	public boolean isInteger() {
+		boolean result = false;
+		if (myKind == Mode.DOUBLE) {
+			result = Double.isFinite(myDouble) && myDouble == Math.rint(myDouble);
+		} else if (myKind == Mode.DECIMAL) {
+			result = myDecimal.signum() == 0 || myDecimal.stripTrailingZeros().scale() <= 0;
+		} else {
+			result = isLong() ? myDenominator == 1 : myBigDenominator.equals(BigInteger.ONE);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this constant is a finite number.
+	 *
+	 * @return true if this constant is a finite number; otherwise false
+	 */
+	public boolean isFinite() {
+		return myKind != Mode.DOUBLE || Double.isFinite(myDouble);
+	}
+
+	/**
+	 * Returns the nearest double to this constant.
+	 *
+	 * @return the nearest double to this constant
+	 */
+	public double doubleValue() {
+		double result = myDouble;
+		if (myKind == Mode.DECIMAL) {
+			result = myDecimal.doubleValue();
+		} else if (myKind == Mode.EXACT) {
+			result = isLong() && Math.abs(myNumerator) < 1L << 53 && myDenominator < 1L << 53 ?
+			    (double) myNumerator / myDenominator : decimalValue().doubleValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this exact or DECIMAL constant as a BigDecimal, rounded to DECIMAL_CONTEXT if
+	 * it has no finite decimal expansion.
+	 *
+	 * @return this constant as a BigDecimal
+	 */
+	private BigDecimal decimalValue() {
+		BigDecimal result = myDecimal;
+		if (myKind == Mode.EXACT) {
+			final BigDecimal numerator = new BigDecimal(numerator());
+			final BigDecimal denominator = new BigDecimal(denominator());
+			result = hasFiniteExpansion() ? numerator.divide(denominator) :
+			    numerator.divide(denominator, DECIMAL_CONTEXT);
+		} else if (myKind == Mode.DOUBLE) {
+			result = BigDecimal.valueOf(myDouble);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this exact constant has a finite decimal expansion, which is when its
+	 * denominator has no prime factors other than two and five.
+	 *
+	 * @return true if this exact constant has a finite decimal expansion; otherwise false
+	 */
+	private boolean hasFiniteExpansion() {
+		BigInteger denominator = denominator();
+		final int twos = denominator.getLowestSetBit();
+		denominator = denominator.shiftRight(twos);
+		final BigInteger five = BigInteger.valueOf(5);
+		BigInteger[] division = denominator.divideAndRemainder(five);
+		while (denominator.compareTo(BigInteger.ONE) > 0 && division[1].signum() == 0) {
+			denominator = division[0];
+			division = denominator.divideAndRemainder(five);
+		}
+		return denominator.equals(BigInteger.ONE);
+	}
+
+	/**
+	 * Returns true if toString writes this constant exactly, which is unless it is an exact
+	 * fraction without a finite decimal expansion.
+	 *
+	 * @return true if toString writes this constant exactly; otherwise false
+	 */
+	public boolean isTerminating() {
+		return myKind != Mode.EXACT || hasFiniteExpansion();
+	}
+
+	/**
+	 * Returns a new node holding this constant: a leaf if it is terminating, and otherwise the
+	 * quotient of its numerator and denominator in lowest terms, such as "1 / 3".
+	 *
+	 * @return a new node holding this constant
+	 */
+	public BinaryTreeNode<String> toNode() {
+		BinaryTreeNode<String> result = null;
+		if (isTerminating()) {
+			result = new BinaryTreeNode<String>(toString());
+		} else {
+			result = new BinaryTreeNode<String>("/",
+			    new BinaryTreeNode<String>(numerator().toString()),
+			    new BinaryTreeNode<String>(denominator().toString()));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this constant as a String: without a fraction if it is an integer, and without
+	 * an exponent otherwise, such as "5", "-0.25" or "0.3333333333333333".
+	 *
+	 * @return this constant as a String
+	 */
+	@Override
+	public String toString() {
+		String result = null;
+		if (myKind == Mode.DOUBLE) {
+			if (!Double.isFinite(myDouble)) {
+				result = String.valueOf(myDouble);
+			} else if (myDouble == Math.rint(myDouble) && Math.abs(myDouble) < 1e15) {
+				result = String.valueOf((long) myDouble);
+			} else {
+				result = BigDecimal.valueOf(myDouble).stripTrailingZeros().toPlainString();
+			}
+		} else if (isLong() && myDenominator == 1) {
+			result = String.valueOf(myNumerator);
+		} else {
+			final BigDecimal value = decimalValue();
+			result = value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+		}
+		return result;
+	}
+
+	/**
+	 * The modes of the numeric tower, from the most exact to the least exact.
+	 */
+	public enum Mode {
+		/** Exact rationals of longs, promoted to BigIntegers on overflow. */
+		EXACT,
+		/** BigDecimals rounded to DECIMAL_CONTEXT. */
+		DECIMAL,
+		/** Doubles. */
+		DOUBLE
+	}
+
+}
@@ -0,0 +1,355 @@
+/**
+ * CorpusReader - Derivatives Calculator
+ */
+
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * CorpusReader streams the lines of a corpus file, one expression per line, to parallel
+ * workers without reading the file through the heap. The file is memory-mapped one region at
+ * a time, every region is split on line boundaries into chunks, and every chunk is handed to a
+ * ForkJoinPool as a slice of the mapping. Its lines reach the workers as CharSequences reading
+ * the mapped bytes directly, which stringToList of the ExpressionParser lexes where they lie.
+ *
+ * At most a few chunks per worker are in flight ahead of the chunk whose results are being
+ * consumed, so the memory used depends on the chunk size and the parallelism but not on the
+ * size of the file. The bytes are read as ISO-8859-1, which reads ASCII expressions as they
+ * are, and a line ends at a line feed, optionally preceded by a carriage return.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class CorpusReader {
+
+	/** The default largest number of bytes of a chunk. */
+	public static final int DEFAULT_CHUNK = 1 << 20;
+
+	/** The default largest number of bytes mapped at once. */
+	public static final int DEFAULT_REGION = 1 << 30;
+
+	/** The smallest number of bytes of a chunk, however small the file. */
+	private static final int MIN_CHUNK = 1 << 12;
+
+	/** The number of chunks per worker in flight ahead of the chunk being consumed. */
+	private static final int WINDOW = 4;
+
+	/** The corpus file. */
+	private final Path myPath;
+
+	/** The largest number of bytes of a chunk. */
+	private final int myChunk;
+
+	/** The largest number of bytes mapped at once. */
+	private final int myRegion;
+
+	/**
+	 * Creates the reader of the specified corpus file, with the default chunk and region
+	 * sizes.
+	 *
+	 * @param thePath the corpus file
+	 */
+	public CorpusReader(final Path thePath) {
+		this(thePath, DEFAULT_CHUNK, DEFAULT_REGION);
+	}
+
+	/**
+	 * Creates the reader of the specified corpus file. A chunk is extended to the end of the
+	 * line it stops in, and no line may be longer than a region.
+	 *
+	 * @param thePath	the corpus file
+	 * @param theChunk	the largest number of bytes of a chunk
+	 * @param theRegion	the largest number of bytes mapped at once
+	 * @throws IllegalArgumentException if the chunk size is not positive or the region is
+	 *         smaller than a chunk
+	 */
+	public CorpusReader(final Path thePath, final int theChunk, final int theRegion) {
+		if (theChunk < 1 || theRegion < theChunk) {
+			throw new IllegalArgumentException("invalid chunk " + theChunk + " or region " +
+			    theRegion);
+		}
+		myPath = thePath;
+		myChunk = theChunk;
+		myRegion = theRegion;
+	}
+
+	/**
+	 * Calls the specified consumer on every line of the corpus, across the specified pool.
+	 * The lines are consumed in no particular order, and a line must not be kept after the
+	 * consumer returns unless it is copied, as it reads a mapping of the file.
+	 *
+	 * @param thePool		the pool consuming the lines
+	 * @param theConsumer	the consumer of every line
+	 * @return the number of lines of the corpus
+	 * @throws IOException if the file cannot be read or has a line longer than a region
+	 */
+	public long forEachLine(final ForkJoinPool thePool, final Consumer<CharSequence> theConsumer)
+	    throws IOException {
+		return mapLines(thePool, line -> {
+			theConsumer.accept(line);
+			return null;
+		}, null);
+	}
+
+	/**
+	 * Applies the specified function to every line of the corpus across the specified pool,
+	 * and passes the results to the specified sink in the order of the lines on the current
+	 * thread. A line must not be kept after the function returns unless it is copied, as it
+	 * reads a mapping of the file.
+	 *
+	 * @param <T>			the type of the results
+	 * @param thePool		the pool applying the function
+	 * @param theFunction	the function applied to every line
+	 * @param theSink		the consumer of the results in the order of the lines, or null
+	 * @return the number of lines of the corpus
+	 * @throws IOException if the file cannot be read or has a line longer than a region
+	 */
+	public <T> long mapLines(final ForkJoinPool thePool,
+	    final Function<CharSequence, T> theFunction, final Consumer<T> theSink)
+	    throws IOException {
+		final Deque<ForkJoinTask<List<T>>> pending = new ArrayDeque<ForkJoinTask<List<T>>>();
+		final int window = WINDOW * thePool.getParallelism();
+		long result = 0;
+		try (FileChannel channel = FileChannel.open(myPath, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			// small files are still split across every worker
+			final int chunk = (int) Math.min(myChunk, Math.max(MIN_CHUNK, size / window));
+			long position = 0;
+			while (position < size) {
+				final int length = (int) Math.min(myRegion, size - position);
+				final boolean isLast = position + length == size;
+				final MappedByteBuffer region =
+				    channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int start = 0;
+				int end = chunkEnd(region, start, chunk, isLast);
+				while (end > start) {
+					pending.add(thePool.submit(
+					    new Chunk<T>(region.slice(start, end - start), theFunction)));
+					if (pending.size() >= window) {
+						result += consume(pending.poll(), theSink);
+					}
+					start = end;
+					end = chunkEnd(region, start, chunk, isLast);
+				}
+				if (start == 0) {
+					throw new IOException("a line of " + myPath + " is longer than " +
+					    myRegion + " bytes");
+				}
+				position += start;
+			}
+			while (!pending.isEmpty()) {
+				result += consume(pending.poll(), theSink);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the corpus file.
+	 *
+	 * @return the corpus file
+	 */
+	public Path getPath() {
+		return myPath;
+	}
+
+	/**
+	 * Returns the end of the chunk of the specified region starting at the specified index:
+	 * the end of the line in which the chunk reaches the specified size, or the end of the
+	 * last complete line if the region ends first. The rest of the last region is a line of
+	 * its own.
+	 *
+	 * @param theRegion	the mapped region
+	 * @param theStart	the start of the chunk, at the start of a line
+	 * @param theChunk	the size of a chunk
+	 * @param theIsLast	whether the region ends at the end of the file
+	 * @return the end of the chunk, exclusive, or the start if no complete line remains
+	 */
+	private static int chunkEnd(final ByteBuffer theRegion, final int theStart,
+	    final int theChunk, final boolean theIsLast) {
+		final int limit = theRegion.limit();
+		final int nominal = (int) Math.min((long) theStart + theChunk, limit);
+		int result = theStart;
+		if (theStart < limit) {
+			int end = nominal - 1;
+			while (end < limit && theRegion.get(end) != '\n') {
+				end++;
+			}
+			if (end < limit) {
+				result = end + 1;
+			} else if (theIsLast) {
+				result = limit;
+			} else {
+				end = nominal - 2;
+				while (end >= theStart && theRegion.get(end) != '\n') {
+					end--;
+				}
+				result = end + 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Waits for the specified chunk and passes its results to the specified sink.
+	 *
+	 * @param <T>		the type of the results
+	 * @param theChunk	the chunk being waited for
+	 * @param theSink	the consumer of the results, or null
+	 * @return the number of lines of the chunk
+	 */
+	private static <T> int consume(final ForkJoinTask<List<T>> theChunk,
+	    final Consumer<T> theSink) {
+		final List<T> results = theChunk.join();
+		if (theSink != null) {
+			for (T result : results) {
+				theSink.accept(result);
+			}
+		}
+		return results.size();
+	}
+
+	// INNER CLASS CHUNK
+
+	/**
+	 * Inner class to represent the task applying a function to every line of a chunk.
+	 *
+	 * @param <T> the type of the results
+	 */
+	private static final class Chunk<T> extends RecursiveTask<List<T>> {
+
+		/** The serial version UID of the task. */
+		private static final long serialVersionUID = 1L;
+
+		/** The bytes of the chunk, a slice of a mapped region. */
+		private final transient ByteBuffer myBytes;
+
+		/** The function applied to every line. */
+		private final transient Function<CharSequence, T> myFunction;
+
+		/**
+		 * Creates the task applying the specified function to every line of the specified
+		 * bytes.
+		 *
+		 * @param theBytes		the bytes of the chunk
+		 * @param theFunction	the function applied to every line
+		 */
+		Chunk(final ByteBuffer theBytes, final Function<CharSequence, T> theFunction) {
+			myBytes = theBytes;
+			myFunction = theFunction;
+		}
+
+		/**
+		 * Returns the result of the function for every line of the chunk, in order.
+		 *
+		 * @return the results of the lines
+		 */
+		@Override
+		protected List<T> compute() {
+			final List<T> result = new ArrayList<T>();
+			final int limit = myBytes.limit();
+			int start = 0;
+			for (int i = 0; i < limit; i++) {
+				if (myBytes.get(i) == '\n') {
+					result.add(myFunction.apply(line(start, i)));
+					start = i + 1;
+				}
+			}
+			if (start < limit) {
+				result.add(myFunction.apply(line(start, limit)));
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the line between the specified indices, without its carriage return.
+		 *
+		 * @param theStart	the start of the line
+		 * @param theEnd	the end of the line, at its line feed or the end of the chunk
+		 * @return the line
+		 */
+		private Line line(final int theStart, final int theEnd) {
+			int end = theEnd;
+			if (end > theStart && myBytes.get(end - 1) == '\r') {
+				end--;
+			}
+			return new Line(myBytes, theStart, end - theStart);
+		}
+	}
+
+	// INNER CLASS LINE
+
+	/**
+	 * Inner class to represent a line of the corpus, reading its characters from the mapped
+	 * bytes rather than from a copy.
+	 */
+	private static final class Line implements CharSequence {
+
+		/** The bytes the line is read from. */
+		private final ByteBuffer myBytes;
+
+		/** The index of the first byte of the line. */
+		private final int myOffset;
+
+		/** The number of bytes of the line. */
+		private final int myLength;
+
+		/**
+		 * Creates the line of the specified bytes.
+		 *
+		 * @param theBytes	the bytes the line is read from
+		 * @param theOffset	the index of the first byte of the line
+		 * @param theLength	the number of bytes of the line
+		 */
+		Line(final ByteBuffer theBytes, final int theOffset, final int theLength) {
+			myBytes = theBytes;
+			myOffset = theOffset;
+			myLength = theLength;
+		}
+
+		@Override
+		public int length() {
+			return myLength;
+		}
+
+		@Override
+		public char charAt(final int theIndex) {
+			if (theIndex < 0 || theIndex >= myLength) {
+				throw new IndexOutOfBoundsException(theIndex);
+			}
+			return (char) (myBytes.get(myOffset + theIndex) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(final int theStart, final int theEnd) {
+			if (theStart < 0 || theEnd > myLength || theStart > theEnd) {
+				throw new IndexOutOfBoundsException("[" + theStart + ", " + theEnd + ")");
+			}
+			return new Line(myBytes, myOffset + theStart, theEnd - theStart);
+		}
+
+		@Override
+		public String toString() {
+			final byte[] bytes = new byte[myLength];
+			myBytes.get(myOffset, bytes);
+			return new String(bytes, StandardCharsets.ISO_8859_1);
+		}
+	}
+
+}
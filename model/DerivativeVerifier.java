@@ -0,0 +1,783 @@
+/**
+ * DerivativeVerifier - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.DoubleUnaryOperator;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+/**
+ * DerivativeVerifier checks the symbolic derivatives of a corpus of expressions numerically,
+ * by comparing them at random sample points against central finite differences refined by
+ * Richardson extrapolation.
+ *
+ * The corpus is parsed, derived and simplified once, one expression after another, since the
+ * Differentiator keeps its state in static fields; both the expressions and their derivatives
+ * are then compiled to closures by the Evaluator and sampled across a ForkJoinPool. A sample
+ * point is conclusive only if every point of its stencil is in the domain of the expression,
+ * the last extrapolations of the difference agree and the derivative is defined, retrying with
+ * a smaller step near poles and domain boundaries and drawing another point otherwise. The
+ * tolerance of a comparison covers the estimated truncation and rounding errors of the
+ * difference on top of a relative tolerance.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public final class DerivativeVerifier {
+
+	/** The relative tolerance of a comparison, on top of the errors of the difference. */
+	private static final double TOLERANCE = 1e-6;
+
+	/** The largest relative error estimate of a difference still conclusive. */
+	private static final double RELIABILITY = 1e-4;
+
+	/** The initial steps of the differences tried at a point, relative to the point. */
+	private static final double[] STEPS = {1e-2, 1e-4};
+
+	/** The number of halved steps extrapolated by a difference. */
+	private static final int LEVELS = 4;
+
+	/** The number of points drawn for a sample before it is inconclusive. */
+	private static final int DRAWS = 8;
+
+	/** The largest number of expressions sampled by a single task. */
+	private static final int CHUNK = 16;
+
+	/** The functions of the generated expressions. */
+	private static final String[] FUNCTIONS = {"sin", "cos", "tan", "sec", "csc", "cot",
+	    "arcsin", "arccos", "arctan", "arcsec", "arccsc", "arccot", "ln", "abs"};
+
+	/** The operators of the generated expressions. */
+	private static final String[] OPERATORS = {"+", "-", "*", "/", "^"};
+
+	/** The variable of differentiation. */
+	private final String myVariable;
+
+	/** The lower bound of the sample points. */
+	private final double myFrom;
+
+	/** The upper bound of the sample points. */
+	private final double myTo;
+
+	/** The compiled expressions of the corpus that can be verified, in corpus order. */
+	private final List<Case> myCases;
+
+	/** The number of expressions of the corpus. */
+	private final int myExpressions;
+
+	/** The number of expressions skipped for being invalid or having another variable. */
+	private final int mySkipped;
+
+	/**
+	 * Creates the verifier of the specified compiled expressions.
+	 *
+	 * @param theVariable		the variable of differentiation
+	 * @param theFrom			the lower bound of the sample points
+	 * @param theTo				the upper bound of the sample points
+	 * @param theCases			the compiled expressions that can be verified
+	 * @param theExpressions	the number of expressions of the corpus
+	 */
+	private DerivativeVerifier(final String theVariable, final double theFrom,
+	    final double theTo, final List<Case> theCases, final int theExpressions) {
+		myVariable = theVariable;
+		myFrom = theFrom;
+		myTo = theTo;
+		myCases = theCases;
+		myExpressions = theExpressions;
+		mySkipped = theExpressions - theCases.size();
+	}
+
+	/**
+	 * Returns the verifier of the specified expressions' derivatives as computed by the
+	 * calculator, derived while they are simplified and then simplified fully, sampled between
+	 * the specified bounds. Every expression is derived as if it were the first one.
+	 *
+	 * @param theExpressions	the expressions in infix notation
+	 * @param theVariable		the variable of differentiation
+	 * @param theFrom			the lower bound of the sample points
+	 * @param theTo				the upper bound of the sample points
+	 * @return the verifier of the expressions
+	 * @throws IllegalArgumentException if the bounds are not a finite nonempty range
+	 */
+	public static DerivativeVerifier compile(final List<String> theExpressions,
+	    final String theVariable, final double theFrom, final double theTo) {
+		return compile(theExpressions, theVariable, theFrom, theTo, DerivativeVerifier::derive);
+	}
+
+	/**
+	 * Returns the verifier of the specified expressions' derivatives as computed by the
+	 * specified differentiation, sampled between the specified bounds. The differentiation is
+	 * called once per expression on the current thread. An expression that is invalid or
+	 * contains a variable other than the variable of differentiation is skipped.
+	 *
+	 * @param theExpressions		the expressions in infix notation
+	 * @param theVariable			the variable of differentiation
+	 * @param theFrom				the lower bound of the sample points
+	 * @param theTo					the upper bound of the sample points
+	 * @param theDifferentiation	the differentiation of a root by a variable of
+	 *        differentiation
+	 * @return the verifier of the expressions
+	 * @throws IllegalArgumentException if the bounds are not a finite nonempty range
+	 */
+	public static DerivativeVerifier compile(final List<String> theExpressions,
+	    final String theVariable, final double theFrom, final double theTo,
+	    final BiFunction<BinaryTreeNode<String>, BinaryTreeNode<String>,
+	        BinaryTreeNode<String>> theDifferentiation) {
+		if (!Double.isFinite(theFrom) || !Double.isFinite(theTo) || !(theFrom < theTo)) {
+			throw new IllegalArgumentException("invalid range [" + theFrom + ", " + theTo +
+			    "]");
+		}
+		final BinaryTreeNode<String> varDiff = new BinaryTreeNode<String>(theVariable);
+		final List<Case> cases = new ArrayList<Case>();
+		for (String expression : theExpressions) {
+			final BinaryTree<String> tree =
+			    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(expression));
+			if (ExpressionParser.getIsValid() && tree != null &&
+			    List.of(theVariable).containsAll(Gradient.variables(tree.getNode()))) {
+				cases.add(new Case(expression, tree.getNode(), varDiff, theDifferentiation));
+			}
+		}
+		return new DerivativeVerifier(theVariable, theFrom, theTo, cases,
+		    theExpressions.size());
+	}
+
+	/**
+	 * Returns the report of comparing every derivative at the specified number of sample
+	 * points, drawn from the specified seed, across the common ForkJoinPool.
+	 *
+	 * @param theSamples	the number of sample points of every expression
+	 * @param theSeed		the seed of the sample points
+	 * @return the report of the verification
+	 */
+	public Report verify(final int theSamples, final long theSeed) {
+		return verify(ForkJoinPool.commonPool(), theSamples, theSeed);
+	}
+
+	/**
+	 * Returns the report of comparing every derivative at the specified number of sample
+	 * points, drawn from the specified seed, across the specified pool. The sample points of an
+	 * expression depend only on the seed and its position in the corpus, so the report does
+	 * not depend on the pool.
+	 *
+	 * @param thePool		the pool running the comparisons
+	 * @param theSamples	the number of sample points of every expression
+	 * @param theSeed		the seed of the sample points
+	 * @return the report of the verification
+	 */
+	public Report verify(final ForkJoinPool thePool, final int theSamples,
+	    final long theSeed) {
+		final long start = System.nanoTime();
+		final Tally tally = new Tally(myCases.size());
+		thePool.invoke(new Chunk(tally, theSamples, theSeed, 0, myCases.size()));
+		final List<Mismatch> mismatches = new ArrayList<Mismatch>();
+		for (Mismatch mismatch : tally.myMismatches) {
+			if (mismatch != null) {
+				mismatches.add(mismatch);
+			}
+		}
+		return new Report(myExpressions, mySkipped, tally.myUnverified.intValue(),
+		    tally.myComparisons.sum(), tally.myInconclusive.sum(),
+		    Collections.unmodifiableList(mismatches), System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the specified number of random expressions of the specified variable, fully
+	 * parenthesized so the parser reads them as generated. Every operator or function node is
+	 * nested at most the specified depth, and the exponents are small integers or one half.
+	 *
+	 * @param theCount		the number of expressions
+	 * @param theDepth		the largest depth of an expression
+	 * @param theVariable	the variable of the expressions
+	 * @param theSeed		the seed of the expressions
+	 * @return the random expressions in infix notation
+	 */
+	public static List<String> generate(final int theCount, final int theDepth,
+	    final String theVariable, final long theSeed) {
+		final SplittableRandom random = new SplittableRandom(theSeed);
+		final List<String> result = new ArrayList<String>(theCount);
+		for (int i = 0; i < theCount; i++) {
+			result.add(generate(random, theDepth, theVariable));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the variable of differentiation.
+	 *
+	 * @return the variable of differentiation
+	 */
+	public String getVariable() {
+		return myVariable;
+	}
+
+	/**
+	 * Returns the number of expressions of the corpus that can be verified.
+	 *
+	 * @return the number of expressions that can be verified
+	 */
+	public int getSize() {
+		return myCases.size();
+	}
+
+	/**
+	 * Returns the derivative of the specified root's expression as computed by the calculator,
+	 * derived while it is simplified and then simplified fully, as if it were the first
+	 * expression derived on the current thread.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theVarDiff	the variable of differentiation represented by a node
+	 * @return the simplified derivative of the expression
+	 */
+	private static BinaryTreeNode<String> derive(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff) {
+		Differentiator.reset();
+		return Simplifier.simplifyFully(Differentiator.deriveSimplified(theRoot, theVarDiff));
+	}
+
+	/**
+	 * Returns a random expression of the specified variable, nested at most the specified
+	 * depth.
+	 *
+	 * @param theRandom		the source of randomness
+	 * @param theDepth		the largest depth of the expression
+	 * @param theVariable	the variable of the expression
+	 * @return the random expression in infix notation
+	 */
+	private static String generate(final SplittableRandom theRandom, final int theDepth,
+	    final String theVariable) {
+		final String result;
+		final int choice = theDepth == 0 ? 2 + theRandom.nextInt(2) : theRandom.nextInt(4);
+		if (choice == 0) {
+			result = FUNCTIONS[theRandom.nextInt(FUNCTIONS.length)] + "(" +
+			    generate(theRandom, theDepth - 1, theVariable) + ")";
+		} else if (choice == 1) {
+			final String operator = OPERATORS[theRandom.nextInt(OPERATORS.length)];
+			final String right;
+			if (operator.equals("^")) {
+				right = theRandom.nextBoolean() ? String.valueOf(2 + theRandom.nextInt(3)) :
+				    "(1 / 2)";
+			} else {
+				right = generate(theRandom, theDepth - 1, theVariable);
+			}
+			result = "(" + generate(theRandom, theDepth - 1, theVariable) + " " + operator +
+			    " " + right + ")";
+		} else if (choice == 2) {
+			result = theVariable;
+		} else {
+			result = String.valueOf(1 + theRandom.nextInt(9));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the central difference of the specified function at the specified point with
+	 * the specified step, extrapolated over LEVELS halved steps, followed by the largest
+	 * difference between its last three extrapolations and the largest magnitude of the
+	 * function on the stencil. Any value is NaN if a point of the stencil is outside the
+	 * domain. Requiring three extrapolations to agree keeps a function oscillating faster than
+	 * the steps from agreeing by chance.
+	 *
+	 * @param theFunction	the function being differentiated
+	 * @param thePoint		the point of the difference
+	 * @param theStep		the first step of the difference
+	 * @return the extrapolated difference, its error estimate and the scale of the function
+	 */
+	private static double[] richardson(final DoubleUnaryOperator theFunction,
+	    final double thePoint, final double theStep) {
+		final double[][] table = new double[LEVELS][];
+		double step = theStep;
+		double scale = 0;
+		for (int i = 0; i < LEVELS; i++) {
+			final double upper = theFunction.applyAsDouble(thePoint + step);
+			final double lower = theFunction.applyAsDouble(thePoint - step);
+			scale = Math.max(scale, Math.max(Math.abs(upper), Math.abs(lower)));
+			table[i] = new double[i + 1];
+			table[i][0] = (upper - lower) / (2 * step);
+			double factor = 1;
+			for (int j = 1; j <= i; j++) {
+				factor *= 4;
+				table[i][j] = table[i][j - 1] + (table[i][j - 1] - table[i - 1][j - 1]) /
+				    (factor - 1);
+			}
+			step /= 2;
+		}
+		final double estimate = table[LEVELS - 1][LEVELS - 1];
+		final double error = Math.max(Math.abs(estimate - table[LEVELS - 2][LEVELS - 2]),
+		    Math.abs(table[LEVELS - 2][LEVELS - 2] - table[LEVELS - 3][LEVELS - 3]));
+		return new double[] {estimate, error, Double.isFinite(scale) ? scale : Double.NaN};
+	}
+
+	// INNER CLASS CASE
+
+	/**
+	 * Inner class to represent an expression of the corpus with its compiled function and
+	 * derivative, or the error raised while deriving or compiling it.
+	 */
+	private static final class Case {
+
+		/** The expression in infix notation. */
+		private final String myExpression;
+
+		/** The derivative in infix notation, or null if it could not be derived. */
+		private final String myDerivative;
+
+		/** The compiled expression, or null if it could not be compiled. */
+		private final DoubleUnaryOperator myFunction;
+
+		/** The compiled derivative, or null if it could not be compiled. */
+		private final DoubleUnaryOperator myCompiledDerivative;
+
+		/** The error raised while deriving or compiling the expression, or null. */
+		private final String myError;
+
+		/**
+		 * Derives and compiles the specified expression.
+		 *
+		 * @param theExpression			the expression in infix notation
+		 * @param theRoot				the root node representing the expression
+		 * @param theVarDiff			the variable of differentiation represented by a node
+		 * @param theDifferentiation	the differentiation of a root by a variable of
+		 *        differentiation
+		 */
+		Case(final String theExpression, final BinaryTreeNode<String> theRoot,
+		    final BinaryTreeNode<String> theVarDiff,
+		    final BiFunction<BinaryTreeNode<String>, BinaryTreeNode<String>,
+		        BinaryTreeNode<String>> theDifferentiation) {
+			String derivative = null;
+			DoubleUnaryOperator function = null;
+			DoubleUnaryOperator compiledDerivative = null;
+			String error = null;
+			try {
+				final BinaryTreeNode<String> root = theDifferentiation.apply(theRoot, theVarDiff);
+				derivative = Differentiator.treeNodeToString(root, 0);
+				function = Evaluator.compile(theRoot, theVarDiff.getElement());
+				compiledDerivative = Evaluator.compile(root, theVarDiff.getElement());
+			} catch (final RuntimeException theError) {
+				error = theError.toString();
+			}
+			myExpression = theExpression;
+			myDerivative = derivative;
+			myFunction = function;
+			myCompiledDerivative = compiledDerivative;
+			myError = error;
+		}
+
+		/**
+		 * Compares the derivative against the extrapolated difference at the specified number
+		 * of sample points, counting them on the specified tally, and returns the first
+		 * mismatch found.
+		 *
+		 * @param theTally		the tally of the verification
+		 * @param theFrom		the lower bound of the sample points
+		 * @param theTo			the upper bound of the sample points
+		 * @param theSamples	the number of sample points
+		 * @param theRandom		the source of the sample points
+		 * @return the first mismatch, or null if the derivative matched at every conclusive
+		 *         sample point
+		 */
+		Mismatch verify(final Tally theTally, final double theFrom, final double theTo,
+		    final int theSamples, final SplittableRandom theRandom) {
+			Mismatch result = null;
+			if (myError != null) {
+				result = new Mismatch(myExpression, myDerivative, Double.NaN, Double.NaN,
+				    Double.NaN, myError);
+			}
+			long comparisons = 0;
+			long inconclusive = 0;
+			for (int sample = 0; sample < theSamples && result == null; sample++) {
+				boolean isConclusive = false;
+				for (int draw = 0; draw < DRAWS && !isConclusive && result == null; draw++) {
+					final double point = theRandom.nextDouble(theFrom, theTo);
+					for (int i = 0; i < STEPS.length && !isConclusive; i++) {
+						final double[] difference = richardson(myFunction, point,
+						    STEPS[i] * Math.max(1, Math.abs(point)));
+						final double estimate = difference[0];
+						final double error = difference[1];
+						final double noise = 64 * Math.ulp(difference[2]) /
+						    (STEPS[i] * Math.max(1, Math.abs(point)) / (1 << (LEVELS - 1)));
+						isConclusive = error + noise <= RELIABILITY * Math.max(1,
+						    Math.abs(estimate));
+						final double symbolic = isConclusive ?
+						    myCompiledDerivative.applyAsDouble(point) : Double.NaN;
+						// the derivative may be undefined where the expression is not, such
+						// as at the removable singularities of x / x
+						isConclusive = Double.isFinite(symbolic);
+						if (isConclusive) {
+							final double tolerance = TOLERANCE * Math.max(1,
+							    Math.abs(estimate)) + 4 * error + noise;
+							if (!(Math.abs(symbolic - estimate) <= tolerance)) {
+								result = new Mismatch(myExpression, myDerivative, point,
+								    symbolic, estimate, null);
+							}
+						}
+					}
+				}
+				if (isConclusive) {
+					comparisons++;
+				} else {
+					inconclusive++;
+				}
+			}
+			theTally.myComparisons.add(comparisons);
+			theTally.myInconclusive.add(inconclusive);
+			if (comparisons == 0 && result == null) {
+				theTally.myUnverified.increment();
+			}
+			return result;
+		}
+	}
+
+	// INNER CLASS TALLY
+
+	/**
+	 * Inner class to represent the counts and mismatches of a verification, shared by its
+	 * tasks.
+	 */
+	private static final class Tally {
+
+		/** The number of conclusive comparisons. */
+		private final LongAdder myComparisons = new LongAdder();
+
+		/** The number of samples without a conclusive point. */
+		private final LongAdder myInconclusive = new LongAdder();
+
+		/** The number of expressions without a conclusive comparison or a mismatch. */
+		private final LongAdder myUnverified = new LongAdder();
+
+		/** The first mismatch of every expression, by position in the corpus. */
+		private final Mismatch[] myMismatches;
+
+		/**
+		 * Creates the empty tally of the specified number of expressions.
+		 *
+		 * @param theSize the number of expressions
+		 */
+		Tally(final int theSize) {
+			myMismatches = new Mismatch[theSize];
+		}
+	}
+
+	// INNER CLASS CHUNK
+
+	/**
+	 * Inner class to represent the task verifying a range of the corpus, split in halves until
+	 * a range has at most CHUNK expressions.
+	 */
+	private final class Chunk extends RecursiveAction {
+
+		/** The serial version UID of the task. */
+		private static final long serialVersionUID = 1L;
+
+		/** The tally of the verification. */
+		private final transient Tally myTally;
+
+		/** The number of sample points of every expression. */
+		private final int mySamples;
+
+		/** The seed of the sample points. */
+		private final long mySeed;
+
+		/** The first index of the range, inclusive. */
+		private final int myFirst;
+
+		/** The last index of the range, exclusive. */
+		private final int myLast;
+
+		/**
+		 * Creates the task verifying the specified range of the corpus.
+		 *
+		 * @param theTally		the tally of the verification
+		 * @param theSamples	the number of sample points of every expression
+		 * @param theSeed		the seed of the sample points
+		 * @param theFirst		the first index of the range, inclusive
+		 * @param theLast		the last index of the range, exclusive
+		 */
+		Chunk(final Tally theTally, final int theSamples, final long theSeed,
+		    final int theFirst, final int theLast) {
+			myTally = theTally;
+			mySamples = theSamples;
+			mySeed = theSeed;
+			myFirst = theFirst;
+			myLast = theLast;
+		}
+
+		/**
+		 * Verifies the range, or splits it in halves verified in parallel if it has more
+		 * than CHUNK expressions.
+		 */
+		@Override
+		protected void compute() {
+			if (myLast - myFirst <= CHUNK) {
+				for (int i = myFirst; i < myLast; i++) {
+					final SplittableRandom random =
+					    new SplittableRandom(mySeed + i * 0x9E3779B97F4A7C15L);
+					myTally.myMismatches[i] =
+					    myCases.get(i).verify(myTally, myFrom, myTo, mySamples, random);
+				}
+			} else {
+				final int middle = (myFirst + myLast) >>> 1;
+				invokeAll(new Chunk(myTally, mySamples, mySeed, myFirst, middle),
+				    new Chunk(myTally, mySamples, mySeed, middle, myLast));
+			}
+		}
+	}
+
+	// INNER CLASS MISMATCH
+
+	/**
+	 * Inner class to represent a derivative disagreeing with its extrapolated difference, or
+	 * failing to be derived or compiled.
+	 */
+	public static final class Mismatch {
+
+		/** The expression in infix notation. */
+		private final String myExpression;
+
+		/** The derivative in infix notation, or null if it could not be derived. */
+		private final String myDerivative;
+
+		/** The sample point, or NaN for an error. */
+		private final double myPoint;
+
+		/** The value of the derivative at the point. */
+		private final double mySymbolic;
+
+		/** The extrapolated difference at the point. */
+		private final double myNumeric;
+
+		/** The error raised while deriving or compiling the expression, or null. */
+		private final String myError;
+
+		/**
+		 * Creates the mismatch of the specified expression.
+		 *
+		 * @param theExpression	the expression in infix notation
+		 * @param theDerivative	the derivative in infix notation, or null
+		 * @param thePoint		the sample point, or NaN for an error
+		 * @param theSymbolic	the value of the derivative at the point
+		 * @param theNumeric	the extrapolated difference at the point
+		 * @param theError		the error raised while deriving or compiling, or null
+		 */
+		Mismatch(final String theExpression, final String theDerivative,
+		    final double thePoint, final double theSymbolic, final double theNumeric,
+		    final String theError) {
+			myExpression = theExpression;
+			myDerivative = theDerivative;
+			myPoint = thePoint;
+			mySymbolic = theSymbolic;
+			myNumeric = theNumeric;
+			myError = theError;
+		}
+
+		/**
+		 * Returns the expression.
+		 *
+		 * @return the expression in infix notation
+		 */
+		public String getExpression() {
+			return myExpression;
+		}
+
+		/**
+		 * Returns the derivative.
+		 *
+		 * @return the derivative in infix notation, or null if it could not be derived
+		 */
+		public String getDerivative() {
+			return myDerivative;
+		}
+
+		/**
+		 * Returns the sample point.
+		 *
+		 * @return the sample point, or NaN if the expression could not be derived or compiled
+		 */
+		public double getPoint() {
+			return myPoint;
+		}
+
+		/**
+		 * Returns the value of the derivative at the sample point.
+		 *
+		 * @return the value of the derivative
+		 */
+		public double getSymbolic() {
+			return mySymbolic;
+		}
+
+		/**
+		 * Returns the extrapolated difference at the sample point.
+		 *
+		 * @return the extrapolated difference
+		 */
+		public double getNumeric() {
+			return myNumeric;
+		}
+
+		/**
+		 * Returns the error raised while deriving or compiling the expression.
+		 *
+		 * @return the error, or null if the derivative disagreed with the difference
+		 */
+		public String getError() {
+			return myError;
+		}
+
+		@Override
+		public String toString() {
+			final String result;
+			if (myError != null) {
+				result = myExpression + ": " + myError;
+			} else {
+				result = String.format("%s: %s = %s at %s, difference %s", myExpression,
+				    myDerivative, mySymbolic, myPoint, myNumeric);
+			}
+			return result;
+		}
+	}
+
+	// INNER CLASS REPORT
+
+	/**
+	 * Inner class to represent the outcome of a verification.
+	 */
+	public static final class Report {
+
+		/** The number of expressions of the corpus. */
+		private final int myExpressions;
+
+		/** The number of expressions skipped for being invalid or having another variable. */
+		private final int mySkipped;
+
+		/** The number of expressions without a conclusive comparison or a mismatch. */
+		private final int myUnverified;
+
+		/** The number of conclusive comparisons. */
+		private final long myComparisons;
+
+		/** The number of samples without a conclusive point. */
+		private final long myInconclusive;
+
+		/** The first mismatch of every mismatching expression, in corpus order. */
+		private final List<Mismatch> myMismatches;
+
+		/** The time the comparisons took, in nanoseconds. */
+		private final long myElapsedNanos;
+
+		/**
+		 * Creates the report of a verification.
+		 *
+		 * @param theExpressions	the number of expressions of the corpus
+		 * @param theSkipped		the number of expressions skipped
+		 * @param theUnverified		the number of expressions without a conclusive comparison
+		 * @param theComparisons	the number of conclusive comparisons
+		 * @param theInconclusive	the number of samples without a conclusive point
+		 * @param theMismatches		the first mismatch of every mismatching expression
+		 * @param theElapsedNanos	the time the comparisons took, in nanoseconds
+		 */
+		Report(final int theExpressions, final int theSkipped, final int theUnverified,
+		    final long theComparisons, final long theInconclusive,
+		    final List<Mismatch> theMismatches, final long theElapsedNanos) {
+			myExpressions = theExpressions;
+			mySkipped = theSkipped;
+			myUnverified = theUnverified;
+			myComparisons = theComparisons;
+			myInconclusive = theInconclusive;
+			myMismatches = theMismatches;
+			myElapsedNanos = theElapsedNanos;
+		}
+
+		/**
+		 * Returns the number of expressions of the corpus.
+		 *
+		 * @return the number of expressions
+		 */
+		public int getExpressions() {
+			return myExpressions;
+		}
+
+		/**
+		 * Returns the number of expressions skipped for being invalid or having a variable
+		 * other than the variable of differentiation.
+		 *
+		 * @return the number of skipped expressions
+		 */
+		public int getSkipped() {
+			return mySkipped;
+		}
+
+		/**
+		 * Returns the number of expressions without a mismatch that could not be compared at
+		 * any sample point, such as those undefined on the whole sampled range.
+		 *
+		 * @return the number of unverified expressions
+		 */
+		public int getUnverified() {
+			return myUnverified;
+		}
+
+		/**
+		 * Returns the number of conclusive comparisons of a derivative and its difference.
+		 *
+		 * @return the number of comparisons
+		 */
+		public long getComparisons() {
+			return myComparisons;
+		}
+
+		/**
+		 * Returns the number of samples for which no drawn point was conclusive.
+		 *
+		 * @return the number of inconclusive samples
+		 */
+		public long getInconclusive() {
+			return myInconclusive;
+		}
+
+		/**
+		 * Returns the first mismatch of every mismatching expression.
+		 *
+		 * @return the mismatches, in corpus order
+		 */
+		public List<Mismatch> getMismatches() {
+			return myMismatches;
+		}
+
+		/**
+		 * Returns the time the comparisons took.
+		 *
+		 * @return the elapsed time in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return myElapsedNanos;
+		}
+
+		/**
+		 * Returns the number of conclusive comparisons per second.
+		 *
+		 * @return the throughput of the comparisons
+		 */
+		public double getComparisonsPerSecond() {
+			return myComparisons * 1e9 / Math.max(1, myElapsedNanos);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d expressions (%d skipped, %d unverified), %d comparisons " +
+			    "(%d inconclusive samples), %d mismatches, %.0f comparisons/s", myExpressions,
+			    mySkipped, myUnverified, myComparisons, myInconclusive, myMismatches.size(),
+			    getComparisonsPerSecond());
+		}
+	}
+
+}
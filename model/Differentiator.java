@@ -4,27 +4,19 @@
 
 package model;
 
+import java.util.List;
 import structures.BinaryTreeNode;
 
 /**
  * Differentiator differentiates a binary tree representing a symbolic mathematical expression.
  *
  * @author Jacob Klymenko
- * @version 2.2
+ * @version 2.7
  */
 public class Differentiator {
 
-	/** A String representing the variable other than the variable of differentiation. */
-	private static String myNonVarDiffElement;
-
-	/** A BinaryTreeNode representing the variable other than the variable of differentiation. */
-	private static BinaryTreeNode<String> myNonVarDiffNode;
-
-	/**
-	 * A BinaryTreeNode representing Leibniz's notation containing the variable other than the
-	 * variable of differentiation
-	 */
-	private static BinaryTreeNode<String> myNonVarDiffLeibniz;
+	/** The state of the derivations running on every thread. */
+	private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
 
 	/** A private constructor to inhibit external instantiation. */
 	private Differentiator() {
@@ -33,7 +25,8 @@ public class Differentiator {
 
 	/**
 	 * Returns a binary tree node representing the derivative of the specified root's
-	 * equivalent expression.
+	 * equivalent expression. A derivation started outside of another one first forgets the
+	 * variable other than the variable of differentiation found by the previous derivation.
 	 *
 	 * @param theRoot		the root node representing the expression segment being derived
 	 * @param theVarDiff	the chosen variable of differentiation represented by a node
@@ -41,6 +34,34 @@ public class Differentiator {
 	 */
 	public static BinaryTreeNode<String> derive(final BinaryTreeNode<String> theRoot,
 	    final BinaryTreeNode<String> theVarDiff) {
+		final State state = STATE.get();
+		if (state.myDepth == 0) {
+			state.myNonVarDiffElement = null;
+			state.myNonVarDiffNode = null;
+			state.myNonVarDiffLeibniz = null;
+		}
+		BinaryTreeNode<String> derivative = null;
+		state.myDepth++;
+		try {
+			derivative = deriveSegment(theRoot, theVarDiff);
+		} finally {
+			state.myDepth--;
+		}
+		return derivative;
+	}
+
+	/**
+	 * Returns a binary tree node representing the derivative of the specified root's
+	 * equivalent expression, within a derivation already started by derive.
+	 *
+	 * @param theRoot		the root node representing the expression segment being derived
+	 * @param theVarDiff	the chosen variable of differentiation represented by a node
+	 * @return a binary tree node representing the derivative of the root's equivalent expression
+	 */
+	private static BinaryTreeNode<String> deriveSegment(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff) {
+		ResourceGovernor.checkpoint();
+		final State state = STATE.get();
 		// setup necessary components to complete the differentiation
 		setNonVarDiffComponents(theRoot, theVarDiff);
 		BinaryTreeNode<String> derivative = null;
@@ -53,10 +74,10 @@ public class Differentiator {
 				final String leftNodeElem = theRoot.getLeft().getElement();
 				if (ExpressionParser.isFunction(leftNodeElem) || isOperator(leftNodeElem)) {
 					derivative = chainRule(theRoot, theVarDiff);
-				} else if (theRoot.getLeft().getElement().equals(myNonVarDiffElement)) {
+				} else if (theRoot.getLeft().getElement().equals(state.myNonVarDiffElement)) {
 					final BinaryTreeNode<String> noLeibniz =
-					    chooseFuncDiff(theRoot, myNonVarDiffNode);
-					derivative = new BinaryTreeNode<String>("*", myNonVarDiffLeibniz, noLeibniz);
+					    chooseFuncDiff(theRoot, state.myNonVarDiffNode);
+					derivative = operation("*", state.myNonVarDiffLeibniz, noLeibniz);
 				} else if (theRoot.getLeft().getElement().equals(theVarDiff.getElement())) {
 					derivative = chooseFuncDiff(theRoot, theVarDiff);
 				} else {
@@ -75,7 +96,7 @@ public class Differentiator {
 					}
 					// there is another var other than the var of diff
 				} else if (rootElement.matches(".*[a-zA-Z&&[^" + varDiffElement + "]].*")) {
-					derivative = myNonVarDiffLeibniz;
+					derivative = state.myNonVarDiffLeibniz;
 				} else { // only contains a constant
 					derivative = new BinaryTreeNode<String>("0");
 				}
@@ -84,6 +105,55 @@ public class Differentiator {
 		return derivative;
 	}
 
+	/**
+	 * Returns a binary tree node representing the derivative of the specified root's
+	 * equivalent expression, simplified while it is derived. Every operator node is passed
+	 * through the local rules of the RewriteEngine as it is created, with its children
+	 * already simplified, so the unsimplified derivative is never built.
+	 *
+	 * @param theRoot		the root node representing the expression segment being derived
+	 * @param theVarDiff	the chosen variable of differentiation represented by a node
+	 * @return a binary tree node representing the simplified derivative of the expression
+	 */
+	public static BinaryTreeNode<String> deriveSimplified(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff) {
+		final State state = STATE.get();
+		final boolean wasFused = state.myIsFused;
+		BinaryTreeNode<String> derivative = null;
+		state.myIsFused = true;
+		try {
+			derivative = derive(theRoot, theVarDiff);
+		} finally {
+			state.myIsFused = wasFused;
+		}
+		return derivative;
+	}
+
+	/**
+	 * Returns a binary tree node representing the partial derivative of the specified root's
+	 * equivalent expression. Unlike derive, every variable other than the variable of
+	 * differentiation is treated as a constant rather than as a function of it, so no Leibniz's
+	 * notation nodes are produced.
+	 *
+	 * @param theRoot		the root node representing the expression being derived
+	 * @param theVarDiff	the chosen variable of differentiation represented by a node
+	 * @return a binary tree node representing the partial derivative of the root's expression
+	 */
+	public static BinaryTreeNode<String> derivePartial(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff) {
+		return Gradient.gradient(theRoot, List.of(theVarDiff.getElement())).get(0);
+	}
+
+	/**
+	 * Discards the state of the derivations on the current thread. Every derivation already
+	 * starts without the variable other than the variable of differentiation found by the
+	 * previous one, and every thread keeps its own state, so expressions can be derived on
+	 * several threads at once.
+	 */
+	public static void reset() {
+		STATE.remove();
+	}
+
 	/**
 	 * Applies the corresponding operator differentiation rule and returns a binary tree node
 	 * representing the derivative of the original root's equivalent expression.
@@ -95,35 +165,31 @@ public class Differentiator {
 	private static BinaryTreeNode<String> deriveOperator(final BinaryTreeNode<String> theRoot,
 	    final BinaryTreeNode<String> theVarDiff) {
 
-		final BinaryTreeNode<String> diffLeftNode = derive(theRoot.getLeft(), theVarDiff);
-		final BinaryTreeNode<String> diffRightNode = derive(theRoot.getRight(), theVarDiff);
-		final BinaryTreeNode<String> leftProduct =
-		    new BinaryTreeNode<String>("*", diffLeftNode, theRoot.getRight());
-		final BinaryTreeNode<String> rightProduct =
-		    new BinaryTreeNode<String>("*", theRoot.getLeft(), diffRightNode);
-		BinaryTreeNode<String> derivative = null;
-
 		final String operator = theRoot.getElement();
-		switch (operator) {
-			case "-":
-				derivative = new BinaryTreeNode<String>(operator, diffLeftNode, diffRightNode);
-				break;
-			case "+":
-				derivative = new BinaryTreeNode<String>(operator, diffLeftNode, diffRightNode);
-				break;
-			case "/":
-				final BinaryTreeNode<String> numerator =
-				    new BinaryTreeNode<String>("-", leftProduct, rightProduct);
-				final BinaryTreeNode<String> two = new BinaryTreeNode<String>("2");
-				final BinaryTreeNode<String> denominator =
-				    new BinaryTreeNode<String>("^", theRoot.getRight(), two);
-				derivative = new BinaryTreeNode<String>("/", numerator, denominator);
-				break;
-			case "*":
-				derivative = new BinaryTreeNode<String>("+", leftProduct, rightProduct);
-				break;
-			case "^":
-				derivative = deriveExponent(theRoot, theVarDiff);
+		BinaryTreeNode<String> derivative = null;
+		if (operator.equals("^")) {
+			derivative = deriveExponent(theRoot, theVarDiff);
+		} else {
+			final BinaryTreeNode<String> diffLeftNode = derive(theRoot.getLeft(), theVarDiff);
+			final BinaryTreeNode<String> diffRightNode = derive(theRoot.getRight(), theVarDiff);
+			if (operator.equals("-") || operator.equals("+")) {
+				derivative = operation(operator, diffLeftNode, diffRightNode);
+			} else { // the products are only built for the product and quotient rules
+				final BinaryTreeNode<String> leftProduct =
+				    operation("*", diffLeftNode, theRoot.getRight());
+				final BinaryTreeNode<String> rightProduct =
+				    operation("*", theRoot.getLeft(), diffRightNode);
+				if (operator.equals("*")) {
+					derivative = operation("+", leftProduct, rightProduct);
+				} else {
+					final BinaryTreeNode<String> numerator =
+					    operation("-", leftProduct, rightProduct);
+					final BinaryTreeNode<String> two = new BinaryTreeNode<String>("2");
+					final BinaryTreeNode<String> denominator =
+					    operation("^", theRoot.getRight(), two);
+					derivative = operation("/", numerator, denominator);
+				}
+			}
 		}
 		return derivative;
 	}
@@ -145,10 +211,11 @@ public class Differentiator {
 		    theRoot.getLeft());
 		final boolean varDiffRightNode = theRoot.getRight().contains(varDiffElement,
 		    theRoot.getRight());
-		final boolean nonVarDiffLeftNode = theRoot.getLeft().contains(myNonVarDiffElement,
+		final State state = STATE.get();
+		final boolean nonVarDiffLeftNode = theRoot.getLeft().contains(state.myNonVarDiffElement,
 		    theRoot.getLeft());
-		final boolean nonVarDiffRightNode = theRoot.getRight().contains(myNonVarDiffElement,
-		    theRoot.getRight());
+		final boolean nonVarDiffRightNode =
+		    theRoot.getRight().contains(state.myNonVarDiffElement, theRoot.getRight());
 		BinaryTreeNode<String> derivative = null;
 
 		if (!varDiffLeftNode && !nonVarDiffLeftNode) { // left side contains only a constant
@@ -164,8 +231,9 @@ public class Differentiator {
 			    if (varDiffLeftNode) {
 				    derivative = powerRule(theRoot, theVarDiff);
 			    } else {
-				    final BinaryTreeNode<String> powerRule = powerRule(theRoot, myNonVarDiffNode);
-				    derivative = new BinaryTreeNode<String>("*", myNonVarDiffLeibniz, powerRule);
+				    final BinaryTreeNode<String> powerRule =
+				        powerRule(theRoot, state.myNonVarDiffNode);
+				    derivative = operation("*", state.myNonVarDiffLeibniz, powerRule);
 			    }
 		    }
 		return derivative;
@@ -217,10 +285,10 @@ public class Differentiator {
 			    new BinaryTreeNode<String>(rootElement.substring(4));
 			final BinaryTreeNode<String> naturalLog = new BinaryTreeNode<String>("ln", base, null);
 			final BinaryTreeNode<String> variableLog =
-			    new BinaryTreeNode<String>("*", theVarDiff, naturalLog);
-			derivative = new BinaryTreeNode<String>("/", one, variableLog);
+			    operation("*", theVarDiff, naturalLog);
+			derivative = operation("/", one, variableLog);
 		} else if (!rootElement.contains("_")) { // no specified base value -- 1 / <theVarDiff>
-			derivative = new BinaryTreeNode<String>("/", one, theVarDiff);
+			derivative = operation("/", one, theVarDiff);
 		}
 		return derivative;
 	}
@@ -252,27 +320,27 @@ public class Differentiator {
 				derivative = new BinaryTreeNode<String>("cos", theVarDiff, null);
 				break;
 			case "cos": // 0 - sin(<theVariable>)
-				derivative = new BinaryTreeNode<String>("-", zero, sine);
+				derivative = operation("-", zero, sine);
 				break;
 			case "tan": // sec(<theVariable>) ^ 2
-				derivative = new BinaryTreeNode<String>("^", secant, two);
+				derivative = operation("^", secant, two);
 				break;
 			case "sec": // sec(x) * tan(x)
 				final BinaryTreeNode<String> tangent =
 				    new BinaryTreeNode<String>("tan", theVarDiff, null);
-				derivative = new BinaryTreeNode<String>("*", secant, tangent);
+				derivative = operation("*", secant, tangent);
 				break;
 			case "csc": // 0 - (csc(x) * cot(x))
 				final BinaryTreeNode<String> cotangent =
 				    new BinaryTreeNode<String>("cot", theVarDiff, null);
 				final BinaryTreeNode<String> cscCot =
-				    new BinaryTreeNode<String>("*", cosecant, cotangent);
-				derivative = new BinaryTreeNode<String>("-", zero, cscCot);
+				    operation("*", cosecant, cotangent);
+				derivative = operation("-", zero, cscCot);
 				break;
 			case "cot": // 0 - (csc(x) ^ 2)
 				final BinaryTreeNode<String> exponent =
-				    new BinaryTreeNode<String>("^", cosecant, two);
-				derivative = new BinaryTreeNode<String>("-", zero, exponent);
+				    operation("^", cosecant, two);
+				derivative = operation("-", zero, exponent);
 				break;
 		}
 		return derivative;
@@ -294,50 +362,50 @@ public class Differentiator {
 		final BinaryTreeNode<String> one = new BinaryTreeNode<String>("1");
 		final BinaryTreeNode<String> two = new BinaryTreeNode<String>("2");
 		final BinaryTreeNode<String> half =
-		    new BinaryTreeNode<String>("/", one, two);
+		    operation("/", one, two);
 		final BinaryTreeNode<String> varSquared =
-		    new BinaryTreeNode<String>("^", theVarDiff, two);
+		    operation("^", theVarDiff, two);
 		final BinaryTreeNode<String> oneMinusVar =
-		    new BinaryTreeNode<String>("-", one, varSquared);
+		    operation("-", one, varSquared);
 		final BinaryTreeNode<String> varPlusOne =
-		    new BinaryTreeNode<String>("+", varSquared, one);
+		    operation("+", varSquared, one);
 		final BinaryTreeNode<String> varMinusOne =
-		    new BinaryTreeNode<String>("-", varSquared, one);
+		    operation("-", varSquared, one);
 		final BinaryTreeNode<String> sqrtOneMinusVar =
-		    new BinaryTreeNode<String>("^", oneMinusVar, half);
+		    operation("^", oneMinusVar, half);
 		final BinaryTreeNode<String> sqrtVarMinusOne =
-		    new BinaryTreeNode<String>("^", varMinusOne, half);
+		    operation("^", varMinusOne, half);
 		final BinaryTreeNode<String> absoluteVar =
 		    new BinaryTreeNode<String>("abs", theVarDiff, null);
 		final BinaryTreeNode<String> absoVarProduct =
-		    new BinaryTreeNode<String>("*", absoluteVar, sqrtVarMinusOne);
+		    operation("*", absoluteVar, sqrtVarMinusOne);
 		BinaryTreeNode<String> derivative = null;
 
 		final String rootElement = theRoot.getElement();
 		switch (rootElement) {
 			case "arcsin": // 1 / ((1 - (x ^ 2)) ^ (1 / 2))
-				derivative = new BinaryTreeNode<String>("/", one, sqrtOneMinusVar);
+				derivative = operation("/", one, sqrtOneMinusVar);
 				break;
 			case "arccos": // 0 - (1 / ((1 - (x ^ 2)) ^ (1 / 2)))
 				final BinaryTreeNode<String> arcsinDiff =
-				    new BinaryTreeNode<String>("/", one, sqrtOneMinusVar);
-				derivative = new BinaryTreeNode<String>("-", zero, arcsinDiff);
+				    operation("/", one, sqrtOneMinusVar);
+				derivative = operation("-", zero, arcsinDiff);
 				break;
 			case "arctan": // 1 / ((x ^ 2) + 1)
-				derivative = new BinaryTreeNode<String>("/", one, varPlusOne);
+				derivative = operation("/", one, varPlusOne);
 				break;
 			case "arcsec": // 1 / (abs(x) * (((x ^ 2) - 1) ^ (1 / 2))
-				derivative = new BinaryTreeNode<String>("/", one, absoVarProduct);
+				derivative = operation("/", one, absoVarProduct);
 				break;
 			case "arccsc": // 0 - (1 / (abs(x) * (((x ^ 2) - 1) ^ (1 / 2)))
 				final BinaryTreeNode<String> arcsecDiff =
-				    new BinaryTreeNode<String>("/", one, absoVarProduct);
-				derivative = new BinaryTreeNode<String>("-", zero, arcsecDiff);
+				    operation("/", one, absoVarProduct);
+				derivative = operation("-", zero, arcsecDiff);
 				break;
 			case "arccot": // 0 - (1 / ((x ^ 2) + 1))
 				final BinaryTreeNode<String> arctanDiff =
-				    new BinaryTreeNode<String>("/", one, varPlusOne);
-				derivative = new BinaryTreeNode<String>("-", zero, arctanDiff);
+				    operation("/", one, varPlusOne);
+				derivative = operation("-", zero, arctanDiff);
 				break;
 		}
 		return derivative;
@@ -360,13 +428,13 @@ public class Differentiator {
 			final BinaryTreeNode<String> naturalLog =
 			    new BinaryTreeNode<String>("ln", theRoot.getLeft(), null);
 			final BinaryTreeNode<String> product =
-			    new BinaryTreeNode<String>("*", theRoot.getRight(), naturalLog);
+			    operation("*", theRoot.getRight(), naturalLog);
 			final BinaryTreeNode<String> eulersNum = new BinaryTreeNode<String>("e");
 			final BinaryTreeNode<String> newRoot =
-			    new BinaryTreeNode<String>("^", eulersNum, product);
+			    operation("^", eulersNum, product);
 			// apply chain rule to the new root
-			final BinaryTreeNode<String> diffRightNode = derive(newRoot.getRight(), theVarDiff);
-			derivative = new BinaryTreeNode<String>("*", newRoot, diffRightNode);
+			final BinaryTreeNode<String> diffRightNode = derive(product, theVarDiff);
+			derivative = operation("*", newRoot, diffRightNode);
 		} else if (ExpressionParser.isFunction(theRoot.getElement())) {
 			final BinaryTreeNode<String> outerFunc =
 			    new BinaryTreeNode<String>(theRoot.getElement(), theVarDiff, null);
@@ -374,14 +442,15 @@ public class Differentiator {
 			diffRoot = diffRoot.findAndReplace(theVarDiff.getElement(), diffRoot,
 			    theRoot.getLeft());
 			final BinaryTreeNode<String> diffInner = derive(theRoot.getLeft(), theVarDiff);
-			derivative = new BinaryTreeNode<String>("*", diffRoot, diffInner);
+			derivative = operation("*", diffRoot, diffInner);
 		}
 		return derivative;
 	}
 
 	/**
 	 * Returns a binary tree node after applying the derivative power rule to the specified
-	 * expressions represented in a binary tree node.
+	 * expressions represented in a binary tree node, n * (u ^ (n - 1)), multiplied by the
+	 * derivative of the base u unless the base is the variable of differentiation itself.
 	 *
 	 * @param theRoot		the root node representing the expression being derived
 	 * @param theVarDiff	the chosen variable of differentiation represented by a node
@@ -390,12 +459,32 @@ public class Differentiator {
 	private static BinaryTreeNode<String> powerRule(final BinaryTreeNode<String> theRoot,
 	    final BinaryTreeNode<String> theVarDiff) {
 
-		final BinaryTreeNode<String> base =
-		    new BinaryTreeNode<String>("*", theRoot.getRight(), theRoot.getLeft());
 		final BinaryTreeNode<String> one = new BinaryTreeNode<String>("1");
 		final BinaryTreeNode<String> decrement =
-		    new BinaryTreeNode<String>("-", theRoot.getRight(), one);
-		return new BinaryTreeNode<String>("^", base, decrement);
+		    operation("-", theRoot.getRight(), one);
+		final BinaryTreeNode<String> power =
+		    operation("^", theRoot.getLeft(), decrement);
+		BinaryTreeNode<String> derivative = operation("*", theRoot.getRight(), power);
+		if (!theRoot.getLeft().getElement().equals(theVarDiff.getElement())) {
+			derivative = operation("*", derivative, derive(theRoot.getLeft(), theVarDiff));
+		}
+		return derivative;
+	}
+
+	/**
+	 * Returns a new operator node with the specified operator and children, simplified by the
+	 * local rules of the RewriteEngine when deriving with simplification.
+	 *
+	 * @param theOperator	the operator of the node
+	 * @param theLeft		the left child
+	 * @param theRight		the right child
+	 * @return a binary tree node representing the operation
+	 */
+	private static BinaryTreeNode<String> operation(final String theOperator,
+	    final BinaryTreeNode<String> theLeft, final BinaryTreeNode<String> theRight) {
+		final BinaryTreeNode<String> node =
+		    new BinaryTreeNode<String>(theOperator, theLeft, theRight);
+		return STATE.get().myIsFused ? RewriteEngine.rewriteLocal(node) : node;
 	}
 
 	/**
@@ -423,18 +512,20 @@ public class Differentiator {
 	private static void setNonVarDiffComponents(final BinaryTreeNode<String> theRoot,
 	    final BinaryTreeNode<String> theVarDiff) {
 
-		if (myNonVarDiffElement == null || myNonVarDiffElement.isEmpty()) {
+		final State state = STATE.get();
+		if (state.myNonVarDiffElement == null || state.myNonVarDiffElement.isEmpty()) {
 			if (ExpressionParser.isFunction(theRoot.getElement())) {
 				setNonVarDiffComponents(theRoot.getLeft(), theVarDiff);
 			} else {
 				final String varDiffElem = theVarDiff.getElement();
-				myNonVarDiffElement = treeNodeToString(theRoot, 0).replaceAll("[^a-zA-Z&&[^" +
-				    varDiffElem + "]]", "");
-				if (myNonVarDiffElement.length() > 0) {
-					myNonVarDiffElement = Character.toString(myNonVarDiffElement.charAt(0));
+				String nonVarDiffElement = treeNodeToString(theRoot, 0).replaceAll(
+				    "[^a-zA-Z&&[^" + varDiffElem + "]]", "");
+				if (nonVarDiffElement.length() > 0) {
+					nonVarDiffElement = Character.toString(nonVarDiffElement.charAt(0));
 				}
-				myNonVarDiffNode = new BinaryTreeNode<String>(myNonVarDiffElement);
-				myNonVarDiffLeibniz = new BinaryTreeNode<String>("d" + myNonVarDiffElement +
+				state.myNonVarDiffElement = nonVarDiffElement;
+				state.myNonVarDiffNode = new BinaryTreeNode<String>(nonVarDiffElement);
+				state.myNonVarDiffLeibniz = new BinaryTreeNode<String>("d" + nonVarDiffElement +
 				    "/d" + theVarDiff.getElement());
 			}
 		}
@@ -455,6 +546,7 @@ public class Differentiator {
 	public static String treeNodeToString(final BinaryTreeNode<String> theRoot,
 	    final int theTracker) {
 
+		ResourceGovernor.checkpoint();
 		String result = "";
 		int tracker = theTracker;
 		if (theTracker == 0) {
@@ -505,4 +597,33 @@ public class Differentiator {
 		}
 		return result;
 	}
+
+	// INNER CLASS STATE
+
+	/**
+	 * Inner class to represent the state of the derivations running on a thread.
+	 */
+	private static final class State {
+
+		/** A String representing the variable other than the variable of differentiation. */
+		private String myNonVarDiffElement;
+
+		/**
+		 * A BinaryTreeNode representing the variable other than the variable of
+		 * differentiation.
+		 */
+		private BinaryTreeNode<String> myNonVarDiffNode;
+
+		/**
+		 * A BinaryTreeNode representing Leibniz's notation containing the variable other than
+		 * the variable of differentiation
+		 */
+		private BinaryTreeNode<String> myNonVarDiffLeibniz;
+
+		/** Whether the operator nodes of the derivative are simplified as they are created. */
+		private boolean myIsFused;
+
+		/** The number of calls to derive in progress. */
+		private int myDepth;
+	}
 }
@@ -0,0 +1,559 @@
+/**
+ * EGraph - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTreeNode;
+
+/**
+ * EGraph represents many equivalent mathematical expressions at once, as equivalence classes of
+ * nodes whose children are equivalence classes rather than nodes.
+ *
+ * The classes are kept in a union-find structure, and every node is hash-consed so that a node
+ * with the same operator and the same child classes is only stored once. Merging two classes
+ * may make nodes of other classes equal, which rebuild restores by merging those classes too.
+ * Every class also tracks the constant value it is known to equal, if any, and gains a numeric
+ * leaf as soon as its value is known.
+ *
+ * Expressions are loaded in a normalized form: coefficients of variables and functions, such
+ * as "5x" or "xsin(x)", become multiplications, so rewrites only deal with operators,
+ * functions and plain leaves.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class EGraph {
+
+	/** The parent of every class in the union-find structure, by class id. */
+	private int[] myParents;
+
+	/** The number of class ids handed out so far. */
+	private int myIdCount;
+
+	/** The canonical class of every distinct node. */
+	private final Map<ENode, Integer> myHashcons;
+
+	/** The nodes of every canonical class, by class id; null for merged away classes. */
+	private final List<List<ENode>> myNodes;
+
+	/** The constant value of every canonical class, by class id; null if unknown. */
+	private final List<Double> myConstants;
+
+	/** Whether classes were merged since the last rebuild. */
+	private boolean myIsDirty;
+
+	/**
+	 * Creates an empty e-graph.
+	 */
+	public EGraph() {
+		myParents = new int[16];
+		myIdCount = 0;
+		myHashcons = new HashMap<ENode, Integer>();
+		myNodes = new ArrayList<List<ENode>>();
+		myConstants = new ArrayList<Double>();
+		myIsDirty = false;
+	}
+
+	/**
+	 * Adds the specified root's equivalent expression to this e-graph and returns the class
+	 * of its root. Subtrees shared by the expression are loaded once.
+	 *
+	 * @param theRoot the root node representing the expression being added
+	 * @return the class id of the root
+	 */
+	public int add(final BinaryTreeNode<String> theRoot) {
+		return add(theRoot, new IdentityHashMap<BinaryTreeNode<String>, Integer>());
+	}
+
+	/**
+	 * Adds the specified root's equivalent expression, reusing the classes of the already
+	 * loaded nodes.
+	 *
+	 * @param theRoot	the root node representing the expression being added
+	 * @param theLoaded	the class id of every already loaded node, by node identity
+	 * @return the class id of the root
+	 */
+	private int add(final BinaryTreeNode<String> theRoot,
+	    final Map<BinaryTreeNode<String>, Integer> theLoaded) {
+		Integer result = theLoaded.get(theRoot);
+		if (result == null) {
+			final String element = theRoot.getElement();
+			if (theRoot.getLeft() != null && theRoot.getRight() != null) {
+				result = add(element, add(theRoot.getLeft(), theLoaded),
+				    add(theRoot.getRight(), theLoaded));
+			} else if (theRoot.getLeft() != null) { // function with an optional prefix
+				final String function = ExpressionParser.getFunction(element);
+				final String prefix = element.substring(0, element.length() - function.length());
+				result = add(function, add(theRoot.getLeft(), theLoaded));
+				if (!prefix.isEmpty()) {
+					result = add("*", addLeaf(prefix), result);
+				}
+			} else {
+				result = addLeaf(element);
+			}
+			theLoaded.put(theRoot, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the specified leaf, splitting a coefficient from its variable, and returns its
+	 * class.
+	 *
+	 * @param theLeaf the element of the leaf
+	 * @return the class id of the leaf
+	 */
+	private int addLeaf(final String theLeaf) {
+		int result = 0;
+		if (ExpressionParser.isNumber(theLeaf)) {
+			result = addNumber(Double.parseDouble(theLeaf));
+		} else {
+			final String coefficient = ExpressionParser.getCoefficient(theLeaf);
+			final String symbol = ExpressionParser.getSymbol(theLeaf);
+			if (symbol.isEmpty()) {
+				result = addNumber(Double.parseDouble(coefficient));
+			} else if (coefficient.equals("1")) {
+				result = add(symbol);
+			} else {
+				result = add("*", addNumber(Double.parseDouble(coefficient)), add(symbol));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds a numeric leaf holding the specified value and returns its class.
+	 *
+	 * @param theValue the value of the leaf
+	 * @return the class id of the leaf
+	 */
+	public int addNumber(final double theValue) {
+		return add(RewriteEngine.number(theValue).getElement());
+	}
+
+	/**
+	 * Adds a node with the specified operator, function or leaf element and child classes, and
+	 * returns its class. An equal node already present is not added again.
+	 *
+	 * @param theElement	the operator, function or leaf element of the node
+	 * @param theChildren	the class ids of the children of the node
+	 * @return the class id of the node
+	 */
+	public int add(final String theElement, final int... theChildren) {
+		final int[] children = new int[theChildren.length];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = find(theChildren[i]);
+		}
+		final ENode node = new ENode(theElement, children);
+		Integer result = myHashcons.get(node);
+		if (result == null) {
+			result = newClass();
+			myHashcons.put(node, result);
+			myNodes.get(result).add(node);
+			final Double constant = evaluate(node);
+			if (constant != null) {
+				myConstants.set(result, constant);
+				if (children.length > 0) {
+					union(result, addNumber(constant));
+				}
+			}
+		} else {
+			result = find(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a new empty class and returns its id.
+	 *
+	 * @return the id of the new class
+	 */
+	private int newClass() {
+		if (myIdCount == myParents.length) {
+			myParents = Arrays.copyOf(myParents, myParents.length * 2);
+		}
+		final int result = myIdCount++;
+		myParents[result] = result;
+		myNodes.add(new ArrayList<ENode>(2));
+		myConstants.add(null);
+		return result;
+	}
+
+	/**
+	 * Returns the canonical id of the class the specified id belongs to.
+	 *
+	 * @param theId the id of a class
+	 * @return the canonical id of the class
+	 */
+	public int find(final int theId) {
+		int root = theId;
+		while (myParents[root] != root) {
+			root = myParents[root];
+		}
+		int current = theId;
+		while (myParents[current] != root) { // path compression
+			final int next = myParents[current];
+			myParents[current] = root;
+			current = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Merges the classes of the two specified ids and returns true if they were different
+	 * classes. The hash-consing invariant is restored on the next rebuild.
+	 *
+	 * @param theFirst	the id of the first class
+	 * @param theSecond	the id of the second class
+	 * @return true if two different classes were merged; otherwise false
+	 */
+	public boolean union(final int theFirst, final int theSecond) {
+		int root = find(theFirst);
+		int other = find(theSecond);
+		final boolean result = root != other;
+		if (result) {
+			if (myNodes.get(root).size() < myNodes.get(other).size()) {
+				final int swap = root;
+				root = other;
+				other = swap;
+			}
+			myParents[other] = root;
+			myNodes.get(root).addAll(myNodes.get(other));
+			myNodes.set(other, null);
+			if (myConstants.get(root) == null) {
+				myConstants.set(root, myConstants.get(other));
+			}
+			myIsDirty = true;
+		}
+		return result;
+	}
+
+	/**
+	 * Restores the hash-consing invariant after classes were merged: the children of every
+	 * node are made canonical, and classes holding equal nodes are merged, until nothing
+	 * changes. Classes whose children all became constant are merged with their value.
+	 */
+	public void rebuild() {
+		while (myIsDirty) {
+			myIsDirty = false;
+			// merge the classes of nodes which became equal
+			final Map<ENode, Integer> seen = new HashMap<ENode, Integer>();
+			for (int id = 0; id < myIdCount; id++) {
+				final List<ENode> nodes = myNodes.get(id);
+				if (nodes != null) {
+					for (ENode node : new ArrayList<ENode>(nodes)) {
+						final Integer existing = seen.putIfAbsent(node.canonical(this), id);
+						if (existing != null) {
+							union(existing, id);
+						}
+					}
+				}
+			}
+			// merge the classes which became constant with their value
+			for (int id = 0; id < myIdCount; id++) {
+				final List<ENode> nodes = myNodes.get(id);
+				if (nodes != null && myConstants.get(id) == null) {
+					Double constant = null;
+					for (int i = 0; i < nodes.size() && constant == null; i++) {
+						constant = evaluate(nodes.get(i).canonical(this));
+					}
+					if (constant != null) {
+						myConstants.set(id, constant);
+						union(id, addNumber(constant));
+						myIsDirty = true;
+					}
+				}
+			}
+		}
+		// keep every node once, in canonical form
+		myHashcons.clear();
+		for (int id = 0; id < myIdCount; id++) {
+			final List<ENode> nodes = myNodes.get(id);
+			if (nodes != null) {
+				final List<ENode> canonical = new ArrayList<ENode>(nodes.size());
+				for (ENode node : nodes) {
+					final ENode copy = node.canonical(this);
+					if (myHashcons.putIfAbsent(copy, id) == null) {
+						canonical.add(copy);
+					}
+				}
+				myNodes.set(id, canonical);
+			}
+		}
+	}
+
+	/**
+	 * Returns the constant value of the specified node if its children have constant values,
+	 * or null if it is not constant. Functions are not folded.
+	 *
+	 * @param theNode the node being evaluated
+	 * @return the constant value of the node, or null if it is not constant
+	 */
+	private Double evaluate(final ENode theNode) {
+		Double result = null;
+		final int[] children = theNode.myChildren;
+		if (children.length == 0) {
+			if (ExpressionParser.isNumber(theNode.myElement)) {
+				result = Double.parseDouble(theNode.myElement);
+			}
+		} else if (children.length == 2) {
+			final Double left = getConstant(children[0]);
+			final Double right = getConstant(children[1]);
+			if (left != null && right != null) {
+				double value = Double.NaN;
+				switch (theNode.myElement) {
+					case "+":
+						value = left + right;
+						break;
+					case "-":
+						value = left - right;
+						break;
+					case "*":
+						value = left * right;
+						break;
+					case "/":
+						value = left / right;
+						break;
+					case "^":
+						value = Math.pow(left, right);
+						break;
+				}
+				result = Double.isFinite(value) ? value : null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the constant value of the class of the specified id, or null if it is unknown.
+	 *
+	 * @param theId the id of a class
+	 * @return the constant value of the class, or null if it is unknown
+	 */
+	public Double getConstant(final int theId) {
+		return myConstants.get(find(theId));
+	}
+
+	/**
+	 * Returns the nodes of the class of the specified id. The list is a copy, so the e-graph
+	 * may be changed while it is traversed.
+	 *
+	 * @param theId the id of a class
+	 * @return the nodes of the class
+	 */
+	public List<ENode> getNodes(final int theId) {
+		return new ArrayList<ENode>(myNodes.get(find(theId)));
+	}
+
+	/**
+	 * Returns the canonical ids of every class, in increasing order.
+	 *
+	 * @return the canonical ids of every class
+	 */
+	public int[] getClassIds() {
+		final int[] result = new int[classCount()];
+		int index = 0;
+		for (int id = 0; id < myIdCount; id++) {
+			if (myNodes.get(id) != null) {
+				result[index++] = id;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of canonical classes.
+	 *
+	 * @return the number of canonical classes
+	 */
+	public int classCount() {
+		int result = 0;
+		for (int id = 0; id < myIdCount; id++) {
+			if (myNodes.get(id) != null) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of distinct nodes stored in this e-graph.
+	 *
+	 * @return the number of distinct nodes
+	 */
+	public int nodeCount() {
+		return myHashcons.size();
+	}
+
+	/**
+	 * Returns the cheapest expression of the class of the specified id, where the cost of a
+	 * node is given by the specified function plus the cost of its cheapest children. Classes
+	 * used in several places are built once and shared.
+	 *
+	 * @param theId		the id of the class being extracted
+	 * @param theCost	the cost of a single node, without its children
+	 * @return a binary tree node representing the cheapest expression of the class
+	 */
+	public BinaryTreeNode<String> extract(final int theId, final ToDoubleFunction<ENode> theCost) {
+		final double[] best = new double[myIdCount];
+		final ENode[] choice = new ENode[myIdCount];
+		Arrays.fill(best, Double.POSITIVE_INFINITY);
+		boolean isChanged = true;
+		while (isChanged) {
+			isChanged = false;
+			for (int id = 0; id < myIdCount; id++) {
+				final List<ENode> nodes = myNodes.get(id);
+				if (nodes != null) {
+					for (ENode node : nodes) {
+						double cost = theCost.applyAsDouble(node);
+						for (int child : node.myChildren) {
+							cost += best[find(child)];
+						}
+						if (cost < best[id]) {
+							best[id] = cost;
+							choice[id] = node;
+							isChanged = true;
+						}
+					}
+				}
+			}
+		}
+		return build(find(theId), choice, new HashMap<Integer, BinaryTreeNode<String>>());
+	}
+
+	/**
+	 * Builds the expression of the chosen node of the class of the specified id.
+	 *
+	 * @param theId		the canonical id of the class being built
+	 * @param theChoice	the cheapest node of every class, by class id
+	 * @param theBuilt	the already built expression of every class, by class id
+	 * @return a binary tree node representing the expression of the class
+	 */
+	private BinaryTreeNode<String> build(final int theId, final ENode[] theChoice,
+	    final Map<Integer, BinaryTreeNode<String>> theBuilt) {
+		BinaryTreeNode<String> result = theBuilt.get(theId);
+		if (result == null) {
+			final ENode node = theChoice[theId];
+			final int[] children = node.myChildren;
+			if (children.length == 0) {
+				result = new BinaryTreeNode<String>(node.myElement);
+			} else if (children.length == 1) {
+				result = new BinaryTreeNode<String>(node.myElement,
+				    build(find(children[0]), theChoice, theBuilt), null);
+			} else {
+				result = new BinaryTreeNode<String>(node.myElement,
+				    build(find(children[0]), theChoice, theBuilt),
+				    build(find(children[1]), theChoice, theBuilt));
+			}
+			theBuilt.put(theId, result);
+		}
+		return result;
+	}
+
+	// INNER CLASS NODE
+
+	/**
+	 * Inner class to represent a node of an e-graph: an operator, function or leaf element
+	 * with the class ids of its children.
+	 */
+	public static class ENode {
+
+		/** The operator, function or leaf element of this node. */
+		private final String myElement;
+
+		/** The class ids of the children of this node. */
+		private final int[] myChildren;
+
+		/** The precomputed hash code of this node. */
+		private final int myHash;
+
+		/**
+		 * Sets up this node with the specified element and child classes.
+		 *
+		 * @param theElement	the operator, function or leaf element of this node
+		 * @param theChildren	the class ids of the children of this node
+		 */
+		ENode(final String theElement, final int[] theChildren) {
+			myElement = theElement;
+			myChildren = theChildren;
+			int hash = theElement.hashCode();
+			for (int child : theChildren) { // spread the small, dense class ids
+				hash = (hash ^ child) * 0x9E3779B1;
+				hash ^= hash >>> 15;
+			}
+			myHash = hash;
+		}
+
+		/**
+		 * Returns the operator, function or leaf element of this node.
+		 *
+		 * @return the element of this node
+		 */
+		public String getElement() {
+			return myElement;
+		}
+
+		/**
+		 * Returns the number of children of this node.
+		 *
+		 * @return the number of children of this node
+		 */
+		public int arity() {
+			return myChildren.length;
+		}
+
+		/**
+		 * Returns the class id of the child at the specified index.
+		 *
+		 * @param theIndex the index of the child
+		 * @return the class id of the child
+		 */
+		public int getChild(final int theIndex) {
+			return myChildren[theIndex];
+		}
+
+		/**
+		 * Returns this node with its children replaced by their canonical class ids.
+		 *
+		 * @param theGraph the e-graph this node belongs to
+		 * @return this node with canonical children
+		 */
+		ENode canonical(final EGraph theGraph) {
+			final int[] children = new int[myChildren.length];
+			for (int i = 0; i < children.length; i++) {
+				children[i] = theGraph.find(myChildren[i]);
+			}
+			return new ENode(myElement, children);
+		}
+
+		@Override
+		public boolean equals(final Object theOther) {
+			boolean result = this == theOther;
+			if (!result && theOther instanceof ENode) {
+				final ENode other = (ENode) theOther;
+				result = myHash == other.myHash && myElement.equals(other.myElement) &&
+				    Arrays.equals(myChildren, other.myChildren);
+			}
+			return result;
+		}
+
+		@Override
+		public int hashCode() {
+			return myHash;
+		}
+
+		@Override
+		public String toString() {
+			return myElement + Arrays.toString(myChildren);
+		}
+	}
+
+}
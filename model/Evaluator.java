@@ -0,0 +1,360 @@
+/**
+ * Evaluator - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTreeNode;
+
+/**
+ * Evaluator compiles a binary tree representing a symbolic mathematical expression into a tree
+ * of pre-bound closures that evaluate the expression numerically.
+ *
+ * Constants are parsed and variables are resolved to slots of the input array once, at compile
+ * time, so evaluating the compiled expression does no String work and allocates nothing. Every
+ * subtree without a variable is folded into a single constant while compiling, and a power
+ * with a small integer exponent is compiled into multiplications instead of a call to
+ * Math.pow. Expressions of a single variable can also be compiled into a DoubleUnaryOperator,
+ * which takes the value of the variable directly and passes it on to the compiled function of
+ * an array. The unsuffixed "log" function is the natural logarithm, matching its derivative in
+ * the Differentiator, and the leaf "e" is Euler's number unless it is one of the variables.
+ *
+ * @author Jacob Klymenko
+ * @version 1.2
+ */
+public class Evaluator {
+
+	/** The largest magnitude of an integer exponent compiled into multiplications. */
+	private static final int MAX_INTEGER_EXPONENT = 64;
+
+	/** A private constructor to inhibit external instantiation. */
+	private Evaluator() {
+		// do nothing
+	}
+
+	/**
+	 * Returns a function evaluating the specified root's equivalent expression at the values
+	 * held in an array, where index i holds the value of the i-th specified variable.
+	 *
+	 * @param theRoot		the root node representing the expression being compiled
+	 * @param theVariables	the variables of the expression, in the order of the input array
+	 * @return a function evaluating the expression at the values held in an array
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static ToDoubleFunction<double[]> compile(final BinaryTreeNode<String> theRoot,
+	    final List<String> theVariables) {
+		return compile(theRoot, theVariables, new IdentityHashMap<>());
+	}
+
+	/**
+	 * Returns a function evaluating the specified root's equivalent expression, reusing the
+	 * closures already compiled for shared subtrees.
+	 *
+	 * @param theRoot		the root node representing the expression segment being compiled
+	 * @param theVariables	the variables of the expression, in the order of the input array
+	 * @param theCompiled	the closures already compiled, by node identity
+	 * @return a function evaluating the expression at the values held in an array
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	static ToDoubleFunction<double[]> compile(final BinaryTreeNode<String> theRoot,
+	    final List<String> theVariables,
+	    final Map<BinaryTreeNode<String>, ToDoubleFunction<double[]>> theCompiled) {
+
+		ToDoubleFunction<double[]> result = theCompiled.get(theRoot);
+		if (result != null) {
+			return result;
+		}
+		final String rootElem = theRoot.getElement();
+		if (Differentiator.isOperator(rootElem)) {
+			final ToDoubleFunction<double[]> left =
+			    compile(theRoot.getLeft(), theVariables, theCompiled);
+			final ToDoubleFunction<double[]> right =
+			    compile(theRoot.getRight(), theVariables, theCompiled);
+			if (left instanceof Folded && right instanceof Folded) {
+				result = new Folded(operate(rootElem, ((Folded) left).myValue,
+				    ((Folded) right).myValue));
+			} else if (rootElem.equals("^") && isIntegerExponent(right)) {
+				final int exponent = (int) ((Folded) right).myValue;
+				if (exponent == 0) {
+					result = new Folded(1);
+				} else if (exponent == 1) {
+					result = left;
+				} else if (exponent == 2) {
+					result = vars -> {
+						final double base = left.applyAsDouble(vars);
+						return base * base;
+					};
+				} else {
+					result = vars -> power(left.applyAsDouble(vars), exponent);
+				}
+			} else {
+				switch (rootElem) {
+					case "+":
+						result = vars -> left.applyAsDouble(vars) + right.applyAsDouble(vars);
+						break;
+					case "-":
+						result = vars -> left.applyAsDouble(vars) - right.applyAsDouble(vars);
+						break;
+					case "*":
+						result = vars -> left.applyAsDouble(vars) * right.applyAsDouble(vars);
+						break;
+					case "/":
+						result = vars -> left.applyAsDouble(vars) / right.applyAsDouble(vars);
+						break;
+					default: // "^"
+						result = vars ->
+						    Math.pow(left.applyAsDouble(vars), right.applyAsDouble(vars));
+						break;
+				}
+			}
+		} else if (theRoot.getLeft() != null) { // a function with an optional coefficient
+			final ToDoubleFunction<double[]> inner =
+			    compile(theRoot.getLeft(), theVariables, theCompiled);
+			final String functionName = ExpressionParser.getFunction(rootElem);
+			final DoubleUnaryOperator function = function(functionName);
+			if (inner instanceof Folded) {
+				result = new Folded(function.applyAsDouble(((Folded) inner).myValue));
+			} else {
+				result = vars -> function.applyAsDouble(inner.applyAsDouble(vars));
+			}
+			final String prefix =
+			    rootElem.substring(0, rootElem.length() - functionName.length());
+			if (!prefix.isEmpty()) { // a coefficient or variable, such as 5sin(<inner>)
+				final ToDoubleFunction<double[]> factor = compile(new BinaryTreeNode<String>(
+				    prefix.equals("-") ? "-1" : prefix), theVariables, theCompiled);
+				final ToDoubleFunction<double[]> applied = result;
+				if (factor instanceof Folded && applied instanceof Folded) {
+					result = new Folded(((Folded) factor).myValue * ((Folded) applied).myValue);
+				} else {
+					result = vars -> factor.applyAsDouble(vars) * applied.applyAsDouble(vars);
+				}
+			}
+		} else if (ExpressionParser.isNumber(rootElem)) {
+			result = new Folded(Double.parseDouble(rootElem));
+		} else { // a variable with an optional coefficient
+			final String symbol = ExpressionParser.getSymbol(rootElem);
+			final double coefficient =
+			    Double.parseDouble(ExpressionParser.getCoefficient(rootElem));
+			final int slot = theVariables.indexOf(symbol);
+			if (slot >= 0) {
+				if (coefficient == 1) {
+					result = vars -> vars[slot];
+				} else {
+					result = vars -> coefficient * vars[slot];
+				}
+			} else if (symbol.equals("e")) {
+				result = new Folded(coefficient * Math.E);
+			} else {
+				throw new IllegalArgumentException("unknown symbol: " + rootElem);
+			}
+		}
+		theCompiled.put(theRoot, result);
+		return result;
+	}
+
+	/**
+	 * Returns a function evaluating the specified root's equivalent expression at the value of
+	 * its single variable. The expression is compiled as a function of a one-element array,
+	 * which is filled with the value of the variable in a scratch array of each thread.
+	 *
+	 * @param theRoot		the root node representing the expression being compiled
+	 * @param theVariable	the variable of the expression
+	 * @return a function evaluating the expression at the value of the variable
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static DoubleUnaryOperator compile(final BinaryTreeNode<String> theRoot,
+	    final String theVariable) {
+		final ToDoubleFunction<double[]> compiled = compile(theRoot, List.of(theVariable));
+		DoubleUnaryOperator result = null;
+		if (compiled instanceof Folded) {
+			result = (Folded) compiled;
+		} else {
+			final ThreadLocal<double[]> scratch = ThreadLocal.withInitial(() -> new double[1]);
+			result = x -> {
+				final double[] values = scratch.get();
+				values[0] = x;
+				return compiled.applyAsDouble(values);
+			};
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the specified compiled expression is a constant with an integer value
+	 * small enough to be compiled into multiplications when used as an exponent.
+	 *
+	 * @param theCompiled the compiled expression being examined
+	 * @return true if the compiled expression is a small integer constant; otherwise false
+	 */
+	private static boolean isIntegerExponent(final Object theCompiled) {
+		boolean result = false;
+		if (theCompiled instanceof Folded) {
+			final double value = ((Folded) theCompiled).myValue;
+			result = value == Math.rint(value) && Math.abs(value) <= MAX_INTEGER_EXPONENT;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the specified base raised to the specified integer exponent, by repeated
+	 * squaring.
+	 *
+	 * @param theBase		the base of the power
+	 * @param theExponent	the integer exponent of the power
+	 * @return the base raised to the exponent
+	 */
+	static double power(final double theBase, final int theExponent) {
+		double result = 1;
+		double square = theBase;
+		for (int remaining = Math.abs(theExponent); remaining != 0; remaining >>= 1) {
+			if ((remaining & 1) != 0) {
+				result *= square;
+			}
+			square *= square;
+		}
+		return theExponent < 0 ? 1 / result : result;
+	}
+
+	/**
+	 * Returns the result of applying the specified operator to the specified operands.
+	 *
+	 * @param theOperator	the operator being applied
+	 * @param theLeft		the left operand
+	 * @param theRight		the right operand
+	 * @return the result of the operation
+	 */
+	private static double operate(final String theOperator, final double theLeft,
+	    final double theRight) {
+		double result;
+		switch (theOperator) {
+			case "+":
+				result = theLeft + theRight;
+				break;
+			case "-":
+				result = theLeft - theRight;
+				break;
+			case "*":
+				result = theLeft * theRight;
+				break;
+			case "/":
+				result = theLeft / theRight;
+				break;
+			default: // "^"
+				result = Math.pow(theLeft, theRight);
+				break;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the numeric implementation of the specified function.
+	 *
+	 * @param theFunction the name of the function, without a coefficient
+	 * @return the numeric implementation of the function
+	 * @throws IllegalArgumentException if the function is not accepted by this calculator
+	 */
+	static DoubleUnaryOperator function(final String theFunction) {
+		DoubleUnaryOperator result = null;
+		if (theFunction.startsWith("log_")) { // log_<base>
+			final double logBase = Math.log(Double.parseDouble(theFunction.substring(4)));
+			result = x -> Math.log(x) / logBase;
+		} else {
+			switch (theFunction) {
+				case "abs":
+					result = Math::abs;
+					break;
+				case "sin":
+					result = Math::sin;
+					break;
+				case "cos":
+					result = Math::cos;
+					break;
+				case "tan":
+					result = Math::tan;
+					break;
+				case "sec":
+					result = x -> 1 / Math.cos(x);
+					break;
+				case "csc":
+					result = x -> 1 / Math.sin(x);
+					break;
+				case "cot":
+					result = x -> 1 / Math.tan(x);
+					break;
+				case "arcsin":
+					result = Math::asin;
+					break;
+				case "arccos":
+					result = Math::acos;
+					break;
+				case "arctan":
+					result = Math::atan;
+					break;
+				case "arcsec":
+					result = x -> Math.acos(1 / x);
+					break;
+				case "arccsc":
+					result = x -> Math.asin(1 / x);
+					break;
+				case "arccot":
+					result = x -> Math.PI / 2 - Math.atan(x);
+					break;
+				case "ln":
+				case "log":
+					result = Math::log;
+					break;
+				default:
+					throw new IllegalArgumentException("unknown function: " + theFunction);
+			}
+		}
+		return result;
+	}
+
+	// INNER CLASS FOLDED
+
+	/**
+	 * Inner class to represent a compiled expression without a variable, folded into its
+	 * constant value at compile time.
+	 */
+	private static final class Folded implements ToDoubleFunction<double[]>, DoubleUnaryOperator {
+
+		/** The constant value of the expression. */
+		private final double myValue;
+
+		/**
+		 * Sets up this compiled expression with the specified constant value.
+		 *
+		 * @param theValue the constant value of the expression
+		 */
+		Folded(final double theValue) {
+			myValue = theValue;
+		}
+
+		/**
+		 * Returns the constant value of the expression, whatever the values of the variables.
+		 *
+		 * @param theValues the values of the variables
+		 * @return the constant value of the expression
+		 */
+		@Override
+		public double applyAsDouble(final double[] theValues) {
+			return myValue;
+		}
+
+		/**
+		 * Returns the constant value of the expression, whatever the value of the variable.
+		 *
+		 * @param theValue the value of the variable
+		 * @return the constant value of the expression
+		 */
+		@Override
+		public double applyAsDouble(final double theValue) {
+			return myValue;
+		}
+	}
+}
@@ -7,22 +7,28 @@ package model;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import structures.BinaryTree;
 
 /**
  * ExpressionParser implements the shunting yard algorithm by Edsger Dijkstra to parse
- * symbolic expressions.
+ * symbolic expressions, into a binary tree or into a list of tokens in postfix order.
  *
  * @author Jacob Klymenko
- * @version 3.0
+ * @version 3.4
  */
 public class ExpressionParser {
 
-	/** Keeps track if the input expression is valid. */
-	private static boolean myIsValid = true;
+	/** The pattern matching a numeric constant operand. */
+	private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+	/** The pattern matching the numeric coefficient prefixed to a variable or function. */
+	private static final Pattern COEFFICIENT = Pattern.compile("^-?[0-9.]*");
+
+	/** Keeps track if the input expression last parsed on every thread is valid. */
+	private static final ThreadLocal<Boolean> IS_VALID = ThreadLocal.withInitial(() -> true);
 
 	/** A set containing the accepted mathematical functions. */
 	private static HashSet<String> myFunctions = new HashSet<String>();
@@ -61,37 +67,41 @@ public class ExpressionParser {
 	 * @return a list with the user expression separated in infix notation order
 	 */
 	public static ArrayList<String> stringToList(final String theUserInput) {
-		final String userInput = theUserInput.replace("/^\\s+|\\s+$/g", "");
-		ArrayList<String> result = new ArrayList<>();
-		Map<Integer, String> spaces = new HashMap<Integer, String>();
-		// keeps track of all the space characters from the input string in a map
-		for (int i = 0; i < userInput.length(); i++) {
-			if (userInput.charAt(i) == ' ') {
-				spaces.put(i, " ");
-			}
-		}
+		return stringToList((CharSequence) theUserInput.replace("/^\\s+|\\s+$/g", ""));
+	}
+
+	/**
+	 * Parses the specified expression into a list the same way as stringToList of a String,
+	 * reading it through the CharSequence interface so a line of a memory-mapped file can be
+	 * lexed where it lies. Only the tokens are copied into Strings.
+	 *
+	 * @param theInput the symbolic expression
+	 * @return a list with the expression separated in infix notation order
+	 */
+	public static ArrayList<String> stringToList(final CharSequence theInput) {
+		final ArrayList<String> result = new ArrayList<String>();
+		final int length = theInput.length();
 		int track = 0;
-		for (int j = 0; j < userInput.length(); j++) {
-			char curr = userInput.charAt(j);
-			String sub = userInput.substring(track, j);
+		for (int j = 0; j < length; j++) {
+			final char curr = theInput.charAt(j);
 			if (curr == '(' || curr == ')') {
 				// adds the corresponding substring before/after the parenthesis to the list
 				if (track != j) {
-					result.add(sub);
+					result.add(theInput.subSequence(track, j).toString());
 				}
 				// adds the parenthesis to the list
-				result.add(Character.toString(userInput.charAt(j)));
+				result.add(curr == '(' ? "(" : ")");
 				track = j + 1;
 				// adds the substring block between the space characters to the list
-			} else if (spaces.containsKey(j)) {
-				if (userInput.charAt(track) != ' ') {
-					result.add(sub);
+			} else if (curr == ' ') {
+				if (theInput.charAt(track) != ' ') {
+					result.add(theInput.subSequence(track, j).toString());
 				}
 				track = j + 1;
 			}
 		}
-		if (track != userInput.length()) {
-			result.add(userInput.substring(track));
+		if (track != length) {
+			result.add(theInput.subSequence(track, length).toString());
 		}
 		return result;
 	}
@@ -104,14 +114,49 @@ public class ExpressionParser {
 	 * @return the infix notation expression represented in a binary tree
 	 */
 	public static BinaryTree<String> shuntingYardTree(final ArrayList<String> theInfixList) {
-		Deque<BinaryTree<String>> operandStack = new ArrayDeque<BinaryTree<String>>();
+		return shuntingYard(theInfixList, new TreeBuilder());
+	}
+
+	/**
+	 * This implementation of the shunting yard algorithm parses a list containing the user
+	 * expression in infix notation, and converts it to a list of the same tokens in postfix
+	 * order, in which every operator and function follows its operands. The list holds the
+	 * tokens of the expression the binary tree of shuntingYardTree would represent.
+	 *
+	 * @param theInfixList the infix notation expression displayed as a List
+	 * @return the expression as a list of tokens in postfix order, or null if it is empty
+	 */
+	public static ArrayList<String> shuntingYardPostfix(final ArrayList<String> theInfixList) {
+		final PostfixBuilder builder = new PostfixBuilder();
+		final Integer start = shuntingYard(theInfixList, builder);
+		ArrayList<String> result = null;
+		if (start != null) {
+			result = new ArrayList<String>(builder.myTokens.subList(start,
+			    builder.myTokens.size()));
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a list containing the user expression in infix notation, and builds the parsed
+	 * expression with the specified builder, one operand, operator or function at a time in
+	 * postfix order.
+	 *
+	 * @param <T>			the type of the parsed expressions built
+	 * @param theInfixList	the infix notation expression displayed as a List
+	 * @param theBuilder	the builder of the parsed expressions
+	 * @return the parsed expression, or null if the list holds no operand
+	 */
+	private static <T> T shuntingYard(final ArrayList<String> theInfixList,
+	    final Builder<T> theBuilder) {
+		Deque<T> operandStack = new ArrayDeque<T>();
 		Deque<String> operatorStack = new ArrayDeque<String>();
-		myIsValid = true;
+		setIsValid(true);
 
 		for (String s : theInfixList) {
-			if (s.matches("-?\\d+(\\.\\d+)?") ||
+			if (isNumber(s) ||
 			    (!isFunction(s) && s.matches(".*[a-zA-Z].*"))) {
-				operandStack.push(new BinaryTree<String>(s));
+				operandStack.push(theBuilder.leaf(s));
 			} else if (isFunction(s)) {
 				operatorStack.push(s);
 			} else if (s.charAt(0) == '(') {
@@ -121,14 +166,14 @@ public class ExpressionParser {
 					while (!operatorStack.peek().equals("(") && !operatorStack.isEmpty() &&
 					    !isFunction(operatorStack.peek())) {
 						// operator becomes the root of two binary trees
-						mergeTrees(operandStack, operatorStack.pop());
+						mergeTrees(operandStack, operatorStack.pop(), theBuilder);
 					}
 					if (operatorStack.peek().equals("(")) {
 						operatorStack.pop(); // discard this element
 					}
 					if (operatorStack.peek() != null && isFunction(operatorStack.peek())) {
 						// function becomes the root of one binary tree
-						mergeTrees(operandStack, operatorStack.pop());
+						mergeTrees(operandStack, operatorStack.pop(), theBuilder);
 					}
 				} catch (final Exception theError) {
 					setIsValid(false);
@@ -140,7 +185,7 @@ public class ExpressionParser {
 				    (getPrecedence(operatorStack.peek()) > getPrecedence(s) ||
 				        (getPrecedence(operatorStack.peek()) == getPrecedence(s) &&
 				            isLeftAssociative(s)))) {
-					mergeTrees(operandStack, operatorStack.pop());
+					mergeTrees(operandStack, operatorStack.pop(), theBuilder);
 				}
 				operatorStack.push(s);
 			}
@@ -153,7 +198,7 @@ public class ExpressionParser {
 				setIsValid(false);
 				break;
 			} else if (getPrecedence(top) > 0 || isFunction(top)) {
-				mergeTrees(operandStack, operatorStack.pop());
+				mergeTrees(operandStack, operatorStack.pop(), theBuilder);
 			}
 		}
 		return operandStack.peek();
@@ -186,42 +231,109 @@ public class ExpressionParser {
 		return result;
 	}
 
+	/**
+	 * Returns true if the string is a numeric constant, otherwise false.
+	 *
+	 * @param theString the string being examined as a numeric constant
+	 * @return true if the string is a numeric constant; otherwise false
+	 */
+	public static boolean isNumber(final String theString) {
+		return NUMBER.matcher(theString).matches();
+	}
+
+	/**
+	 * Returns the numeric coefficient prefixed to a variable or function, such as "5" in "5x"
+	 * or "2.0" in "2.0sin". A missing coefficient is returned as "1" and a lone minus sign as
+	 * "-1".
+	 *
+	 * @param theString the string containing a variable or function with an optional coefficient
+	 * @return the numeric coefficient of the string represented as a String
+	 */
+	public static String getCoefficient(final String theString) {
+		final Matcher matcher = COEFFICIENT.matcher(theString);
+		String result = "";
+		if (matcher.find()) {
+			result = matcher.group();
+		}
+		if (result.isEmpty()) {
+			result = "1";
+		} else if (result.equals("-")) {
+			result = "-1";
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the variable or function of the string with its numeric coefficient removed, such
+	 * as "x" in "5x" or "sin" in "2.0sin".
+	 *
+	 * @param theString the string containing a variable or function with an optional coefficient
+	 * @return the variable or function of the string without its coefficient
+	 */
+	public static String getSymbol(final String theString) {
+		final Matcher matcher = COEFFICIENT.matcher(theString);
+		String result = theString;
+		if (matcher.find()) {
+			result = theString.substring(matcher.end());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the function at the end of the string, such as "sin" in "2.0sin" or "xsin", or an
+	 * empty String if the string does not end in a function.
+	 *
+	 * @param theString the string being examined for a function
+	 * @return the function at the end of the string, or an empty String if there is none
+	 */
+	public static String getFunction(final String theString) {
+		String result = "";
+		for (int i = 0; i < theString.length() && result.isEmpty(); i++) {
+			if (isFunction(theString.substring(i))) {
+				result = theString.substring(i);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Merges the one or two last binary trees in the operand stack as children to the new
 	 * root, the operator or function.
 	 *
+	 * @param <T>				the type of the parsed expressions in the operand stack
 	 * @param theOperandStack	the operand stack containing binary trees
 	 * @param theString			the function or operator becoming the new root in the tree
+	 * @param theBuilder		the builder of the parsed expressions
 	 */
-	private static void mergeTrees(final Deque<BinaryTree<String>> theOperandStack,
-	    final String theString) {
+	private static <T> void mergeTrees(final Deque<T> theOperandStack, final String theString,
+	    final Builder<T> theBuilder) {
 
 		if (isFunction(theString)) {
-			final BinaryTree<String> leftSubTree = theOperandStack.pop();
-			theOperandStack.push(new BinaryTree<String>(theString, leftSubTree, null));
+			final T leftSubTree = theOperandStack.pop();
+			theOperandStack.push(theBuilder.merge(theString, leftSubTree, null));
 		} else { // else theString is an operator
-			final BinaryTree<String> rightSubTree = theOperandStack.pop();
-			final BinaryTree<String> leftSubTree = theOperandStack.pop();
-			theOperandStack.push(new BinaryTree<String>(theString, leftSubTree, rightSubTree));
+			final T rightSubTree = theOperandStack.pop();
+			final T leftSubTree = theOperandStack.pop();
+			theOperandStack.push(theBuilder.merge(theString, leftSubTree, rightSubTree));
 		}
 	}
 
 	/**
-	 * Sets the class boolean myIsValid to either true or false.
+	 * Sets whether the expression being parsed on the current thread is valid.
 	 *
 	 * @param theBoolean the boolean value
 	 */
 	private static void setIsValid(final boolean theBoolean) {
-		myIsValid = theBoolean;
+		IS_VALID.set(theBoolean);
 	}
 
 	/**
-	 * Returns the value of class boolean myIsValid.
+	 * Returns whether the expression last parsed on the current thread is valid.
 	 *
-	 * @return the value of class boolean myIsValid
+	 * @return true if the expression last parsed on the current thread is valid
 	 */
 	public static boolean getIsValid() {
-		return myIsValid;
+		return IS_VALID.get();
 	}
 
 	/**
@@ -272,4 +384,110 @@ public class ExpressionParser {
 		}
 		return result;
 	}
+
+	// INNER INTERFACE BUILDER
+
+	/**
+	 * Inner interface to represent a builder of parsed expressions, called by the shunting
+	 * yard algorithm for every operand, operator and function in postfix order.
+	 *
+	 * @param <T> the type of the parsed expressions built
+	 */
+	private interface Builder<T> {
+
+		/**
+		 * Returns the parsed expression of the specified operand.
+		 *
+		 * @param theOperand the operand, a number or a variable
+		 * @return the parsed expression of the operand
+		 */
+		T leaf(String theOperand);
+
+		/**
+		 * Returns the parsed expression of the specified operator or function applied to the
+		 * specified parsed expressions.
+		 *
+		 * @param theRoot	the operator or function
+		 * @param theLeft	the left operand, or the argument of a function
+		 * @param theRight	the right operand, or null for a function
+		 * @return the parsed expression of the operation
+		 */
+		T merge(String theRoot, T theLeft, T theRight);
+	}
+
+	// INNER CLASS TREE BUILDER
+
+	/**
+	 * Inner class to represent the builder of parsed expressions as binary trees.
+	 */
+	private static final class TreeBuilder implements Builder<BinaryTree<String>> {
+
+		/**
+		 * Returns a binary tree holding the specified operand.
+		 *
+		 * @param theOperand the operand, a number or a variable
+		 * @return a binary tree holding the operand
+		 */
+		@Override
+		public BinaryTree<String> leaf(final String theOperand) {
+			return new BinaryTree<String>(theOperand);
+		}
+
+		/**
+		 * Returns a binary tree with the specified operator or function as its root and the
+		 * specified binary trees as its subtrees.
+		 *
+		 * @param theRoot	the operator or function
+		 * @param theLeft	the left subtree
+		 * @param theRight	the right subtree, or null for a function
+		 * @return the merged binary tree
+		 */
+		@Override
+		public BinaryTree<String> merge(final String theRoot, final BinaryTree<String> theLeft,
+		    final BinaryTree<String> theRight) {
+			return new BinaryTree<String>(theRoot, theLeft, theRight);
+		}
+	}
+
+	// INNER CLASS POSTFIX BUILDER
+
+	/**
+	 * Inner class to represent the builder of parsed expressions as lists of tokens in postfix
+	 * order. Every expression on the operand stack is a consecutive run of the tokens appended
+	 * so far, and is represented by the index of its first token; merging the two last runs
+	 * and appending the operator leaves a single run.
+	 */
+	private static final class PostfixBuilder implements Builder<Integer> {
+
+		/** The tokens appended so far. */
+		private final ArrayList<String> myTokens = new ArrayList<String>();
+
+		/**
+		 * Appends the specified operand and returns its index.
+		 *
+		 * @param theOperand the operand, a number or a variable
+		 * @return the index of the operand's token
+		 */
+		@Override
+		public Integer leaf(final String theOperand) {
+			myTokens.add(theOperand);
+			return myTokens.size() - 1;
+		}
+
+		/**
+		 * Appends the specified operator or function after its operands and returns the
+		 * index of the first token of the operation.
+		 *
+		 * @param theRoot	the operator or function
+		 * @param theLeft	the index of the first token of the left operand or argument
+		 * @param theRight	the index of the first token of the right operand, or null
+		 * @return the index of the first token of the operation
+		 */
+		@Override
+		public Integer merge(final String theRoot, final Integer theLeft,
+		    final Integer theRight) {
+			myTokens.add(theRoot);
+			return theLeft;
+		}
+	}
 }
@@ -0,0 +1,324 @@
+/**
+ * ExpressionTemplate - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+/**
+ * ExpressionTemplate represents a symbolic mathematical expression of one variable whose other
+ * symbols are parameters, numeric coefficients given later, such as a, b and c in
+ * "((a * (x ^ 2)) + (b * x)) + c". The parameters are constants for the derivative, unlike the
+ * symbols the Differentiator treats as functions of the variable.
+ *
+ * The template is parsed, derived, simplified and compiled once. Every set of parameter
+ * values is then bound to it without going through the symbolic pipeline again: evaluating
+ * binds the values to the compiled code of the BytecodeCompiler, and printing substitutes them
+ * into the simplified trees and folds the resulting constants.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class ExpressionTemplate {
+
+	/** The variable of the expression. */
+	private final String myVariable;
+
+	/** The parameters of the expression, in the order their values are bound. */
+	private final List<String> myParameters;
+
+	/** The simplified expression. */
+	private final BinaryTreeNode<String> myFunction;
+
+	/** The simplified derivative of the expression with respect to the variable. */
+	private final BinaryTreeNode<String> myDerivative;
+
+	/** The compiled expression, of the variable followed by the parameters. */
+	private final ToDoubleFunction<double[]> myCompiledFunction;
+
+	/** The compiled derivative, of the variable followed by the parameters. */
+	private final ToDoubleFunction<double[]> myCompiledDerivative;
+
+	/**
+	 * Creates the template of the specified expression, derived and compiled once.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theVariable	the variable of the expression
+	 * @param theParameters	the parameters of the expression
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	private ExpressionTemplate(final BinaryTreeNode<String> theRoot, final String theVariable,
+	    final List<String> theParameters) {
+		final List<String> inputs = new ArrayList<String>();
+		inputs.add(theVariable);
+		inputs.addAll(theParameters);
+		myVariable = theVariable;
+		myParameters = theParameters;
+		myFunction = Simplifier.simplify(theRoot);
+		myDerivative = Simplifier.simplify(
+		    Differentiator.derivePartial(theRoot, new BinaryTreeNode<String>(theVariable)));
+		myCompiledFunction = BytecodeCompiler.compile(myFunction, inputs);
+		myCompiledDerivative = BytecodeCompiler.compile(myDerivative, inputs);
+	}
+
+	/**
+	 * Returns the template of the specified expression in the specified variable, whose other
+	 * symbols are the specified parameters.
+	 *
+	 * @param theExpression	the expression in infix notation
+	 * @param theVariable	the variable of the expression
+	 * @param theParameters	the parameters of the expression, in the order their values are
+	 *        bound
+	 * @return the template of the expression
+	 * @throws IllegalArgumentException if the expression is invalid or contains a symbol that
+	 *         is neither the variable nor a parameter
+	 */
+	public static ExpressionTemplate compile(final String theExpression,
+	    final String theVariable, final String... theParameters) {
+		final BinaryTree<String> tree =
+		    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(theExpression));
+		if (!ExpressionParser.getIsValid() || tree == null) {
+			throw new IllegalArgumentException("invalid expression: " + theExpression);
+		}
+		return compile(tree.getNode(), theVariable, theParameters);
+	}
+
+	/**
+	 * Returns the template of the specified root's expression in the specified variable, whose
+	 * other symbols are the specified parameters.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theVariable	the variable of the expression
+	 * @param theParameters	the parameters of the expression, in the order their values are
+	 *        bound
+	 * @return the template of the expression
+	 * @throws IllegalArgumentException if the expression contains a symbol that is neither the
+	 *         variable nor a parameter, or a parameter is the variable or given twice
+	 */
+	public static ExpressionTemplate compile(final BinaryTreeNode<String> theRoot,
+	    final String theVariable, final String... theParameters) {
+		final List<String> parameters = List.of(theParameters);
+		if (parameters.contains(theVariable) ||
+		    parameters.stream().distinct().count() != parameters.size()) {
+			throw new IllegalArgumentException("parameters " + parameters +
+			    " repeat themselves or the variable " + theVariable);
+		}
+		return new ExpressionTemplate(theRoot, theVariable, parameters);
+	}
+
+	/**
+	 * Returns the value of the expression at the specified value of the variable, with the
+	 * specified parameter values bound.
+	 *
+	 * @param theValue		the value of the variable
+	 * @param theParameters	the values of the parameters
+	 * @return the value of the expression
+	 * @throws IllegalArgumentException if the number of parameter values is wrong
+	 */
+	public double evaluate(final double theValue, final double... theParameters) {
+		return myCompiledFunction.applyAsDouble(input(theValue, theParameters));
+	}
+
+	/**
+	 * Returns the value of the derivative at the specified value of the variable, with the
+	 * specified parameter values bound.
+	 *
+	 * @param theValue		the value of the variable
+	 * @param theParameters	the values of the parameters
+	 * @return the value of the derivative
+	 * @throws IllegalArgumentException if the number of parameter values is wrong
+	 */
+	public double evaluateDerivative(final double theValue, final double... theParameters) {
+		return myCompiledDerivative.applyAsDouble(input(theValue, theParameters));
+	}
+
+	/**
+	 * Returns the expression with the specified parameter values bound and its constants
+	 * folded.
+	 *
+	 * @param theParameters the values of the parameters
+	 * @return the root node of the bound expression
+	 * @throws IllegalArgumentException if the number of parameter values is wrong or a value is
+	 *         not finite
+	 */
+	public BinaryTreeNode<String> bind(final double... theParameters) {
+		return Simplifier.simplify(substitute(myFunction, values(theParameters),
+		    new IdentityHashMap<BinaryTreeNode<String>, BinaryTreeNode<String>>()));
+	}
+
+	/**
+	 * Returns the derivative with the specified parameter values bound and its constants
+	 * folded.
+	 *
+	 * @param theParameters the values of the parameters
+	 * @return the root node of the bound derivative
+	 * @throws IllegalArgumentException if the number of parameter values is wrong or a value is
+	 *         not finite
+	 */
+	public BinaryTreeNode<String> bindDerivative(final double... theParameters) {
+		return Simplifier.simplify(substitute(myDerivative, values(theParameters),
+		    new IdentityHashMap<BinaryTreeNode<String>, BinaryTreeNode<String>>()));
+	}
+
+	/**
+	 * Returns the variable of the expression.
+	 *
+	 * @return the variable of the expression
+	 */
+	public String getVariable() {
+		return myVariable;
+	}
+
+	/**
+	 * Returns the parameters of the expression.
+	 *
+	 * @return the parameters, in the order their values are bound
+	 */
+	public List<String> getParameters() {
+		return myParameters;
+	}
+
+	/**
+	 * Returns the simplified expression, with its parameters unbound.
+	 *
+	 * @return the root node of the expression
+	 */
+	public BinaryTreeNode<String> getFunction() {
+		return myFunction;
+	}
+
+	/**
+	 * Returns the simplified derivative, with its parameters unbound.
+	 *
+	 * @return the root node of the derivative
+	 */
+	public BinaryTreeNode<String> getDerivative() {
+		return myDerivative;
+	}
+
+	/**
+	 * Returns the input array of the compiled expressions holding the specified value of the
+	 * variable followed by the specified parameter values.
+	 *
+	 * @param theValue		the value of the variable
+	 * @param theParameters	the values of the parameters
+	 * @return a new input array
+	 * @throws IllegalArgumentException if the number of parameter values is wrong
+	 */
+	private double[] input(final double theValue, final double[] theParameters) {
+		checkCount(theParameters);
+		final double[] result = new double[theParameters.length + 1];
+		result[0] = theValue;
+		System.arraycopy(theParameters, 0, result, 1, theParameters.length);
+		return result;
+	}
+
+	/**
+	 * Returns the constant of every parameter, by parameter.
+	 *
+	 * @param theParameters the values of the parameters
+	 * @return the constant of every parameter
+	 * @throws IllegalArgumentException if the number of parameter values is wrong or a value is
+	 *         not finite
+	 */
+	private Map<String, Constant> values(final double[] theParameters) {
+		checkCount(theParameters);
+		final Map<String, Constant> result = new HashMap<String, Constant>();
+		for (int i = 0; i < theParameters.length; i++) {
+			if (!Double.isFinite(theParameters[i])) {
+				throw new IllegalArgumentException("value " + theParameters[i] + " of " +
+				    myParameters.get(i) + " is not finite");
+			}
+			result.put(myParameters.get(i), Constant.valueOf(theParameters[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Checks that the specified array holds a value for every parameter.
+	 *
+	 * @param theParameters the values of the parameters
+	 * @throws IllegalArgumentException if the number of parameter values is wrong
+	 */
+	private void checkCount(final double[] theParameters) {
+		if (theParameters.length != myParameters.size()) {
+			throw new IllegalArgumentException(theParameters.length + " values for parameters " +
+			    myParameters);
+		}
+	}
+
+	/**
+	 * Returns a copy of the specified root's expression with every parameter replaced by its
+	 * value times its coefficient, in a leaf or as the prefix of a function. Shared subtrees
+	 * are copied once and stay shared.
+	 *
+	 * @param theRoot			the root node representing the expression segment
+	 * @param theValues			the constant of every parameter
+	 * @param theSubstituted	the copies already made, by node identity
+	 * @return the root node of the copy
+	 */
+	private static BinaryTreeNode<String> substitute(final BinaryTreeNode<String> theRoot,
+	    final Map<String, Constant> theValues,
+	    final Map<BinaryTreeNode<String>, BinaryTreeNode<String>> theSubstituted) {
+
+		BinaryTreeNode<String> result = theSubstituted.get(theRoot);
+		if (result != null) {
+			return result;
+		}
+		final String rootElem = theRoot.getElement();
+		String element = rootElem;
+		if (theRoot.getLeft() == null) {
+			element = bound(rootElem, theValues);
+		} else if (!Differentiator.isOperator(rootElem)) { // a function with a prefix
+			final String functionName = ExpressionParser.getFunction(rootElem);
+			final String prefix =
+			    rootElem.substring(0, rootElem.length() - functionName.length());
+			if (!prefix.isEmpty() && !prefix.equals("-")) {
+				final String factor = bound(prefix, theValues);
+				if (factor.equals("1")) {
+					element = functionName;
+				} else if (factor.equals("-1")) {
+					element = "-" + functionName;
+				} else {
+					element = factor + functionName;
+				}
+			}
+		}
+		result = new BinaryTreeNode<String>(element,
+		    theRoot.getLeft() == null ? null : substitute(theRoot.getLeft(), theValues,
+		        theSubstituted),
+		    theRoot.getRight() == null ? null : substitute(theRoot.getRight(), theValues,
+		        theSubstituted));
+		theSubstituted.put(theRoot, result);
+		return result;
+	}
+
+	/**
+	 * Returns the specified leaf with its parameter replaced by its value times the leaf's
+	 * coefficient, or the leaf itself if it is not a parameter.
+	 *
+	 * @param theLeaf	the leaf, a number or a symbol with an optional coefficient
+	 * @param theValues	the constant of every parameter
+	 * @return the bound leaf
+	 */
+	private static String bound(final String theLeaf, final Map<String, Constant> theValues) {
+		String result = theLeaf;
+		if (!ExpressionParser.isNumber(theLeaf)) {
+			final Constant value = theValues.get(ExpressionParser.getSymbol(theLeaf));
+			if (value != null) {
+				result = Constant.valueOf(ExpressionParser.getCoefficient(theLeaf))
+				    .multiply(value).toString();
+			}
+		}
+		return result;
+	}
+
+}
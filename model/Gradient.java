@@ -0,0 +1,419 @@
+/**
+ * Gradient - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import structures.BinaryTreeNode;
+
+/**
+ * Gradient computes every partial derivative of a binary tree representing a symbolic
+ * mathematical expression in a single traversal.
+ *
+ * Each node of the expression is visited once, producing a sparse map from the variables it
+ * depends on to the partial derivative of that node. The chain rule factor of a node, such as
+ * cos(u) for sin(u), is built once and shared by the partial derivatives of every variable, and
+ * subtrees shared between expressions of a Jacobian are only differentiated once.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class Gradient {
+
+	/** The String representing Euler's number, which is never treated as a variable. */
+	private static final String EULERS_NUM = "e";
+
+	/** A private constructor to inhibit external instantiation. */
+	private Gradient() {
+		// do nothing
+	}
+
+	/**
+	 * Returns a list of binary tree nodes representing the partial derivatives of the specified
+	 * root's equivalent expression, one for each specified variable in the same order. Symbols
+	 * that are not one of the specified variables are treated as constants.
+	 *
+	 * @param theRoot		the root node representing the expression being derived
+	 * @param theVariables	the variables of differentiation
+	 * @return a list of binary tree nodes representing the partial derivatives of the expression
+	 */
+	public static List<BinaryTreeNode<String>> gradient(final BinaryTreeNode<String> theRoot,
+	    final List<String> theVariables) {
+		return toList(partials(theRoot, new HashSet<String>(theVariables),
+		    new IdentityHashMap<BinaryTreeNode<String>, Map<String, BinaryTreeNode<String>>>()),
+		    theVariables);
+	}
+
+	/**
+	 * Returns the Jacobian of the specified expressions over the specified variables. Row i of
+	 * the result holds the partial derivatives of the i-th expression. Subtrees shared between
+	 * the expressions are differentiated once and their derivatives share nodes.
+	 *
+	 * @param theRoots		the root nodes representing the expressions being derived
+	 * @param theVariables	the variables of differentiation shared by every expression
+	 * @return a list of rows, each holding the partial derivatives of one expression
+	 */
+	public static List<List<BinaryTreeNode<String>>> jacobian(
+	    final List<BinaryTreeNode<String>> theRoots, final List<String> theVariables) {
+		final Map<BinaryTreeNode<String>, Map<String, BinaryTreeNode<String>>> memo =
+		    new IdentityHashMap<>();
+		final Set<String> variables = new HashSet<String>(theVariables);
+		final List<List<BinaryTreeNode<String>>> result = new ArrayList<>();
+		for (BinaryTreeNode<String> root : theRoots) {
+			result.add(toList(partials(root, variables, memo), theVariables));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the distinct variables in the specified root's equivalent expression in sorted
+	 * order. Euler's number and Leibniz's notation nodes are not considered variables.
+	 *
+	 * @param theRoot the root node representing the expression
+	 * @return the distinct variables in the expression in sorted order
+	 */
+	public static List<String> variables(final BinaryTreeNode<String> theRoot) {
+		final TreeSet<String> variables = new TreeSet<>();
+		collectVariables(theRoot, variables);
+		return new ArrayList<String>(variables);
+	}
+
+	/**
+	 * Adds the variables found in the specified root and its children to the specified set.
+	 *
+	 * @param theRoot		the root node being searched for variables
+	 * @param theVariables	the set collecting the variables
+	 */
+	private static void collectVariables(final BinaryTreeNode<String> theRoot,
+	    final TreeSet<String> theVariables) {
+		if (theRoot != null) {
+			if (theRoot.getLeft() == null && theRoot.getRight() == null) {
+				final String elem = theRoot.getElement();
+				final String symbol = ExpressionParser.getSymbol(elem);
+				if (!ExpressionParser.isNumber(elem) && !symbol.isEmpty() &&
+				    !symbol.equals(EULERS_NUM) && !symbol.contains("/")) {
+					theVariables.add(symbol);
+				}
+			} else {
+				collectVariables(theRoot.getLeft(), theVariables);
+				collectVariables(theRoot.getRight(), theVariables);
+			}
+		}
+	}
+
+	/**
+	 * Returns the sparse partial derivatives of the specified root, mapping only the variables
+	 * the root depends on to their partial derivatives. Results are memoized by node identity so
+	 * a shared subtree is only differentiated once.
+	 *
+	 * @param theRoot		the root node representing the expression segment being derived
+	 * @param theVariables	the variables of differentiation
+	 * @param theMemo		the memoized partial derivatives of already visited nodes
+	 * @return a map from each variable the root depends on to its partial derivative
+	 */
+	static Map<String, BinaryTreeNode<String>> partials(final BinaryTreeNode<String> theRoot,
+	    final Set<String> theVariables,
+	    final Map<BinaryTreeNode<String>, Map<String, BinaryTreeNode<String>>> theMemo) {
+
+		Map<String, BinaryTreeNode<String>> result = theMemo.get(theRoot);
+		if (result != null) {
+			return result;
+		}
+		final String rootElem = theRoot.getElement();
+		if (Differentiator.isOperator(rootElem)) {
+			final Map<String, BinaryTreeNode<String>> left =
+			    partials(theRoot.getLeft(), theVariables, theMemo);
+			final Map<String, BinaryTreeNode<String>> right =
+			    partials(theRoot.getRight(), theVariables, theMemo);
+			result = partialsOperator(theRoot, left, right);
+		} else if (theRoot.getLeft() != null) { // a function with an optional coefficient
+			final String function = ExpressionParser.getFunction(rootElem);
+			final String prefix = rootElem.substring(0, rootElem.length() - function.length());
+			if (prefix.matches(".*[a-zA-Z].*")) { // <prefix> * <function>(<inner>)
+				final BinaryTreeNode<String> product = new BinaryTreeNode<String>("*",
+				    node(prefix), new BinaryTreeNode<String>(function, theRoot.getLeft(), null));
+				result = partials(product, theVariables, theMemo);
+			} else {
+				final Map<String, BinaryTreeNode<String>> inner =
+				    partials(theRoot.getLeft(), theVariables, theMemo);
+				result = new LinkedHashMap<>();
+				if (!inner.isEmpty()) {
+					final BinaryTreeNode<String> factor = functionFactor(theRoot);
+					for (Map.Entry<String, BinaryTreeNode<String>> entry : inner.entrySet()) {
+						result.put(entry.getKey(), times(factor, entry.getValue()));
+					}
+				}
+			}
+		} else { // a constant or a variable with an optional coefficient
+			result = new LinkedHashMap<>();
+			if (!ExpressionParser.isNumber(rootElem)) {
+				final String symbol = ExpressionParser.getSymbol(rootElem);
+				if (theVariables.contains(symbol)) {
+					result.put(symbol,
+					    new BinaryTreeNode<String>(ExpressionParser.getCoefficient(rootElem)));
+				}
+			}
+		}
+		theMemo.put(theRoot, result);
+		return result;
+	}
+
+	/**
+	 * Applies the corresponding operator differentiation rule to the partial derivatives of the
+	 * left and right operands of the specified root.
+	 *
+	 * @param theRoot	the root node containing the operator
+	 * @param theLeft	the partial derivatives of the left operand
+	 * @param theRight	the partial derivatives of the right operand
+	 * @return a map from each variable the root depends on to its partial derivative
+	 */
+	private static Map<String, BinaryTreeNode<String>> partialsOperator(
+	    final BinaryTreeNode<String> theRoot, final Map<String, BinaryTreeNode<String>> theLeft,
+	    final Map<String, BinaryTreeNode<String>> theRight) {
+
+		final Map<String, BinaryTreeNode<String>> result = new LinkedHashMap<>();
+		if (theLeft.isEmpty() && theRight.isEmpty()) { // both operands are constants
+			return result;
+		}
+		final BinaryTreeNode<String> leftNode = theRoot.getLeft();
+		final BinaryTreeNode<String> rightNode = theRoot.getRight();
+		final List<String> variables = new ArrayList<>(theLeft.keySet());
+		for (String var : theRight.keySet()) {
+			if (!theLeft.containsKey(var)) {
+				variables.add(var);
+			}
+		}
+
+		// shared chain rule factors, built at most once for every variable
+		BinaryTreeNode<String> denominator = null;
+		BinaryTreeNode<String> naturalLog = null;
+		BinaryTreeNode<String> factor = null;
+		final String operator = theRoot.getElement();
+		if (operator.equals("/") && !theRight.isEmpty()) { // <right> ^ 2
+			denominator = new BinaryTreeNode<String>("^", rightNode, node("2"));
+		} else if (operator.equals("^")) {
+			if (theRight.isEmpty()) { // <right> * (<left> ^ (<right> - 1))
+				final BinaryTreeNode<String> decrement =
+				    new BinaryTreeNode<String>("-", rightNode, node("1"));
+				factor = new BinaryTreeNode<String>("*", rightNode,
+				    new BinaryTreeNode<String>("^", leftNode, decrement));
+			} else if (theLeft.isEmpty()) { // (<left> ^ <right>) * ln(<left>)
+				naturalLog = new BinaryTreeNode<String>("ln", leftNode, null);
+				factor = new BinaryTreeNode<String>("*", theRoot, naturalLog);
+			} else { // <right> / <left>, paired with ln(<left>)
+				naturalLog = new BinaryTreeNode<String>("ln", leftNode, null);
+				factor = new BinaryTreeNode<String>("/", rightNode, leftNode);
+			}
+		}
+
+		for (String var : variables) {
+			final BinaryTreeNode<String> diffLeft = theLeft.get(var);
+			final BinaryTreeNode<String> diffRight = theRight.get(var);
+			BinaryTreeNode<String> derivative = null;
+			switch (operator) {
+				case "+":
+					derivative = diffRight == null ? diffLeft : diffLeft == null ? diffRight :
+					    new BinaryTreeNode<String>("+", diffLeft, diffRight);
+					break;
+				case "-":
+					derivative = diffRight == null ? diffLeft :
+					    new BinaryTreeNode<String>("-", diffLeft == null ? node("0") : diffLeft,
+					        diffRight);
+					break;
+				case "*":
+					if (diffRight == null) {
+						derivative = times(diffLeft, rightNode);
+					} else if (diffLeft == null) {
+						derivative = times(leftNode, diffRight);
+					} else {
+						derivative = new BinaryTreeNode<String>("+", times(diffLeft, rightNode),
+						    times(leftNode, diffRight));
+					}
+					break;
+				case "/":
+					if (diffRight == null) { // the denominator is constant for this variable
+						derivative = new BinaryTreeNode<String>("/", diffLeft, rightNode);
+					} else {
+						final BinaryTreeNode<String> rightProduct = times(leftNode, diffRight);
+						final BinaryTreeNode<String> numerator = diffLeft == null ?
+						    new BinaryTreeNode<String>("-", node("0"), rightProduct) :
+						    new BinaryTreeNode<String>("-", times(diffLeft, rightNode),
+						        rightProduct);
+						derivative = new BinaryTreeNode<String>("/", numerator, denominator);
+					}
+					break;
+				case "^":
+					if (theRight.isEmpty()) { // power rule
+						derivative = times(factor, diffLeft);
+					} else if (theLeft.isEmpty()) { // exponential rule
+						derivative = times(factor, diffRight);
+					} else { // (<left> ^ <right>) * ((<diffRight> * ln(<left>)) + ...)
+						BinaryTreeNode<String> sum = null;
+						if (diffRight != null) {
+							sum = times(diffRight, naturalLog);
+						}
+						if (diffLeft != null) {
+							final BinaryTreeNode<String> term = times(factor, diffLeft);
+							sum = sum == null ? term : new BinaryTreeNode<String>("+", sum, term);
+						}
+						derivative = new BinaryTreeNode<String>("*", theRoot, sum);
+					}
+					break;
+			}
+			result.put(var, derivative);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a binary tree node representing the derivative of the function in the specified
+	 * root with respect to its argument, the factor shared by every partial derivative.
+	 *
+	 * @param theRoot the root node containing the function with an optional coefficient
+	 * @return a binary tree node representing the derivative of the function
+	 */
+	private static BinaryTreeNode<String> functionFactor(final BinaryTreeNode<String> theRoot) {
+		final String rootElem = theRoot.getElement();
+		final String function = ExpressionParser.getFunction(rootElem);
+		final BinaryTreeNode<String> inner = theRoot.getLeft();
+		final BinaryTreeNode<String> one = node("1");
+		final BinaryTreeNode<String> two = node("2");
+		BinaryTreeNode<String> derivative = null;
+
+		if (function.equals("ln") || function.equals("log")) { // 1 / <inner>
+			derivative = new BinaryTreeNode<String>("/", one, inner);
+		} else if (function.startsWith("log_")) { // 1 / (<inner> * ln(<base>))
+			final BinaryTreeNode<String> naturalLog =
+			    new BinaryTreeNode<String>("ln", node(function.substring(4)), null);
+			derivative = new BinaryTreeNode<String>("/", one,
+			    new BinaryTreeNode<String>("*", inner, naturalLog));
+		} else {
+			final BinaryTreeNode<String> half = new BinaryTreeNode<String>("/", one, two);
+			final BinaryTreeNode<String> innerSquared =
+			    new BinaryTreeNode<String>("^", inner, two);
+			switch (function) {
+				case "abs": // <inner> / abs(<inner>)
+					derivative = new BinaryTreeNode<String>("/", inner,
+					    new BinaryTreeNode<String>("abs", inner, null));
+					break;
+				case "sin":
+					derivative = new BinaryTreeNode<String>("cos", inner, null);
+					break;
+				case "cos":
+					derivative = negate(new BinaryTreeNode<String>("sin", inner, null));
+					break;
+				case "tan":
+					derivative = new BinaryTreeNode<String>("^",
+					    new BinaryTreeNode<String>("sec", inner, null), two);
+					break;
+				case "sec":
+					derivative = new BinaryTreeNode<String>("*",
+					    new BinaryTreeNode<String>("sec", inner, null),
+					    new BinaryTreeNode<String>("tan", inner, null));
+					break;
+				case "csc":
+					derivative = negate(new BinaryTreeNode<String>("*",
+					    new BinaryTreeNode<String>("csc", inner, null),
+					    new BinaryTreeNode<String>("cot", inner, null)));
+					break;
+				case "cot":
+					derivative = negate(new BinaryTreeNode<String>("^",
+					    new BinaryTreeNode<String>("csc", inner, null), two));
+					break;
+				case "arcsin":
+				case "arccos": // 1 / ((1 - (<inner> ^ 2)) ^ (1 / 2))
+					derivative = new BinaryTreeNode<String>("/", one,
+					    new BinaryTreeNode<String>("^",
+					        new BinaryTreeNode<String>("-", one, innerSquared), half));
+					break;
+				case "arctan":
+				case "arccot": // 1 / ((<inner> ^ 2) + 1)
+					derivative = new BinaryTreeNode<String>("/", one,
+					    new BinaryTreeNode<String>("+", innerSquared, one));
+					break;
+				case "arcsec":
+				case "arccsc": // 1 / (abs(<inner>) * (((<inner> ^ 2) - 1) ^ (1 / 2)))
+					final BinaryTreeNode<String> root =
+					    new BinaryTreeNode<String>("^",
+					        new BinaryTreeNode<String>("-", innerSquared, one), half);
+					derivative = new BinaryTreeNode<String>("/", one,
+					    new BinaryTreeNode<String>("*",
+					        new BinaryTreeNode<String>("abs", inner, null), root));
+					break;
+			}
+			if (function.equals("arccos") || function.equals("arccot") ||
+			    function.equals("arccsc")) {
+				derivative = negate(derivative);
+			}
+		}
+		final String coefficient = ExpressionParser.getCoefficient(rootElem);
+		return times(node(coefficient), derivative);
+	}
+
+	/**
+	 * Returns the product of the two specified nodes, omitting a factor equal to one.
+	 *
+	 * @param theLeft	the left factor
+	 * @param theRight	the right factor
+	 * @return a binary tree node representing the product of the two factors
+	 */
+	private static BinaryTreeNode<String> times(final BinaryTreeNode<String> theLeft,
+	    final BinaryTreeNode<String> theRight) {
+		BinaryTreeNode<String> result = null;
+		if (theLeft.getElement().equals("1") && theLeft.getLeft() == null) {
+			result = theRight;
+		} else if (theRight.getElement().equals("1") && theRight.getLeft() == null) {
+			result = theLeft;
+		} else {
+			result = new BinaryTreeNode<String>("*", theLeft, theRight);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the negation of the specified node, written as a subtraction from zero since the
+	 * calculator has no unary operators.
+	 *
+	 * @param theNode the node being negated
+	 * @return a binary tree node representing the negation of the node
+	 */
+	private static BinaryTreeNode<String> negate(final BinaryTreeNode<String> theNode) {
+		return new BinaryTreeNode<String>("-", node("0"), theNode);
+	}
+
+	/**
+	 * Returns a new leaf node containing the specified element.
+	 *
+	 * @param theElement the element of the leaf
+	 * @return a new leaf node containing the element
+	 */
+	private static BinaryTreeNode<String> node(final String theElement) {
+		return new BinaryTreeNode<String>(theElement);
+	}
+
+	/**
+	 * Returns the partial derivatives in the order of the specified variables, filling in a
+	 * zero node for every variable the expression does not depend on.
+	 *
+	 * @param thePartials	the sparse partial derivatives of an expression
+	 * @param theVariables	the variables of differentiation
+	 * @return the partial derivatives in the order of the variables
+	 */
+	private static List<BinaryTreeNode<String>> toList(
+	    final Map<String, BinaryTreeNode<String>> thePartials, final List<String> theVariables) {
+		final List<BinaryTreeNode<String>> result = new ArrayList<>();
+		for (String var : theVariables) {
+			final BinaryTreeNode<String> partial = thePartials.get(var);
+			result.add(partial == null ? node("0") : partial);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,392 @@
+/**
+ * GridEvaluator - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+/**
+ * GridEvaluator evaluates a symbolic mathematical expression and its partial derivative with
+ * respect to one variable at every point of a regular grid, such as evenly spaced values of x
+ * or a rectangle of values of x and y.
+ *
+ * The expression is parsed, derived and compiled once, when the evaluator is created. The grid
+ * is then split across a ForkJoinPool into chunks small enough for their coordinates and
+ * results to stay in the processor's cache, and every chunk writes straight into the result
+ * arrays at its own indices. A grid of a single axis is evaluated by BatchEvaluators, a grid of
+ * several axes point by point with the classes of the BytecodeCompiler. The points are indexed
+ * in row-major order: the last axis varies fastest.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class GridEvaluator {
+
+	/**
+	 * The largest number of points evaluated by a single task: their coordinates, values and
+	 * derivatives take 48 KB, which stays in a level 2 cache.
+	 */
+	private static final int CHUNK = 2048;
+
+	/** The axes of the grid, the last one varying fastest. */
+	private final List<Axis> myAxes;
+
+	/** The number of points of the grid. */
+	private final int mySize;
+
+	/** The parsed expression. */
+	private final BinaryTreeNode<String> myFunction;
+
+	/** The simplified partial derivative of the expression. */
+	private final BinaryTreeNode<String> myDerivative;
+
+	/** The coordinates of a grid of a single axis, or null for several axes. */
+	private final double[] myCoordinates;
+
+	/** The batch evaluator of the expression on a single axis, or null for several axes. */
+	private final BatchEvaluator myBatchFunction;
+
+	/** The batch evaluator of the derivative on a single axis, or null for several axes. */
+	private final BatchEvaluator myBatchDerivative;
+
+	/** The compiled expression on several axes, or null for a single axis. */
+	private final ToDoubleFunction<double[]> myCompiledFunction;
+
+	/** The compiled derivative on several axes, or null for a single axis. */
+	private final ToDoubleFunction<double[]> myCompiledDerivative;
+
+	/**
+	 * Creates an evaluator of the specified expression and derivative over the specified
+	 * axes.
+	 *
+	 * @param theFunction	the parsed expression
+	 * @param theDerivative	the simplified partial derivative of the expression
+	 * @param theAxes		the axes of the grid
+	 */
+	private GridEvaluator(final BinaryTreeNode<String> theFunction,
+	    final BinaryTreeNode<String> theDerivative, final List<Axis> theAxes) {
+		myAxes = theAxes;
+		myFunction = theFunction;
+		myDerivative = theDerivative;
+		long size = 1;
+		final List<String> variables = new ArrayList<String>();
+		for (Axis axis : theAxes) {
+			size *= axis.myPoints;
+			variables.add(axis.myVariable);
+		}
+		if (size > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("grid of " + size + " points is too large");
+		}
+		mySize = (int) size;
+		if (theAxes.size() == 1) {
+			final Axis axis = theAxes.get(0);
+			myCoordinates = new double[mySize];
+			for (int i = 0; i < mySize; i++) {
+				myCoordinates[i] = axis.getValue(i);
+			}
+			myBatchFunction = BatchEvaluator.compile(theFunction, axis.myVariable);
+			myBatchDerivative = BatchEvaluator.compile(theDerivative, axis.myVariable);
+			myCompiledFunction = null;
+			myCompiledDerivative = null;
+		} else {
+			myCoordinates = null;
+			myBatchFunction = null;
+			myBatchDerivative = null;
+			myCompiledFunction = BytecodeCompiler.compile(theFunction, variables);
+			myCompiledDerivative = BytecodeCompiler.compile(theDerivative, variables);
+		}
+	}
+
+	/**
+	 * Returns an evaluator of the specified expression and of its partial derivative with
+	 * respect to the specified variable over the grid of the specified axes. The expression
+	 * is parsed, derived and compiled by this call, on the calling thread.
+	 *
+	 * @param theExpression	the expression in infix notation
+	 * @param theVariable	the variable of differentiation
+	 * @param theAxes		the axes of the grid, one for every variable of the expression
+	 * @return an evaluator of the expression and its derivative over the grid
+	 * @throws IllegalArgumentException if the expression is invalid or contains a symbol that
+	 *         is not the variable of an axis, or if no axis or several axes of the same
+	 *         variable are given
+	 */
+	public static GridEvaluator compile(final String theExpression, final String theVariable,
+	    final Axis... theAxes) {
+		final BinaryTree<String> tree =
+		    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(theExpression));
+		if (!ExpressionParser.getIsValid() || tree == null) {
+			throw new IllegalArgumentException("invalid expression: " + theExpression);
+		}
+		return compile(tree.getNode(), theVariable, theAxes);
+	}
+
+	/**
+	 * Returns an evaluator of the specified root's expression and of its partial derivative
+	 * with respect to the specified variable over the grid of the specified axes.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theVariable	the variable of differentiation
+	 * @param theAxes		the axes of the grid, one for every variable of the expression
+	 * @return an evaluator of the expression and its derivative over the grid
+	 * @throws IllegalArgumentException if the expression contains a symbol that is not the
+	 *         variable of an axis, or if no axis or several axes of the same variable are given
+	 */
+	public static GridEvaluator compile(final BinaryTreeNode<String> theRoot,
+	    final String theVariable, final Axis... theAxes) {
+		final List<String> variables = new ArrayList<String>();
+		for (Axis axis : theAxes) {
+			if (variables.contains(axis.myVariable)) {
+				throw new IllegalArgumentException("several axes of " + axis.myVariable);
+			}
+			variables.add(axis.myVariable);
+		}
+		if (variables.isEmpty()) {
+			throw new IllegalArgumentException("a grid needs at least one axis");
+		}
+		final BinaryTreeNode<String> derivative = Simplifier.simplify(
+		    Differentiator.derivePartial(theRoot, new BinaryTreeNode<String>(theVariable)));
+		return new GridEvaluator(theRoot, derivative, List.of(theAxes));
+	}
+
+	/**
+	 * Returns the values and the derivatives at every point of the grid, evaluated in the
+	 * common ForkJoinPool.
+	 *
+	 * @return an array holding the values at index 0 and the derivatives at index 1
+	 */
+	public double[][] evaluate() {
+		final double[][] result = {new double[mySize], new double[mySize]};
+		evaluate(ForkJoinPool.commonPool(), result[0], result[1]);
+		return result;
+	}
+
+	/**
+	 * Writes the values and the derivatives at every point of the grid into the specified
+	 * arrays, evaluated in parallel in the specified pool.
+	 *
+	 * @param thePool			the pool the chunks of the grid are evaluated in
+	 * @param theValues			the array the values are written to, at the points' indices
+	 * @param theDerivatives	the array the derivatives are written to, at the points' indices
+	 * @throws IllegalArgumentException if an array is shorter than the grid
+	 */
+	public void evaluate(final ForkJoinPool thePool, final double[] theValues,
+	    final double[] theDerivatives) {
+		if (theValues.length < mySize || theDerivatives.length < mySize) {
+			throw new IllegalArgumentException("arrays of " + theValues.length + " and " +
+			    theDerivatives.length + " values for a grid of " + mySize + " points");
+		}
+		thePool.invoke(new Chunk(theValues, theDerivatives, 0, mySize));
+	}
+
+	/**
+	 * Returns the number of points of the grid.
+	 *
+	 * @return the number of points of the grid
+	 */
+	public int getSize() {
+		return mySize;
+	}
+
+	/**
+	 * Returns the axes of the grid.
+	 *
+	 * @return the axes of the grid, the last one varying fastest
+	 */
+	public List<Axis> getAxes() {
+		return myAxes;
+	}
+
+	/**
+	 * Returns the parsed expression.
+	 *
+	 * @return the root node of the expression
+	 */
+	public BinaryTreeNode<String> getFunction() {
+		return myFunction;
+	}
+
+	/**
+	 * Returns the simplified partial derivative of the expression.
+	 *
+	 * @return the root node of the derivative
+	 */
+	public BinaryTreeNode<String> getDerivative() {
+		return myDerivative;
+	}
+
+	/**
+	 * Evaluates the points of the specified range of indices, on the calling thread.
+	 *
+	 * @param theValues			the array the values are written to
+	 * @param theDerivatives	the array the derivatives are written to
+	 * @param theFrom			the first index of the range, inclusive
+	 * @param theTo				the last index of the range, exclusive
+	 */
+	private void evaluateRange(final double[] theValues, final double[] theDerivatives,
+	    final int theFrom, final int theTo) {
+		if (myCoordinates != null) {
+			myBatchFunction.evaluate(myCoordinates, theValues, theFrom, theTo);
+			myBatchDerivative.evaluate(myCoordinates, theDerivatives, theFrom, theTo);
+		} else {
+			final int dimensions = myAxes.size();
+			final int[] indices = new int[dimensions];
+			final double[] point = new double[dimensions];
+			int rest = theFrom;
+			for (int axis = dimensions - 1; axis >= 0; axis--) {
+				indices[axis] = rest % myAxes.get(axis).myPoints;
+				rest /= myAxes.get(axis).myPoints;
+				point[axis] = myAxes.get(axis).getValue(indices[axis]);
+			}
+			for (int i = theFrom; i < theTo; i++) {
+				theValues[i] = myCompiledFunction.applyAsDouble(point);
+				theDerivatives[i] = myCompiledDerivative.applyAsDouble(point);
+				int axis = dimensions - 1; // advances to the next point, the last axis first
+				indices[axis]++;
+				while (axis > 0 && indices[axis] == myAxes.get(axis).myPoints) {
+					indices[axis] = 0;
+					point[axis] = myAxes.get(axis).myFrom;
+					axis--;
+					indices[axis]++;
+				}
+				point[axis] = myAxes.get(axis).getValue(indices[axis]);
+			}
+		}
+	}
+
+	// INNER CLASS AXIS
+
+	/**
+	 * Inner class to represent an axis of a grid: a variable taking evenly spaced values from
+	 * a first value to a last value, both included.
+	 */
+	public static final class Axis {
+
+		/** The variable of the axis. */
+		private final String myVariable;
+
+		/** The first value of the axis. */
+		private final double myFrom;
+
+		/** The last value of the axis. */
+		private final double myTo;
+
+		/** The number of values of the axis. */
+		private final int myPoints;
+
+		/**
+		 * Creates an axis of the specified number of evenly spaced values of the specified
+		 * variable, from the first to the last specified value.
+		 *
+		 * @param theVariable	the variable of the axis
+		 * @param theFrom		the first value of the axis
+		 * @param theTo			the last value of the axis
+		 * @param thePoints		the number of values of the axis
+		 * @throws IllegalArgumentException if the number of values is not positive
+		 */
+		public Axis(final String theVariable, final double theFrom, final double theTo,
+		    final int thePoints) {
+			if (thePoints < 1) {
+				throw new IllegalArgumentException("an axis needs at least one point");
+			}
+			myVariable = theVariable;
+			myFrom = theFrom;
+			myTo = theTo;
+			myPoints = thePoints;
+		}
+
+		/**
+		 * Returns the variable of this axis.
+		 *
+		 * @return the variable of this axis
+		 */
+		public String getVariable() {
+			return myVariable;
+		}
+
+		/**
+		 * Returns the number of values of this axis.
+		 *
+		 * @return the number of values of this axis
+		 */
+		public int getPoints() {
+			return myPoints;
+		}
+
+		/**
+		 * Returns the value of this axis at the specified index.
+		 *
+		 * @param theIndex the index of the value, from 0 to the number of values - 1
+		 * @return the value of this axis at the index
+		 */
+		public double getValue(final int theIndex) {
+			double result = myFrom;
+			if (myPoints > 1) {
+				result = myFrom + (myTo - myFrom) * theIndex / (myPoints - 1);
+			}
+			return result;
+		}
+	}
+
+	// INNER CLASS CHUNK
+
+	/**
+	 * Inner class to represent the task evaluating a range of the grid, split in halves until
+	 * a range has at most CHUNK points.
+	 */
+	private final class Chunk extends RecursiveAction {
+
+		/** The serial version UID of the task. */
+		private static final long serialVersionUID = 1L;
+
+		/** The array the values are written to. */
+		private final double[] myValues;
+
+		/** The array the derivatives are written to. */
+		private final double[] myDerivatives;
+
+		/** The first index of the range, inclusive. */
+		private final int myFrom;
+
+		/** The last index of the range, exclusive. */
+		private final int myTo;
+
+		/**
+		 * Creates the task evaluating the specified range of the grid.
+		 *
+		 * @param theValues			the array the values are written to
+		 * @param theDerivatives	the array the derivatives are written to
+		 * @param theFrom			the first index of the range, inclusive
+		 * @param theTo				the last index of the range, exclusive
+		 */
+		Chunk(final double[] theValues, final double[] theDerivatives, final int theFrom,
+		    final int theTo) {
+			myValues = theValues;
+			myDerivatives = theDerivatives;
+			myFrom = theFrom;
+			myTo = theTo;
+		}
+
+		/**
+		 * Evaluates the range, or splits it in halves evaluated in parallel if it has more
+		 * than CHUNK points.
+		 */
+		@Override
+		protected void compute() {
+			if (myTo - myFrom <= CHUNK) {
+				evaluateRange(myValues, myDerivatives, myFrom, myTo);
+			} else {
+				final int middle = (myFrom + myTo) >>> 1;
+				invokeAll(new Chunk(myValues, myDerivatives, myFrom, middle),
+				    new Chunk(myValues, myDerivatives, middle, myTo));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,216 @@
+/**
+ * Hessian - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTreeNode;
+import structures.SparseSymmetricMatrix;
+
+/**
+ * Hessian holds the second-order partial derivatives of a symbolic mathematical expression as
+ * a sparse symmetric matrix of binary tree nodes.
+ *
+ * Only the upper triangle is stored. The second derivatives are taken from the first-order
+ * gradient trees with the same memo that produced them, so the first derivatives of the original
+ * subtrees are reused rather than rebuilt. Every node only carries partial derivatives for the
+ * variables it depends on, so structurally zero entries are never built.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public class Hessian {
+
+	/** The variables of differentiation, in the order of the rows and columns. */
+	private final List<String> myVariables;
+
+	/** The first-order partial derivatives, in the order of the variables. */
+	private final List<BinaryTreeNode<String>> myGradient;
+
+	/** The non-zero second-order partial derivatives of the upper triangle. */
+	private final SparseSymmetricMatrix<BinaryTreeNode<String>> myEntries;
+
+	/**
+	 * Creates a Hessian from its already computed components.
+	 *
+	 * @param theVariables	the variables of differentiation
+	 * @param theGradient	the first-order partial derivatives
+	 * @param theEntries	the non-zero second-order partial derivatives
+	 */
+	private Hessian(final List<String> theVariables,
+	    final List<BinaryTreeNode<String>> theGradient,
+	    final SparseSymmetricMatrix<BinaryTreeNode<String>> theEntries) {
+		myVariables = theVariables;
+		myGradient = theGradient;
+		myEntries = theEntries;
+	}
+
+	/**
+	 * Returns the Hessian of the specified root's equivalent expression over the specified
+	 * variables. Symbols that are not one of the specified variables are treated as constants.
+	 *
+	 * @param theRoot		the root node representing the expression being derived
+	 * @param theVariables	the variables of differentiation
+	 * @return the Hessian of the expression
+	 */
+	public static Hessian of(final BinaryTreeNode<String> theRoot,
+	    final List<String> theVariables) {
+		final List<String> variables = List.copyOf(theVariables);
+		final Set<String> variableSet = new HashSet<String>(variables);
+		final Map<BinaryTreeNode<String>, Map<String, BinaryTreeNode<String>>> memo =
+		    new IdentityHashMap<>();
+		final Map<String, BinaryTreeNode<String>> firstOrder =
+		    Gradient.partials(theRoot, variableSet, memo);
+
+		final List<BinaryTreeNode<String>> gradient = new ArrayList<>();
+		final SparseSymmetricMatrix<BinaryTreeNode<String>> entries =
+		    new SparseSymmetricMatrix<>(variables.size());
+		for (int i = 0; i < variables.size(); i++) {
+			final BinaryTreeNode<String> partial = firstOrder.get(variables.get(i));
+			if (partial == null) { // the whole row and column are structurally zero
+				gradient.add(new BinaryTreeNode<String>("0"));
+			} else {
+				gradient.add(partial);
+				final Map<String, BinaryTreeNode<String>> secondOrder =
+				    Gradient.partials(partial, variableSet, memo);
+				for (int j = i; j < variables.size(); j++) {
+					final BinaryTreeNode<String> entry = secondOrder.get(variables.get(j));
+					if (entry != null) {
+						entries.set(i, j, entry);
+					}
+				}
+			}
+		}
+		return new Hessian(variables, Collections.unmodifiableList(gradient), entries);
+	}
+
+	/**
+	 * Returns the variables of differentiation, in the order of the rows and columns.
+	 *
+	 * @return the variables of differentiation
+	 */
+	public List<String> getVariables() {
+		return myVariables;
+	}
+
+	/**
+	 * Returns the first-order partial derivatives, in the order of the variables.
+	 *
+	 * @return the first-order partial derivatives
+	 */
+	public List<BinaryTreeNode<String>> getGradient() {
+		return myGradient;
+	}
+
+	/**
+	 * Returns the sparse matrix holding the non-zero entries of the upper triangle.
+	 *
+	 * @return the sparse matrix holding the non-zero entries of the upper triangle
+	 */
+	public SparseSymmetricMatrix<BinaryTreeNode<String>> getEntries() {
+		return myEntries;
+	}
+
+	/**
+	 * Returns the second-order partial derivative at the specified row and column, or a zero
+	 * node if the entry is structurally zero.
+	 *
+	 * @param theRow	the row of the entry
+	 * @param theColumn	the column of the entry
+	 * @return a binary tree node representing the second-order partial derivative
+	 */
+	public BinaryTreeNode<String> get(final int theRow, final int theColumn) {
+		final BinaryTreeNode<String> entry = myEntries.get(theRow, theColumn);
+		return entry == null ? new BinaryTreeNode<String>("0") : entry;
+	}
+
+	/**
+	 * Compiles the non-zero entries of this Hessian into a numeric evaluator. Subtrees shared
+	 * between entries are compiled once.
+	 *
+	 * @return a numeric evaluator of this Hessian
+	 * @throws IllegalArgumentException if an entry contains an unknown symbol
+	 */
+	public Compiled compile() {
+		final Map<BinaryTreeNode<String>, ToDoubleFunction<double[]>> compiled =
+		    new IdentityHashMap<>();
+		final int entryCount = myEntries.entryCount();
+		final int[] rows = new int[entryCount];
+		final int[] columns = new int[entryCount];
+		final List<ToDoubleFunction<double[]>> functions =
+		    new ArrayList<ToDoubleFunction<double[]>>(entryCount);
+		int index = 0;
+		for (int i = 0; i < myVariables.size(); i++) {
+			for (Map.Entry<Integer, BinaryTreeNode<String>> entry :
+			    myEntries.getRow(i).entrySet()) {
+				rows[index] = i;
+				columns[index] = entry.getKey();
+				functions.add(Evaluator.compile(entry.getValue(), myVariables, compiled));
+				index++;
+			}
+		}
+		return new Compiled(myVariables.size(), rows, columns, functions);
+	}
+
+	// INNER CLASS EVALUATOR
+
+	/**
+	 * Inner class to represent a compiled numeric evaluator of a Hessian.
+	 */
+	public static class Compiled {
+
+		/** The number of rows and columns of the Hessian. */
+		private final int mySize;
+
+		/** The row of each non-zero entry. */
+		private final int[] myRows;
+
+		/** The column of each non-zero entry. */
+		private final int[] myColumns;
+
+		/** The compiled expression of each non-zero entry. */
+		private final List<ToDoubleFunction<double[]>> myFunctions;
+
+		/**
+		 * Sets up this evaluator with the specified compiled entries.
+		 *
+		 * @param theSize		the number of rows and columns of the Hessian
+		 * @param theRows		the row of each non-zero entry
+		 * @param theColumns	the column of each non-zero entry
+		 * @param theFunctions	the compiled expression of each non-zero entry
+		 */
+		Compiled(final int theSize, final int[] theRows, final int[] theColumns,
+		    final List<ToDoubleFunction<double[]>> theFunctions) {
+			mySize = theSize;
+			myRows = theRows;
+			myColumns = theColumns;
+			myFunctions = theFunctions;
+		}
+
+		/**
+		 * Evaluates the Hessian at the specified point and writes the full symmetric matrix in
+		 * row-major order into the specified array, which must hold at least n * n values.
+		 *
+		 * @param thePoint	the values of the variables, in the order of the variables
+		 * @param theResult	the array receiving the matrix in row-major order
+		 */
+		public void evaluate(final double[] thePoint, final double[] theResult) {
+			Arrays.fill(theResult, 0, mySize * mySize, 0.0);
+			for (int k = 0; k < myFunctions.size(); k++) {
+				final double value = myFunctions.get(k).applyAsDouble(thePoint);
+				theResult[myRows[k] * mySize + myColumns[k]] = value;
+				theResult[myColumns[k] * mySize + myRows[k]] = value;
+			}
+		}
+	}
+
+}
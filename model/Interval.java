@@ -0,0 +1,640 @@
+/**
+ * Interval - Derivatives Calculator
+ */
+
+package model;
+
+import java.math.BigDecimal;
+
+/**
+ * Interval is an immutable closed interval of real numbers, [lower, upper], with the
+ * operations and functions of the calculator computed in interval arithmetic. The result of
+ * every operation encloses the results of the operation on every pair of real numbers of its
+ * operands: each bound is rounded outward by one unit in the last place after an arithmetic
+ * operation, rounded to nearest by the hardware, and by two units after a function of Math,
+ * which is within one unit of the exact value.
+ *
+ * A function is only applied to the part of an interval inside its domain, so ln([-1, e])
+ * is [-Infinity, 1] and arcsin([2, 3]) is the empty interval. Bounds may be infinite, and a
+ * NaN bound, such as from Infinity - Infinity, is widened to the corresponding infinity.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public final class Interval {
+
+	/** The empty interval, the result of a function outside of its domain. */
+	public static final Interval EMPTY = new Interval(Double.NaN, Double.NaN);
+
+	/** The interval of every real number. */
+	public static final Interval ENTIRE =
+	    new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+	/** An interval enclosing pi. */
+	public static final Interval PI = new Interval(Math.nextDown(Math.PI), Math.nextUp(Math.PI));
+
+	/** An interval enclosing Euler's number. */
+	public static final Interval E = new Interval(Math.nextDown(Math.E), Math.nextUp(Math.E));
+
+	/** An interval enclosing pi / 2. */
+	private static final Interval HALF_PI =
+	    new Interval(Math.nextDown(Math.PI / 2), Math.nextUp(Math.PI / 2));
+
+	/** The unit interval, [-1, 1], which encloses the sine and the cosine. */
+	private static final Interval UNIT = new Interval(-1, 1);
+
+	/** The largest magnitude of an argument whose position in the period is computed. */
+	private static final double MAX_PERIODIC_ARGUMENT = 1e12;
+
+	/** The relative widening of an argument before searching it for extrema or poles. */
+	private static final double PERIOD_SLACK = 1e-14;
+
+	/** The lower bound of the interval, NaN if it is empty. */
+	private final double myLower;
+
+	/** The upper bound of the interval, NaN if it is empty. */
+	private final double myUpper;
+
+	/**
+	 * Creates the interval of the specified bounds.
+	 *
+	 * @param theLower	the lower bound
+	 * @param theUpper	the upper bound
+	 */
+	private Interval(final double theLower, final double theUpper) {
+		myLower = theLower;
+		myUpper = theUpper;
+	}
+
+	/**
+	 * Returns the interval of the specified bounds, widening a NaN lower bound to -Infinity and
+	 * a NaN upper bound to Infinity.
+	 *
+	 * @param theLower	the lower bound
+	 * @param theUpper	the upper bound
+	 * @return the interval [theLower, theUpper]
+	 * @throws IllegalArgumentException if the lower bound is greater than the upper bound
+	 */
+	public static Interval of(final double theLower, final double theUpper) {
+		final double lower = Double.isNaN(theLower) ? Double.NEGATIVE_INFINITY : theLower;
+		final double upper = Double.isNaN(theUpper) ? Double.POSITIVE_INFINITY : theUpper;
+		if (lower > upper) {
+			throw new IllegalArgumentException("lower bound " + theLower +
+			    " is greater than upper bound " + theUpper);
+		}
+		return new Interval(lower, upper);
+	}
+
+	/**
+	 * Returns the interval holding only the specified number.
+	 *
+	 * @param theValue the number
+	 * @return the interval [theValue, theValue]
+	 */
+	public static Interval point(final double theValue) {
+		return of(theValue, theValue);
+	}
+
+	/**
+	 * Returns the narrowest interval enclosing the decimal number of the specified String,
+	 * which is a single double if the number is exactly a double, such as "0.5", and the
+	 * doubles on both sides of it otherwise, such as for "0.1".
+	 *
+	 * @param theNumber the decimal number
+	 * @return an interval enclosing the number
+	 * @throws NumberFormatException if the String is not a number
+	 */
+	public static Interval valueOf(final String theNumber) {
+		final double value = Double.parseDouble(theNumber);
+		Interval result = point(value);
+		if (!Double.isInfinite(value) &&
+		    new BigDecimal(theNumber).compareTo(new BigDecimal(value)) != 0) {
+			result = new Interval(Math.nextDown(value), Math.nextUp(value));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the lower bound of this interval.
+	 *
+	 * @return the lower bound, NaN if this interval is empty
+	 */
+	public double getLower() {
+		return myLower;
+	}
+
+	/**
+	 * Returns the upper bound of this interval.
+	 *
+	 * @return the upper bound, NaN if this interval is empty
+	 */
+	public double getUpper() {
+		return myUpper;
+	}
+
+	/**
+	 * Returns the width of this interval.
+	 *
+	 * @return the width of this interval, rounded up, NaN if it is empty
+	 */
+	public double getWidth() {
+		return Math.nextUp(myUpper - myLower);
+	}
+
+	/**
+	 * Returns the number halfway between the bounds of this interval, or a finite number of
+	 * it if a bound is infinite.
+	 *
+	 * @return a number of this interval near its middle, NaN if it is empty
+	 */
+	public double getMidpoint() {
+		double result;
+		if (myLower == Double.NEGATIVE_INFINITY && myUpper == Double.POSITIVE_INFINITY) {
+			result = 0;
+		} else if (myLower == Double.NEGATIVE_INFINITY) {
+			result = -Double.MAX_VALUE;
+		} else if (myUpper == Double.POSITIVE_INFINITY) {
+			result = Double.MAX_VALUE;
+		} else {
+			result = Math.min(myUpper, Math.max(myLower, myLower / 2 + myUpper / 2));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this interval is empty, otherwise false.
+	 *
+	 * @return true if this interval is empty; otherwise false
+	 */
+	public boolean isEmpty() {
+		return Double.isNaN(myLower);
+	}
+
+	/**
+	 * Returns true if this interval contains the specified number, otherwise false.
+	 *
+	 * @param theValue the number
+	 * @return true if this interval contains the number; otherwise false
+	 */
+	public boolean contains(final double theValue) {
+		return myLower <= theValue && theValue <= myUpper;
+	}
+
+	/**
+	 * Returns the smallest interval containing this interval and the specified interval.
+	 *
+	 * @param theOther the other interval
+	 * @return the hull of both intervals
+	 */
+	public Interval hull(final Interval theOther) {
+		Interval result = this;
+		if (isEmpty()) {
+			result = theOther;
+		} else if (!theOther.isEmpty()) {
+			result = new Interval(Math.min(myLower, theOther.myLower),
+			    Math.max(myUpper, theOther.myUpper));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the numbers both in this interval and in the specified interval.
+	 *
+	 * @param theOther the other interval
+	 * @return the intersection of both intervals, possibly empty
+	 */
+	public Interval intersect(final Interval theOther) {
+		Interval result = EMPTY;
+		final double lower = Math.max(myLower, theOther.myLower);
+		final double upper = Math.min(myUpper, theOther.myUpper);
+		if (lower <= upper) {
+			result = new Interval(lower, upper);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the sum of this interval and the specified interval.
+	 *
+	 * @param theOther the other interval
+	 * @return an interval enclosing every sum
+	 */
+	public Interval add(final Interval theOther) {
+		Interval result = EMPTY;
+		if (!isEmpty() && !theOther.isEmpty()) {
+			result = of(Math.nextDown(myLower + theOther.myLower),
+			    Math.nextUp(myUpper + theOther.myUpper));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the difference of this interval and the specified interval.
+	 *
+	 * @param theOther the other interval
+	 * @return an interval enclosing every difference
+	 */
+	public Interval subtract(final Interval theOther) {
+		Interval result = EMPTY;
+		if (!isEmpty() && !theOther.isEmpty()) {
+			result = of(Math.nextDown(myLower - theOther.myUpper),
+			    Math.nextUp(myUpper - theOther.myLower));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the product of this interval and the specified interval.
+	 *
+	 * @param theOther the other interval
+	 * @return an interval enclosing every product
+	 */
+	public Interval multiply(final Interval theOther) {
+		Interval result = EMPTY;
+		if (!isEmpty() && !theOther.isEmpty()) {
+			final double first = product(myLower, theOther.myLower);
+			final double second = product(myLower, theOther.myUpper);
+			final double third = product(myUpper, theOther.myLower);
+			final double fourth = product(myUpper, theOther.myUpper);
+			result = of(Math.nextDown(Math.min(Math.min(first, second), Math.min(third, fourth))),
+			    Math.nextUp(Math.max(Math.max(first, second), Math.max(third, fourth))));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the quotient of this interval and the specified interval. A divisor holding
+	 * zero gives the entire interval, except for a divisor of only zero, which gives the
+	 * empty interval.
+	 *
+	 * @param theOther the other interval
+	 * @return an interval enclosing every quotient
+	 */
+	public Interval divide(final Interval theOther) {
+		Interval result;
+		if (isEmpty() || theOther.isEmpty() ||
+		    (theOther.myLower == 0 && theOther.myUpper == 0)) {
+			result = EMPTY;
+		} else if (theOther.contains(0)) {
+			result = ENTIRE;
+		} else {
+			result = multiply(of(Math.nextDown(1 / theOther.myUpper),
+			    Math.nextUp(1 / theOther.myLower)));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the negation of this interval.
+	 *
+	 * @return the interval of every negated number of this interval
+	 */
+	public Interval negate() {
+		Interval result = EMPTY;
+		if (!isEmpty()) {
+			result = new Interval(-myUpper, -myLower);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this interval raised to the specified interval. An integer exponent applies to
+	 * every base, like Math.pow, while any other exponent only applies to the bases which are
+	 * not negative. The negative bases are therefore raised to the single integer of an
+	 * exponent holding exactly one, such as the exponent (5 - 1) rounded outward around 4.
+	 *
+	 * @param theExponent the exponent
+	 * @return an interval enclosing every power
+	 */
+	public Interval power(final Interval theExponent) {
+		Interval result;
+		final double exponent = theExponent.myLower;
+		final double integer = Math.ceil(theExponent.myLower);
+		if (isEmpty() || theExponent.isEmpty()) {
+			result = EMPTY;
+		} else if (exponent == theExponent.myUpper && exponent == Math.rint(exponent) &&
+		    Math.abs(exponent) < Integer.MAX_VALUE) {
+			result = power((int) exponent);
+		} else if (myLower < 0 && integer == Math.floor(theExponent.myUpper) &&
+		    Math.abs(integer) < Integer.MAX_VALUE) {
+			result = new Interval(myLower, Math.min(myUpper, 0)).power((int) integer);
+			if (myUpper > 0) {
+				result = result.hull(new Interval(0, myUpper).power(theExponent));
+			}
+		} else if (myUpper < 0) {
+			result = EMPTY;
+		} else { // extreme at the corners, as x ^ y is monotonic in x and in y for x >= 0
+			final double lower = Math.max(myLower, 0);
+			final double first = Math.pow(lower, theExponent.myLower);
+			final double second = Math.pow(lower, theExponent.myUpper);
+			final double third = Math.pow(myUpper, theExponent.myLower);
+			final double fourth = Math.pow(myUpper, theExponent.myUpper);
+			result = outward(Math.min(Math.min(first, second), Math.min(third, fourth)),
+			    Math.max(Math.max(first, second), Math.max(third, fourth)))
+			    .intersect(new Interval(0, Double.POSITIVE_INFINITY));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this interval raised to the specified integer.
+	 *
+	 * @param theExponent the integer exponent
+	 * @return an interval enclosing every power
+	 */
+	public Interval power(final int theExponent) {
+		Interval result;
+		if (isEmpty()) {
+			result = EMPTY;
+		} else if (theExponent == 0) {
+			result = point(1);
+		} else if (theExponent < 0) {
+			result = point(1).divide(power(-theExponent));
+		} else if (theExponent % 2 == 1 || myLower >= 0) { // increasing
+			result = outward(Math.pow(myLower, theExponent), Math.pow(myUpper, theExponent));
+		} else if (myUpper <= 0) { // decreasing
+			result = outward(Math.pow(myUpper, theExponent), Math.pow(myLower, theExponent));
+		} else { // an even power of an interval holding zero
+			result = new Interval(0, Math.nextUp(Math.nextUp(
+			    Math.pow(Math.max(-myLower, myUpper), theExponent))));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the absolute value of this interval.
+	 *
+	 * @return the interval of the absolute values of this interval
+	 */
+	public Interval abs() {
+		Interval result = this;
+		if (myUpper < 0) {
+			result = negate();
+		} else if (myLower < 0) {
+			result = new Interval(0, Math.max(-myLower, myUpper));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the sine of this interval.
+	 *
+	 * @return an interval enclosing every sine
+	 */
+	public Interval sin() {
+		return periodic(true);
+	}
+
+	/**
+	 * Returns the cosine of this interval.
+	 *
+	 * @return an interval enclosing every cosine
+	 */
+	public Interval cos() {
+		return periodic(false);
+	}
+
+	/**
+	 * Returns the tangent of this interval, which is the entire interval if this interval may
+	 * hold a pole, an odd multiple of pi / 2.
+	 *
+	 * @return an interval enclosing every tangent
+	 */
+	public Interval tan() {
+		Interval result;
+		if (isEmpty()) {
+			result = EMPTY;
+		} else if (getWidth() >= Math.PI || Math.abs(myLower) > MAX_PERIODIC_ARGUMENT ||
+		    Math.abs(myUpper) > MAX_PERIODIC_ARGUMENT || holdsPeriodic(Math.PI / 2, Math.PI)) {
+			result = ENTIRE;
+		} else { // increasing between two poles
+			result = outward(Math.tan(myLower), Math.tan(myUpper));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the secant of this interval, 1 / cos.
+	 *
+	 * @return an interval enclosing every secant
+	 */
+	public Interval sec() {
+		return point(1).divide(cos());
+	}
+
+	/**
+	 * Returns the cosecant of this interval, 1 / sin.
+	 *
+	 * @return an interval enclosing every cosecant
+	 */
+	public Interval csc() {
+		return point(1).divide(sin());
+	}
+
+	/**
+	 * Returns the cotangent of this interval, computed as -tan(x - pi / 2) so that its poles
+	 * are the multiples of pi.
+	 *
+	 * @return an interval enclosing every cotangent
+	 */
+	public Interval cot() {
+		return subtract(HALF_PI).tan().negate();
+	}
+
+	/**
+	 * Returns the arcsine of the part of this interval inside [-1, 1].
+	 *
+	 * @return an interval enclosing every arcsine
+	 */
+	public Interval arcsin() {
+		final Interval domain = intersect(UNIT);
+		Interval result = EMPTY;
+		if (!domain.isEmpty()) {
+			result = outward(Math.asin(domain.myLower), Math.asin(domain.myUpper))
+			    .intersect(HALF_PI.negate().hull(HALF_PI));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the arccosine of the part of this interval inside [-1, 1].
+	 *
+	 * @return an interval enclosing every arccosine
+	 */
+	public Interval arccos() {
+		final Interval domain = intersect(UNIT);
+		Interval result = EMPTY;
+		if (!domain.isEmpty()) {
+			result = outward(Math.acos(domain.myUpper), Math.acos(domain.myLower))
+			    .intersect(point(0).hull(PI));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the arctangent of this interval.
+	 *
+	 * @return an interval enclosing every arctangent
+	 */
+	public Interval arctan() {
+		Interval result = EMPTY;
+		if (!isEmpty()) {
+			result = outward(Math.atan(myLower), Math.atan(myUpper))
+			    .intersect(HALF_PI.negate().hull(HALF_PI));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the arcsecant of the part of this interval outside of (-1, 1), arccos(1 / x).
+	 *
+	 * @return an interval enclosing every arcsecant
+	 */
+	public Interval arcsec() {
+		return point(1).divide(this).arccos();
+	}
+
+	/**
+	 * Returns the arccosecant of the part of this interval outside of (-1, 1), arcsin(1 / x).
+	 *
+	 * @return an interval enclosing every arccosecant
+	 */
+	public Interval arccsc() {
+		return point(1).divide(this).arcsin();
+	}
+
+	/**
+	 * Returns the arccotangent of this interval, pi / 2 - arctan.
+	 *
+	 * @return an interval enclosing every arccotangent
+	 */
+	public Interval arccot() {
+		return HALF_PI.subtract(arctan());
+	}
+
+	/**
+	 * Returns the natural logarithm of the part of this interval greater than zero.
+	 *
+	 * @return an interval enclosing every natural logarithm
+	 */
+	public Interval ln() {
+		Interval result = EMPTY;
+		if (myUpper > 0) {
+			result = outward(myLower > 0 ? Math.log(myLower) : Double.NEGATIVE_INFINITY,
+			    Math.log(myUpper));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the sine of this interval if the specified flag is set, otherwise its cosine.
+	 * The result is the hull of the values at both bounds and of every extremum, 1 at pi / 2
+	 * + 2k pi and -1 at -pi / 2 + 2k pi for the sine, this interval may hold.
+	 *
+	 * @param theIsSine	whether the sine is computed rather than the cosine
+	 * @return an interval enclosing every sine or cosine
+	 */
+	private Interval periodic(final boolean theIsSine) {
+		Interval result;
+		if (isEmpty()) {
+			result = EMPTY;
+		} else if (getWidth() >= 2 * Math.PI || Math.abs(myLower) > MAX_PERIODIC_ARGUMENT ||
+		    Math.abs(myUpper) > MAX_PERIODIC_ARGUMENT) {
+			result = UNIT;
+		} else {
+			final double first = theIsSine ? Math.sin(myLower) : Math.cos(myLower);
+			final double second = theIsSine ? Math.sin(myUpper) : Math.cos(myUpper);
+			final double maximum = theIsSine ? Math.PI / 2 : 0;
+			double lower = Math.min(first, second);
+			double upper = Math.max(first, second);
+			if (holdsPeriodic(maximum, 2 * Math.PI)) {
+				upper = 1;
+			}
+			if (holdsPeriodic(maximum + Math.PI, 2 * Math.PI)) {
+				lower = -1;
+			}
+			result = outward(lower, upper).intersect(UNIT);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this interval, slightly widened, may hold the specified offset plus a
+	 * multiple of the specified period, otherwise false.
+	 *
+	 * @param theOffset	the offset of the points
+	 * @param thePeriod	the period of the points
+	 * @return true if this interval may hold one of the points; otherwise false
+	 */
+	private boolean holdsPeriodic(final double theOffset, final double thePeriod) {
+		final double slack = PERIOD_SLACK * Math.max(1, Math.max(-myLower, myUpper));
+		final double first = Math.ceil((myLower - slack - theOffset) / thePeriod);
+		final double last = Math.floor((myUpper + slack - theOffset) / thePeriod);
+		return first <= last;
+	}
+
+	/**
+	 * Returns the interval of the specified bounds computed by functions of Math, rounded
+	 * outward by two units in the last place.
+	 *
+	 * @param theLower	the lower bound, rounded to within one unit
+	 * @param theUpper	the upper bound, rounded to within one unit
+	 * @return an interval enclosing the exact bounds
+	 */
+	private static Interval outward(final double theLower, final double theUpper) {
+		return of(Math.nextDown(Math.nextDown(theLower)), Math.nextUp(Math.nextUp(theUpper)));
+	}
+
+	/**
+	 * Returns the product of the specified bounds, where zero times an infinity is zero.
+	 *
+	 * @param theFirst	the first bound
+	 * @param theSecond	the second bound
+	 * @return the product of the bounds
+	 */
+	private static double product(final double theFirst, final double theSecond) {
+		double result = 0;
+		if (theFirst != 0 && theSecond != 0) {
+			result = theFirst * theSecond;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the specified object is an interval of the same bounds, otherwise false.
+	 *
+	 * @param theOther the object being compared
+	 * @return true if the object is an equal interval; otherwise false
+	 */
+	@Override
+	public boolean equals(final Object theOther) {
+		return theOther instanceof Interval &&
+		    Double.compare(myLower, ((Interval) theOther).myLower) == 0 &&
+		    Double.compare(myUpper, ((Interval) theOther).myUpper) == 0;
+	}
+
+	/**
+	 * Returns the hash code of this interval.
+	 *
+	 * @return the hash code of this interval
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * Double.hashCode(myLower) + Double.hashCode(myUpper);
+	}
+
+	/**
+	 * Returns this interval as a String, such as "[-1.0, 2.5]", or "[]" if it is empty.
+	 *
+	 * @return this interval as a String
+	 */
+	@Override
+	public String toString() {
+		String result = "[]";
+		if (!isEmpty()) {
+			result = "[" + myLower + ", " + myUpper + "]";
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,374 @@
+/**
+ * IntervalEvaluator - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import structures.BinaryTreeNode;
+
+/**
+ * IntervalEvaluator evaluates a binary tree representing a symbolic mathematical expression in
+ * interval arithmetic over a box, an interval of values for every variable. The result is a
+ * guaranteed enclosure of the expression's values at every point of the box where it is
+ * defined, such as the range of a function or of its derivative for a Lipschitz bound.
+ *
+ * An enclosure is usually wider than the range, as every occurrence of a variable is allowed to
+ * take a different value. The range method narrows it by branch and bound: the box is split in
+ * halves along its widest side, boxes whose enclosure cannot hold the minimum or maximum are
+ * pruned against the values found at the midpoints of other boxes, and the remaining boxes are
+ * searched in parallel in a ForkJoinPool.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class IntervalEvaluator {
+
+	/** The number of boxes searched for one bound of the range by default. */
+	public static final int DEFAULT_MAX_BOXES = 100_000;
+
+	/** A private constructor to inhibit external instantiation. */
+	private IntervalEvaluator() {
+		// do nothing
+	}
+
+	/**
+	 * Returns an enclosure of the specified root's expression over the specified box.
+	 *
+	 * @param theRoot	the root node representing the expression being evaluated
+	 * @param theBox	the interval of every variable of the expression
+	 * @return an interval enclosing every value of the expression over the box, empty if the
+	 *         expression is defined nowhere in the box
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static Interval evaluate(final BinaryTreeNode<String> theRoot,
+	    final Map<String, Interval> theBox) {
+		return evaluate(theRoot, theBox, new IdentityHashMap<BinaryTreeNode<String>, Interval>());
+	}
+
+	/**
+	 * Returns an enclosure of the specified root's expression over the specified box, reusing
+	 * the enclosures already evaluated for shared subtrees.
+	 *
+	 * @param theRoot		the root node representing the expression segment being evaluated
+	 * @param theBox		the interval of every variable of the expression
+	 * @param theEvaluated	the enclosures already evaluated, by node identity
+	 * @return an interval enclosing every value of the expression segment over the box
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	private static Interval evaluate(final BinaryTreeNode<String> theRoot,
+	    final Map<String, Interval> theBox,
+	    final Map<BinaryTreeNode<String>, Interval> theEvaluated) {
+
+		Interval result = theEvaluated.get(theRoot);
+		if (result != null) {
+			return result;
+		}
+		final String rootElem = theRoot.getElement();
+		if (Differentiator.isOperator(rootElem)) {
+			final Interval left = evaluate(theRoot.getLeft(), theBox, theEvaluated);
+			final Interval right = evaluate(theRoot.getRight(), theBox, theEvaluated);
+			switch (rootElem) {
+				case "+":
+					result = left.add(right);
+					break;
+				case "-":
+					result = left.subtract(right);
+					break;
+				case "*":
+					result = left.multiply(right);
+					break;
+				case "/":
+					result = left.divide(right);
+					break;
+				default: // "^"
+					result = left.power(right);
+					break;
+			}
+		} else if (theRoot.getLeft() != null) { // a function with an optional coefficient
+			final String functionName = ExpressionParser.getFunction(rootElem);
+			result = function(functionName, evaluate(theRoot.getLeft(), theBox, theEvaluated));
+			final String prefix =
+			    rootElem.substring(0, rootElem.length() - functionName.length());
+			if (!prefix.isEmpty()) { // a coefficient or variable, such as 5sin(<inner>)
+				result = leaf(prefix.equals("-") ? "-1" : prefix, theBox).multiply(result);
+			}
+		} else {
+			result = leaf(rootElem, theBox);
+		}
+		theEvaluated.put(theRoot, result);
+		return result;
+	}
+
+	/**
+	 * Returns an enclosure of the specified leaf over the specified box.
+	 *
+	 * @param theLeaf	the leaf element, a number or a variable with an optional coefficient
+	 * @param theBox	the interval of every variable of the expression
+	 * @return an interval enclosing the leaf
+	 * @throws IllegalArgumentException if the leaf is an unknown symbol
+	 */
+	private static Interval leaf(final String theLeaf, final Map<String, Interval> theBox) {
+		Interval result;
+		if (ExpressionParser.isNumber(theLeaf)) {
+			result = Interval.valueOf(theLeaf);
+		} else {
+			final String symbol = ExpressionParser.getSymbol(theLeaf);
+			final Interval coefficient =
+			    Interval.valueOf(ExpressionParser.getCoefficient(theLeaf));
+			final Interval variable = theBox.get(symbol);
+			if (variable != null) {
+				result = coefficient.multiply(variable);
+			} else if (symbol.equals("e")) {
+				result = coefficient.multiply(Interval.E);
+			} else {
+				throw new IllegalArgumentException("unknown symbol: " + theLeaf);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an enclosure of the specified function over the specified interval.
+	 *
+	 * @param theFunction	the name of the function, without a coefficient
+	 * @param theArgument	the interval of the argument
+	 * @return an interval enclosing the function over the argument
+	 * @throws IllegalArgumentException if the function is not accepted by this calculator
+	 */
+	static Interval function(final String theFunction, final Interval theArgument) {
+		Interval result;
+		if (theFunction.startsWith("log_")) { // log_<base>
+			result = theArgument.ln().divide(Interval.valueOf(theFunction.substring(4)).ln());
+		} else {
+			switch (theFunction) {
+				case "abs":
+					result = theArgument.abs();
+					break;
+				case "sin":
+					result = theArgument.sin();
+					break;
+				case "cos":
+					result = theArgument.cos();
+					break;
+				case "tan":
+					result = theArgument.tan();
+					break;
+				case "sec":
+					result = theArgument.sec();
+					break;
+				case "csc":
+					result = theArgument.csc();
+					break;
+				case "cot":
+					result = theArgument.cot();
+					break;
+				case "arcsin":
+					result = theArgument.arcsin();
+					break;
+				case "arccos":
+					result = theArgument.arccos();
+					break;
+				case "arctan":
+					result = theArgument.arctan();
+					break;
+				case "arcsec":
+					result = theArgument.arcsec();
+					break;
+				case "arccsc":
+					result = theArgument.arccsc();
+					break;
+				case "arccot":
+					result = theArgument.arccot();
+					break;
+				case "ln":
+				case "log":
+					result = theArgument.ln();
+					break;
+				default:
+					throw new IllegalArgumentException("unknown function: " + theFunction);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an enclosure of the range of the specified root's expression over the specified
+	 * box, narrowed by branch and bound in the common ForkJoinPool until each bound is within
+	 * the specified tolerance of the range or DEFAULT_MAX_BOXES boxes were searched for it.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theBox		the interval of every variable of the expression
+	 * @param theTolerance	the largest distance wanted between a bound and the range
+	 * @return an interval enclosing the range of the expression over the box
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static Interval range(final BinaryTreeNode<String> theRoot,
+	    final Map<String, Interval> theBox, final double theTolerance) {
+		return range(theRoot, theBox, theTolerance, DEFAULT_MAX_BOXES, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns an enclosure of the range of the specified root's expression over the specified
+	 * box, narrowed by branch and bound in the specified pool until each bound is within the
+	 * specified tolerance of the range or the specified number of boxes were searched for it.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theBox		the interval of every variable of the expression
+	 * @param theTolerance	the largest distance wanted between a bound and the range
+	 * @param theMaxBoxes	the largest number of boxes searched for each bound
+	 * @param thePool		the pool the boxes are searched in
+	 * @return an interval enclosing the range of the expression over the box, empty if the
+	 *         expression is defined nowhere in the box
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static Interval range(final BinaryTreeNode<String> theRoot,
+	    final Map<String, Interval> theBox, final double theTolerance, final int theMaxBoxes,
+	    final ForkJoinPool thePool) {
+		evaluate(theRoot, theBox); // fails fast on an unknown symbol
+		final double lower = -thePool.invoke(new Search(new Bound(theRoot, true, theTolerance,
+		    theMaxBoxes), theBox));
+		final double upper = thePool.invoke(new Search(new Bound(theRoot, false, theTolerance,
+		    theMaxBoxes), theBox));
+		Interval result = Interval.EMPTY;
+		if (lower <= upper) {
+			result = Interval.of(lower, upper);
+		}
+		return result;
+	}
+
+	// INNER CLASS BOUND
+
+	/**
+	 * Inner class to represent the state shared by the tasks searching for one bound of the
+	 * range, the maximum or the negated minimum of the expression.
+	 */
+	private static final class Bound {
+
+		/** The root node representing the expression. */
+		private final BinaryTreeNode<String> myRoot;
+
+		/** Whether the minimum is searched, as the maximum of the negated expression. */
+		private final boolean myIsNegated;
+
+		/** The largest distance wanted between the bound found and the maximum. */
+		private final double myTolerance;
+
+		/** The number of boxes which may still be split. */
+		private final AtomicInteger myBoxes;
+
+		/** The greatest value of the expression found so far, a lower bound of the maximum. */
+		private final DoubleAccumulator myBest =
+		    new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+		/**
+		 * Sets up the search for the maximum or the minimum of the specified expression.
+		 *
+		 * @param theRoot		the root node representing the expression
+		 * @param theIsNegated	whether the minimum is searched rather than the maximum
+		 * @param theTolerance	the largest distance wanted between the bound and the range
+		 * @param theMaxBoxes	the largest number of boxes searched
+		 */
+		Bound(final BinaryTreeNode<String> theRoot, final boolean theIsNegated,
+		    final double theTolerance, final int theMaxBoxes) {
+			myRoot = theRoot;
+			myIsNegated = theIsNegated;
+			myTolerance = theTolerance;
+			myBoxes = new AtomicInteger(theMaxBoxes);
+		}
+
+		/**
+		 * Returns an enclosure of the expression, negated for the minimum, over the
+		 * specified box.
+		 *
+		 * @param theBox the interval of every variable of the expression
+		 * @return an interval enclosing the expression, negated for the minimum
+		 */
+		Interval enclose(final Map<String, Interval> theBox) {
+			final Interval result = evaluate(myRoot, theBox);
+			return myIsNegated ? result.negate() : result;
+		}
+	}
+
+	// INNER CLASS SEARCH
+
+	/**
+	 * Inner class to represent the task returning an upper bound of the maximum of the
+	 * expression over a box, splitting the box in halves searched in parallel unless the box
+	 * cannot hold a value greater than the tolerance above the best value found.
+	 */
+	private static final class Search extends RecursiveTask<Double> {
+
+		/** The serial version UID of the task. */
+		private static final long serialVersionUID = 1L;
+
+		/** The state shared by the tasks searching for the bound. */
+		private final transient Bound myBound;
+
+		/** The interval of every variable of the box. */
+		private final transient Map<String, Interval> myBox;
+
+		/**
+		 * Creates the task searching the specified box.
+		 *
+		 * @param theBound	the state shared by the tasks searching for the bound
+		 * @param theBox	the interval of every variable of the box
+		 */
+		Search(final Bound theBound, final Map<String, Interval> theBox) {
+			myBound = theBound;
+			myBox = theBox;
+		}
+
+		/**
+		 * Returns an upper bound of the maximum over the box, negative infinity if the
+		 * expression is defined nowhere in it.
+		 *
+		 * @return an upper bound of the maximum over the box
+		 */
+		@Override
+		protected Double compute() {
+			final Interval enclosure = myBound.enclose(myBox);
+			double result = Double.NEGATIVE_INFINITY;
+			if (!enclosure.isEmpty()) {
+				result = enclosure.getUpper();
+				final Map<String, Interval> midpoint = new HashMap<String, Interval>();
+				String widest = null;
+				double width = 0;
+				for (Map.Entry<String, Interval> entry : myBox.entrySet()) {
+					midpoint.put(entry.getKey(), Interval.point(entry.getValue().getMidpoint()));
+					if (entry.getValue().getWidth() > width) {
+						widest = entry.getKey();
+						width = entry.getValue().getWidth();
+					}
+				}
+				final Interval value = myBound.enclose(midpoint);
+				if (!value.isEmpty()) {
+					myBound.myBest.accumulate(value.getLower());
+				}
+				if (widest != null && result - myBound.myBest.get() > myBound.myTolerance &&
+				    myBound.myBoxes.getAndDecrement() > 0) {
+					final Interval side = myBox.get(widest);
+					final double middle = side.getMidpoint();
+					if (side.getLower() < middle && middle < side.getUpper()) {
+						final Map<String, Interval> first = new HashMap<String, Interval>(myBox);
+						final Map<String, Interval> second = new HashMap<String, Interval>(myBox);
+						first.put(widest, Interval.of(side.getLower(), middle));
+						second.put(widest, Interval.of(middle, side.getUpper()));
+						final Search firstSearch = new Search(myBound, first);
+						final Search secondSearch = new Search(myBound, second);
+						invokeAll(firstSearch, secondSearch);
+						result = Math.max(firstSearch.join(), secondSearch.join());
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,299 @@
+/**
+ * LetProgram - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTreeNode;
+
+/**
+ * LetProgram represents a symbolic mathematical expression after common subexpression
+ * elimination, as a sequence of let-bound temporaries followed by a result expression, such as
+ * "t1 = x + 1; t2 = t1 ^ 2; result = t2 / t1".
+ *
+ * The elimination visits every distinct node of the expression once by node identity, so the
+ * derivatives built by the Differentiator, which reference the same subtrees from several
+ * places, are processed in time proportional to their distinct nodes rather than to the size
+ * of their printed form. Structurally equal subtrees are merged, and every merged subtree used
+ * more than once is bound to a temporary.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public class LetProgram {
+
+	/** The prefix of the name of every temporary. */
+	private static final String TEMP_PREFIX = "t";
+
+	/** The names of the temporaries, in the order they are bound. */
+	private final List<String> myNames;
+
+	/** The expressions bound to the temporaries, in the order they are bound. */
+	private final List<BinaryTreeNode<String>> myBindings;
+
+	/** The result expression, referring to the temporaries by name. */
+	private final BinaryTreeNode<String> myResult;
+
+	/** The number of nodes of the expression before the elimination, as a tree. */
+	private final long myNodeCountBefore;
+
+	/** The number of nodes of the bindings and the result after the elimination. */
+	private final long myNodeCountAfter;
+
+	/**
+	 * Creates a let program from its already computed components.
+	 *
+	 * @param theNames			the names of the temporaries
+	 * @param theBindings		the expressions bound to the temporaries
+	 * @param theResult			the result expression
+	 * @param theNodeCountBefore	the number of nodes before the elimination
+	 */
+	private LetProgram(final List<String> theNames, final List<BinaryTreeNode<String>> theBindings,
+	    final BinaryTreeNode<String> theResult, final long theNodeCountBefore) {
+		myNames = Collections.unmodifiableList(theNames);
+		myBindings = Collections.unmodifiableList(theBindings);
+		myResult = theResult;
+		myNodeCountBefore = theNodeCountBefore;
+		long after = 1 + myResult.numChildren();
+		for (BinaryTreeNode<String> binding : myBindings) {
+			after += 1 + binding.numChildren();
+		}
+		myNodeCountAfter = after;
+	}
+
+	/**
+	 * Returns the let program of the specified root's equivalent expression after common
+	 * subexpression elimination.
+	 *
+	 * @param theRoot the root node representing the expression
+	 * @return the let program of the expression
+	 */
+	public static LetProgram eliminate(final BinaryTreeNode<String> theRoot) {
+		// merge structurally equal subtrees into distinct ids, in post-order
+		final Map<BinaryTreeNode<String>, Integer> ids = new IdentityHashMap<>();
+		final Map<String, Integer> keys = new HashMap<>();
+		final List<BinaryTreeNode<String>> distinct = new ArrayList<>();
+		final List<int[]> children = new ArrayList<>();
+		final int rootId = merge(theRoot, ids, keys, distinct, children);
+
+		// count the references to every distinct subtree
+		final int[] uses = new int[distinct.size()];
+		uses[rootId]++;
+		for (int[] pair : children) {
+			for (int child : pair) {
+				if (child >= 0) {
+					uses[child]++;
+				}
+			}
+		}
+
+		// avoid temporary names which clash with the leaves of the expression
+		final Set<String> leaves = new HashSet<>();
+		for (int id = 0; id < distinct.size(); id++) {
+			if (children.get(id)[0] < 0 && children.get(id)[1] < 0) {
+				leaves.add(distinct.get(id).getElement());
+			}
+		}
+		final List<String> names = new ArrayList<>();
+		final List<BinaryTreeNode<String>> bindings = new ArrayList<>();
+		final List<BinaryTreeNode<String>> references = new ArrayList<>(distinct.size());
+		int tempCount = 0;
+		for (int id = 0; id < distinct.size(); id++) {
+			final int[] pair = children.get(id);
+			final BinaryTreeNode<String> expression = new BinaryTreeNode<String>(
+			    distinct.get(id).getElement(), pair[0] < 0 ? null : references.get(pair[0]),
+			    pair[1] < 0 ? null : references.get(pair[1]));
+			final boolean isLeaf = pair[0] < 0 && pair[1] < 0;
+			if (uses[id] > 1 && !isLeaf && id != rootId) {
+				String name = null;
+				do {
+					tempCount++;
+					name = TEMP_PREFIX + tempCount;
+				} while (leaves.contains(name));
+				names.add(name);
+				bindings.add(expression);
+				references.add(new BinaryTreeNode<String>(name));
+			} else {
+				references.add(expression);
+			}
+		}
+		return new LetProgram(names, bindings, references.get(rootId), countTreeNodes(theRoot));
+	}
+
+	/**
+	 * Assigns the specified root and its children the id of the first structurally equal
+	 * subtree, adding a new id for every subtree not seen before. Every node is visited once.
+	 *
+	 * @param theRoot		the root node being merged
+	 * @param theIds		the id of every visited node, by node identity
+	 * @param theKeys		the id of every distinct subtree, by its structural key
+	 * @param theDistinct	the distinct subtrees, by id
+	 * @param theChildren	the ids of the left and right children of every distinct subtree
+	 * @return the id of the root
+	 */
+	private static int merge(final BinaryTreeNode<String> theRoot,
+	    final Map<BinaryTreeNode<String>, Integer> theIds, final Map<String, Integer> theKeys,
+	    final List<BinaryTreeNode<String>> theDistinct, final List<int[]> theChildren) {
+		Integer id = theIds.get(theRoot);
+		if (id == null) {
+			final int left = theRoot.getLeft() == null ? -1 :
+			    merge(theRoot.getLeft(), theIds, theKeys, theDistinct, theChildren);
+			final int right = theRoot.getRight() == null ? -1 :
+			    merge(theRoot.getRight(), theIds, theKeys, theDistinct, theChildren);
+			final String key = theRoot.getElement() + "(" + left + "," + right + ")";
+			id = theKeys.get(key);
+			if (id == null) {
+				id = theDistinct.size();
+				theKeys.put(key, id);
+				theDistinct.add(theRoot);
+				theChildren.add(new int[] {left, right});
+			}
+			theIds.put(theRoot, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the number of nodes the specified root has when printed as a tree, counting a
+	 * subtree once for every place it is referenced from. Every distinct node is visited once,
+	 * and the count saturates at the largest long value.
+	 *
+	 * @param theRoot the root node being counted
+	 * @return the number of nodes of the root as a tree
+	 */
+	static long countTreeNodes(final BinaryTreeNode<String> theRoot) {
+		return countTreeNodes(theRoot, new IdentityHashMap<>());
+	}
+
+	/**
+	 * Returns the number of nodes the specified root has when printed as a tree, counting a
+	 * subtree once for every place it is referenced from. The count saturates at the largest
+	 * long value.
+	 *
+	 * @param theRoot	the root node being counted
+	 * @param theCounts	the already computed counts, by node identity
+	 * @return the number of nodes of the root as a tree
+	 */
+	private static long countTreeNodes(final BinaryTreeNode<String> theRoot,
+	    final Map<BinaryTreeNode<String>, Long> theCounts) {
+		long result = 0;
+		if (theRoot != null) {
+			final Long count = theCounts.get(theRoot);
+			if (count != null) {
+				result = count;
+			} else {
+				final long left = countTreeNodes(theRoot.getLeft(), theCounts);
+				final long right = countTreeNodes(theRoot.getRight(), theCounts);
+				result = left + right + 1;
+				if (result < 0 || left == Long.MAX_VALUE || right == Long.MAX_VALUE) {
+					result = Long.MAX_VALUE;
+				}
+				theCounts.put(theRoot, result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the names of the temporaries, in the order they are bound.
+	 *
+	 * @return the names of the temporaries
+	 */
+	public List<String> getNames() {
+		return myNames;
+	}
+
+	/**
+	 * Returns the expressions bound to the temporaries, in the order they are bound.
+	 *
+	 * @return the expressions bound to the temporaries
+	 */
+	public List<BinaryTreeNode<String>> getBindings() {
+		return myBindings;
+	}
+
+	/**
+	 * Returns the result expression, referring to the temporaries by name.
+	 *
+	 * @return the result expression
+	 */
+	public BinaryTreeNode<String> getResult() {
+		return myResult;
+	}
+
+	/**
+	 * Returns the number of nodes of the expression before the elimination, counting a
+	 * subtree once for every place it is referenced from.
+	 *
+	 * @return the number of nodes of the expression before the elimination
+	 */
+	public long getNodeCountBefore() {
+		return myNodeCountBefore;
+	}
+
+	/**
+	 * Returns the number of nodes of the bindings and the result after the elimination.
+	 *
+	 * @return the number of nodes after the elimination
+	 */
+	public long getNodeCountAfter() {
+		return myNodeCountAfter;
+	}
+
+	/**
+	 * Returns a function evaluating this program at the values held in an array, where index i
+	 * holds the value of the i-th specified variable. Every temporary is evaluated once, into
+	 * an array of slots allocated once for every thread calling the function.
+	 *
+	 * @param theVariables the variables of the expression, in the order of the input array
+	 * @return a function evaluating this program at the values held in an array
+	 * @throws IllegalArgumentException if the program contains an unknown symbol
+	 */
+	public ToDoubleFunction<double[]> compile(final List<String> theVariables) {
+		final List<String> slots = new ArrayList<>(theVariables);
+		slots.addAll(myNames);
+		final int variableCount = theVariables.size();
+		final List<ToDoubleFunction<double[]>> bindings = new ArrayList<>(myBindings.size());
+		for (BinaryTreeNode<String> binding : myBindings) {
+			bindings.add(Evaluator.compile(binding, slots));
+		}
+		final ToDoubleFunction<double[]> result = Evaluator.compile(myResult, slots);
+		final ThreadLocal<double[]> scratch =
+		    ThreadLocal.withInitial(() -> new double[slots.size()]);
+		return vars -> {
+			final double[] values = scratch.get();
+			System.arraycopy(vars, 0, values, 0, variableCount);
+			for (int i = 0; i < bindings.size(); i++) {
+				values[variableCount + i] = bindings.get(i).applyAsDouble(values);
+			}
+			return result.applyAsDouble(values);
+		};
+	}
+
+	/**
+	 * Returns this program as a String of its bindings followed by its result, such as
+	 * "t1 = x + 1; result = t1 * t1".
+	 *
+	 * @return this program as a String
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < myNames.size(); i++) {
+			sb.append(myNames.get(i)).append(" = ");
+			sb.append(Differentiator.treeNodeToString(myBindings.get(i), 0)).append("; ");
+		}
+		sb.append("result = ").append(Differentiator.treeNodeToString(myResult, 0));
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,751 @@
+/**
+ * NaryNode - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import structures.BinaryTreeNode;
+
+/**
+ * NaryNode is an immutable node of an expression in which the chains of binary additions,
+ * subtractions and multiplications are flattened into single n-ary sum and product nodes.
+ * The operands of a sum each carry a sign, so "a - (b - c)" is the sum of a, -b and c. Every
+ * other operator, function, constant and variable is an OPERATION node with the same element
+ * and children as its binary tree node.
+ *
+ * Simplification sees the whole operand list of a sum or product at once, so constants and
+ * like terms are collected in a single pass however the chain was nested, and derivation maps
+ * over the operands.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public final class NaryNode {
+
+	/** The operands of an empty node. */
+	private static final NaryNode[] NO_OPERANDS = new NaryNode[0];
+
+	/** The kind of this node. */
+	private final Kind myKind;
+
+	/** The element of this node: "+" for a sum, "*" for a product. */
+	private final String myElement;
+
+	/** The operands of this node: the children of an OPERATION node. */
+	private final NaryNode[] myOperands;
+
+	/** Whether each operand of a sum is subtracted; null for other kinds. */
+	private final boolean[] myNegated;
+
+	/** The precomputed structural hash code of this node. */
+	private final int myHash;
+
+	/**
+	 * Creates a node of the specified kind, element and operands.
+	 *
+	 * @param theKind		the kind of the node
+	 * @param theElement	the element of the node
+	 * @param theOperands	the operands of the node
+	 * @param theNegated	whether each operand of a sum is subtracted, or null
+	 */
+	private NaryNode(final Kind theKind, final String theElement, final NaryNode[] theOperands,
+	    final boolean[] theNegated) {
+		myKind = theKind;
+		myElement = theElement;
+		myOperands = theOperands;
+		myNegated = theNegated;
+		myHash = 31 * (31 * theElement.hashCode() + Arrays.hashCode(theOperands)) +
+		    Arrays.hashCode(theNegated);
+	}
+
+	/**
+	 * Returns the OPERATION node of the specified element and children.
+	 *
+	 * @param theElement	the element of the node
+	 * @param theChildren	the children of the node, none for a leaf
+	 * @return the OPERATION node
+	 */
+	public static NaryNode operation(final String theElement, final NaryNode... theChildren) {
+		return new NaryNode(Kind.OPERATION, theElement, theChildren, null);
+	}
+
+	/**
+	 * Returns the sum of the specified operands, each subtracted if it is negated.
+	 *
+	 * @param theOperands	the operands of the sum
+	 * @param theNegated	whether each operand is subtracted
+	 * @return the SUM node
+	 */
+	public static NaryNode sum(final NaryNode[] theOperands, final boolean[] theNegated) {
+		return new NaryNode(Kind.SUM, "+", theOperands, theNegated);
+	}
+
+	/**
+	 * Returns the product of the specified operands.
+	 *
+	 * @param theOperands the operands of the product
+	 * @return the PRODUCT node
+	 */
+	public static NaryNode product(final NaryNode... theOperands) {
+		return new NaryNode(Kind.PRODUCT, "*", theOperands, null);
+	}
+
+	/**
+	 * Returns the n-ary node of the specified root's equivalent expression, with its chains of
+	 * additions, subtractions and multiplications flattened. Subtrees shared by the expression
+	 * are converted once.
+	 *
+	 * @param theRoot the root node representing the expression
+	 * @return the n-ary node of the expression
+	 */
+	public static NaryNode of(final BinaryTreeNode<String> theRoot) {
+		return of(theRoot, new IdentityHashMap<BinaryTreeNode<String>, NaryNode>());
+	}
+
+	/**
+	 * Returns the n-ary node of the specified root's equivalent expression, reusing the
+	 * already converted nodes.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theConverted	the n-ary node of every already converted node, by node identity
+	 * @return the n-ary node of the expression
+	 */
+	private static NaryNode of(final BinaryTreeNode<String> theRoot,
+	    final Map<BinaryTreeNode<String>, NaryNode> theConverted) {
+		NaryNode result = theConverted.get(theRoot);
+		if (result == null) {
+			ResourceGovernor.checkpoint();
+			final String element = theRoot.getElement();
+			if (element.equals("+") || element.equals("-")) {
+				final List<NaryNode> operands = new ArrayList<NaryNode>();
+				final List<Boolean> negated = new ArrayList<Boolean>();
+				flattenSum(theRoot, false, operands, negated, theConverted);
+				result = sum(operands.toArray(NO_OPERANDS), toArray(negated));
+			} else if (element.equals("*")) {
+				final List<NaryNode> operands = new ArrayList<NaryNode>();
+				flattenProduct(theRoot, operands, theConverted);
+				result = product(operands.toArray(NO_OPERANDS));
+			} else if (theRoot.getLeft() == null) {
+				result = operation(element);
+			} else if (theRoot.getRight() == null) {
+				result = operation(element, of(theRoot.getLeft(), theConverted));
+			} else {
+				result = operation(element, of(theRoot.getLeft(), theConverted),
+				    of(theRoot.getRight(), theConverted));
+			}
+			theConverted.put(theRoot, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the terms of the specified chain of additions and subtractions to the specified
+	 * lists, with their signs.
+	 *
+	 * @param theRoot		the root node of the chain
+	 * @param theIsNegated	whether the whole chain is subtracted
+	 * @param theOperands	the terms found so far
+	 * @param theNegated	whether each term found so far is subtracted
+	 * @param theConverted	the n-ary node of every already converted node, by node identity
+	 */
+	private static void flattenSum(final BinaryTreeNode<String> theRoot,
+	    final boolean theIsNegated, final List<NaryNode> theOperands,
+	    final List<Boolean> theNegated, final Map<BinaryTreeNode<String>, NaryNode> theConverted) {
+		final String element = theRoot.getElement();
+		if (element.equals("+") || element.equals("-")) {
+			ResourceGovernor.checkpoint();
+			flattenSum(theRoot.getLeft(), theIsNegated, theOperands, theNegated, theConverted);
+			flattenSum(theRoot.getRight(), theIsNegated ^ element.equals("-"), theOperands,
+			    theNegated, theConverted);
+		} else {
+			theOperands.add(of(theRoot, theConverted));
+			theNegated.add(theIsNegated);
+		}
+	}
+
+	/**
+	 * Adds the factors of the specified chain of multiplications to the specified list.
+	 *
+	 * @param theRoot		the root node of the chain
+	 * @param theOperands	the factors found so far
+	 * @param theConverted	the n-ary node of every already converted node, by node identity
+	 */
+	private static void flattenProduct(final BinaryTreeNode<String> theRoot,
+	    final List<NaryNode> theOperands,
+	    final Map<BinaryTreeNode<String>, NaryNode> theConverted) {
+		if (theRoot.getElement().equals("*")) {
+			ResourceGovernor.checkpoint();
+			flattenProduct(theRoot.getLeft(), theOperands, theConverted);
+			flattenProduct(theRoot.getRight(), theOperands, theConverted);
+		} else {
+			theOperands.add(of(theRoot, theConverted));
+		}
+	}
+
+	/**
+	 * Returns the specified list of booleans as an array.
+	 *
+	 * @param theList the list of booleans
+	 * @return the array of the booleans
+	 */
+	private static boolean[] toArray(final List<Boolean> theList) {
+		final boolean[] result = new boolean[theList.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = theList.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a binary tree node representing the specified root's equivalent expression with
+	 * the constants and like terms of every sum and product collected.
+	 *
+	 * @param theRoot the root node representing the expression being simplified
+	 * @return a binary tree node representing the simplified expression
+	 */
+	public static BinaryTreeNode<String> simplify(final BinaryTreeNode<String> theRoot) {
+		return of(theRoot).simplify().toTree();
+	}
+
+	/**
+	 * Returns the specified root simplified through its n-ary form where that form has fewer
+	 * nodes; otherwise the root itself.
+	 *
+	 * @param theRoot the root node representing the expression being collected
+	 * @return a binary tree node representing the collected expression
+	 */
+	public static BinaryTreeNode<String> collect(final BinaryTreeNode<String> theRoot) {
+		BinaryTreeNode<String> result = simplify(theRoot);
+		if (LetProgram.countTreeNodes(result) >= LetProgram.countTreeNodes(theRoot)) {
+			result = theRoot;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a binary tree node representing this node's expression. Sums and products are
+	 * written as left-deep chains, and a sum starting with a subtracted term starts from zero.
+	 * Nodes shared by this expression are converted once.
+	 *
+	 * @return a binary tree node representing this expression
+	 */
+	public BinaryTreeNode<String> toTree() {
+		return toTree(new IdentityHashMap<NaryNode, BinaryTreeNode<String>>());
+	}
+
+	/**
+	 * Returns a binary tree node representing this node's expression, reusing the already
+	 * converted nodes.
+	 *
+	 * @param theConverted the binary tree node of every already converted node, by identity
+	 * @return a binary tree node representing this expression
+	 */
+	private BinaryTreeNode<String> toTree(final Map<NaryNode, BinaryTreeNode<String>> theConverted) {
+		BinaryTreeNode<String> result = theConverted.get(this);
+		if (result == null) {
+			ResourceGovernor.checkpoint();
+			if (myKind == Kind.OPERATION) {
+				final BinaryTreeNode<String> left =
+				    myOperands.length > 0 ? myOperands[0].toTree(theConverted) : null;
+				final BinaryTreeNode<String> right =
+				    myOperands.length > 1 ? myOperands[1].toTree(theConverted) : null;
+				result = new BinaryTreeNode<String>(myElement, left, right);
+			} else if (myOperands.length == 0) {
+				result = new BinaryTreeNode<String>(myKind == Kind.SUM ? "0" : "1");
+			} else {
+				result = myOperands[0].toTree(theConverted);
+				if (myKind == Kind.SUM && myNegated[0]) {
+					result = new BinaryTreeNode<String>("-", new BinaryTreeNode<String>("0"),
+					    result);
+				}
+				for (int i = 1; i < myOperands.length; i++) {
+					final String operator =
+					    myKind == Kind.SUM && myNegated[i] ? "-" : myElement;
+					result = new BinaryTreeNode<String>(operator, result,
+					    myOperands[i].toTree(theConverted));
+				}
+			}
+			theConverted.put(this, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this node's expression with the operands of every sum and product simplified
+	 * and then collected: the constants of a sum are added and its like terms combined by
+	 * their coefficients, and the constants of a product are multiplied and its like factors
+	 * combined by their exponents. Operations on constants alone are folded.
+	 *
+	 * @return the simplified expression
+	 */
+	public NaryNode simplify() {
+		return simplify(new IdentityHashMap<NaryNode, NaryNode>());
+	}
+
+	/**
+	 * Returns this node's expression simplified, reusing the already simplified nodes.
+	 *
+	 * @param theSimplified the simplified form of every already simplified node, by identity
+	 * @return the simplified expression
+	 */
+	private NaryNode simplify(final Map<NaryNode, NaryNode> theSimplified) {
+		NaryNode result = theSimplified.get(this);
+		if (result == null) {
+			ResourceGovernor.checkpoint();
+			final NaryNode[] operands = new NaryNode[myOperands.length];
+			for (int i = 0; i < operands.length; i++) {
+				operands[i] = myOperands[i].simplify(theSimplified);
+			}
+			if (myKind == Kind.SUM) {
+				result = collectSum(operands, myNegated);
+			} else if (myKind == Kind.PRODUCT) {
+				result = collectProduct(operands);
+			} else {
+				result = fold(myElement, operands);
+			}
+			theSimplified.put(this, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the sum of the specified simplified terms with its nested sums flattened, its
+	 * constants added and its like terms combined by their coefficients. The terms keep the
+	 * order in which they first appear, and the constant is the last term.
+	 *
+	 * @param theOperands	the simplified terms of the sum
+	 * @param theNegated	whether each term is subtracted
+	 * @return the collected sum
+	 */
+	private static NaryNode collectSum(final NaryNode[] theOperands, final boolean[] theNegated) {
+		final Map<NaryNode, Constant> coefficients = new LinkedHashMap<NaryNode, Constant>();
+		final Constant[] constant = {Constant.valueOf(0)};
+		addTerms(theOperands, theNegated, false, coefficients, constant);
+
+		final List<NaryNode> operands = new ArrayList<NaryNode>();
+		final List<Boolean> negated = new ArrayList<Boolean>();
+		for (Map.Entry<NaryNode, Constant> term : coefficients.entrySet()) {
+			final Constant coefficient = term.getValue();
+			if (!coefficient.isZero()) {
+				final boolean isNegative = coefficient.signum() < 0;
+				operands.add(scale(isNegative ? coefficient.negate() : coefficient,
+				    term.getKey()));
+				negated.add(isNegative);
+			}
+		}
+		if (!constant[0].isZero() || operands.isEmpty()) {
+			final boolean isNegative = constant[0].signum() < 0 && !operands.isEmpty();
+			operands.add(number(isNegative ? constant[0].negate() : constant[0]));
+			negated.add(isNegative);
+		}
+		NaryNode result = null;
+		if (operands.size() == 1 && !negated.get(0)) {
+			result = operands.get(0);
+		} else {
+			result = sum(operands.toArray(NO_OPERANDS), toArray(negated));
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the coefficient of every one of the specified terms to the coefficient of its
+	 * non-constant part, flattening nested sums, and adds the constant terms together.
+	 *
+	 * @param theOperands		the terms being added
+	 * @param theNegated		whether each term is subtracted
+	 * @param theIsNegated		whether all the terms are subtracted
+	 * @param theCoefficients	the coefficient of every non-constant part found so far
+	 * @param theConstant		a single element array holding the sum of the constants
+	 */
+	private static void addTerms(final NaryNode[] theOperands, final boolean[] theNegated,
+	    final boolean theIsNegated, final Map<NaryNode, Constant> theCoefficients,
+	    final Constant[] theConstant) {
+		for (int i = 0; i < theOperands.length; i++) {
+			final NaryNode operand = theOperands[i];
+			final boolean isNegated = theIsNegated ^ theNegated[i];
+			if (operand.myKind == Kind.SUM) {
+				addTerms(operand.myOperands, operand.myNegated, isNegated, theCoefficients,
+				    theConstant);
+			} else {
+				final Term term = Term.of(operand);
+				final Constant coefficient =
+				    isNegated ? term.myCoefficient.negate() : term.myCoefficient;
+				if (term.myRest == null) {
+					theConstant[0] = theConstant[0].add(coefficient);
+				} else {
+					theCoefficients.merge(term.myRest, coefficient, Constant::add);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the product of the specified simplified factors with its nested products
+	 * flattened, its constants multiplied and its like factors combined by their exponents.
+	 * The constant is the first factor.
+	 *
+	 * @param theOperands the simplified factors of the product
+	 * @return the collected product
+	 */
+	private static NaryNode collectProduct(final NaryNode[] theOperands) {
+		final Map<NaryNode, Constant> exponents = new LinkedHashMap<NaryNode, Constant>();
+		final Constant[] constant = {Constant.valueOf(1)};
+		addFactors(theOperands, exponents, constant);
+
+		final List<NaryNode> operands = new ArrayList<NaryNode>();
+		if (!constant[0].isOne()) {
+			operands.add(number(constant[0]));
+		}
+		for (Map.Entry<NaryNode, Constant> factor : exponents.entrySet()) {
+			final Constant exponent = factor.getValue();
+			if (exponent.isOne()) {
+				operands.add(factor.getKey());
+			} else if (!exponent.isZero()) {
+				operands.add(operation("^", factor.getKey(), number(exponent)));
+			}
+		}
+		NaryNode result = null;
+		if (constant[0].isZero()) {
+			result = number(constant[0]);
+		} else if (operands.isEmpty()) {
+			result = number(Constant.valueOf(1));
+		} else if (operands.size() == 1) {
+			result = operands.get(0);
+		} else {
+			result = product(operands.toArray(NO_OPERANDS));
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the exponent of every one of the specified factors to the exponent of its base,
+	 * flattening nested products, and multiplies the constant factors together.
+	 *
+	 * @param theOperands	the factors being multiplied
+	 * @param theExponents	the exponent of every base found so far
+	 * @param theConstant	a single element array holding the product of the constants
+	 */
+	private static void addFactors(final NaryNode[] theOperands,
+	    final Map<NaryNode, Constant> theExponents, final Constant[] theConstant) {
+		for (NaryNode operand : theOperands) {
+			if (operand.myKind == Kind.PRODUCT) {
+				addFactors(operand.myOperands, theExponents, theConstant);
+			} else {
+				final Term term = Term.of(operand);
+				theConstant[0] = theConstant[0].multiply(term.myCoefficient);
+				final NaryNode rest = term.myRest;
+				if (rest != null && rest.isPower()) {
+					theExponents.merge(rest.myOperands[0], rest.myOperands[1].constant(),
+					    Constant::add);
+				} else if (rest != null) {
+					theExponents.merge(rest, Constant.valueOf(1), Constant::add);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the OPERATION node of the specified element and simplified children, folded
+	 * into a constant if it is an operator applied to two finite constants.
+	 *
+	 * @param theElement	the element of the node
+	 * @param theOperands	the simplified children of the node
+	 * @return the folded node
+	 */
+	private static NaryNode fold(final String theElement, final NaryNode[] theOperands) {
+		NaryNode result = operation(theElement, theOperands);
+		if (theOperands.length == 2 && theOperands[0].isConstant() &&
+		    theOperands[1].isConstant()) {
+			final Constant left = theOperands[0].constant();
+			final Constant right = theOperands[1].constant();
+			Constant value = null;
+			if (theElement.equals("/")) {
+				value = left.divide(right);
+			} else if (theElement.equals("^")) {
+				value = left.pow(right);
+			}
+			if (value != null && value.isFinite()) {
+				result = number(value);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the specified non-constant expression multiplied by the specified positive
+	 * coefficient. A variable is written with its coefficient, such as "5x".
+	 *
+	 * @param theCoefficient	the positive coefficient
+	 * @param theRest			the non-constant expression
+	 * @return the scaled expression
+	 */
+	private static NaryNode scale(final Constant theCoefficient, final NaryNode theRest) {
+		NaryNode result = theRest;
+		if (!theCoefficient.isOne()) {
+			if (theRest.isVariable() && theCoefficient.isTerminating()) {
+				result = operation(theCoefficient + theRest.myElement);
+			} else if (theRest.myKind == Kind.PRODUCT) {
+				final NaryNode[] operands = new NaryNode[theRest.myOperands.length + 1];
+				operands[0] = number(theCoefficient);
+				System.arraycopy(theRest.myOperands, 0, operands, 1, theRest.myOperands.length);
+				result = product(operands);
+			} else {
+				result = product(number(theCoefficient), theRest);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the constant node of the specified value: a leaf, or the quotient of two leaves
+	 * for a fraction without a finite decimal expansion.
+	 *
+	 * @param theValue the value of the node
+	 * @return the constant node
+	 */
+	private static NaryNode number(final Constant theValue) {
+		return of(theValue.toNode());
+	}
+
+	/**
+	 * Returns the derivative of this node's expression. The derivative of a sum is the sum of
+	 * the derivatives of its terms, and the derivative of a product is the sum of the product
+	 * with each factor in turn replaced by its derivative. Any other node is derived by the
+	 * Differentiator.
+	 *
+	 * @param theVarDiff the chosen variable of differentiation represented by a node
+	 * @return the derivative of this node's expression
+	 */
+	public NaryNode derive(final BinaryTreeNode<String> theVarDiff) {
+		NaryNode result = null;
+		ResourceGovernor.checkpoint();
+		if (myKind == Kind.SUM) {
+			final NaryNode[] operands = new NaryNode[myOperands.length];
+			for (int i = 0; i < operands.length; i++) {
+				operands[i] = myOperands[i].derive(theVarDiff);
+			}
+			result = sum(operands, myNegated);
+		} else if (myKind == Kind.PRODUCT) {
+			final NaryNode[] terms = new NaryNode[myOperands.length];
+			for (int i = 0; i < terms.length; i++) {
+				final NaryNode[] factors = myOperands.clone();
+				factors[i] = myOperands[i].derive(theVarDiff);
+				terms[i] = product(factors);
+			}
+			result = sum(terms, new boolean[terms.length]);
+		} else {
+			result = of(Differentiator.derive(toTree(), theVarDiff));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this node is a numeric constant: a number or the quotient of two numbers.
+	 *
+	 * @return true if this node is a numeric constant; otherwise false
+	 */
+	private boolean isConstant() {
+		return myKind == Kind.OPERATION && (isNumber() || myElement.equals("/") &&
+		    myOperands[0].isNumber() && myOperands[1].isNumber());
+	}
+
+	/**
+	 * Returns true if this node is a leaf holding a number.
+	 *
+	 * @return true if this node is a leaf holding a number; otherwise false
+	 */
+	private boolean isNumber() {
+		return myKind == Kind.OPERATION && myOperands.length == 0 &&
+		    ExpressionParser.isNumber(myElement);
+	}
+
+	/**
+	 * Returns true if this node is a leaf holding a single variable without a coefficient.
+	 *
+	 * @return true if this node is a plain variable; otherwise false
+	 */
+	private boolean isVariable() {
+		return myKind == Kind.OPERATION && myOperands.length == 0 &&
+		    myElement.matches("[a-zA-Z]+");
+	}
+
+	/**
+	 * Returns true if this node is a power with a constant exponent.
+	 *
+	 * @return true if this node is a power with a constant exponent; otherwise false
+	 */
+	private boolean isPower() {
+		return myKind == Kind.OPERATION && myElement.equals("^") && myOperands[1].isConstant();
+	}
+
+	/**
+	 * Returns the value of this constant node.
+	 *
+	 * @return the value of this constant node
+	 */
+	private Constant constant() {
+		Constant result = null;
+		if (myOperands.length == 0) {
+			result = Constant.valueOf(myElement);
+		} else {
+			result = myOperands[0].constant().divide(myOperands[1].constant());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the kind of this node.
+	 *
+	 * @return the kind of this node
+	 */
+	public Kind getKind() {
+		return myKind;
+	}
+
+	/**
+	 * Returns the element of this node: "+" for a sum and "*" for a product.
+	 *
+	 * @return the element of this node
+	 */
+	public String getElement() {
+		return myElement;
+	}
+
+	/**
+	 * Returns the number of operands of this node.
+	 *
+	 * @return the number of operands of this node
+	 */
+	public int operandCount() {
+		return myOperands.length;
+	}
+
+	/**
+	 * Returns the operand of this node at the specified index.
+	 *
+	 * @param theIndex the index of the operand
+	 * @return the operand at the index
+	 */
+	public NaryNode getOperand(final int theIndex) {
+		return myOperands[theIndex];
+	}
+
+	/**
+	 * Returns true if the operand of this sum at the specified index is subtracted.
+	 *
+	 * @param theIndex the index of the operand
+	 * @return true if the operand is subtracted; otherwise false
+	 */
+	public boolean isNegated(final int theIndex) {
+		return myNegated != null && myNegated[theIndex];
+	}
+
+	@Override
+	public boolean equals(final Object theOther) {
+		boolean result = this == theOther;
+		if (!result && theOther instanceof NaryNode) {
+			final NaryNode other = (NaryNode) theOther;
+			result = myHash == other.myHash && myKind == other.myKind &&
+			    myElement.equals(other.myElement) && Arrays.equals(myNegated, other.myNegated) &&
+			    Arrays.equals(myOperands, other.myOperands);
+		}
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		return myHash;
+	}
+
+	/**
+	 * Returns this node's expression as a String.
+	 *
+	 * @return this node's expression as a String
+	 */
+	@Override
+	public String toString() {
+		return Differentiator.treeNodeToString(toTree(), 0);
+	}
+
+	/**
+	 * The kinds of n-ary nodes.
+	 */
+	public enum Kind {
+		/** A flattened chain of additions and subtractions. */
+		SUM,
+		/** A flattened chain of multiplications. */
+		PRODUCT,
+		/** Any other operator, function, constant or variable. */
+		OPERATION
+	}
+
+	// INNER CLASS TERM
+
+	/**
+	 * Inner class to represent a term split into its numeric coefficient and the rest of the
+	 * term, which is null for a constant term.
+	 */
+	private static class Term {
+
+		/** The numeric coefficient of the term. */
+		private final Constant myCoefficient;
+
+		/** The rest of the term, or null for a constant term. */
+		private final NaryNode myRest;
+
+		/**
+		 * Sets up this term with the specified coefficient and rest.
+		 *
+		 * @param theCoefficient	the numeric coefficient of the term
+		 * @param theRest			the rest of the term, or null for a constant term
+		 */
+		Term(final Constant theCoefficient, final NaryNode theRest) {
+			myCoefficient = theCoefficient;
+			myRest = theRest;
+		}
+
+		/**
+		 * Returns the specified node split into its coefficient and the rest: a constant, a
+		 * variable with a coefficient such as "5x", or a product with constant factors.
+		 *
+		 * @param theNode the node being split
+		 * @return the term of the node
+		 */
+		static Term of(final NaryNode theNode) {
+			Term result = new Term(Constant.valueOf(1), theNode);
+			if (theNode.isConstant()) {
+				result = new Term(theNode.constant(), null);
+			} else if (theNode.myKind == Kind.OPERATION && theNode.myOperands.length == 0) {
+				final String symbol = ExpressionParser.getSymbol(theNode.myElement);
+				if (!symbol.equals(theNode.myElement) && symbol.matches("[a-zA-Z]+")) {
+					result = new Term(Constant.valueOf(ExpressionParser.getCoefficient(
+					    theNode.myElement)), operation(symbol));
+				}
+			} else if (theNode.myKind == Kind.PRODUCT) {
+				Constant coefficient = Constant.valueOf(1);
+				final List<NaryNode> rest = new ArrayList<NaryNode>();
+				for (NaryNode operand : theNode.myOperands) {
+					if (operand.isConstant()) {
+						coefficient = coefficient.multiply(operand.constant());
+					} else {
+						rest.add(operand);
+					}
+				}
+				if (rest.isEmpty()) {
+					result = new Term(coefficient, null);
+				} else if (rest.size() < theNode.myOperands.length) {
+					result = new Term(coefficient, rest.size() == 1 ? rest.get(0) :
+					    product(rest.toArray(NO_OPERANDS)));
+				}
+			}
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,645 @@
+/**
+ * Polynomial - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import structures.BinaryTreeNode;
+
+/**
+ * Polynomial represents a multivariate polynomial in a canonical form: a sparse map from the
+ * exponent vectors of its monomials to their non-zero coefficients. Like terms are therefore
+ * always collected, whatever the nesting of the expression the polynomial was built from.
+ *
+ * Sums combine the maps of their operands in time linear in their number of terms. Any
+ * subtree of an expression built from numbers, variables, sums, differences, products,
+ * divisions by constants and small non-negative integer powers converts to a polynomial, and
+ * collect replaces every such subtree by its canonical form whenever that form is smaller.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class Polynomial {
+
+	/** The largest exponent of a power which is expanded. */
+	private static final int MAX_EXPONENT = 64;
+
+	/** The largest number of terms a polynomial may have before it is not expanded further. */
+	private static final int MAX_TERMS = 4096;
+
+	/** The marker of a node which is not a polynomial. */
+	private static final Polynomial NONE = new Polynomial(Map.of());
+
+	/** The non-zero coefficient of every monomial. */
+	private final Map<Monomial, Double> myTerms;
+
+	/**
+	 * Creates a polynomial from the specified terms, which must not hold zero coefficients.
+	 *
+	 * @param theTerms the non-zero coefficient of every monomial
+	 */
+	private Polynomial(final Map<Monomial, Double> theTerms) {
+		myTerms = theTerms;
+	}
+
+	/**
+	 * Returns the constant polynomial of the specified value.
+	 *
+	 * @param theValue the value of the polynomial
+	 * @return the constant polynomial
+	 */
+	public static Polynomial constant(final double theValue) {
+		final Map<Monomial, Double> terms = new HashMap<Monomial, Double>();
+		if (theValue != 0) {
+			terms.put(Monomial.ONE, theValue);
+		}
+		return new Polynomial(terms);
+	}
+
+	/**
+	 * Returns the polynomial of the specified variable raised to the first power.
+	 *
+	 * @param theVariable the variable of the polynomial
+	 * @return the polynomial of the variable
+	 */
+	public static Polynomial variable(final String theVariable) {
+		final Map<Monomial, Double> terms = new HashMap<Monomial, Double>();
+		terms.put(new Monomial(new String[] {theVariable}, new int[] {1}), 1.0);
+		return new Polynomial(terms);
+	}
+
+	/**
+	 * Returns the polynomial of the specified root's equivalent expression, or null if the
+	 * expression is not a polynomial small enough to expand.
+	 *
+	 * @param theRoot the root node representing the expression
+	 * @return the polynomial of the expression, or null if it is not a polynomial
+	 */
+	public static Polynomial of(final BinaryTreeNode<String> theRoot) {
+		return of(theRoot, new IdentityHashMap<BinaryTreeNode<String>, Polynomial>());
+	}
+
+	/**
+	 * Returns the polynomial of the specified root's equivalent expression, reusing the
+	 * polynomials of the already converted nodes. A node which is not a polynomial is stored
+	 * under the NONE marker.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theConverted	the polynomial of every already converted node, by node identity
+	 * @return the polynomial of the expression, or null if it is not a polynomial
+	 */
+	private static Polynomial of(final BinaryTreeNode<String> theRoot,
+	    final Map<BinaryTreeNode<String>, Polynomial> theConverted) {
+		Polynomial result = theConverted.get(theRoot);
+		if (result == null) {
+			final String element = theRoot.getElement();
+			if (theRoot.getLeft() != null && theRoot.getRight() != null) {
+				final Polynomial left = of(theRoot.getLeft(), theConverted);
+				final Polynomial right = of(theRoot.getRight(), theConverted);
+				if (left != null && right != null) {
+					result = combine(element, left, right);
+				}
+			} else if (theRoot.getLeft() == null) {
+				result = ofLeaf(element);
+			}
+			theConverted.put(theRoot, result == null ? NONE : result);
+		}
+		return result == NONE ? null : result;
+	}
+
+	/**
+	 * Returns the polynomial of the specified operator applied to the specified polynomials,
+	 * or null if the result is not a polynomial small enough to expand.
+	 *
+	 * @param theOperator	the operator being applied
+	 * @param theLeft		the left operand
+	 * @param theRight		the right operand
+	 * @return the resulting polynomial, or null if it is not a polynomial
+	 */
+	private static Polynomial combine(final String theOperator, final Polynomial theLeft,
+	    final Polynomial theRight) {
+		Polynomial result = null;
+		switch (theOperator) {
+			case "+":
+				result = theLeft.add(theRight);
+				break;
+			case "-":
+				result = theLeft.subtract(theRight);
+				break;
+			case "*":
+				result = theLeft.multiply(theRight);
+				break;
+			case "/":
+				if (theRight.isConstant() && !theRight.isZero()) {
+					result = theLeft.scale(1 / theRight.getConstant());
+				}
+				break;
+			case "^":
+				if (theRight.isConstant()) {
+					final double exponent = theRight.getConstant();
+					if (exponent == Math.rint(exponent) && exponent >= 0 &&
+					    exponent <= MAX_EXPONENT) {
+						result = theLeft.pow((int) exponent);
+					}
+				}
+				break;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the polynomial of the specified leaf, splitting a coefficient from its variable.
+	 *
+	 * @param theLeaf the element of the leaf
+	 * @return the polynomial of the leaf
+	 */
+	private static Polynomial ofLeaf(final String theLeaf) {
+		Polynomial result = null;
+		if (ExpressionParser.isNumber(theLeaf)) {
+			result = constant(Double.parseDouble(theLeaf));
+		} else {
+			final double coefficient =
+			    Double.parseDouble(ExpressionParser.getCoefficient(theLeaf));
+			final String symbol = ExpressionParser.getSymbol(theLeaf);
+			result = symbol.isEmpty() ? constant(coefficient) :
+			    variable(symbol).scale(coefficient);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a binary tree node representing the specified root's equivalent expression with
+	 * every polynomial subtree replaced by its canonical form, where that form has fewer nodes
+	 * than the subtree. Subtrees shared by the expression are collected once.
+	 *
+	 * @param theRoot the root node representing the expression being collected
+	 * @return a binary tree node representing the collected expression
+	 */
+	public static BinaryTreeNode<String> collect(final BinaryTreeNode<String> theRoot) {
+		return collect(theRoot, new IdentityHashMap<BinaryTreeNode<String>, Polynomial>(),
+		    new IdentityHashMap<BinaryTreeNode<String>, BinaryTreeNode<String>>());
+	}
+
+	/**
+	 * Returns the specified root with every polynomial subtree replaced by its canonical form
+	 * where that form is smaller.
+	 *
+	 * @param theRoot		the root node representing the expression being collected
+	 * @param theConverted	the polynomial of every already converted node, by node identity
+	 * @param theCollected	the already collected nodes, by node identity
+	 * @return a binary tree node representing the collected expression
+	 */
+	private static BinaryTreeNode<String> collect(final BinaryTreeNode<String> theRoot,
+	    final Map<BinaryTreeNode<String>, Polynomial> theConverted,
+	    final Map<BinaryTreeNode<String>, BinaryTreeNode<String>> theCollected) {
+		BinaryTreeNode<String> result = theCollected.get(theRoot);
+		if (result == null) {
+			ResourceGovernor.checkpoint();
+			final Polynomial polynomial = of(theRoot, theConverted);
+			BinaryTreeNode<String> canonical = null;
+			if (polynomial != null) {
+				canonical = polynomial.toTree();
+				if (LetProgram.countTreeNodes(canonical) >= LetProgram.countTreeNodes(theRoot)) {
+					canonical = null;
+				}
+			}
+			if (canonical != null) {
+				result = canonical;
+			} else if (theRoot.getLeft() == null) {
+				result = theRoot;
+			} else {
+				final BinaryTreeNode<String> left =
+				    collect(theRoot.getLeft(), theConverted, theCollected);
+				final BinaryTreeNode<String> right = theRoot.getRight() == null ? null :
+				    collect(theRoot.getRight(), theConverted, theCollected);
+				result = theRoot;
+				if (left != theRoot.getLeft() || right != theRoot.getRight()) {
+					result = new BinaryTreeNode<String>(theRoot.getElement(), left, right);
+				}
+			}
+			theCollected.put(theRoot, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the sum of this polynomial and the specified polynomial.
+	 *
+	 * @param theOther the polynomial being added
+	 * @return the sum of the two polynomials
+	 */
+	public Polynomial add(final Polynomial theOther) {
+		return addScaled(theOther, 1);
+	}
+
+	/**
+	 * Returns the difference of this polynomial and the specified polynomial.
+	 *
+	 * @param theOther the polynomial being subtracted
+	 * @return the difference of the two polynomials
+	 */
+	public Polynomial subtract(final Polynomial theOther) {
+		return addScaled(theOther, -1);
+	}
+
+	/**
+	 * Returns the sum of this polynomial and the specified polynomial scaled by the specified
+	 * factor, in time linear in the number of terms of both.
+	 *
+	 * @param theOther	the polynomial being added
+	 * @param theFactor	the factor of the polynomial being added
+	 * @return the sum of the two polynomials
+	 */
+	private Polynomial addScaled(final Polynomial theOther, final double theFactor) {
+		final Map<Monomial, Double> terms = new HashMap<Monomial, Double>(myTerms);
+		for (Map.Entry<Monomial, Double> term : theOther.myTerms.entrySet()) {
+			addTerm(terms, term.getKey(), theFactor * term.getValue());
+		}
+		return new Polynomial(terms);
+	}
+
+	/**
+	 * Returns this polynomial with every coefficient multiplied by the specified factor.
+	 *
+	 * @param theFactor the factor of every coefficient
+	 * @return the scaled polynomial
+	 */
+	public Polynomial scale(final double theFactor) {
+		final Map<Monomial, Double> terms = new HashMap<Monomial, Double>();
+		if (theFactor != 0) {
+			for (Map.Entry<Monomial, Double> term : myTerms.entrySet()) {
+				terms.put(term.getKey(), theFactor * term.getValue());
+			}
+		}
+		return new Polynomial(terms);
+	}
+
+	/**
+	 * Returns the product of this polynomial and the specified polynomial, or null if the
+	 * product may have more terms than are expanded.
+	 *
+	 * @param theOther the polynomial being multiplied
+	 * @return the product of the two polynomials, or null if it is too large
+	 */
+	public Polynomial multiply(final Polynomial theOther) {
+		Polynomial result = null;
+		if ((long) myTerms.size() * theOther.myTerms.size() <= MAX_TERMS) {
+			final Map<Monomial, Double> terms = new HashMap<Monomial, Double>();
+			for (Map.Entry<Monomial, Double> left : myTerms.entrySet()) {
+				for (Map.Entry<Monomial, Double> right : theOther.myTerms.entrySet()) {
+					addTerm(terms, left.getKey().multiply(right.getKey()),
+					    left.getValue() * right.getValue());
+				}
+			}
+			result = new Polynomial(terms);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this polynomial raised to the specified non-negative power by repeated squaring,
+	 * or null if an intermediate result has more terms than are expanded.
+	 *
+	 * @param theExponent the non-negative exponent
+	 * @return the power of this polynomial, or null if it is too large
+	 */
+	public Polynomial pow(final int theExponent) {
+		Polynomial result = constant(1);
+		Polynomial square = this;
+		int exponent = theExponent;
+		while (exponent > 0 && result != null && square != null) {
+			if ((exponent & 1) == 1) {
+				result = result.multiply(square);
+			}
+			exponent >>= 1;
+			if (exponent > 0) {
+				square = square.multiply(square);
+			}
+		}
+		return square == null ? null : result;
+	}
+
+	/**
+	 * Returns the partial derivative of this polynomial with respect to the specified
+	 * variable.
+	 *
+	 * @param theVariable the variable of differentiation
+	 * @return the partial derivative of this polynomial
+	 */
+	public Polynomial derive(final String theVariable) {
+		final Map<Monomial, Double> terms = new HashMap<Monomial, Double>();
+		for (Map.Entry<Monomial, Double> term : myTerms.entrySet()) {
+			final Monomial monomial = term.getKey();
+			final int exponent = monomial.getExponent(theVariable);
+			if (exponent > 0) {
+				addTerm(terms, monomial.withExponent(theVariable, exponent - 1),
+				    exponent * term.getValue());
+			}
+		}
+		return new Polynomial(terms);
+	}
+
+	/**
+	 * Adds the specified coefficient to the term of the specified monomial, removing the term
+	 * if its coefficient becomes zero.
+	 *
+	 * @param theTerms			the terms being added to
+	 * @param theMonomial		the monomial of the term
+	 * @param theCoefficient	the coefficient being added
+	 */
+	private static void addTerm(final Map<Monomial, Double> theTerms,
+	    final Monomial theMonomial, final double theCoefficient) {
+		final double sum = theTerms.getOrDefault(theMonomial, 0.0) + theCoefficient;
+		if (sum == 0) {
+			theTerms.remove(theMonomial);
+		} else {
+			theTerms.put(theMonomial, sum);
+		}
+	}
+
+	/**
+	 * Returns the number of terms with a non-zero coefficient.
+	 *
+	 * @return the number of terms
+	 */
+	public int termCount() {
+		return myTerms.size();
+	}
+
+	/**
+	 * Returns the highest total degree of the terms, or zero for a constant polynomial.
+	 *
+	 * @return the total degree of this polynomial
+	 */
+	public int degree() {
+		int result = 0;
+		for (Monomial monomial : myTerms.keySet()) {
+			result = Math.max(result, monomial.degree());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if this polynomial has no term other than a constant.
+	 *
+	 * @return true if this polynomial is constant; otherwise false
+	 */
+	public boolean isConstant() {
+		return myTerms.isEmpty() || myTerms.size() == 1 && myTerms.containsKey(Monomial.ONE);
+	}
+
+	/**
+	 * Returns true if this polynomial has no terms.
+	 *
+	 * @return true if this polynomial is zero; otherwise false
+	 */
+	public boolean isZero() {
+		return myTerms.isEmpty();
+	}
+
+	/**
+	 * Returns the coefficient of the constant term.
+	 *
+	 * @return the coefficient of the constant term
+	 */
+	public double getConstant() {
+		return myTerms.getOrDefault(Monomial.ONE, 0.0);
+	}
+
+	/**
+	 * Returns a binary tree node representing this polynomial as a sum of its terms, from the
+	 * highest total degree down. A term with a negative coefficient after the first is
+	 * subtracted, and a coefficient of one is left out.
+	 *
+	 * @return a binary tree node representing this polynomial
+	 */
+	public BinaryTreeNode<String> toTree() {
+		final List<Monomial> monomials = new ArrayList<Monomial>(myTerms.keySet());
+		monomials.sort(null);
+		BinaryTreeNode<String> result = null;
+		for (Monomial monomial : monomials) {
+			final double coefficient = myTerms.get(monomial);
+			if (result == null) {
+				result = term(coefficient, monomial);
+			} else if (coefficient < 0) {
+				result = new BinaryTreeNode<String>("-", result, term(-coefficient, monomial));
+			} else {
+				result = new BinaryTreeNode<String>("+", result, term(coefficient, monomial));
+			}
+		}
+		return result == null ? new BinaryTreeNode<String>("0") : result;
+	}
+
+	/**
+	 * Returns a binary tree node representing the term of the specified coefficient and
+	 * monomial. A single variable is written with its coefficient, such as "5x".
+	 *
+	 * @param theCoefficient	the coefficient of the term
+	 * @param theMonomial		the monomial of the term
+	 * @return a binary tree node representing the term
+	 */
+	private static BinaryTreeNode<String> term(final double theCoefficient,
+	    final Monomial theMonomial) {
+		BinaryTreeNode<String> result = null;
+		final String number = RewriteEngine.number(theCoefficient).getElement();
+		if (theMonomial.degree() == 0) {
+			result = new BinaryTreeNode<String>(number);
+		} else if (theMonomial.degree() == 1 && theMonomial.myVariables[0].matches("[a-z]+")) {
+			final String prefix = theCoefficient == 1 ? "" : theCoefficient == -1 ? "-" : number;
+			result = new BinaryTreeNode<String>(prefix + theMonomial.myVariables[0]);
+		} else {
+			result = theMonomial.toTree();
+			if (theCoefficient != 1) {
+				result = new BinaryTreeNode<String>("*", new BinaryTreeNode<String>(number),
+				    result);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object theOther) {
+		return theOther instanceof Polynomial && myTerms.equals(((Polynomial) theOther).myTerms);
+	}
+
+	@Override
+	public int hashCode() {
+		return myTerms.hashCode();
+	}
+
+	/**
+	 * Returns this polynomial as a String of its canonical form.
+	 *
+	 * @return this polynomial as a String
+	 */
+	@Override
+	public String toString() {
+		return Differentiator.treeNodeToString(toTree(), 0);
+	}
+
+	// INNER CLASS MONOMIAL
+
+	/**
+	 * Inner class to represent a monomial as a sparse exponent vector: its variables in
+	 * alphabetical order with their positive exponents. Monomials are ordered from the highest
+	 * total degree down, and alphabetically among equal degrees.
+	 */
+	private static class Monomial implements Comparable<Monomial> {
+
+		/** The monomial of degree zero. */
+		static final Monomial ONE = new Monomial(new String[0], new int[0]);
+
+		/** The variables of this monomial, in alphabetical order. */
+		private final String[] myVariables;
+
+		/** The positive exponent of each variable. */
+		private final int[] myExponents;
+
+		/** The precomputed hash code of this monomial. */
+		private final int myHash;
+
+		/**
+		 * Sets up this monomial with the specified variables and exponents.
+		 *
+		 * @param theVariables	the variables, in alphabetical order
+		 * @param theExponents	the positive exponent of each variable
+		 */
+		Monomial(final String[] theVariables, final int[] theExponents) {
+			myVariables = theVariables;
+			myExponents = theExponents;
+			myHash = 31 * Arrays.hashCode(theVariables) + Arrays.hashCode(theExponents);
+		}
+
+		/**
+		 * Returns the total degree of this monomial.
+		 *
+		 * @return the total degree of this monomial
+		 */
+		int degree() {
+			int result = 0;
+			for (int exponent : myExponents) {
+				result += exponent;
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the exponent of the specified variable, or zero if it does not appear.
+		 *
+		 * @param theVariable the variable
+		 * @return the exponent of the variable
+		 */
+		int getExponent(final String theVariable) {
+			final int index = Arrays.binarySearch(myVariables, theVariable);
+			return index < 0 ? 0 : myExponents[index];
+		}
+
+		/**
+		 * Returns this monomial with the exponent of the specified variable replaced.
+		 *
+		 * @param theVariable	the variable
+		 * @param theExponent	the new exponent of the variable
+		 * @return the monomial with the replaced exponent
+		 */
+		Monomial withExponent(final String theVariable, final int theExponent) {
+			final Map<String, Integer> powers = new HashMap<String, Integer>();
+			powers.put(theVariable, theExponent - getExponent(theVariable));
+			return multiply(powers);
+		}
+
+		/**
+		 * Returns the product of this monomial and the specified monomial, merging their
+		 * sorted variables.
+		 *
+		 * @param theOther the monomial being multiplied
+		 * @return the product of the two monomials
+		 */
+		Monomial multiply(final Monomial theOther) {
+			final Map<String, Integer> powers = new HashMap<String, Integer>();
+			for (int i = 0; i < theOther.myVariables.length; i++) {
+				powers.put(theOther.myVariables[i], theOther.myExponents[i]);
+			}
+			return multiply(powers);
+		}
+
+		/**
+		 * Returns the product of this monomial and the specified powers, dropping variables
+		 * whose exponent becomes zero.
+		 *
+		 * @param thePowers the exponent added to every variable
+		 * @return the product of this monomial and the powers
+		 */
+		private Monomial multiply(final Map<String, Integer> thePowers) {
+			final Map<String, Integer> powers = new HashMap<String, Integer>(thePowers);
+			for (int i = 0; i < myVariables.length; i++) {
+				powers.merge(myVariables[i], myExponents[i], Integer::sum);
+			}
+			powers.values().removeIf(exponent -> exponent == 0);
+			final String[] variables = powers.keySet().toArray(new String[0]);
+			Arrays.sort(variables);
+			final int[] exponents = new int[variables.length];
+			for (int i = 0; i < variables.length; i++) {
+				exponents[i] = powers.get(variables[i]);
+			}
+			return new Monomial(variables, exponents);
+		}
+
+		/**
+		 * Returns a binary tree node representing the product of the powers of this
+		 * monomial's variables.
+		 *
+		 * @return a binary tree node representing this monomial
+		 */
+		BinaryTreeNode<String> toTree() {
+			BinaryTreeNode<String> result = null;
+			for (int i = 0; i < myVariables.length; i++) {
+				BinaryTreeNode<String> power = new BinaryTreeNode<String>(myVariables[i]);
+				if (myExponents[i] != 1) {
+					power = new BinaryTreeNode<String>("^", power,
+					    new BinaryTreeNode<String>(String.valueOf(myExponents[i])));
+				}
+				result = result == null ? power : new BinaryTreeNode<String>("*", result, power);
+			}
+			return result;
+		}
+
+		@Override
+		public int compareTo(final Monomial theOther) {
+			int result = Integer.compare(theOther.degree(), degree());
+			for (int i = 0; result == 0 && i < Math.min(myVariables.length,
+			    theOther.myVariables.length); i++) {
+				result = myVariables[i].compareTo(theOther.myVariables[i]);
+				if (result == 0) {
+					result = Integer.compare(theOther.myExponents[i], myExponents[i]);
+				}
+			}
+			if (result == 0) {
+				result = Integer.compare(myVariables.length, theOther.myVariables.length);
+			}
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object theOther) {
+			boolean result = this == theOther;
+			if (!result && theOther instanceof Monomial) {
+				final Monomial other = (Monomial) theOther;
+				result = myHash == other.myHash && Arrays.equals(myVariables, other.myVariables) &&
+				    Arrays.equals(myExponents, other.myExponents);
+			}
+			return result;
+		}
+
+		@Override
+		public int hashCode() {
+			return myHash;
+		}
+	}
+
+}
@@ -0,0 +1,668 @@
+/**
+ * PostfixProgram - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTreeNode;
+
+/**
+ * PostfixProgram represents a symbolic mathematical expression compiled into a flat stream of
+ * int instructions in postfix order with a pool of double constants, run by a stack machine.
+ *
+ * Every instruction holds its opcode in the low byte and its operand, such as the index of a
+ * constant or of a variable, in the upper bytes. Evaluating the program walks the stream once,
+ * keeping the operands on a frame the caller allocates once and reuses, so an evaluation does
+ * no String work and allocates nothing. A program is lowered either from the postfix tokens of
+ * the shunting yard algorithm, without building a tree, or from a tree such as a derivative of
+ * the Differentiator, in which case a subtree shared by several parents is evaluated once and
+ * kept in a local slot of the frame. Operations on constants are folded while lowering, and a
+ * power with a small integer exponent is evaluated by repeated squaring like in the Evaluator.
+ *
+ * Unlike the classes of the BytecodeCompiler, a program needs no class to be defined at run
+ * time, so it is the portable fallback when bytecode generation is not available.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class PostfixProgram {
+
+	/** The largest magnitude of an integer exponent evaluated by repeated squaring. */
+	private static final int MAX_INTEGER_EXPONENT = 64;
+
+	/** The number of bits the operand of an instruction is shifted by. */
+	private static final int OPERAND_SHIFT = 8;
+
+	/** The mask of the opcode of an instruction. */
+	private static final int OPCODE_MASK = 0xff;
+
+	/** Pushes the constant at the operand's index of the pool. */
+	private static final int CONSTANT = 0;
+
+	/** Pushes the value of the variable at the operand's index of the input array. */
+	private static final int VARIABLE = 1;
+
+	/** Pushes the value kept in the operand's local slot. */
+	private static final int LOAD = 2;
+
+	/** Keeps the value on top of the stack in the operand's local slot, leaving it there. */
+	private static final int STORE = 3;
+
+	/** Pops two values and pushes their sum. */
+	private static final int ADD = 4;
+
+	/** Pops two values and pushes their difference. */
+	private static final int SUBTRACT = 5;
+
+	/** Pops two values and pushes their product. */
+	private static final int MULTIPLY = 6;
+
+	/** Pops two values and pushes their quotient. */
+	private static final int DIVIDE = 7;
+
+	/** Pops two values and pushes the first raised to the second. */
+	private static final int POWER = 8;
+
+	/** Raises the value on top of the stack to the operand, a small integer. */
+	private static final int POWER_INT = 9;
+
+	/** Divides the natural logarithm of the top value by the operand's constant. */
+	private static final int LOG_BASE = 10;
+
+	/** The opcode of the first function; the others follow in the order of FUNCTIONS. */
+	private static final int FIRST_FUNCTION = 11;
+
+	/** The functions with their own opcode, in the order of their opcodes. */
+	private static final List<String> FUNCTIONS = List.of("abs", "sin", "cos", "tan", "sec",
+	    "csc", "cot", "arcsin", "arccos", "arctan", "arcsec", "arccsc", "arccot", "ln", "log");
+
+	/** The mnemonic of every opcode, in the order of the opcodes. */
+	private static final List<String> MNEMONICS = mnemonics();
+
+	/** The instructions of the program. */
+	private final int[] myCode;
+
+	/** The constant pool of the program. */
+	private final double[] myConstants;
+
+	/** The greatest depth of the stack, which is where the local slots start in a frame. */
+	private final int myMaxStack;
+
+	/** The size of a frame: the stack followed by the local slots. */
+	private final int myFrameSize;
+
+	/**
+	 * Creates a program from the specified assembled instructions.
+	 *
+	 * @param theAssembler the assembler holding the instructions
+	 */
+	private PostfixProgram(final Assembler theAssembler) {
+		myCode = Arrays.copyOf(theAssembler.myCode, theAssembler.myLength);
+		myConstants = new double[theAssembler.myConstants.size()];
+		for (int i = 0; i < myConstants.length; i++) {
+			myConstants[i] = theAssembler.myConstants.get(i);
+		}
+		myMaxStack = theAssembler.myMaxDepth;
+		myFrameSize = theAssembler.myMaxDepth + theAssembler.myLocals;
+	}
+
+	/**
+	 * Returns the program evaluating the specified root's equivalent expression at the values
+	 * held in an array, where index i holds the value of the i-th specified variable.
+	 *
+	 * @param theRoot		the root node representing the expression being compiled
+	 * @param theVariables	the variables of the expression, in the order of the input array
+	 * @return the program evaluating the expression
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static PostfixProgram compile(final BinaryTreeNode<String> theRoot,
+	    final List<String> theVariables) {
+		final Map<BinaryTreeNode<String>, Integer> uses =
+		    new IdentityHashMap<BinaryTreeNode<String>, Integer>();
+		countUses(theRoot, uses);
+		final Assembler assembler = new Assembler(theVariables);
+		lower(theRoot, uses, new IdentityHashMap<BinaryTreeNode<String>, Integer>(), assembler);
+		return new PostfixProgram(assembler);
+	}
+
+	/**
+	 * Returns the program evaluating the expression of the specified tokens in postfix order,
+	 * as returned by ExpressionParser.shuntingYardPostfix, at the values held in an array,
+	 * where index i holds the value of the i-th specified variable.
+	 *
+	 * @param thePostfix	the tokens of the expression in postfix order
+	 * @param theVariables	the variables of the expression, in the order of the input array
+	 * @return the program evaluating the expression
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol or is not
+	 *         a single well formed expression
+	 */
+	public static PostfixProgram compilePostfix(final List<String> thePostfix,
+	    final List<String> theVariables) {
+		final Assembler assembler = new Assembler(theVariables);
+		for (String token : thePostfix) {
+			if (Differentiator.isOperator(token)) {
+				assembler.operator(token);
+			} else if (ExpressionParser.isFunction(token)) {
+				assembler.function(token);
+			} else {
+				assembler.leaf(token);
+			}
+		}
+		if (assembler.myDepth != 1) {
+			throw new IllegalArgumentException("not a single expression: " + thePostfix);
+		}
+		return new PostfixProgram(assembler);
+	}
+
+	/**
+	 * Counts the parents of the specified node and of every distinct node below it.
+	 *
+	 * @param theNode	the node being counted
+	 * @param theUses	the number of parents of every node counted so far, by node identity
+	 */
+	private static void countUses(final BinaryTreeNode<String> theNode,
+	    final Map<BinaryTreeNode<String>, Integer> theUses) {
+		final Integer uses = theUses.get(theNode);
+		if (uses == null) {
+			theUses.put(theNode, 1);
+			if (theNode.getLeft() != null) {
+				countUses(theNode.getLeft(), theUses);
+			}
+			if (theNode.getRight() != null) {
+				countUses(theNode.getRight(), theUses);
+			}
+		} else {
+			theUses.put(theNode, uses + 1);
+		}
+	}
+
+	/**
+	 * Lowers the specified node into instructions in postfix order, keeping the value of an
+	 * operator or function node with several parents in a local slot for its other uses.
+	 *
+	 * @param theNode		the node being lowered
+	 * @param theUses		the number of parents of every node, by node identity
+	 * @param theLocals		the local slot of every shared node already lowered
+	 * @param theAssembler	the assembler of the instructions
+	 */
+	private static void lower(final BinaryTreeNode<String> theNode,
+	    final Map<BinaryTreeNode<String>, Integer> theUses,
+	    final Map<BinaryTreeNode<String>, Integer> theLocals, final Assembler theAssembler) {
+		final Integer local = theLocals.get(theNode);
+		if (local != null) {
+			theAssembler.load(local);
+		} else if (theNode.getLeft() == null) {
+			theAssembler.leaf(theNode.getElement());
+		} else {
+			lower(theNode.getLeft(), theUses, theLocals, theAssembler);
+			if (theNode.getRight() != null) {
+				lower(theNode.getRight(), theUses, theLocals, theAssembler);
+				theAssembler.operator(theNode.getElement());
+			} else {
+				theAssembler.function(theNode.getElement());
+			}
+			if (theUses.get(theNode) > 1) {
+				final int slot = theAssembler.store();
+				if (slot >= 0) {
+					theLocals.put(theNode, slot);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a new frame large enough to evaluate this program, to be reused by every
+	 * evaluation of a single thread.
+	 *
+	 * @return a new frame for this program
+	 */
+	public double[] newFrame() {
+		return new double[myFrameSize];
+	}
+
+	/**
+	 * Returns the value of the expression at the specified values of its variables, using the
+	 * specified frame for the stack and the local slots.
+	 *
+	 * @param theValues	the values of the variables, in the order they were compiled with
+	 * @param theFrame	a frame of at least the size of newFrame(), not used by other threads
+	 * @return the value of the expression
+	 */
+	public double evaluate(final double[] theValues, final double[] theFrame) {
+		final int[] code = myCode;
+		final double[] constants = myConstants;
+		final int locals = myMaxStack;
+		int top = -1;
+		for (int pc = 0; pc < code.length; pc++) {
+			final int instruction = code[pc];
+			final int operand = instruction >> OPERAND_SHIFT;
+			switch (instruction & OPCODE_MASK) {
+				case CONSTANT:
+					theFrame[++top] = constants[operand];
+					break;
+				case VARIABLE:
+					theFrame[++top] = theValues[operand];
+					break;
+				case LOAD:
+					theFrame[++top] = theFrame[locals + operand];
+					break;
+				case STORE:
+					theFrame[locals + operand] = theFrame[top];
+					break;
+				case ADD:
+					top--;
+					theFrame[top] += theFrame[top + 1];
+					break;
+				case SUBTRACT:
+					top--;
+					theFrame[top] -= theFrame[top + 1];
+					break;
+				case MULTIPLY:
+					top--;
+					theFrame[top] *= theFrame[top + 1];
+					break;
+				case DIVIDE:
+					top--;
+					theFrame[top] /= theFrame[top + 1];
+					break;
+				case POWER:
+					top--;
+					theFrame[top] = Math.pow(theFrame[top], theFrame[top + 1]);
+					break;
+				case POWER_INT:
+					theFrame[top] = Evaluator.power(theFrame[top], operand);
+					break;
+				case LOG_BASE:
+					theFrame[top] = Math.log(theFrame[top]) / constants[operand];
+					break;
+				default:
+					theFrame[top] = function(instruction & OPCODE_MASK, theFrame[top]);
+					break;
+			}
+		}
+		return theFrame[0];
+	}
+
+	/**
+	 * Returns a function evaluating this program at the values held in an array, with a
+	 * frame allocated once for every thread calling it.
+	 *
+	 * @return a function evaluating this program
+	 */
+	public ToDoubleFunction<double[]> toFunction() {
+		final ThreadLocal<double[]> frames = ThreadLocal.withInitial(this::newFrame);
+		return values -> evaluate(values, frames.get());
+	}
+
+	/**
+	 * Returns the number of instructions of this program.
+	 *
+	 * @return the number of instructions of this program
+	 */
+	public int getLength() {
+		return myCode.length;
+	}
+
+	/**
+	 * Returns the size of the frames of this program: its greatest stack depth plus its
+	 * local slots.
+	 *
+	 * @return the size of the frames of this program
+	 */
+	public int getFrameSize() {
+		return myFrameSize;
+	}
+
+	/**
+	 * Returns the instructions of this program, one per line, such as "const 2.0" or "mul".
+	 *
+	 * @return a String listing the instructions of this program
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder();
+		for (int instruction : myCode) {
+			final int opcode = instruction & OPCODE_MASK;
+			final int operand = instruction >> OPERAND_SHIFT;
+			result.append(MNEMONICS.get(opcode));
+			if (opcode == CONSTANT || opcode == LOG_BASE) {
+				result.append(' ').append(myConstants[operand]);
+			} else if (opcode == VARIABLE || opcode == LOAD || opcode == STORE ||
+			    opcode == POWER_INT) {
+				result.append(' ').append(operand);
+			}
+			result.append('\n');
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Returns the result of applying the function of the specified opcode to the specified
+	 * argument, in the same way as the Evaluator.
+	 *
+	 * @param theOpcode		the opcode of the function
+	 * @param theArgument	the argument of the function
+	 * @return the value of the function
+	 */
+	private static double function(final int theOpcode, final double theArgument) {
+		double result;
+		switch (theOpcode - FIRST_FUNCTION) {
+			case 0: // abs
+				result = Math.abs(theArgument);
+				break;
+			case 1: // sin
+				result = Math.sin(theArgument);
+				break;
+			case 2: // cos
+				result = Math.cos(theArgument);
+				break;
+			case 3: // tan
+				result = Math.tan(theArgument);
+				break;
+			case 4: // sec
+				result = 1 / Math.cos(theArgument);
+				break;
+			case 5: // csc
+				result = 1 / Math.sin(theArgument);
+				break;
+			case 6: // cot
+				result = 1 / Math.tan(theArgument);
+				break;
+			case 7: // arcsin
+				result = Math.asin(theArgument);
+				break;
+			case 8: // arccos
+				result = Math.acos(theArgument);
+				break;
+			case 9: // arctan
+				result = Math.atan(theArgument);
+				break;
+			case 10: // arcsec
+				result = Math.acos(1 / theArgument);
+				break;
+			case 11: // arccsc
+				result = Math.asin(1 / theArgument);
+				break;
+			case 12: // arccot
+				result = Math.PI / 2 - Math.atan(theArgument);
+				break;
+			default: // ln and log
+				result = Math.log(theArgument);
+				break;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the mnemonic of every opcode, in the order of the opcodes.
+	 *
+	 * @return the mnemonics of the opcodes
+	 */
+	private static List<String> mnemonics() {
+		final List<String> result = new ArrayList<String>(List.of("const", "var", "load",
+		    "store", "add", "sub", "mul", "div", "pow", "powi", "logb"));
+		result.addAll(FUNCTIONS);
+		return result;
+	}
+
+	// INNER CLASS ASSEMBLER
+
+	/**
+	 * Inner class to represent the assembly of a program, one instruction at a time in postfix
+	 * order, tracking the depth of the stack and folding operations on constants.
+	 */
+	private static final class Assembler {
+
+		/** The variables of the expression, in the order of the input array. */
+		private final List<String> myVariables;
+
+		/** The constant pool of the program. */
+		private final List<Double> myConstants = new ArrayList<Double>();
+
+		/** The index of every constant in the pool, by the constant's bits. */
+		private final Map<Long, Integer> myConstantIndices = new HashMap<Long, Integer>();
+
+		/** The instructions assembled so far, followed by unused space. */
+		private int[] myCode = new int[16];
+
+		/** The number of instructions assembled so far. */
+		private int myLength;
+
+		/** The current depth of the stack. */
+		private int myDepth;
+
+		/** The greatest depth of the stack. */
+		private int myMaxDepth;
+
+		/** The number of local slots used. */
+		private int myLocals;
+
+		/**
+		 * Sets up the assembly of a program over the specified variables.
+		 *
+		 * @param theVariables the variables of the expression, in the order of the input array
+		 */
+		Assembler(final List<String> theVariables) {
+			myVariables = theVariables;
+		}
+
+		/**
+		 * Assembles the instructions pushing the value of the specified leaf.
+		 *
+		 * @param theLeaf the leaf element, a number or a variable with an optional coefficient
+		 * @throws IllegalArgumentException if the leaf is an unknown symbol
+		 */
+		void leaf(final String theLeaf) {
+			if (ExpressionParser.isNumber(theLeaf)) {
+				constant(Double.parseDouble(theLeaf));
+			} else {
+				final String symbol = ExpressionParser.getSymbol(theLeaf);
+				final double coefficient =
+				    Double.parseDouble(ExpressionParser.getCoefficient(theLeaf));
+				final int slot = myVariables.indexOf(symbol);
+				if (slot >= 0) {
+					instruction(VARIABLE, slot, 1);
+					if (coefficient != 1) {
+						constant(coefficient);
+						operator("*");
+					}
+				} else if (symbol.equals("e")) {
+					constant(coefficient * Math.E);
+				} else {
+					throw new IllegalArgumentException("unknown symbol: " + theLeaf);
+				}
+			}
+		}
+
+		/**
+		 * Assembles the instruction applying the specified operator to the two values on top
+		 * of the stack, folding it if both are constants.
+		 *
+		 * @param theOperator the operator
+		 * @throws IllegalArgumentException if there are fewer than two values on the stack
+		 */
+		void operator(final String theOperator) {
+			if (myDepth < 2) {
+				throw new IllegalArgumentException("missing operand of " + theOperator);
+			}
+			final double exponent = lastConstant(1);
+			if (!Double.isNaN(lastConstant(2)) && !Double.isNaN(exponent)) {
+				final double left = lastConstant(2);
+				myLength -= 2;
+				myDepth -= 2;
+				switch (theOperator) {
+					case "+":
+						constant(left + exponent);
+						break;
+					case "-":
+						constant(left - exponent);
+						break;
+					case "*":
+						constant(left * exponent);
+						break;
+					case "/":
+						constant(left / exponent);
+						break;
+					default: // "^"
+						constant(Math.pow(left, exponent));
+						break;
+				}
+			} else if (theOperator.equals("^") && exponent == Math.rint(exponent) &&
+			    Math.abs(exponent) <= MAX_INTEGER_EXPONENT) {
+				myLength--;
+				myDepth--;
+				if (exponent != 1) {
+					instruction(POWER_INT, (int) exponent, 0);
+				}
+			} else {
+				final int opcode;
+				switch (theOperator) {
+					case "+":
+						opcode = ADD;
+						break;
+					case "-":
+						opcode = SUBTRACT;
+						break;
+					case "*":
+						opcode = MULTIPLY;
+						break;
+					case "/":
+						opcode = DIVIDE;
+						break;
+					default: // "^"
+						opcode = POWER;
+						break;
+				}
+				instruction(opcode, 0, -1);
+			}
+		}
+
+		/**
+		 * Assembles the instructions applying the specified function, with an optional
+		 * coefficient or variable prefix, to the value on top of the stack, folding it if the
+		 * value is a constant.
+		 *
+		 * @param theFunction the function element, such as "sin" or "5sin"
+		 * @throws IllegalArgumentException if the function is not accepted by this calculator
+		 *         or the stack is empty
+		 */
+		void function(final String theFunction) {
+			if (myDepth < 1) {
+				throw new IllegalArgumentException("missing argument of " + theFunction);
+			}
+			final String name = ExpressionParser.getFunction(theFunction);
+			final double argument = lastConstant(1);
+			if (!Double.isNaN(argument)) {
+				myLength--;
+				myDepth--;
+				constant(Evaluator.function(name).applyAsDouble(argument));
+			} else if (name.startsWith("log_")) { // log_<base>
+				instruction(LOG_BASE,
+				    constantIndex(Math.log(Double.parseDouble(name.substring(4)))), 0);
+			} else if (FUNCTIONS.contains(name)) {
+				instruction(FIRST_FUNCTION + FUNCTIONS.indexOf(name), 0, 0);
+			} else {
+				throw new IllegalArgumentException("unknown function: " + theFunction);
+			}
+			final String prefix = theFunction.substring(0, theFunction.length() - name.length());
+			if (!prefix.isEmpty()) { // a coefficient or variable, such as 5sin(<inner>)
+				leaf(prefix.equals("-") ? "-1" : prefix);
+				operator("*");
+			}
+		}
+
+		/**
+		 * Assembles the instruction pushing the value kept in the specified local slot.
+		 *
+		 * @param theLocal the local slot
+		 */
+		void load(final int theLocal) {
+			instruction(LOAD, theLocal, 1);
+		}
+
+		/**
+		 * Assembles the instruction keeping the value on top of the stack in a new local
+		 * slot, unless the value is a constant, and returns the slot.
+		 *
+		 * @return the local slot the value is kept in, or -1 for a constant
+		 */
+		int store() {
+			int result = -1;
+			if (Double.isNaN(lastConstant(1))) {
+				result = myLocals++;
+				instruction(STORE, result, 0);
+			}
+			return result;
+		}
+
+		/**
+		 * Assembles the instruction pushing the specified constant.
+		 *
+		 * @param theConstant the constant
+		 */
+		private void constant(final double theConstant) {
+			instruction(CONSTANT, constantIndex(theConstant), 1);
+		}
+
+		/**
+		 * Returns the index of the specified constant in the pool, adding it if needed.
+		 *
+		 * @param theConstant the constant
+		 * @return the index of the constant in the pool
+		 */
+		private int constantIndex(final double theConstant) {
+			final Long bits = Double.doubleToRawLongBits(theConstant);
+			Integer result = myConstantIndices.get(bits);
+			if (result == null) {
+				result = myConstants.size();
+				myConstants.add(theConstant);
+				myConstantIndices.put(bits, result);
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the constant pushed by the instruction at the specified distance from the
+		 * end, or NaN if that instruction does not push a constant. A constant NaN is never
+		 * folded.
+		 *
+		 * @param theDistance the distance of the instruction from the end, 1 for the last one
+		 * @return the constant pushed by the instruction, or NaN
+		 */
+		private double lastConstant(final int theDistance) {
+			double result = Double.NaN;
+			if (myLength >= theDistance) {
+				final int instruction = myCode[myLength - theDistance];
+				if ((instruction & OPCODE_MASK) == CONSTANT) {
+					result = myConstants.get(instruction >> OPERAND_SHIFT);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Appends the instruction with the specified opcode and operand and tracks the depth of
+		 * the stack.
+		 *
+		 * @param theOpcode		the opcode of the instruction
+		 * @param theOperand	the operand of the instruction
+		 * @param theDelta		the change of the depth of the stack the instruction makes
+		 */
+		private void instruction(final int theOpcode, final int theOperand, final int theDelta) {
+			if (myLength == myCode.length) {
+				myCode = Arrays.copyOf(myCode, 2 * myLength);
+			}
+			myCode[myLength++] = theOpcode | theOperand << OPERAND_SHIFT;
+			myDepth += theDelta;
+			myMaxDepth = Math.max(myMaxDepth, myDepth);
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+/**
+ * ResourceGovernor - Derivatives Calculator
+ */
+
+package model;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import structures.BinaryTreeNode;
+
+/**
+ * ResourceGovernor runs the Differentiator and the Simplifier under a node budget and a
+ * deadline, so a single pathological expression cannot stall the thread running it.
+ *
+ * The budget is checked cooperatively: every node visited by derive and simplify passes a
+ * checkpoint, which counts it against the budget and, every few hundred nodes, compares the
+ * time against the deadline. Once either limit is exceeded the traversal is abandoned and a
+ * result with the statistics gathered so far is returned instead of the derivative.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class ResourceGovernor {
+
+	/** The number of checkpoints between two comparisons against the deadline. */
+	private static final int DEADLINE_INTERVAL = 256;
+
+	/** The budget of the governed call running on the current thread, if any. */
+	private static final ThreadLocal<Budget> CURRENT_BUDGET = new ThreadLocal<Budget>();
+
+	/** A private constructor to inhibit external instantiation. */
+	private ResourceGovernor() {
+		// do nothing
+	}
+
+	/**
+	 * Returns the result of differentiating the specified root's equivalent expression within
+	 * the specified node budget and timeout.
+	 *
+	 * @param theRoot		the root node representing the expression being derived
+	 * @param theVarDiff	the chosen variable of differentiation represented by a node
+	 * @param theMaxNodes	the maximum number of nodes the traversal may visit
+	 * @param theTimeout	the maximum time the traversal may take
+	 * @return the result of the governed differentiation
+	 */
+	public static Result derive(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff, final long theMaxNodes,
+	    final Duration theTimeout) {
+		return run(() -> Differentiator.derive(theRoot, theVarDiff), theMaxNodes, theTimeout);
+	}
+
+	/**
+	 * Returns the result of simplifying the specified root's equivalent expression within the
+	 * specified node budget and timeout.
+	 *
+	 * @param theRoot		the root node representing the expression being simplified
+	 * @param theMaxNodes	the maximum number of nodes the traversal may visit
+	 * @param theTimeout	the maximum time the traversal may take
+	 * @return the result of the governed simplification
+	 */
+	public static Result simplify(final BinaryTreeNode<String> theRoot, final long theMaxNodes,
+	    final Duration theTimeout) {
+		return run(() -> Simplifier.simplify(theRoot), theMaxNodes, theTimeout);
+	}
+
+	/**
+	 * Returns the result of differentiating and then simplifying the specified root's
+	 * equivalent expression, with both stages sharing the specified node budget and timeout.
+	 *
+	 * @param theRoot		the root node representing the expression being derived
+	 * @param theVarDiff	the chosen variable of differentiation represented by a node
+	 * @param theMaxNodes	the maximum number of nodes both traversals may visit
+	 * @param theTimeout	the maximum time both traversals may take
+	 * @return the result of the governed differentiation and simplification
+	 */
+	public static Result deriveAndSimplify(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff, final long theMaxNodes,
+	    final Duration theTimeout) {
+		return run(() -> Simplifier.simplify(Differentiator.derive(theRoot, theVarDiff)),
+		    theMaxNodes, theTimeout);
+	}
+
+	/**
+	 * Runs the specified traversal under a new budget on the current thread and returns its
+	 * result. The budget of an enclosing governed call is restored afterwards.
+	 *
+	 * @param theTraversal	the traversal being governed
+	 * @param theMaxNodes	the maximum number of nodes the traversal may visit
+	 * @param theTimeout	the maximum time the traversal may take
+	 * @return the result of the governed traversal
+	 */
+	private static Result run(final Supplier<BinaryTreeNode<String>> theTraversal,
+	    final long theMaxNodes, final Duration theTimeout) {
+		final Budget previous = CURRENT_BUDGET.get();
+		final long start = System.nanoTime();
+		final Budget budget = new Budget(theMaxNodes, start + theTimeout.toNanos());
+		CURRENT_BUDGET.set(budget);
+		Result result = null;
+		try {
+			final BinaryTreeNode<String> tree = theTraversal.get();
+			result = new Result(Status.COMPLETED, tree, budget.myNodeCount,
+			    System.nanoTime() - start);
+		} catch (final BudgetExceededException theError) {
+			result = new Result(theError.myStatus, null, budget.myNodeCount,
+			    System.nanoTime() - start);
+		} finally {
+			if (previous == null) {
+				CURRENT_BUDGET.remove();
+			} else {
+				CURRENT_BUDGET.set(previous);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Counts one visited node against the budget of the governed call running on the current
+	 * thread. Does nothing when no governed call is running.
+	 *
+	 * @throws BudgetExceededException if the node budget or the deadline is exceeded
+	 */
+	static void checkpoint() {
+		final Budget budget = CURRENT_BUDGET.get();
+		if (budget != null) {
+			if (budget.myNodeCount >= budget.myMaxNodes) {
+				throw new BudgetExceededException(Status.NODE_LIMIT_EXCEEDED);
+			}
+			if (budget.myNodeCount % DEADLINE_INTERVAL == 0 &&
+			    System.nanoTime() - budget.myDeadline > 0) {
+				throw new BudgetExceededException(Status.DEADLINE_EXCEEDED);
+			}
+			budget.myNodeCount++;
+		}
+	}
+
+	/**
+	 * The possible outcomes of a governed call.
+	 */
+	public enum Status {
+		/** The traversal completed within its budget. */
+		COMPLETED,
+		/** The traversal visited more nodes than its budget allowed. */
+		NODE_LIMIT_EXCEEDED,
+		/** The traversal ran past its deadline. */
+		DEADLINE_EXCEEDED
+	}
+
+	// INNER CLASS RESULT
+
+	/**
+	 * Inner class to represent the outcome of a governed call with its statistics.
+	 */
+	public static class Result {
+
+		/** The outcome of the governed call. */
+		private final Status myStatus;
+
+		/** The resulting tree, or null if a limit was exceeded. */
+		private final BinaryTreeNode<String> myTree;
+
+		/** The number of nodes visited before the call completed or was abandoned. */
+		private final long myNodeCount;
+
+		/** The time taken before the call completed or was abandoned, in nanoseconds. */
+		private final long myElapsedNanos;
+
+		/**
+		 * Sets up this result with the specified outcome and statistics.
+		 *
+		 * @param theStatus			the outcome of the governed call
+		 * @param theTree			the resulting tree, or null if a limit was exceeded
+		 * @param theNodeCount		the number of nodes visited
+		 * @param theElapsedNanos	the time taken, in nanoseconds
+		 */
+		Result(final Status theStatus, final BinaryTreeNode<String> theTree,
+		    final long theNodeCount, final long theElapsedNanos) {
+			myStatus = theStatus;
+			myTree = theTree;
+			myNodeCount = theNodeCount;
+			myElapsedNanos = theElapsedNanos;
+		}
+
+		/**
+		 * Returns the outcome of the governed call.
+		 *
+		 * @return the outcome of the governed call
+		 */
+		public Status getStatus() {
+			return myStatus;
+		}
+
+		/**
+		 * Returns true if the governed call exceeded one of its limits; otherwise false.
+		 *
+		 * @return true if the governed call exceeded one of its limits; otherwise false
+		 */
+		public boolean isExceeded() {
+			return myStatus != Status.COMPLETED;
+		}
+
+		/**
+		 * Returns the resulting tree, or null if the governed call exceeded one of its limits.
+		 *
+		 * @return the resulting tree, or null if a limit was exceeded
+		 */
+		public BinaryTreeNode<String> getTree() {
+			return myTree;
+		}
+
+		/**
+		 * Returns the number of nodes visited before the call completed or was abandoned.
+		 *
+		 * @return the number of nodes visited
+		 */
+		public long getNodeCount() {
+			return myNodeCount;
+		}
+
+		/**
+		 * Returns the time taken before the call completed or was abandoned, in nanoseconds.
+		 *
+		 * @return the time taken, in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return myElapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return myStatus + " after " + myNodeCount + " nodes in " +
+			    (myElapsedNanos / 1_000_000) + " ms";
+		}
+	}
+
+	// INNER CLASS BUDGET
+
+	/**
+	 * Inner class to represent the limits and usage of a governed call.
+	 */
+	private static class Budget {
+
+		/** The maximum number of nodes the traversal may visit. */
+		private final long myMaxNodes;
+
+		/** The System.nanoTime value after which the traversal is abandoned. */
+		private final long myDeadline;
+
+		/** The number of nodes visited so far. */
+		private long myNodeCount;
+
+		/**
+		 * Sets up this budget with the specified limits.
+		 *
+		 * @param theMaxNodes	the maximum number of nodes the traversal may visit
+		 * @param theDeadline	the System.nanoTime value after which the traversal is abandoned
+		 */
+		Budget(final long theMaxNodes, final long theDeadline) {
+			myMaxNodes = theMaxNodes;
+			myDeadline = theDeadline;
+			myNodeCount = 0;
+		}
+	}
+
+	// INNER CLASS EXCEPTION
+
+	/**
+	 * Inner class to represent the unwinding of a traversal which exceeded its budget.
+	 */
+	private static class BudgetExceededException extends RuntimeException {
+
+		/** A generated serial version UID for object Serialization. */
+		private static final long serialVersionUID = 5290453181436214378L;
+
+		/** The limit which was exceeded. */
+		private final Status myStatus;
+
+		/**
+		 * Sets up this exception with the specified exceeded limit. No stack trace is filled
+		 * in, since the exception only unwinds the traversal.
+		 *
+		 * @param theStatus the limit which was exceeded
+		 */
+		BudgetExceededException(final Status theStatus) {
+			super(theStatus.toString(), null, false, false);
+			myStatus = theStatus;
+		}
+	}
+
+}
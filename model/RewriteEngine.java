@@ -0,0 +1,784 @@
+/**
+ * RewriteEngine - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import structures.BinaryTreeNode;
+
+/**
+ * RewriteEngine simplifies a binary tree representing a mathematical expression by applying
+ * pattern-based rewrite rules bottom-up until no rule applies anymore.
+ *
+ * Every rule is registered under the opcode of the root it matches and the shapes of its left
+ * and right children, where a shape is a number, a symbol, an operator, a function or an absent
+ * child. Finding the rules which may apply to a node is a single array lookup, and only those
+ * rules are tried. Unlike the Simplifier, the rules match nested operators, so a pass over
+ * "(0 * x) + (5 * 1)" yields "5". Passes are repeated until the tree stops changing or the
+ * iteration limit is reached, and every pass visits each distinct node once by node identity.
+ * Nodes which no rule rewrites are reused rather than copied.
+ *
+ * Every rule which fires is counted by the RuleProfiler. In adaptive mode, the rules of every
+ * bucket are periodically reordered so the most frequently firing ones are tried first; the
+ * rules sharing a bucket agree on the nodes they all match, up to further rewriting, so the
+ * order only changes how soon a rule is found.
+ *
+ * @author Jacob Klymenko
+ * @version 1.4
+ */
+public class RewriteEngine {
+
+	/** The default maximum number of passes over the tree. */
+	public static final int DEFAULT_MAX_ITERATIONS = 16;
+
+	/** The maximum number of rules applied in a row at a single node within one pass. */
+	private static final int MAX_LOCAL_REWRITES = 32;
+
+	/** The operators and the function opcode, in the order of their opcodes. */
+	private static final String OPCODES = "+-*/^f";
+
+	/** The opcode of function nodes. */
+	private static final int FUNCTION = 5;
+
+	/** The opcode of leaves, which no rule matches. */
+	private static final int LEAF = 6;
+
+	/** The shape of a numeric constant. */
+	private static final int NUMBER_SHAPE = 0;
+
+	/** The shape of a variable, a coefficient with a variable, or Euler's number. */
+	private static final int SYMBOL_SHAPE = 1;
+
+	/** The shape of an operator node. */
+	private static final int OPERATOR_SHAPE = 2;
+
+	/** The shape of a function node. */
+	private static final int FUNCTION_SHAPE = 3;
+
+	/** The shape of an absent child. */
+	private static final int NONE_SHAPE = 4;
+
+	/** The number of distinct shapes. */
+	private static final int SHAPE_COUNT = 5;
+
+	/** The number of rule firings between two reorderings in adaptive mode. */
+	private static final long REORDER_INTERVAL = 4096;
+
+	/** The rules of every opcode and pair of child shapes in registration order, by bucket. */
+	private static final Rule[][] RULES = buildRules();
+
+	/** The distinct counters of the rules, each once however many rules share it. */
+	private static final LongAdder[] COUNTERS = counters(RULES);
+
+	/** The rules of every bucket in the order they are tried, by bucket index. */
+	private static volatile Rule[][] myRules = RULES;
+
+	/** Whether the rules of every bucket are reordered by how often they fire. */
+	private static volatile boolean myIsAdaptive;
+
+	/** The number of rule firings counted at the last reordering. */
+	private static volatile long myReorderedAt;
+
+	/** A private constructor to inhibit external instantiation. */
+	private RewriteEngine() {
+		// do nothing
+	}
+
+	/**
+	 * Returns a binary tree node representing the specified root's equivalent expression with
+	 * the rewrite rules applied to a fixed point, or until the default iteration limit.
+	 *
+	 * @param theRoot the root node representing the expression being rewritten
+	 * @return a binary tree node representing the rewritten expression
+	 */
+	public static BinaryTreeNode<String> rewrite(final BinaryTreeNode<String> theRoot) {
+		return run(theRoot, DEFAULT_MAX_ITERATIONS).getTree();
+	}
+
+	/**
+	 * Applies the rewrite rules to the specified root's equivalent expression until a pass
+	 * leaves it unchanged or the specified number of passes is reached, and returns the
+	 * rewritten expression with the statistics of the run.
+	 *
+	 * @param theRoot			the root node representing the expression being rewritten
+	 * @param theMaxIterations	the maximum number of passes over the tree
+	 * @return the result of the rewriting
+	 */
+	public static Result run(final BinaryTreeNode<String> theRoot, final int theMaxIterations) {
+		final long start = System.nanoTime();
+		if (myIsAdaptive && firings() - myReorderedAt >= REORDER_INTERVAL) {
+			reorderRules();
+		}
+		final long[] rewrites = new long[1];
+		BinaryTreeNode<String> tree = theRoot;
+		int iterations = 0;
+		boolean isConverged = false;
+		while (!isConverged && iterations < theMaxIterations) {
+			final BinaryTreeNode<String> next =
+			    rewriteNode(tree, new IdentityHashMap<>(), rewrites);
+			iterations++;
+			isConverged = next == tree;
+			tree = next;
+		}
+		return new Result(tree, iterations, rewrites[0], isConverged,
+		    LetProgram.countTreeNodes(theRoot), LetProgram.countTreeNodes(tree),
+		    System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the specified root with its children rewritten first and then the rules matching
+	 * the root applied until none does. The same node is returned if nothing was rewritten.
+	 *
+	 * @param theRoot		the root node being rewritten
+	 * @param theRewritten	the already rewritten nodes of this pass, by node identity
+	 * @param theRewrites	a single element array counting the applied rules
+	 * @return a binary tree node representing the rewritten expression
+	 */
+	private static BinaryTreeNode<String> rewriteNode(final BinaryTreeNode<String> theRoot,
+	    final Map<BinaryTreeNode<String>, BinaryTreeNode<String>> theRewritten,
+	    final long[] theRewrites) {
+		BinaryTreeNode<String> result = theRewritten.get(theRoot);
+		if (result == null) {
+			ResourceGovernor.checkpoint();
+			final BinaryTreeNode<String> left = theRoot.getLeft() == null ? null :
+			    rewriteNode(theRoot.getLeft(), theRewritten, theRewrites);
+			final BinaryTreeNode<String> right = theRoot.getRight() == null ? null :
+			    rewriteNode(theRoot.getRight(), theRewritten, theRewrites);
+			result = theRoot;
+			if (left != theRoot.getLeft() || right != theRoot.getRight()) {
+				result = new BinaryTreeNode<String>(theRoot.getElement(), left, right);
+			}
+			int localRewrites = 0;
+			BinaryTreeNode<String> rewritten = applyRules(result);
+			while (rewritten != null) {
+				result = rewritten;
+				theRewrites[0]++;
+				localRewrites++;
+				rewritten = localRewrites < MAX_LOCAL_REWRITES ? applyRules(result) : null;
+			}
+			theRewritten.put(theRoot, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the specified node with the rules matching it applied until none does, without
+	 * rewriting its children, which must already be rewritten. The same node is returned if
+	 * no rule applies.
+	 *
+	 * @param theNode the node being rewritten, whose children are already rewritten
+	 * @return a binary tree node representing the rewritten expression
+	 */
+	static BinaryTreeNode<String> rewriteLocal(final BinaryTreeNode<String> theNode) {
+		BinaryTreeNode<String> result = theNode;
+		int localRewrites = 0;
+		BinaryTreeNode<String> rewritten = applyRules(result);
+		while (rewritten != null) {
+			result = rewritten;
+			localRewrites++;
+			rewritten = localRewrites < MAX_LOCAL_REWRITES ? applyRules(result) : null;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the result of the first rule which rewrites the specified node, or null if no
+	 * rule registered for the node's opcode and child shapes applies.
+	 *
+	 * @param theNode the node being rewritten, whose children are already rewritten
+	 * @return the rewritten node, or null if no rule applies
+	 */
+	private static BinaryTreeNode<String> applyRules(final BinaryTreeNode<String> theNode) {
+		BinaryTreeNode<String> result = null;
+		final int opcode = opcodeOf(theNode);
+		if (opcode != LEAF) {
+			final Rule[] rules =
+			    myRules[bucket(opcode, shapeOf(theNode.getLeft()), shapeOf(theNode.getRight()))];
+			for (int i = 0; i < rules.length && result == null; i++) {
+				result = rules[i].myRewrite.apply(theNode);
+				if (result != null) {
+					RuleProfiler.count(rules[i].myHits);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sets whether the rules of every bucket are periodically reordered by how often they
+	 * fire, most frequent first. Turning adaptive mode off restores the registration order.
+	 * The order follows the counts of the RuleProfiler, so it only adapts while counting is
+	 * enabled.
+	 *
+	 * @param theIsAdaptive true to reorder the rules by frequency; false for a fixed order
+	 */
+	public static void setAdaptive(final boolean theIsAdaptive) {
+		myIsAdaptive = theIsAdaptive;
+		if (theIsAdaptive) {
+			reorderRules();
+		} else {
+			myRules = RULES;
+		}
+	}
+
+	/**
+	 * Returns true if the rules of every bucket are reordered by how often they fire.
+	 *
+	 * @return true if adaptive mode is on; otherwise false
+	 */
+	public static boolean isAdaptive() {
+		return myIsAdaptive;
+	}
+
+	/**
+	 * Reorders the rules of every bucket by how often they have fired so far, most frequent
+	 * first, keeping the registration order between rules which fired equally often.
+	 */
+	public static void reorderRules() {
+		final long reorderedAt = firings();
+		final Rule[][] reordered = new Rule[RULES.length][];
+		for (int i = 0; i < RULES.length; i++) {
+			final Rule[] rules = RULES[i].clone();
+			final Map<Rule, Long> hits = new IdentityHashMap<>();
+			for (Rule rule : rules) {
+				hits.put(rule, rule.myHits.sum());
+			}
+			Arrays.sort(rules, (theFirst, theSecond) ->
+			    Long.compare(hits.get(theSecond), hits.get(theFirst)));
+			reordered[i] = rules;
+		}
+		myRules = reordered;
+		myReorderedAt = reorderedAt;
+	}
+
+	/**
+	 * Returns the names of the rules of every non-empty bucket, in the order they are tried.
+	 *
+	 * @return the order of the rules of every non-empty bucket
+	 */
+	public static List<List<String>> getRuleOrder() {
+		final List<List<String>> result = new ArrayList<>();
+		for (Rule[] rules : myRules) {
+			if (rules.length > 0) {
+				final List<String> names = new ArrayList<>();
+				for (Rule rule : rules) {
+					names.add(rule.myName);
+				}
+				result.add(Collections.unmodifiableList(names));
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Returns the number of times any rule has fired.
+	 *
+	 * @return the sum of the distinct counters of the rules
+	 */
+	private static long firings() {
+		long result = 0;
+		for (LongAdder counter : COUNTERS) {
+			result += counter.sum();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the distinct counters of the rules of the specified buckets.
+	 *
+	 * @param theRules the rules of every bucket
+	 * @return the distinct counters, by identity
+	 */
+	private static LongAdder[] counters(final Rule[][] theRules) {
+		final Map<LongAdder, Boolean> result = new IdentityHashMap<>();
+		for (Rule[] rules : theRules) {
+			for (Rule rule : rules) {
+				result.put(rule.myHits, Boolean.TRUE);
+			}
+		}
+		return result.keySet().toArray(new LongAdder[0]);
+	}
+
+	/**
+	 * Returns the opcode of the specified node: the index of its operator, the function opcode
+	 * or the leaf opcode.
+	 *
+	 * @param theNode the node being classified
+	 * @return the opcode of the node
+	 */
+	private static int opcodeOf(final BinaryTreeNode<String> theNode) {
+		int result = LEAF;
+		if (theNode.getLeft() != null && theNode.getRight() != null) {
+			result = OPCODES.indexOf(theNode.getElement().charAt(0));
+		} else if (theNode.getLeft() != null) {
+			result = FUNCTION;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the shape of the specified child node.
+	 *
+	 * @param theNode the child node being classified, possibly null
+	 * @return the shape of the child node
+	 */
+	private static int shapeOf(final BinaryTreeNode<String> theNode) {
+		int result = NONE_SHAPE;
+		if (theNode != null) {
+			if (theNode.getLeft() != null && theNode.getRight() != null) {
+				result = OPERATOR_SHAPE;
+			} else if (theNode.getLeft() != null) {
+				result = FUNCTION_SHAPE;
+			} else if (ExpressionParser.isNumber(theNode.getElement())) {
+				result = NUMBER_SHAPE;
+			} else {
+				result = SYMBOL_SHAPE;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the index of the bucket holding the rules of the specified opcode and shapes.
+	 *
+	 * @param theOpcode		the opcode of the root
+	 * @param theLeftShape	the shape of the left child
+	 * @param theRightShape	the shape of the right child
+	 * @return the index of the bucket
+	 */
+	private static int bucket(final int theOpcode, final int theLeftShape,
+	    final int theRightShape) {
+		return (theOpcode * SHAPE_COUNT + theLeftShape) * SHAPE_COUNT + theRightShape;
+	}
+
+	/**
+	 * Builds the dispatch table of every rule, by bucket index.
+	 *
+	 * @return the rules of every opcode and pair of child shapes
+	 */
+	private static Rule[][] buildRules() {
+		final List<List<Rule>> buckets = new ArrayList<>();
+		for (int i = 0; i < LEAF * SHAPE_COUNT * SHAPE_COUNT; i++) {
+			buckets.add(new ArrayList<Rule>());
+		}
+		final int[] any = {NUMBER_SHAPE, SYMBOL_SHAPE, OPERATOR_SHAPE, FUNCTION_SHAPE};
+		final int[] number = {NUMBER_SHAPE};
+		final int[] nonNumber = {SYMBOL_SHAPE, OPERATOR_SHAPE, FUNCTION_SHAPE};
+		final int[] operator = {OPERATOR_SHAPE};
+		final int[] none = {NONE_SHAPE};
+
+		// constants on both sides, an operator side folding if it is a quotient of constants
+		final int[] numberOrOperator = {NUMBER_SHAPE, OPERATOR_SHAPE};
+		for (int opcode = 0; opcode < FUNCTION; opcode++) {
+			register(buckets, opcode, numberOrOperator, numberOrOperator,
+			    new Rule("fold-constants", RewriteEngine::foldConstants));
+		}
+		register(buckets, FUNCTION, number, none, new Rule("fold-function",
+		    RewriteEngine::foldFunction));
+
+		// addition
+		register(buckets, 0, number, any, new Rule("add-zero-left",
+		    node -> isValue(node.getLeft(), 0) ? node.getRight() : null));
+		register(buckets, 0, any, number, new Rule("add-zero-right",
+		    node -> isValue(node.getRight(), 0) ? node.getLeft() : null));
+		registerSame(buckets, 0, new Rule("add-same", node -> isSame(node) ?
+		    operation("*", number(2), node.getLeft()) : null));
+
+		// subtraction
+		register(buckets, 1, any, number, new Rule("subtract-zero-right",
+		    node -> isValue(node.getRight(), 0) ? node.getLeft() : null));
+		registerSame(buckets, 1, new Rule("subtract-same",
+		    node -> isSame(node) ? number(0) : null));
+		register(buckets, 1, number, operator, new Rule("subtract-double-negation",
+		    node -> isValue(node.getLeft(), 0) && node.getRight().getElement().equals("-") &&
+		    isValue(node.getRight().getLeft(), 0) ? node.getRight().getRight() : null));
+
+		// multiplication
+		register(buckets, 2, number, any, new Rule("multiply-zero-left",
+		    node -> isValue(node.getLeft(), 0) ? number(0) : null));
+		register(buckets, 2, any, number, new Rule("multiply-zero-right",
+		    node -> isValue(node.getRight(), 0) ? number(0) : null));
+		register(buckets, 2, number, any, new Rule("multiply-one-left",
+		    node -> isValue(node.getLeft(), 1) ? node.getRight() : null));
+		register(buckets, 2, any, number, new Rule("multiply-one-right",
+		    node -> isValue(node.getRight(), 1) ? node.getLeft() : null));
+		register(buckets, 2, number, operator, new Rule("multiply-nested-constants",
+		    RewriteEngine::multiplyNestedConstants));
+		registerSame(buckets, 2, new Rule("multiply-same", node -> isSame(node) ?
+		    operation("^", node.getLeft(), number(2)) : null));
+
+		// division
+		register(buckets, 3, number, nonNumber, new Rule("divide-zero-left",
+		    node -> isValue(node.getLeft(), 0) ? number(0) : null));
+		register(buckets, 3, any, number, new Rule("divide-one-right",
+		    node -> isValue(node.getRight(), 1) ? node.getLeft() : null));
+		registerSame(buckets, 3, new Rule("divide-same",
+		    node -> isSame(node) ? number(1) : null));
+
+		// exponentiation
+		register(buckets, 4, any, number, new Rule("power-zero-right",
+		    node -> isValue(node.getRight(), 0) ? number(1) : null));
+		register(buckets, 4, any, number, new Rule("power-one-right",
+		    node -> isValue(node.getRight(), 1) ? node.getLeft() : null));
+		register(buckets, 4, number, any, new Rule("power-one-left",
+		    node -> isValue(node.getLeft(), 1) ? number(1) : null));
+
+		final Rule[][] result = new Rule[buckets.size()][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = buckets.get(i).toArray(new Rule[0]);
+		}
+		return result;
+	}
+
+	/**
+	 * Registers the specified rule under the specified opcode for every combination of the
+	 * specified left and right shapes.
+	 *
+	 * @param theBuckets		the rules of every bucket being built
+	 * @param theOpcode			the opcode of the root the rule matches
+	 * @param theLeftShapes		the shapes of the left child the rule matches
+	 * @param theRightShapes	the shapes of the right child the rule matches
+	 * @param theRule			the rule being registered
+	 */
+	private static void register(final List<List<Rule>> theBuckets, final int theOpcode,
+	    final int[] theLeftShapes, final int[] theRightShapes, final Rule theRule) {
+		for (int left : theLeftShapes) {
+			for (int right : theRightShapes) {
+				theBuckets.get(bucket(theOpcode, left, right)).add(theRule);
+			}
+		}
+	}
+
+	/**
+	 * Registers the specified rule, which matches two structurally equal children, under the
+	 * specified opcode for every pair of equal non-numeric shapes.
+	 *
+	 * @param theBuckets	the rules of every bucket being built
+	 * @param theOpcode		the opcode of the root the rule matches
+	 * @param theRule		the rule being registered
+	 */
+	private static void registerSame(final List<List<Rule>> theBuckets, final int theOpcode,
+	    final Rule theRule) {
+		for (int shape : new int[] {SYMBOL_SHAPE, OPERATOR_SHAPE, FUNCTION_SHAPE}) {
+			theBuckets.get(bucket(theOpcode, shape, shape)).add(theRule);
+		}
+	}
+
+	/**
+	 * Returns the constant resulting from the operator of the specified node applied to its
+	 * two constant children, each a number or the quotient of two numbers, or null if the
+	 * children are not both constants, the result is not a finite number or the node already
+	 * is the result. A fraction without a finite decimal expansion is the quotient "1 / 3".
+	 *
+	 * @param theNode the operator node with two constant children
+	 * @return the folded constant, or null if it is not a finite number
+	 */
+	private static BinaryTreeNode<String> foldConstants(final BinaryTreeNode<String> theNode) {
+		final Constant left = Constant.valueOf(theNode.getLeft());
+		final Constant right = Constant.valueOf(theNode.getRight());
+		Constant value = Constant.valueOf(Double.NaN);
+		if (left != null && right != null) {
+			switch (theNode.getElement()) {
+				case "+":
+					value = left.add(right);
+					break;
+				case "-":
+					value = left.subtract(right);
+					break;
+				case "*":
+					value = left.multiply(right);
+					break;
+				case "/":
+					value = left.divide(right);
+					break;
+				case "^":
+					value = left.pow(right);
+					break;
+			}
+		}
+		BinaryTreeNode<String> result = null;
+		if (value.isFinite()) {
+			result = value.toNode();
+			if (isEqual(result, theNode)) {
+				result = null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the constant resulting from the function of the specified node applied to its
+	 * argument, or null if the function has a coefficient, the argument is neither zero nor
+	 * one, or the result is not an integer. Only exact values such as "cos(0) = 1" are folded.
+	 *
+	 * @param theNode the function node with a numeric argument
+	 * @return the folded constant, or null if it is not exact
+	 */
+	private static BinaryTreeNode<String> foldFunction(final BinaryTreeNode<String> theNode) {
+		BinaryTreeNode<String> result = null;
+		final String function = theNode.getElement();
+		final double argument = Constant.valueOf(theNode.getLeft().getElement()).doubleValue();
+		if (ExpressionParser.isFunction(function) && (argument == 0 || argument == 1)) {
+			final double value = Evaluator.function(function).applyAsDouble(argument);
+			if (Double.isFinite(value) && value == Math.rint(value)) {
+				result = number(value);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns "(c1 * c2) * a" folded into a single constant times "a" for a node of the form
+	 * "c1 * (c2 * a)", or null if the node does not have that form.
+	 *
+	 * @param theNode the multiplication node with a constant left child and an operator right
+	 * @return the node with its constants folded, or null if it does not have that form
+	 */
+	private static BinaryTreeNode<String> multiplyNestedConstants(
+	    final BinaryTreeNode<String> theNode) {
+		BinaryTreeNode<String> result = null;
+		final BinaryTreeNode<String> right = theNode.getRight();
+		if (right.getElement().equals("*") && shapeOf(right.getLeft()) == NUMBER_SHAPE) {
+			final Constant value = Constant.valueOf(theNode.getLeft().getElement())
+			    .multiply(Constant.valueOf(right.getLeft().getElement()));
+			if (value.isFinite()) {
+				result = operation("*", value.toNode(), right.getRight());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the specified node is a numeric constant equal to the specified value.
+	 *
+	 * @param theNode	the node being examined
+	 * @param theValue	the expected value
+	 * @return true if the node is a numeric constant equal to the value; otherwise false
+	 */
+	private static boolean isValue(final BinaryTreeNode<String> theNode, final double theValue) {
+		return shapeOf(theNode) == NUMBER_SHAPE &&
+		    Constant.valueOf(theNode.getElement()).doubleValue() == theValue;
+	}
+
+	/**
+	 * Returns true if the two children of the specified node are structurally equal.
+	 *
+	 * @param theNode the operator node being examined
+	 * @return true if the two children are structurally equal; otherwise false
+	 */
+	private static boolean isSame(final BinaryTreeNode<String> theNode) {
+		return isEqual(theNode.getLeft(), theNode.getRight());
+	}
+
+	/**
+	 * Returns true if the two specified nodes represent structurally equal expressions.
+	 * Shared subtrees are recognized by identity without being traversed.
+	 *
+	 * @param theFirst	the first node being compared, possibly null
+	 * @param theSecond	the second node being compared, possibly null
+	 * @return true if the two nodes are structurally equal; otherwise false
+	 */
+	static boolean isEqual(final BinaryTreeNode<String> theFirst,
+	    final BinaryTreeNode<String> theSecond) {
+		boolean result = theFirst == theSecond;
+		if (!result && theFirst != null && theSecond != null) {
+			result = theFirst.getElement().equals(theSecond.getElement()) &&
+			    isEqual(theFirst.getLeft(), theSecond.getLeft()) &&
+			    isEqual(theFirst.getRight(), theSecond.getRight());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a new operator node with the specified operator and children.
+	 *
+	 * @param theOperator	the operator of the node
+	 * @param theLeft		the left child
+	 * @param theRight		the right child
+	 * @return a new operator node
+	 */
+	private static BinaryTreeNode<String> operation(final String theOperator,
+	    final BinaryTreeNode<String> theLeft, final BinaryTreeNode<String> theRight) {
+		return new BinaryTreeNode<String>(theOperator, theLeft, theRight);
+	}
+
+	/**
+	 * Returns a new leaf holding the specified value, written by Constant without a fraction
+	 * if the value is an integer and without an exponent otherwise.
+	 *
+	 * @param theValue the value of the leaf
+	 * @return a new leaf holding the value
+	 */
+	static BinaryTreeNode<String> number(final double theValue) {
+		return new BinaryTreeNode<String>(Constant.valueOf(theValue).toString());
+	}
+
+	// INNER CLASS RULE
+
+	/**
+	 * Inner class to represent a named rewrite rule. The rewrite returns the replacement of a
+	 * matching node, or null if the rule does not apply to the node.
+	 */
+	private static class Rule {
+
+		/** The name of this rule. */
+		private final String myName;
+
+		/** The rewrite of a node by this rule. */
+		private final UnaryOperator<BinaryTreeNode<String>> myRewrite;
+
+		/** The number of times this rule fired, shared by the rules of the same name. */
+		private final LongAdder myHits;
+
+		/**
+		 * Sets up this rule with the specified name and rewrite.
+		 *
+		 * @param theName		the name of this rule
+		 * @param theRewrite	the rewrite of a node, returning null if the rule does not apply
+		 */
+		Rule(final String theName, final UnaryOperator<BinaryTreeNode<String>> theRewrite) {
+			myName = theName;
+			myRewrite = theRewrite;
+			myHits = RuleProfiler.counter("rewrite." + theName);
+		}
+
+		@Override
+		public String toString() {
+			return myName;
+		}
+	}
+
+	// INNER CLASS RESULT
+
+	/**
+	 * Inner class to represent a rewritten expression with the statistics of its rewriting.
+	 */
+	public static class Result {
+
+		/** The rewritten expression. */
+		private final BinaryTreeNode<String> myTree;
+
+		/** The number of passes over the tree. */
+		private final int myIterations;
+
+		/** The number of rules applied. */
+		private final long myRewriteCount;
+
+		/** Whether the last pass left the tree unchanged. */
+		private final boolean myIsConverged;
+
+		/** The number of nodes of the expression before the rewriting, as a tree. */
+		private final long myNodeCountBefore;
+
+		/** The number of nodes of the expression after the rewriting, as a tree. */
+		private final long myNodeCountAfter;
+
+		/** The time taken by the rewriting, in nanoseconds. */
+		private final long myElapsedNanos;
+
+		/**
+		 * Sets up this result with the specified expression and statistics.
+		 *
+		 * @param theTree				the rewritten expression
+		 * @param theIterations			the number of passes over the tree
+		 * @param theRewriteCount		the number of rules applied
+		 * @param theIsConverged		whether the last pass left the tree unchanged
+		 * @param theNodeCountBefore	the number of nodes before the rewriting
+		 * @param theNodeCountAfter		the number of nodes after the rewriting
+		 * @param theElapsedNanos		the time taken, in nanoseconds
+		 */
+		Result(final BinaryTreeNode<String> theTree, final int theIterations,
+		    final long theRewriteCount, final boolean theIsConverged,
+		    final long theNodeCountBefore, final long theNodeCountAfter,
+		    final long theElapsedNanos) {
+			myTree = theTree;
+			myIterations = theIterations;
+			myRewriteCount = theRewriteCount;
+			myIsConverged = theIsConverged;
+			myNodeCountBefore = theNodeCountBefore;
+			myNodeCountAfter = theNodeCountAfter;
+			myElapsedNanos = theElapsedNanos;
+		}
+
+		/**
+		 * Returns the rewritten expression.
+		 *
+		 * @return a binary tree node representing the rewritten expression
+		 */
+		public BinaryTreeNode<String> getTree() {
+			return myTree;
+		}
+
+		/**
+		 * Returns the number of passes over the tree, including the final unchanged pass.
+		 *
+		 * @return the number of passes over the tree
+		 */
+		public int getIterations() {
+			return myIterations;
+		}
+
+		/**
+		 * Returns the number of rules applied over all passes.
+		 *
+		 * @return the number of rules applied
+		 */
+		public long getRewriteCount() {
+			return myRewriteCount;
+		}
+
+		/**
+		 * Returns true if a fixed point was reached; false if the iteration limit stopped the
+		 * rewriting first.
+		 *
+		 * @return true if a fixed point was reached; otherwise false
+		 */
+		public boolean isConverged() {
+			return myIsConverged;
+		}
+
+		/**
+		 * Returns the number of nodes of the expression before the rewriting, counting a
+		 * subtree once for every place it is referenced from.
+		 *
+		 * @return the number of nodes before the rewriting
+		 */
+		public long getNodeCountBefore() {
+			return myNodeCountBefore;
+		}
+
+		/**
+		 * Returns the number of nodes of the expression after the rewriting, counting a
+		 * subtree once for every place it is referenced from.
+		 *
+		 * @return the number of nodes after the rewriting
+		 */
+		public long getNodeCountAfter() {
+			return myNodeCountAfter;
+		}
+
+		/**
+		 * Returns the time taken by the rewriting, in nanoseconds.
+		 *
+		 * @return the time taken, in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return myElapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return myNodeCountBefore + " to " + myNodeCountAfter + " nodes with " +
+			    myRewriteCount + " rewrites in " + myIterations + " passes";
+		}
+	}
+
+}
@@ -0,0 +1,481 @@
+/**
+ * RootFinder - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+/**
+ * RootFinder solves f(x) = 0 for a symbolic mathematical expression f of a variable x and of
+ * optional parameters, such as "(x ^ 2) - a" for the square root of a.
+ *
+ * The derivative f' is computed by the Differentiator and both f and f' are compiled into the
+ * classes of the BytecodeCompiler once, when the finder is created, so a solve only runs
+ * compiled code and typically takes a few microseconds. A root is found either from a starting
+ * point by Newton's method, safeguarded by halving any step which does not decrease |f|, or
+ * inside a bracket where f changes sign by Brent's method, which combines bisection with
+ * secant and inverse quadratic interpolation steps and always converges. Both have batch
+ * forms solving many starting points, brackets or parameter sets in parallel in a
+ * ForkJoinPool. A solve which does not converge returns NaN rather than throwing, so a batch
+ * is never stopped by one failure.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class RootFinder {
+
+	/** The relative size of a step, or half bracket, below which a root is accepted. */
+	public static final double TOLERANCE = 1e-13;
+
+	/** The largest number of iterations of a single solve. */
+	public static final int MAX_ITERATIONS = 100;
+
+	/** The largest number of times a Newton step is halved in a single iteration. */
+	private static final int MAX_HALVINGS = 40;
+
+	/** The number of problems of a batch solved by a single task. */
+	private static final int CHUNK = 256;
+
+	/** The expression f. */
+	private final BinaryTreeNode<String> myFunction;
+
+	/** The simplified derivative f'. */
+	private final BinaryTreeNode<String> myDerivative;
+
+	/** The number of parameters, which follow the variable in the input arrays. */
+	private final int myParameterCount;
+
+	/** The compiled expression f. */
+	private final ToDoubleFunction<double[]> myCompiledFunction;
+
+	/** The compiled derivative f'. */
+	private final ToDoubleFunction<double[]> myCompiledDerivative;
+
+	/**
+	 * Creates a finder of the roots of the specified expression with the specified derivative.
+	 *
+	 * @param theFunction	the expression f
+	 * @param theDerivative	the simplified derivative f'
+	 * @param theVariables	the variable followed by the parameters
+	 */
+	private RootFinder(final BinaryTreeNode<String> theFunction,
+	    final BinaryTreeNode<String> theDerivative, final List<String> theVariables) {
+		myFunction = theFunction;
+		myDerivative = theDerivative;
+		myParameterCount = theVariables.size() - 1;
+		myCompiledFunction = BytecodeCompiler.compile(theFunction, theVariables);
+		myCompiledDerivative = BytecodeCompiler.compile(theDerivative, theVariables);
+	}
+
+	/**
+	 * Returns a finder of the roots of the specified expression in the specified variable,
+	 * with the specified parameters. The expression is parsed, derived and compiled by this
+	 * call.
+	 *
+	 * @param theExpression	the expression f in infix notation
+	 * @param theVariable	the variable solved for
+	 * @param theParameters	the other symbols of the expression, in the order their values are
+	 *        given to the solves
+	 * @return a finder of the roots of the expression
+	 * @throws IllegalArgumentException if the expression is invalid or contains an unknown
+	 *         symbol
+	 */
+	public static RootFinder compile(final String theExpression, final String theVariable,
+	    final String... theParameters) {
+		final BinaryTree<String> tree =
+		    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(theExpression));
+		if (!ExpressionParser.getIsValid() || tree == null) {
+			throw new IllegalArgumentException("invalid expression: " + theExpression);
+		}
+		return compile(tree.getNode(), theVariable, theParameters);
+	}
+
+	/**
+	 * Returns a finder of the roots of the specified root's expression in the specified
+	 * variable, with the specified parameters.
+	 *
+	 * @param theRoot		the root node representing the expression f
+	 * @param theVariable	the variable solved for
+	 * @param theParameters	the other symbols of the expression, in the order their values are
+	 *        given to the solves
+	 * @return a finder of the roots of the expression
+	 * @throws IllegalArgumentException if the expression contains an unknown symbol
+	 */
+	public static RootFinder compile(final BinaryTreeNode<String> theRoot,
+	    final String theVariable, final String... theParameters) {
+		final List<String> variables = new ArrayList<String>();
+		variables.add(theVariable);
+		variables.addAll(List.of(theParameters));
+		final BinaryTreeNode<String> derivative = Simplifier.simplify(
+		    Differentiator.derivePartial(theRoot, new BinaryTreeNode<String>(theVariable)));
+		return new RootFinder(theRoot, derivative, variables);
+	}
+
+	/**
+	 * Returns a root found by Newton's method from the specified starting point.
+	 *
+	 * @param theStart		the starting point
+	 * @param theParameters	the values of the parameters
+	 * @return a root, or NaN if the iterations did not converge
+	 * @throws IllegalArgumentException if the number of parameter values is wrong
+	 */
+	public double newton(final double theStart, final double... theParameters) {
+		return iterateNewton(theStart, input(theParameters));
+	}
+
+	/**
+	 * Returns a root found by Brent's method inside the specified bracket.
+	 *
+	 * @param theLower		one end of the bracket
+	 * @param theUpper		the other end of the bracket
+	 * @param theParameters	the values of the parameters
+	 * @return a root, or NaN if f has the same sign at both ends of the bracket
+	 * @throws IllegalArgumentException if the number of parameter values is wrong
+	 */
+	public double brent(final double theLower, final double theUpper,
+	    final double... theParameters) {
+		return iterateBrent(theLower, theUpper, input(theParameters));
+	}
+
+	/**
+	 * Returns the roots found by Newton's method from every one of the specified starting
+	 * points, solved in parallel in the common ForkJoinPool.
+	 *
+	 * @param theStarts		the starting points
+	 * @param theParameters	the values of the parameters: a single set shared by every start,
+	 *        or one set for every start
+	 * @return the roots, NaN for the iterations which did not converge
+	 * @throws IllegalArgumentException if the number of parameter sets or values is wrong
+	 */
+	public double[] newton(final double[] theStarts, final double[]... theParameters) {
+		final double[] result = new double[theStarts.length];
+		solve(result, theParameters, (index, input) -> iterateNewton(theStarts[index], input));
+		return result;
+	}
+
+	/**
+	 * Returns the roots found by Brent's method inside every one of the specified brackets,
+	 * solved in parallel in the common ForkJoinPool.
+	 *
+	 * @param theLowers		one end of every bracket
+	 * @param theUppers		the other end of every bracket
+	 * @param theParameters	the values of the parameters: a single set shared by every bracket,
+	 *        or one set for every bracket
+	 * @return the roots, NaN for the brackets without a sign change
+	 * @throws IllegalArgumentException if the numbers of brackets, of parameter sets or of
+	 *         values are wrong
+	 */
+	public double[] brent(final double[] theLowers, final double[] theUppers,
+	    final double[]... theParameters) {
+		if (theLowers.length != theUppers.length) {
+			throw new IllegalArgumentException(theLowers.length + " lower and " +
+			    theUppers.length + " upper ends of brackets");
+		}
+		final double[] result = new double[theLowers.length];
+		solve(result, theParameters,
+		    (index, input) -> iterateBrent(theLowers[index], theUppers[index], input));
+		return result;
+	}
+
+	/**
+	 * Returns the expression f.
+	 *
+	 * @return the root node of the expression
+	 */
+	public BinaryTreeNode<String> getFunction() {
+		return myFunction;
+	}
+
+	/**
+	 * Returns the simplified derivative f'.
+	 *
+	 * @return the root node of the derivative
+	 */
+	public BinaryTreeNode<String> getDerivative() {
+		return myDerivative;
+	}
+
+	/**
+	 * Returns the input array of the compiled expressions holding the specified parameter
+	 * values after the variable.
+	 *
+	 * @param theParameters the values of the parameters
+	 * @return a new input array
+	 * @throws IllegalArgumentException if the number of parameter values is wrong
+	 */
+	private double[] input(final double[] theParameters) {
+		if (theParameters.length != myParameterCount) {
+			throw new IllegalArgumentException(theParameters.length + " parameter values for " +
+			    myParameterCount + " parameters");
+		}
+		final double[] result = new double[myParameterCount + 1];
+		System.arraycopy(theParameters, 0, result, 1, myParameterCount);
+		return result;
+	}
+
+	/**
+	 * Solves the problems of a batch in parallel in the common ForkJoinPool, writing the root
+	 * of every problem at its index of the specified array.
+	 *
+	 * @param theRoots		the array the roots are written to
+	 * @param theParameters	a single set of parameter values, or one set for every problem
+	 * @param theSolver		the solver of a single problem
+	 * @throws IllegalArgumentException if the number of parameter sets or values is wrong
+	 */
+	private void solve(final double[] theRoots, final double[][] theParameters,
+	    final Solver theSolver) {
+		if (theParameters.length > 1 && theParameters.length != theRoots.length ||
+		    theParameters.length == 0 && myParameterCount > 0) {
+			throw new IllegalArgumentException(theParameters.length + " parameter sets for " +
+			    theRoots.length + " problems");
+		}
+		for (double[] parameters : theParameters) {
+			if (parameters.length != myParameterCount) {
+				throw new IllegalArgumentException(parameters.length +
+				    " parameter values for " + myParameterCount + " parameters");
+			}
+		}
+		ForkJoinPool.commonPool().invoke(new Chunk(theRoots, theParameters, theSolver, 0,
+		    theRoots.length));
+	}
+
+	/**
+	 * Returns a root found by Newton's method from the specified starting point, with the
+	 * parameter values held in the specified input array after the variable. A step which
+	 * does not decrease |f| is halved until it does, and the iterations fail if it never
+	 * does before the full step is within the tolerance.
+	 *
+	 * @param theStart	the starting point
+	 * @param theInput	the input array of the compiled expressions, overwritten at index 0
+	 * @return a root, or NaN if the iterations did not converge
+	 */
+	private double iterateNewton(final double theStart, final double[] theInput) {
+		double x = theStart;
+		double fx = value(myCompiledFunction, theInput, x);
+		boolean isConverged = fx == 0;
+		boolean isFailed = !Double.isFinite(fx);
+		for (int i = 0; i < MAX_ITERATIONS && !isConverged && !isFailed; i++) {
+			final double step = fx / value(myCompiledDerivative, theInput, x);
+			if (Double.isFinite(step)) {
+				double next = x - step;
+				double fNext = value(myCompiledFunction, theInput, next);
+				double scale = 1;
+				for (int halvings = 0; halvings < MAX_HALVINGS &&
+				    !(Math.abs(fNext) < Math.abs(fx)); halvings++) {
+					scale /= 2;
+					next = x - scale * step;
+					fNext = value(myCompiledFunction, theInput, next);
+				}
+				isConverged = fNext == 0 ||
+				    Math.abs(step) <= TOLERANCE * Math.max(1, Math.abs(next));
+				isFailed = !isConverged && !(Math.abs(fNext) < Math.abs(fx));
+				x = next;
+				fx = fNext;
+			} else { // a stationary point or a derivative which is not defined
+				isFailed = true;
+			}
+		}
+		double result = Double.NaN;
+		if (isConverged) {
+			result = x;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a root found by Brent's method inside the specified bracket, with the parameter
+	 * values held in the specified input array after the variable.
+	 *
+	 * @param theLower	one end of the bracket
+	 * @param theUpper	the other end of the bracket
+	 * @param theInput	the input array of the compiled expressions, overwritten at index 0
+	 * @return a root, or NaN if f has the same sign at both ends of the bracket or the
+	 *         iterations did not converge
+	 */
+	private double iterateBrent(final double theLower, final double theUpper,
+	    final double[] theInput) {
+		double a = theLower;
+		double b = theUpper;
+		double fa = value(myCompiledFunction, theInput, a);
+		double fb = value(myCompiledFunction, theInput, b);
+		double c = b;
+		double fc = fb;
+		double d = b - a;
+		double e = d;
+		boolean isConverged = fa == 0 || fb == 0;
+		if (fa == 0) {
+			b = a;
+		}
+		final boolean isBracketed = fa * fb <= 0;
+		for (int i = 0; i < MAX_ITERATIONS && isBracketed && !isConverged; i++) {
+			if (fb > 0 && fc > 0 || fb < 0 && fc < 0) { // b and c must bracket the root
+				c = a;
+				fc = fa;
+				d = b - a;
+				e = d;
+			}
+			if (Math.abs(fc) < Math.abs(fb)) { // b is the best estimate
+				a = b;
+				b = c;
+				c = a;
+				fa = fb;
+				fb = fc;
+				fc = fa;
+			}
+			final double tolerance = 2 * Math.ulp(1.0) * Math.abs(b) +
+			    TOLERANCE / 2 * Math.max(1, Math.abs(b));
+			final double middle = (c - b) / 2;
+			if (Math.abs(middle) <= tolerance || fb == 0) {
+				isConverged = true;
+			} else {
+				if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+					final double s = fb / fa;
+					double p;
+					double q;
+					if (a == c) { // secant
+						p = 2 * middle * s;
+						q = 1 - s;
+					} else { // inverse quadratic interpolation
+						final double r = fb / fc;
+						q = fa / fc;
+						p = s * (2 * middle * q * (q - r) - (b - a) * (r - 1));
+						q = (q - 1) * (r - 1) * (s - 1);
+					}
+					if (p > 0) {
+						q = -q;
+					}
+					p = Math.abs(p);
+					if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q),
+					    Math.abs(e * q))) { // the interpolation is accepted
+						e = d;
+						d = p / q;
+					} else {
+						d = middle;
+						e = d;
+					}
+				} else { // bisection
+					d = middle;
+					e = d;
+				}
+				a = b;
+				fa = fb;
+				b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+				fb = value(myCompiledFunction, theInput, b);
+			}
+		}
+		double result = Double.NaN;
+		if (isConverged) {
+			result = b;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value of the specified compiled expression at the specified value of the
+	 * variable.
+	 *
+	 * @param theCompiled	the compiled expression
+	 * @param theInput		the input array, whose index 0 is overwritten by the value
+	 * @param theValue		the value of the variable
+	 * @return the value of the expression
+	 */
+	private static double value(final ToDoubleFunction<double[]> theCompiled,
+	    final double[] theInput, final double theValue) {
+		theInput[0] = theValue;
+		return theCompiled.applyAsDouble(theInput);
+	}
+
+	// INNER INTERFACE SOLVER
+
+	/**
+	 * Inner interface to represent the solver of a single problem of a batch.
+	 */
+	@FunctionalInterface
+	private interface Solver {
+
+		/**
+		 * Returns the root of the problem at the specified index.
+		 *
+		 * @param theIndex	the index of the problem
+		 * @param theInput	an input array holding the problem's parameter values after the
+		 *        variable, reused by the problems of a task
+		 * @return the root of the problem, or NaN
+		 */
+		double solve(int theIndex, double[] theInput);
+	}
+
+	// INNER CLASS CHUNK
+
+	/**
+	 * Inner class to represent the task solving a range of the problems of a batch, split in
+	 * halves until a range has at most CHUNK problems.
+	 */
+	private final class Chunk extends RecursiveAction {
+
+		/** The serial version UID of the task. */
+		private static final long serialVersionUID = 1L;
+
+		/** The array the roots are written to. */
+		private final double[] myRoots;
+
+		/** A single set of parameter values, or one set for every problem. */
+		private final double[][] myParameters;
+
+		/** The solver of a single problem. */
+		private final transient Solver mySolver;
+
+		/** The first index of the range, inclusive. */
+		private final int myFrom;
+
+		/** The last index of the range, exclusive. */
+		private final int myTo;
+
+		/**
+		 * Creates the task solving the specified range of the problems.
+		 *
+		 * @param theRoots		the array the roots are written to
+		 * @param theParameters	a single set of parameter values, or one set for every problem
+		 * @param theSolver		the solver of a single problem
+		 * @param theFrom		the first index of the range, inclusive
+		 * @param theTo			the last index of the range, exclusive
+		 */
+		Chunk(final double[] theRoots, final double[][] theParameters, final Solver theSolver,
+		    final int theFrom, final int theTo) {
+			myRoots = theRoots;
+			myParameters = theParameters;
+			mySolver = theSolver;
+			myFrom = theFrom;
+			myTo = theTo;
+		}
+
+		/**
+		 * Solves the range, or splits it in halves solved in parallel if it has more than
+		 * CHUNK problems.
+		 */
+		@Override
+		protected void compute() {
+			if (myTo - myFrom <= CHUNK) {
+				final double[] input = new double[myParameterCount + 1];
+				for (int i = myFrom; i < myTo; i++) {
+					if (myParameters.length > 1 || i == myFrom && myParameters.length == 1) {
+						final double[] parameters = myParameters[myParameters.length > 1 ? i : 0];
+						System.arraycopy(parameters, 0, input, 1, myParameterCount);
+					}
+					myRoots[i] = mySolver.solve(i, input);
+				}
+			} else {
+				final int middle = (myFrom + myTo) >>> 1;
+				invokeAll(new Chunk(myRoots, myParameters, mySolver, myFrom, middle),
+				    new Chunk(myRoots, myParameters, mySolver, middle, myTo));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+/**
+ * RuleProfiler - Derivatives Calculator
+ */
+
+package model;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RuleProfiler counts how often every simplification rule of the Simplifier and the
+ * RewriteEngine fires, so the rules which matter on real traffic can be told apart from the
+ * ones which never apply.
+ *
+ * Every rule looks up its counter once, when its class is initialized, and a firing rule only
+ * increments that counter. The counters are LongAdders, which spread concurrent increments
+ * over separate cells, so counting from many threads neither locks nor contends on a single
+ * field. Counting can be switched off, leaving a single volatile read per firing rule.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class RuleProfiler {
+
+	/** The counter of every rule, by the rule's name. */
+	private static final Map<String, LongAdder> COUNTERS =
+	    new ConcurrentHashMap<String, LongAdder>();
+
+	/** Whether the report is already registered to be printed at exit. */
+	private static final AtomicBoolean IS_DUMP_REGISTERED = new AtomicBoolean();
+
+	/** Whether firing rules are counted. */
+	private static volatile boolean myIsEnabled = true;
+
+	/** A private constructor to inhibit external instantiation. */
+	private RuleProfiler() {
+		// do nothing
+	}
+
+	/**
+	 * Returns the counter of the rule with the specified name, creating it if the rule has
+	 * none yet. Rules sharing a name share a counter.
+	 *
+	 * @param theName the name of the rule, prefixed with the name of its engine
+	 * @return the counter of the rule
+	 */
+	static LongAdder counter(final String theName) {
+		return COUNTERS.computeIfAbsent(theName, name -> new LongAdder());
+	}
+
+	/**
+	 * Counts one firing of the rule of the specified counter, if counting is enabled.
+	 *
+	 * @param theCounter the counter of the firing rule
+	 */
+	static void count(final LongAdder theCounter) {
+		if (myIsEnabled) {
+			theCounter.increment();
+		}
+	}
+
+	/**
+	 * Sets whether firing rules are counted.
+	 *
+	 * @param theIsEnabled true to count firing rules; false to ignore them
+	 */
+	public static void setEnabled(final boolean theIsEnabled) {
+		myIsEnabled = theIsEnabled;
+	}
+
+	/**
+	 * Returns true if firing rules are counted.
+	 *
+	 * @return true if firing rules are counted; otherwise false
+	 */
+	public static boolean isEnabled() {
+		return myIsEnabled;
+	}
+
+	/**
+	 * Returns the number of times the rule with the specified name has fired.
+	 *
+	 * @param theName the name of the rule
+	 * @return the number of times the rule fired, zero for an unknown rule
+	 */
+	public static long getCount(final String theName) {
+		final LongAdder counter = COUNTERS.get(theName);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	/**
+	 * Returns the number of times every known rule has fired, by the rule's name in
+	 * alphabetical order. Rules which never fired are included with a count of zero.
+	 *
+	 * @return the counts of every rule
+	 */
+	public static Map<String, Long> snapshot() {
+		final Map<String, Long> result = new TreeMap<String, Long>();
+		for (Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()) {
+			result.put(counter.getKey(), counter.getValue().sum());
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Resets the count of every rule to zero.
+	 */
+	public static void reset() {
+		for (LongAdder counter : COUNTERS.values()) {
+			counter.reset();
+		}
+	}
+
+	/**
+	 * Returns a report of the counts of every rule, one rule per line from the most to the
+	 * least frequent, with the share of all firings each rule accounts for.
+	 *
+	 * @return the report of the rule counts
+	 */
+	public static String report() {
+		final List<Map.Entry<String, Long>> counts =
+		    new ArrayList<Map.Entry<String, Long>>(snapshot().entrySet());
+		counts.sort((theFirst, theSecond) ->
+		    Long.compare(theSecond.getValue(), theFirst.getValue()));
+		long total = 0;
+		for (Map.Entry<String, Long> count : counts) {
+			total += count.getValue();
+		}
+		final StringBuilder result = new StringBuilder();
+		result.append(String.format("rule firings: %d%n", total));
+		for (Map.Entry<String, Long> count : counts) {
+			result.append(String.format("%12d %6.2f%%  %s%n", count.getValue(),
+			    total == 0 ? 0.0 : 100.0 * count.getValue() / total, count.getKey()));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Prints the report of the rule counts to the specified stream when the program exits.
+	 * Only the first call registers the report.
+	 *
+	 * @param theStream the stream the report is printed to
+	 */
+	public static void dumpAtExit(final PrintStream theStream) {
+		if (IS_DUMP_REGISTERED.compareAndSet(false, true)) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> theStream.print(report()),
+			    "rule-profiler-dump"));
+		}
+	}
+
+}
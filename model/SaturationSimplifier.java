@@ -0,0 +1,630 @@
+/**
+ * SaturationSimplifier - Derivatives Calculator
+ */
+
+package model;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import structures.BinaryTreeNode;
+
+/**
+ * SaturationSimplifier simplifies a mathematical expression by equality saturation: the
+ * expression is loaded into an EGraph, algebraic and trigonometric rewrites add every
+ * equivalent form they find without discarding any, and the cheapest equivalent expression is
+ * extracted at the end.
+ *
+ * The rewrites include commutativity and associativity of addition and multiplication,
+ * distribution of constants and factoring of common factors, the merging of powers of a common
+ * base, "sin(u) ^ 2 + cos(u) ^ 2 = 1" and the usual identities, while constant folding is done
+ * by the EGraph itself. Since these rewrites never run out on their own, saturation stops at a
+ * node budget and a deadline as well, and the best expression found so far is extracted.
+ *
+ * This simplifier is far slower than the Simplifier and is meant for offline precompilation of
+ * derivatives which are evaluated many times, where a cheaper expression pays for itself.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class SaturationSimplifier {
+
+	/** The default maximum number of distinct nodes in the e-graph. */
+	public static final long DEFAULT_MAX_NODES = 20_000;
+
+	/** The default maximum time saturation may take. */
+	public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(1);
+
+	/** The maximum number of rounds of rewrites. */
+	private static final int MAX_ITERATIONS = 64;
+
+	/** A private constructor to inhibit external instantiation. */
+	private SaturationSimplifier() {
+		// do nothing
+	}
+
+	/**
+	 * Returns a binary tree node representing the cheapest equivalent expression of the
+	 * specified root's expression by evaluation cost, found within the default budgets.
+	 *
+	 * @param theRoot the root node representing the expression being simplified
+	 * @return a binary tree node representing the simplified expression
+	 */
+	public static BinaryTreeNode<String> simplify(final BinaryTreeNode<String> theRoot) {
+		return run(theRoot, CostModel.EVALUATION_COST, DEFAULT_MAX_NODES, DEFAULT_TIMEOUT)
+		    .getTree();
+	}
+
+	/**
+	 * Saturates the e-graph of the specified root's expression until no rewrite adds anything
+	 * new, or until the specified node budget or timeout is exceeded, and returns the cheapest
+	 * equivalent expression under the specified cost model with the statistics of the run.
+	 *
+	 * @param theRoot		the root node representing the expression being simplified
+	 * @param theCostModel	the cost model choosing the cheapest expression
+	 * @param theMaxNodes	the maximum number of distinct nodes in the e-graph
+	 * @param theTimeout	the maximum time saturation may take
+	 * @return the result of the simplification
+	 */
+	public static Result run(final BinaryTreeNode<String> theRoot, final CostModel theCostModel,
+	    final long theMaxNodes, final Duration theTimeout) {
+		final long start = System.nanoTime();
+		final long deadline = start + theTimeout.toNanos();
+		final EGraph graph = new EGraph();
+		final int root = graph.add(theRoot);
+		graph.rebuild();
+		final double costBefore =
+		    cost(graph.extract(root, node -> 1), theCostModel, new IdentityHashMap<>());
+
+		final Saturation saturation = new Saturation(graph, theMaxNodes, deadline);
+		Stop stop = null;
+		int iterations = 0;
+		while (stop == null) {
+			final int nodeCount = graph.nodeCount();
+			final int classCount = graph.classCount();
+			stop = saturation.applyRules();
+			graph.rebuild();
+			iterations++;
+			if (stop == null) {
+				if (graph.nodeCount() == nodeCount && graph.classCount() == classCount) {
+					stop = Stop.SATURATED;
+				} else if (iterations == MAX_ITERATIONS) {
+					stop = Stop.ITERATION_LIMIT;
+				}
+			}
+		}
+
+		final BinaryTreeNode<String> tree = graph.extract(root, node ->
+		    cost(theCostModel, node.getElement(), node.arity(),
+		    node.arity() == 2 ? graph.getConstant(node.getChild(1)) : null));
+		return new Result(tree, stop, iterations, graph.classCount(), graph.nodeCount(),
+		    costBefore, cost(tree, theCostModel, new IdentityHashMap<>()),
+		    System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the cost of the specified root's expression under the specified cost model,
+	 * counting a subtree once for every place it is referenced from.
+	 *
+	 * @param theRoot		the root node of the expression
+	 * @param theCostModel	the cost model
+	 * @param theCosts		the already computed costs, by node identity
+	 * @return the cost of the expression
+	 */
+	private static double cost(final BinaryTreeNode<String> theRoot, final CostModel theCostModel,
+	    final Map<BinaryTreeNode<String>, Double> theCosts) {
+		Double result = theCosts.get(theRoot);
+		if (result == null) {
+			final BinaryTreeNode<String> left = theRoot.getLeft();
+			final BinaryTreeNode<String> right = theRoot.getRight();
+			Double exponent = null;
+			if (right != null && right.getLeft() == null &&
+			    ExpressionParser.isNumber(right.getElement())) {
+				exponent = Double.parseDouble(right.getElement());
+			}
+			result = cost(theCostModel, theRoot.getElement(),
+			    left == null ? 0 : right == null ? 1 : 2, exponent);
+			if (left != null) {
+				result += cost(left, theCostModel, theCosts);
+			}
+			if (right != null) {
+				result += cost(right, theCostModel, theCosts);
+			}
+			theCosts.put(theRoot, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the cost of a single node under the specified cost model, without its children.
+	 *
+	 * @param theCostModel	the cost model
+	 * @param theElement	the operator, function or leaf element of the node
+	 * @param theArity		the number of children of the node
+	 * @param theExponent	the constant right operand of the node, or null if there is none
+	 * @return the cost of the node
+	 */
+	private static double cost(final CostModel theCostModel, final String theElement,
+	    final int theArity, final Double theExponent) {
+		double result = 1;
+		if (theCostModel == CostModel.EVALUATION_COST) {
+			if (theArity == 1) {
+				result = 20;
+			} else if (theArity == 2) {
+				switch (theElement) {
+					case "*":
+						result = 2;
+						break;
+					case "/":
+						result = 6;
+						break;
+					case "^": // small integer powers are a few multiplications
+						final boolean isSmall = theExponent != null &&
+						    theExponent == Math.rint(theExponent) && Math.abs(theExponent) <= 4;
+						result = isSmall ? 3 : 20;
+						break;
+					default:
+						result = 1;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The cost models choosing the cheapest of the equivalent expressions.
+	 */
+	public enum CostModel {
+		/** Every node costs the same, so the expression with the fewest nodes is cheapest. */
+		NODE_COUNT,
+		/** Every node costs an estimate of its evaluation time, so the fastest is cheapest. */
+		EVALUATION_COST
+	}
+
+	/**
+	 * The reasons saturation stops.
+	 */
+	public enum Stop {
+		/** A round of rewrites added nothing new. */
+		SATURATED,
+		/** The maximum number of rounds was reached. */
+		ITERATION_LIMIT,
+		/** The e-graph grew past the node budget. */
+		NODE_LIMIT,
+		/** Saturation ran past its deadline. */
+		DEADLINE
+	}
+
+	// INNER CLASS SATURATION
+
+	/**
+	 * Inner class to represent the rewriting of an e-graph within a node budget and deadline.
+	 * Every loop over the nodes of a class checks the budget, so a single class which grew
+	 * very large cannot run far past it.
+	 */
+	private static class Saturation {
+
+		/** The number of budget checks between two comparisons against the deadline. */
+		private static final int DEADLINE_INTERVAL = 256;
+
+		/** The e-graph being rewritten. */
+		private final EGraph myGraph;
+
+		/** The maximum number of distinct nodes in the e-graph. */
+		private final long myMaxNodes;
+
+		/** The System.nanoTime value after which saturation stops. */
+		private final long myDeadline;
+
+		/** The number of budget checks so far. */
+		private long myCheckCount;
+
+		/** The reason to stop the current round, or null while the budget holds. */
+		private Stop myStop;
+
+		/**
+		 * Sets up this saturation of the specified e-graph with the specified budget.
+		 *
+		 * @param theGraph		the e-graph being rewritten
+		 * @param theMaxNodes	the maximum number of distinct nodes in the e-graph
+		 * @param theDeadline	the System.nanoTime value after which saturation stops
+		 */
+		Saturation(final EGraph theGraph, final long theMaxNodes, final long theDeadline) {
+			myGraph = theGraph;
+			myMaxNodes = theMaxNodes;
+			myDeadline = theDeadline;
+			myCheckCount = 0;
+			myStop = null;
+		}
+
+		/**
+		 * Returns true if the node budget or the deadline is exceeded, remembering the reason.
+		 *
+		 * @return true if a budget is exceeded; otherwise false
+		 */
+		private boolean isExceeded() {
+			if (myStop == null) {
+				if (myGraph.nodeCount() > myMaxNodes) {
+					myStop = Stop.NODE_LIMIT;
+				} else if (myCheckCount++ % DEADLINE_INTERVAL == 0 &&
+				    System.nanoTime() - myDeadline > 0) {
+					myStop = Stop.DEADLINE;
+				}
+			}
+			return myStop != null;
+		}
+
+		/**
+		 * Applies one round of rewrites to every node of the e-graph, and returns the reason to
+		 * stop early if a budget was exceeded, or null otherwise.
+		 *
+		 * @return the reason to stop, or null if no budget was exceeded
+		 */
+		Stop applyRules() {
+			final int[] ids = myGraph.getClassIds();
+			for (int i = 0; i < ids.length && !isExceeded(); i++) {
+				final List<EGraph.ENode> nodes = operands(ids[i]);
+				for (int j = 0; j < nodes.size() && !isExceeded(); j++) {
+					final EGraph.ENode node = nodes.get(j);
+					if (node.arity() == 2) {
+						rewrite(ids[i], node.getElement(), node.getChild(0), node.getChild(1));
+					}
+				}
+			}
+			return myStop;
+		}
+
+		/**
+		 * Adds the rewrites of the specified operator node to the class of the specified id.
+		 *
+		 * @param theId			the id of the class holding the node
+		 * @param theOperator	the operator of the node
+		 * @param theLeft		the class id of the left operand
+		 * @param theRight		the class id of the right operand
+		 */
+		private void rewrite(final int theId, final String theOperator,
+		    final int theLeft, final int theRight) {
+			switch (theOperator) {
+				case "+":
+					rewriteSum(theId, theLeft, theRight);
+					break;
+				case "-": // a - b = a + (-1 * b)
+					myGraph.union(theId, myGraph.add("+", theLeft,
+					    myGraph.add("*", myGraph.addNumber(-1), theRight)));
+					if (myGraph.find(theLeft) == myGraph.find(theRight)) {
+						myGraph.union(theId, myGraph.addNumber(0));
+					}
+					break;
+				case "*":
+					rewriteProduct(theId, theLeft, theRight);
+					break;
+				case "/":
+					rewriteQuotient(theId, theLeft, theRight);
+					break;
+				case "^":
+					if (isValue(theRight, 0) || isValue(theLeft, 1)) {
+						myGraph.union(theId, myGraph.addNumber(1));
+					} else if (isValue(theRight, 1)) {
+						myGraph.union(theId, theLeft);
+					}
+					break;
+			}
+		}
+
+		/**
+		 * Adds the rewrites of a sum "a + b" to the class of the specified id.
+		 *
+		 * @param theId		the id of the class holding the sum
+		 * @param theLeft	the class id of the left operand
+		 * @param theRight	the class id of the right operand
+		 */
+		private void rewriteSum(final int theId, final int theLeft, final int theRight) {
+			myGraph.union(theId, myGraph.add("+", theRight, theLeft));
+			if (isValue(theLeft, 0)) {
+				myGraph.union(theId, theRight);
+			}
+			if (myGraph.find(theLeft) == myGraph.find(theRight)) { // a + a = 2 * a
+				myGraph.union(theId, myGraph.add("*", myGraph.addNumber(2), theLeft));
+			}
+			final List<EGraph.ENode> lefts = operands(theLeft);
+			for (int i = 0; i < lefts.size() && !isExceeded(); i++) {
+				final EGraph.ENode left = lefts.get(i);
+				if (left.getElement().equals("+")) { // (a + b) + c = a + (b + c)
+					myGraph.union(theId, myGraph.add("+", left.getChild(0),
+					    myGraph.add("+", left.getChild(1), theRight)));
+				} else if (left.getElement().equals("*")) {
+					final int factor = myGraph.find(left.getChild(1));
+					if (factor == myGraph.find(theRight)) { // a * c + c = (a + 1) * c
+						myGraph.union(theId, myGraph.add("*", myGraph.add("+", left.getChild(0),
+						    myGraph.addNumber(1)), theRight));
+					}
+					final List<EGraph.ENode> rights = operands(theRight);
+					for (int j = 0; j < rights.size() && !isExceeded(); j++) {
+						final EGraph.ENode right = rights.get(j);
+						if (right.getElement().equals("*") &&
+						    myGraph.find(right.getChild(1)) == factor) { // a*c + b*c = (a + b)*c
+							myGraph.union(theId, myGraph.add("*",
+							    myGraph.add("+", left.getChild(0), right.getChild(0)), factor));
+						}
+					}
+				} else if (left.getElement().equals("^") && isValue(left.getChild(1), 2)) {
+					addPythagorean(theId, left.getChild(0), theRight);
+				}
+			}
+		}
+
+		/**
+		 * Merges the class of the specified id with one if it holds "sin(u) ^ 2 + cos(u) ^ 2".
+		 *
+		 * @param theId		the id of the class holding the sum
+		 * @param theBase	the class id of the base of the left square
+		 * @param theRight	the class id of the right operand of the sum
+		 */
+		private void addPythagorean(final int theId, final int theBase, final int theRight) {
+			final List<EGraph.ENode> sines = operands(theBase);
+			for (int i = 0; i < sines.size() && !isExceeded(); i++) {
+				final EGraph.ENode sine = sines.get(i);
+				if (sine.getElement().equals("sin")) {
+					final int argument = myGraph.find(sine.getChild(0));
+					final List<EGraph.ENode> squares = operands(theRight);
+					for (int j = 0; j < squares.size() && !isExceeded(); j++) {
+						final EGraph.ENode square = squares.get(j);
+						if (square.getElement().equals("^") &&
+						    isValue(square.getChild(1), 2)) {
+							final List<EGraph.ENode> cosines = operands(square.getChild(0));
+							for (int k = 0; k < cosines.size() && !isExceeded(); k++) {
+								final EGraph.ENode cosine = cosines.get(k);
+								if (cosine.getElement().equals("cos") &&
+								    myGraph.find(cosine.getChild(0)) == argument) {
+									myGraph.union(theId, myGraph.addNumber(1));
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Adds the rewrites of a product "a * b" to the class of the specified id.
+		 *
+		 * @param theId		the id of the class holding the product
+		 * @param theLeft	the class id of the left operand
+		 * @param theRight	the class id of the right operand
+		 */
+		private void rewriteProduct(final int theId, final int theLeft, final int theRight) {
+			myGraph.union(theId, myGraph.add("*", theRight, theLeft));
+			if (isValue(theLeft, 0)) {
+				myGraph.union(theId, myGraph.addNumber(0));
+			} else if (isValue(theLeft, 1)) {
+				myGraph.union(theId, theRight);
+			}
+			if (myGraph.find(theLeft) == myGraph.find(theRight)) { // a * a = a ^ 2
+				myGraph.union(theId, myGraph.add("^", theLeft, myGraph.addNumber(2)));
+			}
+			final boolean isConstant = myGraph.getConstant(theLeft) != null;
+			final List<EGraph.ENode> rights = operands(theRight);
+			for (int i = 0; i < rights.size() && !isExceeded(); i++) {
+				final EGraph.ENode right = rights.get(i);
+				if (right.getElement().equals("*")) { // a * (b * c) = (a * b) * c
+					myGraph.union(theId, myGraph.add("*",
+					    myGraph.add("*", theLeft, right.getChild(0)), right.getChild(1)));
+				} else if (right.getElement().equals("+") && isConstant) {
+					// k * (a + b) = k * a + k * b
+					myGraph.union(theId, myGraph.add("+", myGraph.add("*", theLeft,
+					    right.getChild(0)), myGraph.add("*", theLeft, right.getChild(1))));
+				} else if (right.getElement().equals("^")) {
+					final int base = myGraph.find(right.getChild(0));
+					if (isValue(right.getChild(1), -1)) { // a * b ^ -1 = a / b
+						myGraph.union(theId, myGraph.add("/", theLeft, base));
+					}
+					if (base == myGraph.find(theLeft)) { // a * a ^ n = a ^ (n + 1)
+						myGraph.union(theId, myGraph.add("^", base,
+						    myGraph.add("+", right.getChild(1), myGraph.addNumber(1))));
+					}
+					final List<EGraph.ENode> lefts = operands(theLeft);
+					for (int j = 0; j < lefts.size() && !isExceeded(); j++) {
+						final EGraph.ENode left = lefts.get(j);
+						if (left.getElement().equals("^") &&
+						    myGraph.find(left.getChild(0)) == base) { // a^m * a^n = a^(m + n)
+							myGraph.union(theId, myGraph.add("^", base,
+							    myGraph.add("+", left.getChild(1), right.getChild(1))));
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Adds the rewrites of a quotient "a / b" to the class of the specified id.
+		 *
+		 * @param theId		the id of the class holding the quotient
+		 * @param theLeft	the class id of the left operand
+		 * @param theRight	the class id of the right operand
+		 */
+		private void rewriteQuotient(final int theId, final int theLeft, final int theRight) {
+			if (isValue(theRight, 1)) {
+				myGraph.union(theId, theLeft);
+			}
+			if (!isValue(theRight, 0)) {
+				// a / b = a * b ^ -1
+				myGraph.union(theId, myGraph.add("*", theLeft,
+				    myGraph.add("^", theRight, myGraph.addNumber(-1))));
+				if (myGraph.find(theLeft) == myGraph.find(theRight)) {
+					myGraph.union(theId, myGraph.addNumber(1));
+				}
+				final List<EGraph.ENode> lefts = operands(theLeft);
+				for (int i = 0; i < lefts.size() && !isExceeded(); i++) {
+					final EGraph.ENode left = lefts.get(i);
+					if (left.getElement().equals("*") &&
+					    myGraph.find(left.getChild(1)) == myGraph.find(theRight)) {
+						myGraph.union(theId, left.getChild(0)); // (a * b) / b = a
+					}
+				}
+			}
+		}
+
+		/**
+		 * Returns the nodes of the class of the specified id, or no nodes if the value of the
+		 * class is known. A class of known value already holds its cheapest form, a numeric
+		 * leaf, and rewriting its other nodes only produces more constant expressions.
+		 *
+		 * @param theId the id of a class
+		 * @return the nodes of the class, or no nodes if its value is known
+		 */
+		private List<EGraph.ENode> operands(final int theId) {
+			return myGraph.getConstant(theId) == null ? myGraph.getNodes(theId) :
+			    List.<EGraph.ENode>of();
+		}
+
+		/**
+		 * Returns true if the class of the specified id is known to equal the specified value.
+		 *
+		 * @param theId		the id of the class
+		 * @param theValue	the expected value
+		 * @return true if the class is known to equal the value; otherwise false
+		 */
+		private boolean isValue(final int theId, final double theValue) {
+			final Double constant = myGraph.getConstant(theId);
+			return constant != null && constant == theValue;
+		}
+	}
+
+	// INNER CLASS RESULT
+
+	/**
+	 * Inner class to represent a simplified expression with the statistics of its saturation.
+	 */
+	public static class Result {
+
+		/** The cheapest expression found. */
+		private final BinaryTreeNode<String> myTree;
+
+		/** The reason saturation stopped. */
+		private final Stop myStop;
+
+		/** The number of rounds of rewrites. */
+		private final int myIterations;
+
+		/** The number of classes of the final e-graph. */
+		private final int myClassCount;
+
+		/** The number of distinct nodes of the final e-graph. */
+		private final int myNodeCount;
+
+		/** The cost of the expression before saturation. */
+		private final double myCostBefore;
+
+		/** The cost of the cheapest expression found. */
+		private final double myCostAfter;
+
+		/** The time taken by the simplification, in nanoseconds. */
+		private final long myElapsedNanos;
+
+		/**
+		 * Sets up this result with the specified expression and statistics.
+		 *
+		 * @param theTree			the cheapest expression found
+		 * @param theStop			the reason saturation stopped
+		 * @param theIterations		the number of rounds of rewrites
+		 * @param theClassCount		the number of classes of the final e-graph
+		 * @param theNodeCount		the number of distinct nodes of the final e-graph
+		 * @param theCostBefore		the cost of the expression before saturation
+		 * @param theCostAfter		the cost of the cheapest expression found
+		 * @param theElapsedNanos	the time taken, in nanoseconds
+		 */
+		Result(final BinaryTreeNode<String> theTree, final Stop theStop, final int theIterations,
+		    final int theClassCount, final int theNodeCount, final double theCostBefore,
+		    final double theCostAfter, final long theElapsedNanos) {
+			myTree = theTree;
+			myStop = theStop;
+			myIterations = theIterations;
+			myClassCount = theClassCount;
+			myNodeCount = theNodeCount;
+			myCostBefore = theCostBefore;
+			myCostAfter = theCostAfter;
+			myElapsedNanos = theElapsedNanos;
+		}
+
+		/**
+		 * Returns the cheapest expression found.
+		 *
+		 * @return a binary tree node representing the cheapest expression found
+		 */
+		public BinaryTreeNode<String> getTree() {
+			return myTree;
+		}
+
+		/**
+		 * Returns the reason saturation stopped.
+		 *
+		 * @return the reason saturation stopped
+		 */
+		public Stop getStop() {
+			return myStop;
+		}
+
+		/**
+		 * Returns the number of rounds of rewrites.
+		 *
+		 * @return the number of rounds of rewrites
+		 */
+		public int getIterations() {
+			return myIterations;
+		}
+
+		/**
+		 * Returns the number of classes of the final e-graph.
+		 *
+		 * @return the number of classes of the final e-graph
+		 */
+		public int getClassCount() {
+			return myClassCount;
+		}
+
+		/**
+		 * Returns the number of distinct nodes of the final e-graph.
+		 *
+		 * @return the number of distinct nodes of the final e-graph
+		 */
+		public int getNodeCount() {
+			return myNodeCount;
+		}
+
+		/**
+		 * Returns the cost of the expression before saturation, with its coefficients written
+		 * as multiplications.
+		 *
+		 * @return the cost of the expression before saturation
+		 */
+		public double getCostBefore() {
+			return myCostBefore;
+		}
+
+		/**
+		 * Returns the cost of the cheapest expression found.
+		 *
+		 * @return the cost of the cheapest expression found
+		 */
+		public double getCostAfter() {
+			return myCostAfter;
+		}
+
+		/**
+		 * Returns the time taken by the simplification, in nanoseconds.
+		 *
+		 * @return the time taken, in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return myElapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return myStop + " after " + myIterations + " rounds with " + myNodeCount +
+			    " nodes, cost " + myCostBefore + " to " + myCostAfter;
+		}
+	}
+
+}
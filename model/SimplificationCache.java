@@ -0,0 +1,451 @@
+/**
+ * SimplificationCache - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import structures.BinaryTreeNode;
+
+/**
+ * SimplificationCache is a bounded memo of the Simplifier's single pass, from a subtree to its
+ * simplified form, which can be shared by every thread simplifying expressions. Subtrees are
+ * looked up by their structure, so the same fragments arriving in different requests, such as
+ * the derivative of sin(x) or the output of the power rule, are simplified once.
+ *
+ * The entries are split across a fixed number of stripes by the hash of their subtree, and
+ * each stripe is a least recently used map guarded by its own lock, so threads working on
+ * different subtrees rarely contend. Every stripe holds an equal share of the memory ceiling,
+ * estimated from the number of nodes of the cached subtrees, and evicts its least recently
+ * used entries once its share is exceeded. The hits, misses and evictions are counted without
+ * locking.
+ *
+ * The simplified subtrees are shared by every caller which looks them up and must not be
+ * modified. An entry cached under one mode of Constant is not used under another.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public final class SimplificationCache {
+
+	/** The default memory ceiling of a cache, in bytes. */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	/** The default number of stripes of a cache. */
+	public static final int DEFAULT_STRIPES = 16;
+
+	/** The estimated number of bytes used by a single cached node, key and value alike. */
+	private static final long NODE_BYTES = 64;
+
+	/** The cache used by every call to the Simplifier, or null when none is installed. */
+	private static volatile SimplificationCache myShared;
+
+	/** The stripes of this cache. */
+	private final Stripe[] myStripes;
+
+	/** The memory ceiling of a single stripe, in bytes. */
+	private final long myStripeMaxBytes;
+
+	/** The number of lookups which found their entry. */
+	private final LongAdder myHits = new LongAdder();
+
+	/** The number of lookups which did not find their entry. */
+	private final LongAdder myMisses = new LongAdder();
+
+	/** The number of entries evicted to stay within the memory ceiling. */
+	private final LongAdder myEvictions = new LongAdder();
+
+	/**
+	 * Creates an empty cache with the default memory ceiling and number of stripes.
+	 */
+	public SimplificationCache() {
+		this(DEFAULT_MAX_BYTES, DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Creates an empty cache with the specified memory ceiling and number of stripes.
+	 *
+	 * @param theMaxBytes	the estimated number of bytes the entries may use
+	 * @param theStripes	the number of independently locked stripes
+	 * @throws IllegalArgumentException if the ceiling or the number of stripes is not positive
+	 */
+	public SimplificationCache(final long theMaxBytes, final int theStripes) {
+		if (theMaxBytes <= 0 || theStripes <= 0) {
+			throw new IllegalArgumentException("the memory ceiling and the number of stripes "
+			    + "must be positive");
+		}
+		myStripes = new Stripe[theStripes];
+		for (int i = 0; i < theStripes; i++) {
+			myStripes[i] = new Stripe();
+		}
+		myStripeMaxBytes = Math.max(1, theMaxBytes / theStripes);
+	}
+
+	/**
+	 * Installs the specified cache for every subsequent call to the Simplifier, on every
+	 * thread. A null cache removes the installed one.
+	 *
+	 * @param theCache the cache being installed, or null
+	 */
+	public static void setShared(final SimplificationCache theCache) {
+		myShared = theCache;
+	}
+
+	/**
+	 * Returns the cache used by every call to the Simplifier.
+	 *
+	 * @return the installed cache, or null if none is installed
+	 */
+	public static SimplificationCache getShared() {
+		return myShared;
+	}
+
+	/**
+	 * Returns a binary tree node representing the specified root's equivalent expression
+	 * after the Simplifier's single pass, reusing the simplified form of every subtree found
+	 * in this cache and adding the others. Every distinct node is visited once.
+	 *
+	 * @param theRoot the root node representing the expression being simplified
+	 * @return a binary tree node representing the simplified expression
+	 */
+	public BinaryTreeNode<String> simplify(final BinaryTreeNode<String> theRoot) {
+		final Map<BinaryTreeNode<String>, Entry> simplified = new IdentityHashMap<>();
+		return simplify(theRoot, Constant.getMode(), simplified).myValue;
+	}
+
+	/**
+	 * Returns the entry of the specified root, from the bottom up: the children are looked up
+	 * or simplified first, so the key of the root refers to the keys already held by this
+	 * cache and is compared against them without descending into the children.
+	 *
+	 * @param theRoot		the root node representing the expression being simplified
+	 * @param theMode		the mode of Constant the expression is simplified under
+	 * @param theSimplified	the entry of every already simplified node, by node identity
+	 * @return the entry holding the key and the simplified form of the root
+	 */
+	private Entry simplify(final BinaryTreeNode<String> theRoot, final Constant.Mode theMode,
+	    final Map<BinaryTreeNode<String>, Entry> theSimplified) {
+		Entry result = theSimplified.get(theRoot);
+		if (result == null) {
+			ResourceGovernor.checkpoint();
+			if (theRoot.getLeft() == null) {
+				result = new Entry(new Key(theRoot.getElement(), null, null),
+				    Simplifier.simplifyStep(theRoot, null, null), theMode, 0);
+			} else {
+				final Entry left = simplify(theRoot.getLeft(), theMode, theSimplified);
+				final Entry right = theRoot.getRight() == null ? null :
+				    simplify(theRoot.getRight(), theMode, theSimplified);
+				final Key key = new Key(theRoot.getElement(), left.myKey,
+				    right == null ? null : right.myKey);
+				result = get(key, theMode);
+				if (result == null) {
+					result = put(key, theMode, Simplifier.simplifyStep(theRoot, left.myValue,
+					    right == null ? null : right.myValue));
+				}
+			}
+			theSimplified.put(theRoot, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the entry cached under the specified key and mode, counting the lookup as a hit
+	 * or a miss.
+	 *
+	 * @param theKey	the key of the subtree
+	 * @param theMode	the mode of Constant the subtree is simplified under
+	 * @return the cached entry, or null if there is none
+	 */
+	private Entry get(final Key theKey, final Constant.Mode theMode) {
+		final Stripe stripe = stripe(theKey);
+		Entry result = null;
+		synchronized (stripe) {
+			result = stripe.myEntries.get(theKey);
+		}
+		if (result != null && result.myMode == theMode) {
+			myHits.increment();
+		} else {
+			result = null;
+			myMisses.increment();
+		}
+		return result;
+	}
+
+	/**
+	 * Caches the specified simplified subtree under the specified key and mode, evicting the
+	 * least recently used entries of its stripe while the stripe is over its memory ceiling.
+	 * An entry larger than the whole ceiling of its stripe is not cached.
+	 *
+	 * @param theKey	the key of the subtree
+	 * @param theMode	the mode of Constant the subtree is simplified under
+	 * @param theValue	the simplified subtree
+	 * @return the entry of the subtree
+	 */
+	private Entry put(final Key theKey, final Constant.Mode theMode,
+	    final BinaryTreeNode<String> theValue) {
+		final long bytes =
+		    estimateBytes(theKey.myNodeCount, LetProgram.countTreeNodes(theValue));
+		final Entry result = new Entry(theKey, theValue, theMode, bytes);
+		if (bytes <= myStripeMaxBytes) {
+			final Stripe stripe = stripe(theKey);
+			synchronized (stripe) {
+				final Entry previous = stripe.myEntries.put(theKey, result);
+				if (previous != null) {
+					stripe.myBytes -= previous.myBytes;
+				}
+				stripe.myBytes += bytes;
+				final Iterator<Entry> eldest = stripe.myEntries.values().iterator();
+				while (stripe.myBytes > myStripeMaxBytes) {
+					stripe.myBytes -= eldest.next().myBytes;
+					eldest.remove();
+					myEvictions.increment();
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the estimated number of bytes used by an entry with the specified numbers of
+	 * key and value nodes, saturating at the largest estimate which fits in a long.
+	 *
+	 * @param theKeyNodes	the number of nodes of the key
+	 * @param theValueNodes	the number of nodes of the value as a tree
+	 * @return the estimated number of bytes used by the entry
+	 */
+	private static long estimateBytes(final long theKeyNodes, final long theValueNodes) {
+		final long limit = Long.MAX_VALUE / NODE_BYTES;
+		return NODE_BYTES * (theKeyNodes + Math.min(theValueNodes, limit - theKeyNodes));
+	}
+
+	/**
+	 * Returns the stripe holding the entry of the specified key.
+	 *
+	 * @param theKey the key of the entry
+	 * @return the stripe of the key
+	 */
+	private Stripe stripe(final Key theKey) {
+		final int hash = theKey.myHash ^ (theKey.myHash >>> 16);
+		return myStripes[Math.floorMod(hash, myStripes.length)];
+	}
+
+	/**
+	 * Removes every entry of this cache. The hit, miss and eviction counts are kept.
+	 */
+	public void clear() {
+		for (Stripe stripe : myStripes) {
+			synchronized (stripe) {
+				stripe.myEntries.clear();
+				stripe.myBytes = 0;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of entries of this cache.
+	 *
+	 * @return the number of entries of this cache
+	 */
+	public int size() {
+		int result = 0;
+		for (Stripe stripe : myStripes) {
+			synchronized (stripe) {
+				result += stripe.myEntries.size();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the estimated number of bytes used by the entries of this cache.
+	 *
+	 * @return the estimated number of bytes used by the entries
+	 */
+	public long getBytes() {
+		long result = 0;
+		for (Stripe stripe : myStripes) {
+			synchronized (stripe) {
+				result += stripe.myBytes;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of lookups which found their entry.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return myHits.sum();
+	}
+
+	/**
+	 * Returns the number of lookups which did not find their entry.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return myMisses.sum();
+	}
+
+	/**
+	 * Returns the number of entries evicted to stay within the memory ceiling.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return myEvictions.sum();
+	}
+
+	/**
+	 * Returns the fraction of the lookups which found their entry, or zero if there have been
+	 * no lookups.
+	 *
+	 * @return the hit rate of this cache
+	 */
+	public double getHitRate() {
+		final long hits = getHits();
+		final long lookups = hits + getMisses();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * Returns the statistics of this cache as a String.
+	 *
+	 * @return the statistics of this cache as a String
+	 */
+	@Override
+	public String toString() {
+		return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d entries=%d bytes=%d",
+		    getHits(), getMisses(), getHitRate(), getEvictions(), size(), getBytes());
+	}
+
+	// INNER CLASS KEY
+
+	/**
+	 * Inner class to represent the structure of a subtree, equal to the key of every other
+	 * subtree with the same elements in the same places.
+	 */
+	private static final class Key {
+
+		/** The element of the subtree's root. */
+		private final String myElement;
+
+		/** The key of the left child, or null. */
+		private final Key myLeft;
+
+		/** The key of the right child, or null. */
+		private final Key myRight;
+
+		/** The number of nodes of the subtree as a tree, saturating at the largest int. */
+		private final long myNodeCount;
+
+		/** The precomputed structural hash code of the subtree. */
+		private final int myHash;
+
+		/**
+		 * Sets up the key of a subtree with the specified root element and child keys.
+		 *
+		 * @param theElement	the element of the subtree's root
+		 * @param theLeft		the key of the left child, or null
+		 * @param theRight		the key of the right child, or null
+		 */
+		Key(final String theElement, final Key theLeft, final Key theRight) {
+			myElement = theElement;
+			myLeft = theLeft;
+			myRight = theRight;
+			final long count = 1 + (theLeft == null ? 0 : theLeft.myNodeCount) +
+			    (theRight == null ? 0 : theRight.myNodeCount);
+			myNodeCount = Math.min(count, Integer.MAX_VALUE);
+			myHash = 31 * (31 * theElement.hashCode() + (theLeft == null ? 0 : theLeft.myHash)) +
+			    (theRight == null ? 0 : theRight.myHash);
+		}
+
+		@Override
+		public boolean equals(final Object theOther) {
+			boolean result = this == theOther;
+			if (!result && theOther instanceof Key) {
+				final Key other = (Key) theOther;
+				result = myHash == other.myHash && myNodeCount == other.myNodeCount &&
+				    myElement.equals(other.myElement) && equal(myLeft, other.myLeft) &&
+				    equal(myRight, other.myRight);
+			}
+			return result;
+		}
+
+		/**
+		 * Returns true if the specified keys are both null or equal.
+		 *
+		 * @param theFirst	the first key, or null
+		 * @param theSecond	the second key, or null
+		 * @return true if the keys are equal; otherwise false
+		 */
+		private static boolean equal(final Key theFirst, final Key theSecond) {
+			return theFirst == theSecond || theFirst != null && theFirst.equals(theSecond);
+		}
+
+		@Override
+		public int hashCode() {
+			return myHash;
+		}
+	}
+
+	// INNER CLASS ENTRY
+
+	/**
+	 * Inner class to represent a cached simplified subtree with its key, the mode it was
+	 * simplified under and its estimated size.
+	 */
+	private static final class Entry {
+
+		/** The key of the subtree. */
+		private final Key myKey;
+
+		/** The simplified subtree. */
+		private final BinaryTreeNode<String> myValue;
+
+		/** The mode of Constant the subtree was simplified under. */
+		private final Constant.Mode myMode;
+
+		/** The estimated number of bytes used by the entry. */
+		private final long myBytes;
+
+		/**
+		 * Sets up an entry with the specified key, simplified subtree, mode and size.
+		 *
+		 * @param theKey	the key of the subtree
+		 * @param theValue	the simplified subtree
+		 * @param theMode	the mode of Constant the subtree was simplified under
+		 * @param theBytes	the estimated number of bytes used by the entry
+		 */
+		Entry(final Key theKey, final BinaryTreeNode<String> theValue,
+		    final Constant.Mode theMode, final long theBytes) {
+			myKey = theKey;
+			myValue = theValue;
+			myMode = theMode;
+			myBytes = theBytes;
+		}
+	}
+
+	// INNER CLASS STRIPE
+
+	/**
+	 * Inner class to represent an independently locked part of the cache, holding its entries
+	 * from the least to the most recently used.
+	 */
+	private static final class Stripe {
+
+		/** The entries of the stripe, in access order. */
+		private final LinkedHashMap<Key, Entry> myEntries =
+		    new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+		/** The estimated number of bytes used by the entries of the stripe. */
+		private long myBytes;
+	}
+
+}
@@ -4,17 +4,67 @@
 
 package model;
 
+import java.util.concurrent.atomic.LongAdder;
 import structures.BinaryTreeNode;
 
 /**
  * Simplifier traverses through a binary tree representing a mathematical expression and
- * simplifies the expression to its fullest extent.
+ * simplifies the expression to its fullest extent. Every rule which fires is counted by the
+ * RuleProfiler.
  *
  * @author Jacob Klymenko
- * @version 2.1
+ * @version 3.1
  */
 public class Simplifier {
 
+	/** The counter of constants folded on both sides of an operator. */
+	private static final LongAdder FOLD_CONSTANTS = counter("fold-constants");
+
+	/** The counter of terms cancelling each other out to zero. */
+	private static final LongAdder CANCEL_TO_ZERO = counter("cancel-to-zero");
+
+	/** The counter of like terms added or subtracted. */
+	private static final LongAdder COMBINE_LIKE_TERMS = counter("combine-like-terms");
+
+	/** The counter of terms divided by themselves. */
+	private static final LongAdder DIVIDE_SAME = counter("divide-same");
+
+	/** The counter of terms divided by a coefficient. */
+	private static final LongAdder DIVIDE_COEFFICIENT = counter("divide-coefficient");
+
+	/** The counter of like terms multiplied into a square. */
+	private static final LongAdder MULTIPLY_SAME = counter("multiply-same");
+
+	/** The counter of terms multiplied by a coefficient. */
+	private static final LongAdder MULTIPLY_COEFFICIENT = counter("multiply-coefficient");
+
+	/** The counter of functions multiplied by zero. */
+	private static final LongAdder FUNCTION_MULTIPLY_ZERO = counter("function-multiply-zero");
+
+	/** The counter of functions multiplied by one. */
+	private static final LongAdder FUNCTION_MULTIPLY_ONE = counter("function-multiply-one");
+
+	/** The counter of functions multiplied by a constant and/or variable. */
+	private static final LongAdder FUNCTION_COEFFICIENT = counter("function-coefficient");
+
+	/** The counter of zero divided by a function. */
+	private static final LongAdder FUNCTION_DIVIDE_ZERO = counter("function-divide-zero");
+
+	/** The counter of functions divided by one. */
+	private static final LongAdder FUNCTION_DIVIDE_ONE = counter("function-divide-one");
+
+	/** The counter of zero added to a function. */
+	private static final LongAdder FUNCTION_ADD_ZERO = counter("function-add-zero");
+
+	/** The counter of zero subtracted from a function. */
+	private static final LongAdder FUNCTION_SUBTRACT_ZERO = counter("function-subtract-zero");
+
+	/** The counter of zero or one raised to a function. */
+	private static final LongAdder FUNCTION_POWER_BASE = counter("function-power-base");
+
+	/** The counter of functions raised to zero or one. */
+	private static final LongAdder FUNCTION_POWER_EXPONENT = counter("function-power-exponent");
+
 	/** A private constructor to inhibit external instantiation. */
 	private Simplifier() {
 		// do nothing
@@ -22,23 +72,52 @@ public class Simplifier {
 
 	/**
 	 * Returns a binary tree node representing the most simplified form, of the mathematical
-	 * expression from the specified root, possible by this Simplifier.
+	 * expression from the specified root, possible by this Simplifier. The shared
+	 * SimplificationCache, when one is installed, is used for the subtrees it already holds.
 	 *
 	 * @param theRoot the root node representing the expression segment being simplified
 	 * @return a binary tree node representing the simplified expression of the specified root
 	 */
 	public static BinaryTreeNode<String> simplify(final BinaryTreeNode<String> theRoot) {
-		BinaryTreeNode<String> leftNode = null;
-		BinaryTreeNode<String> rightNode = null;
+		final SimplificationCache cache = SimplificationCache.getShared();
+		BinaryTreeNode<String> simpExp = null;
+		if (cache != null) {
+			simpExp = cache.simplify(theRoot);
+		} else {
+			ResourceGovernor.checkpoint();
+			BinaryTreeNode<String> leftNode = null;
+			BinaryTreeNode<String> rightNode = null;
+			if (theRoot.getLeft() != null) {
+				leftNode = simplify(theRoot.getLeft());
+			}
+			if (theRoot.getRight() != null) {
+				rightNode = simplify(theRoot.getRight());
+			}
+			simpExp = simplifyStep(theRoot, leftNode, rightNode);
+		}
+
+		return simpExp;
+	}
+
+	/**
+	 * Returns a binary tree node representing the simplified form of the specified root,
+	 * given its children already simplified. This is the work this Simplifier does at a
+	 * single node, shared with the SimplificationCache.
+	 *
+	 * @param theRoot	the root node representing the expression segment being simplified
+	 * @param theLeft	the simplified left child of the root, or null
+	 * @param theRight	the simplified right child of the root, or null
+	 * @return a binary tree node representing the simplified expression of the specified root
+	 */
+	static BinaryTreeNode<String> simplifyStep(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theLeft, final BinaryTreeNode<String> theRight) {
 		BinaryTreeNode<String> simpExp = null;
 
 		final String rootElem = theRoot.getElement();
 		if (Differentiator.isOperator(rootElem)) {
-			leftNode = simplify(theRoot.getLeft());
-			rightNode = simplify(theRoot.getRight());
-			simpExp = simplifyOperator(new BinaryTreeNode<String>(rootElem, leftNode, rightNode));
+			simpExp = simplifyOperator(new BinaryTreeNode<String>(rootElem, theLeft, theRight));
 		} else if (ExpressionParser.isFunction(rootElem)) {
-			simpExp = new BinaryTreeNode<String>(rootElem, simplify(theRoot.getLeft()), null);
+			simpExp = new BinaryTreeNode<String>(rootElem, theLeft, null);
 		} else { // constant and/or variable
 			simpExp = theRoot;
 		}
@@ -46,6 +125,26 @@ public class Simplifier {
 		return simpExp;
 	}
 
+	/**
+	 * Returns a binary tree node representing the simplified form of the mathematical
+	 * expression from the specified root, put in canonical order by the Canonicalizer and with
+	 * the rewrite rules of the RewriteEngine applied to a fixed point before and after this
+	 * Simplifier's single pass. The rewrites remove the identities and constants nested inside
+	 * operators, which this Simplifier leaves in place. The constants and like terms of whole
+	 * sum and product chains are then collected by NaryNode, and those of every polynomial
+	 * subtree by Polynomial.
+	 *
+	 * @param theRoot the root node representing the expression segment being simplified
+	 * @return a binary tree node representing the simplified expression of the specified root
+	 */
+	public static BinaryTreeNode<String> simplifyFully(final BinaryTreeNode<String> theRoot) {
+		final BinaryTreeNode<String> canonical = Canonicalizer.canonicalize(theRoot);
+		final BinaryTreeNode<String> rewritten =
+		    RewriteEngine.rewrite(simplify(RewriteEngine.rewrite(canonical)));
+		return RewriteEngine.rewrite(Polynomial.collect(RewriteEngine.rewrite(
+		    NaryNode.collect(rewritten))));
+	}
+
 	/**
 	 * Returns a binary tree node representing a simplified form of the mathematical
 	 * expression of the specified root's equivalent expression. The specified root contains
@@ -63,66 +162,72 @@ public class Simplifier {
 			return simplifyOpWithFunc(theRoot);
 		}
 
-		// if condition stands, no further simplifying is possible by this Simplifier
+		// if condition stands, no further simplifying is possible by this Simplifier, other
+		// than folding the quotients of constants it leaves, such as "1 / 3"
 		if (Differentiator.isOperator(leftElem) || Differentiator.isOperator(rightElem)) {
-			return theRoot;
+			return foldQuotients(theRoot);
 		}
 
 		// necessary components to simplify the shallow tree root
 		final String leftVar = theRoot.getLeft().getElement().replaceAll("[^a-zA-Z]", "");
 		final String rightVar = theRoot.getRight().getElement().replaceAll("[^a-zA-Z]", "");
-		String leftNumStr = theRoot.getLeft().getElement().replaceAll("[^0-9.]", "");
-		String rightNumStr = theRoot.getRight().getElement().replaceAll("[^0-9.]", "");
-		if (leftNumStr.isEmpty()) {
-			leftNumStr = "1";
-		}
-		if (rightNumStr.isEmpty()) {
-			rightNumStr = "1";
-		}
+		final Constant leftNum = coefficient(theRoot.getLeft().getElement());
+		final Constant rightNum = coefficient(theRoot.getRight().getElement());
 		final String operator = theRoot.getElement();
-		final Double numResult = applyOperator(operator, Double.parseDouble(leftNumStr),
-		    Double.parseDouble(rightNumStr));
-		final String strResult = String.valueOf(numResult);
+		final Constant numResult = applyOperator(operator, leftNum, rightNum);
 		BinaryTreeNode<String> simpExp = theRoot;
+		// a zero sum or difference of coefficients only cancels when both sides share variables
+		final boolean isZero = numResult.isZero() && (leftVar.equals(rightVar) ||
+		    !(operator.equals("-") || operator.equals("+")));
 		// main portion of simplifying
 		// if (result is zero or both are constants) and not an exponent and not a minus
-		if (numResult == 0.0 || (leftVar.isEmpty() && rightVar.isEmpty())) {
+		if (isZero || (leftVar.isEmpty() && rightVar.isEmpty())) {
 			if (!operator.equals("^") || !operator.equals("-")) {
-				simpExp = new BinaryTreeNode<String>(strResult);
+				simpExp = numResult.toNode();
+				RuleProfiler.count(leftVar.isEmpty() && rightVar.isEmpty() ? FOLD_CONSTANTS :
+				    CANCEL_TO_ZERO);
 			}
 		} else if (operator.equals("-") || operator.equals("+")) {
 			if (leftVar.equals(rightVar) && !leftVar.isEmpty()) { // both have same vars
-				simpExp = new BinaryTreeNode<String>(strResult + leftVar);
+				simpExp = new BinaryTreeNode<String>(term(numResult, leftVar));
+				RuleProfiler.count(COMBINE_LIKE_TERMS);
 			}
 		} else if (operator.equals("/")) {
 			// both have same vars or only left has var
 			if ((leftVar.equals(rightVar) || rightVar.isEmpty()) && !leftVar.isEmpty()) {
-				if (numResult == 1.0 && !rightVar.isEmpty()) {
-					simpExp = new BinaryTreeNode<String>("1.0");
-				} else {
+				if (numResult.isOne() && !rightVar.isEmpty()) {
+					simpExp = new BinaryTreeNode<String>("1");
+					RuleProfiler.count(DIVIDE_SAME);
+				} else if (numResult.isTerminating()) { // a fraction such as x / 3 is kept
 					final BinaryTreeNode<String> leftNode =
-					    new BinaryTreeNode<String>(leftNumStr);
+					    new BinaryTreeNode<String>(leftNum.toString());
 					final BinaryTreeNode<String> rightNode =
-					    new BinaryTreeNode<String>(rightNumStr);
+					    new BinaryTreeNode<String>(rightNum.toString());
 					final BinaryTreeNode<String> divide =
 					    new BinaryTreeNode<String>("/", leftNode, rightNode);
 					final BinaryTreeNode<String> var = new BinaryTreeNode<String>(leftVar);
 					// simpExp = new BinaryTreeNode<String>("*", divide, var);
 					simpExp = simplify(new BinaryTreeNode<String>("*", divide, var));
+					RuleProfiler.count(DIVIDE_COEFFICIENT);
 				}
 			}
 		} else if (operator.equals("*")) {
 			if (leftVar.equals(rightVar) && !leftVar.isEmpty()) { // both have same vars
-				final BinaryTreeNode<String> base =
-				    new BinaryTreeNode<String>(strResult + leftVar);
+				final BinaryTreeNode<String> base = new BinaryTreeNode<String>(leftVar);
 				final BinaryTreeNode<String> two = new BinaryTreeNode<String>("2");
 				simpExp = new BinaryTreeNode<String>("^", base, two);
+				if (!numResult.isOne()) { // the coefficient multiplies the square, c * (v ^ 2)
+					simpExp = new BinaryTreeNode<String>("*", numResult.toNode(), simpExp);
+				}
+				RuleProfiler.count(MULTIPLY_SAME);
 			} else { // one side has a variable
 				if (leftVar.isEmpty()) {
-					simpExp = new BinaryTreeNode<String>(strResult + rightVar);
+					simpExp = new BinaryTreeNode<String>(term(numResult, rightVar));
+					RuleProfiler.count(MULTIPLY_COEFFICIENT);
 				}
 				if (rightVar.isEmpty()) {
-					simpExp = new BinaryTreeNode<String>(strResult + leftVar);
+					simpExp = new BinaryTreeNode<String>(term(numResult, leftVar));
+					RuleProfiler.count(MULTIPLY_COEFFICIENT);
 				}
 			}
 		}
@@ -130,32 +235,92 @@ public class Simplifier {
 	}
 
 	/**
-	 * Return a Double value which occurs when applying the specified mathematical operator on
-	 * the specified operands, respecting associativity rules.
+	 * Returns the constant folded from the specified root if both its children are constants,
+	 * at least one of them the quotient of two constants, such as "(1 / 3) * 3"; otherwise
+	 * the root itself.
+	 *
+	 * @param theRoot the root node with an operator child
+	 * @return a binary tree node representing the folded constant, or the root
+	 */
+	private static BinaryTreeNode<String> foldQuotients(final BinaryTreeNode<String> theRoot) {
+		BinaryTreeNode<String> simpExp = theRoot;
+		final Constant leftNum = Constant.valueOf(theRoot.getLeft());
+		final Constant rightNum = Constant.valueOf(theRoot.getRight());
+		if (leftNum != null && rightNum != null) {
+			simpExp = applyOperator(theRoot.getElement(), leftNum, rightNum).toNode();
+			RuleProfiler.count(FOLD_CONSTANTS);
+		}
+		return simpExp;
+	}
+
+	/**
+	 * Returns the counter of the Simplifier rule with the specified name.
+	 *
+	 * @param theName the name of the rule
+	 * @return the counter of the rule
+	 */
+	private static LongAdder counter(final String theName) {
+		return RuleProfiler.counter("simplifier." + theName);
+	}
+
+	/**
+	 * Returns the numeric coefficient of the specified leaf, such as "-2.5" in "-2.5x", or
+	 * the leaf itself if it is a number. A missing coefficient is one.
+	 *
+	 * @param theLeaf the leaf holding a constant and/or variable
+	 * @return the numeric coefficient of the leaf
+	 */
+	private static Constant coefficient(final String theLeaf) {
+		return Constant.valueOf(ExpressionParser.isNumber(theLeaf) ? theLeaf :
+		    ExpressionParser.getCoefficient(theLeaf));
+	}
+
+	/**
+	 * Returns the leaf of the specified coefficient prefixed to the specified variable, such as
+	 * "2x", leaving out a coefficient of one.
+	 *
+	 * @param theCoefficient	the coefficient of the variable
+	 * @param theVariable		the variable, or an empty String for a constant
+	 * @return the leaf of the coefficient and variable
+	 */
+	private static String term(final Constant theCoefficient, final String theVariable) {
+		String result = theCoefficient + theVariable;
+		if (!theVariable.isEmpty() && theCoefficient.isOne()) {
+			result = theVariable;
+		} else if (!theVariable.isEmpty() && theCoefficient.negate().isOne()) {
+			result = "-" + theVariable;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the constant which occurs when applying the specified mathematical operator on
+	 * the specified operands, respecting associativity rules. The constant is exact unless
+	 * an operand is inexact or the result cannot be represented exactly.
 	 *
 	 * @param theOperator		the mathematical operator represented as a String
-	 * @param theLeftOperand	the left operand represented as a Double
-	 * @param theRightOperand	the right operand represented as a Double
-	 * @return
+	 * @param theLeftOperand	the left operand
+	 * @param theRightOperand	the right operand
+	 * @return the constant resulting from the operator applied to the operands
 	 */
-	private static Double applyOperator(final String theOperator, final Double theLeftOperand,
-	    final Double theRightOperand) {
-		Double result = 0.0;
+	private static Constant applyOperator(final String theOperator,
+	    final Constant theLeftOperand, final Constant theRightOperand) {
+		Constant result = Constant.valueOf(0);
 		switch (theOperator) {
 			case "-":
-				result = theLeftOperand - theRightOperand;
+				result = theLeftOperand.subtract(theRightOperand);
 				break;
 			case "+":
-				result = theLeftOperand + theRightOperand;
+				result = theLeftOperand.add(theRightOperand);
 				break;
 			case "/":
-				result = theLeftOperand / theRightOperand;
+				result = theLeftOperand.divide(theRightOperand);
 				break;
 			case "*":
-				result = theLeftOperand * theRightOperand;
+				result = theLeftOperand.multiply(theRightOperand);
 				break;
 			case "^":
-				result = Math.pow(theLeftOperand, theRightOperand);
+				result = theLeftOperand.pow(theRightOperand);
 				break;
 		}
 		return result;
@@ -173,8 +338,17 @@ public class Simplifier {
 	private static BinaryTreeNode<String> simplifyOpWithFunc(final BinaryTreeNode<String> theRoot) {
 		BinaryTreeNode<String> simpExp = theRoot;
 		final String operator = theRoot.getElement();
-		final String leftElem = theRoot.getLeft().getElement();
-		final String rightElem = theRoot.getRight().getElement();
+		BinaryTreeNode<String> left = theRoot.getLeft();
+		BinaryTreeNode<String> right = theRoot.getRight();
+		// the operands of a commutative operator are taken in canonical order, so a constant
+		// and/or variable operand of one is always on the left
+		if (Canonicalizer.isCommutative(operator) &&
+		    Canonicalizer.rank(left) > Canonicalizer.rank(right)) {
+			left = theRoot.getRight();
+			right = theRoot.getLeft();
+		}
+		final String leftElem = left.getElement();
+		final String rightElem = right.getElement();
 		boolean isLeftFunc = ExpressionParser.isFunction(leftElem);
 		boolean isRightFunc = ExpressionParser.isFunction(rightElem);
 		boolean isLeftOp = Differentiator.isOperator(leftElem);
@@ -188,74 +362,68 @@ public class Simplifier {
 			// opposite must be a function
 			if (isLeftNumVar) { // left is constant and/or variable
 				if (!isLeftVar) {
-					final double leftNum = Double.parseDouble(leftElem);
-					if (leftNum == 0) {
+					final Constant leftNum = Constant.valueOf(leftElem);
+					if (leftNum.isZero()) {
 						simpExp = new BinaryTreeNode<String>("0");
-					} else if (leftNum == 1) {
-						simpExp = simplify(theRoot.getRight());
+						RuleProfiler.count(FUNCTION_MULTIPLY_ZERO);
+					} else if (leftNum.isOne()) {
+						simpExp = simplify(right);
+						RuleProfiler.count(FUNCTION_MULTIPLY_ONE);
 					}
 				} else {
 					simpExp = new BinaryTreeNode<String>(leftElem + rightElem,
-					    simplify(theRoot.getRight().getLeft()), null);
-				}
-			} else if (isRightNumVar) { // right is constant and/or variable
-				if (!isRightVar) {
-					final double rightNum = Double.parseDouble(rightElem);
-					if (rightNum == 0) {
-						simpExp = new BinaryTreeNode<String>("0");
-					} else if (rightNum == 1) {
-						simpExp = simplify(theRoot.getLeft());
-					}
-				} else {
-					simpExp = new BinaryTreeNode<String>(rightElem + leftElem,
-					    simplify(theRoot.getLeft().getLeft()), null);
+					    simplify(right.getLeft()), null);
+					RuleProfiler.count(FUNCTION_COEFFICIENT);
 				}
 			}
 		} else if (operator.equals("/")) {
 			if (isLeftNumVar && !isLeftVar) { // left is a constant
-				final double leftNum = Double.parseDouble(leftElem);
-				if (leftNum == 0) {
+				final Constant leftNum = Constant.valueOf(leftElem);
+				if (leftNum.isZero()) {
 					simpExp = new BinaryTreeNode<String>("0");
+					RuleProfiler.count(FUNCTION_DIVIDE_ZERO);
 				}
 			} else if (isRightNumVar && !isRightVar) { // right is a constant
-				final double rightNum = Double.parseDouble(rightElem);
-				if (rightNum == 1) {
-					simpExp = simplify(theRoot.getLeft());
+				final Constant rightNum = Constant.valueOf(rightElem);
+				if (rightNum.isOne()) {
+					simpExp = simplify(left);
+					RuleProfiler.count(FUNCTION_DIVIDE_ONE);
 				}
 			}
 		} else if (operator.equals("+")) {
 			if (isLeftNumVar && !isLeftVar) { // left is a constant
-				final double leftNum = Double.parseDouble(leftElem);
-				if (leftNum == 0) {
-					simpExp = simplify(theRoot.getRight());
-				}
-			} else if (isRightNumVar && !isRightVar) { // right is a constant
-				final double rightNum = Double.parseDouble(rightElem);
-				if (rightNum == 0) {
-					simpExp = simplify(theRoot.getLeft());
+				final Constant leftNum = Constant.valueOf(leftElem);
+				if (leftNum.isZero()) {
+					simpExp = simplify(right);
+					RuleProfiler.count(FUNCTION_ADD_ZERO);
 				}
 			}
 		} else if (operator.equals("-")) {
 			if (isRightNumVar && !isRightVar) { // right is a constant
-				final double rightNum = Double.parseDouble(rightElem);
-				if (rightNum == 0) {
-					simpExp = simplify(theRoot.getLeft());
+				final Constant rightNum = Constant.valueOf(rightElem);
+				if (rightNum.isZero()) {
+					simpExp = simplify(left);
+					RuleProfiler.count(FUNCTION_SUBTRACT_ZERO);
 				}
 			}
 		} else if (operator.equals("^")) {
 			if (isLeftNumVar && !isLeftVar) { // left is a constant
-				final double leftNum = Double.parseDouble(leftElem);
-				if (leftNum == 0) {
+				final Constant leftNum = Constant.valueOf(leftElem);
+				if (leftNum.isZero()) {
 					simpExp = new BinaryTreeNode<String>("0");
-				} else if (leftNum == 1) {
+					RuleProfiler.count(FUNCTION_POWER_BASE);
+				} else if (leftNum.isOne()) {
 					simpExp = new BinaryTreeNode<String>("1");
+					RuleProfiler.count(FUNCTION_POWER_BASE);
 				}
 			} else if (isRightNumVar && !isRightVar) { // right is a constant
-				final double rightNum = Double.parseDouble(rightElem);
-				if (rightNum == 0) {
+				final Constant rightNum = Constant.valueOf(rightElem);
+				if (rightNum.isZero()) {
 					simpExp = new BinaryTreeNode<String>("1");
-				} else if (rightNum == 1) {
-					simpExp = simplify(theRoot.getLeft());
+					RuleProfiler.count(FUNCTION_POWER_EXPONENT);
+				} else if (rightNum.isOne()) {
+					simpExp = simplify(left);
+					RuleProfiler.count(FUNCTION_POWER_EXPONENT);
 				}
 			}
 		}
@@ -0,0 +1,171 @@
+/**
+ * TaylorExpander - Derivatives Calculator
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import structures.BinaryTreeNode;
+
+/**
+ * TaylorExpander builds truncated Taylor polynomials of a symbolic mathematical expression with
+ * respect to one variable.
+ *
+ * The successive derivatives of the expression are taken with the Differentiator, and each one
+ * is simplified before the next one is taken to keep the growth of the expression bounded. The
+ * derivatives and their compiled evaluators are cached by this expander, so expanding the same
+ * expression around many points or to a higher order only derives what is missing.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public class TaylorExpander {
+
+	/** The variable of the expansion represented by a node. */
+	private final BinaryTreeNode<String> myVariable;
+
+	/** The variable of the expansion, as the only variable of the compiled derivatives. */
+	private final List<String> myVariables;
+
+	/** The simplified derivatives taken so far, where index k holds the k-th derivative. */
+	private final ArrayList<BinaryTreeNode<String>> myDerivatives;
+
+	/** The compiled derivatives taken so far, where index k holds the k-th derivative. */
+	private final ArrayList<ToDoubleFunction<double[]>> myCompiled;
+
+	/**
+	 * Creates an expander of the specified root's equivalent expression with respect to the
+	 * specified variable. Every other symbol in the expression must be Euler's number.
+	 *
+	 * @param theRoot		the root node representing the expression being expanded
+	 * @param theVariable	the variable of the expansion
+	 */
+	public TaylorExpander(final BinaryTreeNode<String> theRoot, final String theVariable) {
+		myVariable = new BinaryTreeNode<String>(theVariable);
+		myVariables = List.of(theVariable);
+		myDerivatives = new ArrayList<BinaryTreeNode<String>>();
+		myCompiled = new ArrayList<ToDoubleFunction<double[]>>();
+		myDerivatives.add(theRoot);
+		myCompiled.add(Evaluator.compile(theRoot, myVariables));
+	}
+
+	/**
+	 * Returns a binary tree node representing the Taylor polynomial of the specified order of
+	 * the specified root's equivalent expression around the specified point.
+	 *
+	 * @param theRoot		the root node representing the expression being expanded
+	 * @param theVariable	the variable of the expansion
+	 * @param thePoint		the point the expansion is centered on
+	 * @param theOrder		the highest power of the polynomial
+	 * @return a binary tree node representing the Taylor polynomial
+	 */
+	public static BinaryTreeNode<String> expand(final BinaryTreeNode<String> theRoot,
+	    final String theVariable, final double thePoint, final int theOrder) {
+		return new TaylorExpander(theRoot, theVariable).expand(thePoint, theOrder);
+	}
+
+	/**
+	 * Returns the simplified derivative of the specified order, taking and caching every
+	 * derivative up to that order which has not been taken yet.
+	 *
+	 * @param theOrder the order of the derivative
+	 * @return a binary tree node representing the simplified derivative
+	 */
+	public synchronized BinaryTreeNode<String> getDerivative(final int theOrder) {
+		while (myDerivatives.size() <= theOrder) {
+			final BinaryTreeNode<String> previous = myDerivatives.get(myDerivatives.size() - 1);
+			final BinaryTreeNode<String> derivative =
+			    Simplifier.simplify(Differentiator.derivePartial(previous, myVariable));
+			myDerivatives.add(derivative);
+			myCompiled.add(Evaluator.compile(derivative, myVariables));
+		}
+		return myDerivatives.get(theOrder);
+	}
+
+	/**
+	 * Returns the compiled derivative of the specified order, taking and caching every
+	 * derivative up to that order which has not been taken yet.
+	 *
+	 * @param theOrder the order of the derivative
+	 * @return a function evaluating the derivative at the value of the variable
+	 */
+	private synchronized ToDoubleFunction<double[]> getCompiled(final int theOrder) {
+		getDerivative(theOrder);
+		return myCompiled.get(theOrder);
+	}
+
+	/**
+	 * Returns the coefficients of the Taylor polynomial of the specified order around the
+	 * specified point, where index k holds the coefficient of the k-th power.
+	 *
+	 * @param thePoint	the point the expansion is centered on
+	 * @param theOrder	the highest power of the polynomial
+	 * @return the coefficients of the Taylor polynomial
+	 */
+	public double[] coefficients(final double thePoint, final int theOrder) {
+		final double[] point = {thePoint};
+		final double[] result = new double[theOrder + 1];
+		double factorial = 1;
+		for (int k = 0; k <= theOrder; k++) {
+			if (k > 0) {
+				factorial *= k;
+			}
+			result[k] = getCompiled(k).applyAsDouble(point) / factorial;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a binary tree node representing the Taylor polynomial of the specified order
+	 * around the specified point. Terms with a zero coefficient are left out.
+	 *
+	 * @param thePoint	the point the expansion is centered on
+	 * @param theOrder	the highest power of the polynomial
+	 * @return a binary tree node representing the Taylor polynomial
+	 */
+	public BinaryTreeNode<String> expand(final double thePoint, final int theOrder) {
+		final double[] coefficients = coefficients(thePoint, theOrder);
+		// (<variable> - <point>), or only the variable when expanding around zero
+		BinaryTreeNode<String> base = myVariable;
+		if (thePoint != 0) {
+			base = new BinaryTreeNode<String>("-", myVariable,
+			    new BinaryTreeNode<String>(toPlainString(thePoint)));
+		}
+		BinaryTreeNode<String> polynomial = null;
+		for (int k = 0; k < coefficients.length; k++) {
+			if (coefficients[k] != 0) {
+				BinaryTreeNode<String> term = null;
+				final BinaryTreeNode<String> coefficient =
+				    new BinaryTreeNode<String>(toPlainString(coefficients[k]));
+				if (k == 0) {
+					term = coefficient;
+				} else {
+					BinaryTreeNode<String> power = base;
+					if (k > 1) {
+						power = new BinaryTreeNode<String>("^", base,
+						    new BinaryTreeNode<String>(String.valueOf(k)));
+					}
+					term = coefficients[k] == 1 ? power :
+					    new BinaryTreeNode<String>("*", coefficient, power);
+				}
+				polynomial = polynomial == null ? term :
+				    new BinaryTreeNode<String>("+", polynomial, term);
+			}
+		}
+		return polynomial == null ? new BinaryTreeNode<String>("0") : polynomial;
+	}
+
+	/**
+	 * Returns the specified value as a String written by Constant, without a fraction if it is
+	 * an integer and without an exponent otherwise, so small coefficients are still parsed as
+	 * numbers.
+	 *
+	 * @param theValue the value being converted
+	 * @return the value as a String without an exponent
+	 */
+	private static String toPlainString(final double theValue) {
+		return Constant.valueOf(theValue).toString();
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * SparseSymmetricMatrix - Derivatives Calculator
+ */
+
+package structures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SparseSymmetricMatrix represents a square symmetric matrix storing only the non-null entries
+ * of its upper triangle. An entry at (i, j) is the same entry as the one at (j, i).
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ *
+ * @param <T> the generic type placeholder
+ */
+public class SparseSymmetricMatrix<T> {
+
+	/** The stored entries of each row of the upper triangle, by column. */
+	private final ArrayList<TreeMap<Integer, T>> myRows;
+
+	/** The number of stored entries in the upper triangle. */
+	private int myEntryCount;
+
+	/**
+	 * Creates an empty square symmetric matrix with the specified number of rows and columns.
+	 *
+	 * @param theSize the number of rows and columns of this matrix
+	 */
+	public SparseSymmetricMatrix(final int theSize) {
+		myRows = new ArrayList<TreeMap<Integer, T>>(theSize);
+		for (int i = 0; i < theSize; i++) {
+			myRows.add(new TreeMap<Integer, T>());
+		}
+		myEntryCount = 0;
+	}
+
+	/**
+	 * Returns the number of rows and columns of this matrix.
+	 *
+	 * @return the number of rows and columns of this matrix
+	 */
+	public int size() {
+		return myRows.size();
+	}
+
+	/**
+	 * Returns the number of stored entries in the upper triangle of this matrix.
+	 *
+	 * @return the number of stored entries in the upper triangle of this matrix
+	 */
+	public int entryCount() {
+		return myEntryCount;
+	}
+
+	/**
+	 * Returns the entry at the specified row and column, or null if none is stored.
+	 *
+	 * @param theRow	the row of the entry
+	 * @param theColumn	the column of the entry
+	 * @return the entry at the row and column, or null if none is stored
+	 */
+	public T get(final int theRow, final int theColumn) {
+		return myRows.get(Math.min(theRow, theColumn)).get(Math.max(theRow, theColumn));
+	}
+
+	/**
+	 * Sets the entry at the specified row and column, and therefore at the mirrored column and
+	 * row. A null entry removes the stored entry.
+	 *
+	 * @param theRow	the row of the entry
+	 * @param theColumn	the column of the entry
+	 * @param theEntry	the entry being stored
+	 */
+	public void set(final int theRow, final int theColumn, final T theEntry) {
+		final TreeMap<Integer, T> row = myRows.get(Math.min(theRow, theColumn));
+		final Integer column = Math.max(theRow, theColumn);
+		T previous = null;
+		if (theEntry == null) {
+			previous = row.remove(column);
+			if (previous != null) {
+				myEntryCount--;
+			}
+		} else {
+			previous = row.put(column, theEntry);
+			if (previous == null) {
+				myEntryCount++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the stored entries of the upper triangle in the specified row, by column. Every
+	 * column is greater than or equal to the row.
+	 *
+	 * @param theRow the row of the entries
+	 * @return an unmodifiable view of the stored entries in the row, by column
+	 */
+	public Map<Integer, T> getRow(final int theRow) {
+		return Collections.unmodifiableMap(myRows.get(theRow));
+	}
+
+}
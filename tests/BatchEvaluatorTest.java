@@ -0,0 +1,139 @@
+/**
+ * BatchEvaluatorTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.function.DoubleUnaryOperator;
+import model.BatchEvaluator;
+import model.Differentiator;
+import model.Evaluator;
+import model.Simplifier;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the BatchEvaluator class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+class BatchEvaluatorTest extends ExpressionFixture {
+
+	/** The number of values evaluated, neither a multiple of a tile nor of a vector. */
+	private static final int VALUES = 1283;
+
+	/**
+	 * Returns evenly spaced values from -2 to 2.
+	 *
+	 * @return the values
+	 */
+	private static double[] values() {
+		final double[] result = new double[VALUES];
+		for (int i = 0; i < VALUES; i++) {
+			result[i] = -2 + 4.0 * i / (VALUES - 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Asserts that the batch evaluator of the specified root's expression evaluates like the
+	 * Evaluator at every value, including to NaN outside the domain of a function.
+	 *
+	 * @param theRoot the root node of the expression being compiled
+	 */
+	private static void assertMatchesEvaluator(final BinaryTreeNode<String> theRoot) {
+		final DoubleUnaryOperator expected = Evaluator.compile(theRoot, "x");
+		final double[] values = values();
+		final double[] actual = BatchEvaluator.compile(theRoot, "x").evaluate(values);
+		for (int i = 0; i < VALUES; i++) {
+			final double value = expected.applyAsDouble(values[i]);
+			final String message = Differentiator.treeNodeToString(theRoot, 0) + " at " +
+			    values[i];
+			if (Double.isNaN(value)) {
+				assertTrue(Double.isNaN(actual[i]), message);
+			} else {
+				assertEquals(value, actual[i], 1e-9 * Math.max(1, Math.abs(value)), message);
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link model.BatchEvaluator#evaluate(double[])}.
+	 */
+	@Test
+	void testEvaluateOperatorsAndFunctions() {
+		final String[] expressions = {"(x * x) + 1", "(3x - 1) / (x ^ 2)", "x ^ 3", "x ^ -3",
+		    "x ^ 0", "(x + 5) ^ 0.5", "x ^ x", "abs(x - 1)", "sin(x) + cos(x)",
+		    "tan(x) * sec(x)", "csc(x) - cot(x)", "arcsin(x / 2) + arccos(x / 2)",
+		    "arctan(x) + arccot(x)", "arcsec(x + 3) + arccsc(x + 3)",
+		    "(ln(x + 3) + log(x + 3)) + log_10(x + 3)", "-sin(x)", "xcos(x)", "2.5x * e",
+		    "sin(2 - 1) + ((x * 0) + 3)", "5", "x"};
+		for (String expression : expressions) {
+			assertMatchesEvaluator(parse(expression));
+		}
+	}
+
+	/**
+	 * Test method for {@link model.BatchEvaluator#evaluate(double[])} on derivatives sharing
+	 * subtrees.
+	 */
+	@Test
+	void testEvaluateDerivatives() {
+		final String[] expressions = {"sin((x ^ 2) * 3)", "ln((x ^ 4) + (2 * x))",
+		    "arctan((x * x) + 1)", "cos((x ^ 3) / (x + 3))"};
+		for (String expression : expressions) {
+			final BinaryTreeNode<String> derivative =
+			    Differentiator.derive(parse(expression), new BinaryTreeNode<String>("x"));
+			assertMatchesEvaluator(derivative);
+			assertMatchesEvaluator(Simplifier.simplify(derivative));
+		}
+	}
+
+	/**
+	 * Test method for {@link model.BatchEvaluator#evaluate(double[], double[], int, int)}.
+	 */
+	@Test
+	void testEvaluateRange() {
+		final BatchEvaluator evaluator = BatchEvaluator.compile(parse("(x ^ 2) - x"), "x");
+		final double[] values = values();
+		final double[] results = values.clone();
+		evaluator.evaluate(values, results, 7, 1030);
+		for (int i = 0; i < VALUES; i++) {
+			final double expected = i >= 7 && i < 1030 ? values[i] * values[i] - values[i] :
+			    values[i];
+			assertEquals(expected, results[i], 1e-12);
+		}
+		evaluator.evaluate(results, results);
+		assertEquals(6, results[0], 1e-12);
+		assertThrows(IllegalArgumentException.class,
+		    () -> evaluator.evaluate(values, new double[VALUES - 1]));
+		assertThrows(IllegalArgumentException.class,
+		    () -> evaluator.evaluate(values, results, 5, 4));
+	}
+
+	/**
+	 * Test method for {@link model.BatchEvaluator#getRegisterCount()}.
+	 */
+	@Test
+	void testRegistersReused() {
+		final BatchEvaluator evaluator = BatchEvaluator.compile(
+		    parse("((((x + 1) * (x + 2)) * (x + 3)) * (x + 4)) * (x + 5)"), "x");
+		assertTrue(evaluator.getRegisterCount() < evaluator.getInstructionCount());
+	}
+
+	/**
+	 * Test method for {@link model.BatchEvaluator#compile(structures.BinaryTreeNode, String)}
+	 * with an unknown symbol.
+	 */
+	@Test
+	void testCompileUnknownSymbol() {
+		assertThrows(IllegalArgumentException.class,
+		    () -> BatchEvaluator.compile(parse("x + z"), "x"));
+	}
+
+}
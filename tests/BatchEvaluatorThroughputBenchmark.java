@@ -0,0 +1,136 @@
+/**
+ * BatchEvaluatorThroughputBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.function.DoubleUnaryOperator;
+import model.BatchEvaluator;
+import model.Differentiator;
+import model.Evaluator;
+import model.ExpressionParser;
+import model.Simplifier;
+import structures.BinaryTreeNode;
+
+/**
+ * This class compares the throughput, in points per second, of simplified derivatives
+ * evaluated on large arrays of values by the BatchEvaluator and point by point by the
+ * Evaluator's scalar closures. Both write into a preallocated result array. Each array size
+ * is measured after a warm-up and the fastest of a few rounds is reported. Arrays of 1e8
+ * points need a heap of about 2 GB, such as with the option -Xmx3g.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class BatchEvaluatorThroughputBenchmark {
+
+	/** The expressions whose derivatives are evaluated. */
+	private static final String[] EXPRESSIONS = {"((x ^ 3) + (2 * (x ^ 2))) - (7 * x)",
+	    "((x ^ 2) + 1) / ((x ^ 2) - 4)", "sin((x ^ 2) * 3)", "ln((x ^ 4) + (2 * x))",
+	    "(x ^ 5) / ((x ^ 2) + 3)"};
+
+	/** The array sizes measured by default. */
+	private static final int[] DEFAULT_SIZES = {1_000_000, 100_000_000};
+
+	/** The number of values the warm-up is run on. */
+	private static final int WARM_UP_VALUES = 1_000_000;
+
+	/** The number of warm-up runs of each backend on each expression. */
+	private static final int WARM_UP_ROUNDS = 20;
+
+	/** The number of values measured in the rounds of every array size, at least. */
+	private static final long MEASURED_VALUES = 300_000_000L;
+
+	/** A private constructor to inhibit external instantiation. */
+	private BatchEvaluatorThroughputBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - the optional array sizes measured
+	 */
+	public static void main(final String[] theArgs) {
+		ExpressionParser.setValidFunctions();
+		final int[] sizes = new int[theArgs.length > 0 ? theArgs.length : DEFAULT_SIZES.length];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = theArgs.length > 0 ? (int) Double.parseDouble(theArgs[i]) :
+			    DEFAULT_SIZES[i];
+		}
+		final int count = EXPRESSIONS.length;
+		final DoubleUnaryOperator[] scalars = new DoubleUnaryOperator[count];
+		final BatchEvaluator[] batches = new BatchEvaluator[count];
+		for (int i = 0; i < count; i++) {
+			final BinaryTreeNode<String> derivative = Simplifier.simplify(Differentiator.derive(
+			    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(EXPRESSIONS[i]))
+			    .getNode(), new BinaryTreeNode<String>("x")));
+			scalars[i] = Evaluator.compile(derivative, "x");
+			batches[i] = BatchEvaluator.compile(derivative, "x");
+		}
+		System.out.println("vectorized: " + BatchEvaluator.isVectorized());
+		final double[] warmUp = values(WARM_UP_VALUES);
+		final double[] warmUpResults = new double[WARM_UP_VALUES];
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			for (int i = 0; i < count; i++) {
+				scalar(scalars[i], warmUp, warmUpResults);
+				batches[i].evaluate(warmUp, warmUpResults);
+			}
+		}
+		for (int size : sizes) {
+			final double[] values = values(size);
+			final double[] results = new double[size];
+			final int rounds = (int) Math.max(1, MEASURED_VALUES / size / count);
+			long scalarBest = Long.MAX_VALUE;
+			long batchBest = Long.MAX_VALUE;
+			for (int round = 0; round < rounds; round++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < count; i++) {
+					scalar(scalars[i], values, results);
+				}
+				scalarBest = Math.min(scalarBest, System.nanoTime() - start);
+				start = System.nanoTime();
+				for (int i = 0; i < count; i++) {
+					batches[i].evaluate(values, results);
+				}
+				batchBest = Math.min(batchBest, System.nanoTime() - start);
+			}
+			final double points = (double) size * count;
+			System.out.printf("%,d points x %d derivatives, fastest of %d rounds%n", size,
+			    count, rounds);
+			System.out.printf("  scalar: %.1f million points per second%n",
+			    points * 1e3 / scalarBest);
+			System.out.printf("  batch:  %.1f million points per second%n",
+			    points * 1e3 / batchBest);
+			System.out.printf("  speedup: %.2fx%n", (double) scalarBest / batchBest);
+		}
+	}
+
+	/**
+	 * Returns the specified number of evenly spaced values from -3 to 3.
+	 *
+	 * @param theSize the number of values
+	 * @return the values
+	 */
+	private static double[] values(final int theSize) {
+		final double[] result = new double[theSize];
+		for (int i = 0; i < theSize; i++) {
+			result[i] = -3 + 6.0 * i / theSize;
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the specified scalar function at every one of the specified values.
+	 *
+	 * @param theFunction	the function being evaluated
+	 * @param theValues		the values of the variable
+	 * @param theResults	the array the values of the function are written to
+	 */
+	private static void scalar(final DoubleUnaryOperator theFunction, final double[] theValues,
+	    final double[] theResults) {
+		for (int i = 0; i < theValues.length; i++) {
+			theResults[i] = theFunction.applyAsDouble(theValues[i]);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * BytecodeCompilerTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import model.BytecodeCompiler;
+import model.Differentiator;
+import model.Evaluator;
+import model.Simplifier;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the BytecodeCompiler class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+class BytecodeCompilerTest extends ExpressionFixture {
+
+	/** The variables used for all the tests. */
+	private static final List<String> VARIABLES = List.of("x", "y");
+
+	/** The points every expression is evaluated at. */
+	private static final double[][] POINTS = {{0.3, 1.7}, {0.75, -2}, {1.5, 0.25}, {-0.4, 3}};
+
+	/**
+	 * Asserts that the compiled bytecode of the specified root's expression evaluates like
+	 * the Evaluator at every test point, including to NaN outside the domain of a function.
+	 *
+	 * @param theRoot the root node of the expression being compiled
+	 */
+	private static void assertMatchesEvaluator(final BinaryTreeNode<String> theRoot) {
+		final ToDoubleFunction<double[]> expected = Evaluator.compile(theRoot, VARIABLES);
+		final ToDoubleFunction<double[]> actual = BytecodeCompiler.compile(theRoot, VARIABLES);
+		final String expression = Differentiator.treeNodeToString(theRoot, 0);
+		for (double[] point : POINTS) {
+			final double value = expected.applyAsDouble(point);
+			if (Double.isNaN(value)) {
+				assertTrue(Double.isNaN(actual.applyAsDouble(point)), expression);
+			} else {
+				assertEquals(value, actual.applyAsDouble(point),
+				    1e-9 * Math.max(1, Math.abs(value)), expression);
+			}
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.BytecodeCompiler#compile(structures.BinaryTreeNode, java.util.List)}.
+	 */
+	@Test
+	void testCompileOperatorsAndFunctions() {
+		final String[] expressions = {"(x * y) + 1", "(x - y) / 2", "x ^ y", "4x * y",
+		    "x ^ 3", "y ^ -2", "x ^ 0", "(x + y) ^ 2", "x ^ 0.5", "abs(x - y)",
+		    "sin(x) + cos(y)", "tan(x) * sec(y)", "csc(x) - cot(y)", "arcsin(x / 4)",
+		    "arccos(x / 4) + arctan(y)", "arccot(x) + arcsec(y + 4)", "arccsc(x + 3)",
+		    "(ln(x + 2) + log(y + 4)) + log_2(x + 2)", "-sin(x)", "ysin(x)", "2.5x * e",
+		    "sin(2 - 1) + ((x * 0) + 3)"};
+		for (String expression : expressions) {
+			assertMatchesEvaluator(parse(expression));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.BytecodeCompiler#compile(structures.BinaryTreeNode, java.util.List)} on
+	 * simplified derivatives sharing subtrees.
+	 */
+	@Test
+	void testCompileDerivatives() {
+		final String[] expressions = {"sin(x * 2) ^ 3", "(x ^ 2) * ln(x + 3)",
+		    "cos((x ^ 2) + 1) / (x + 2)", "arctan(x * 5) + ((x ^ 3) * sin(x))"};
+		for (String expression : expressions) {
+			final BinaryTreeNode<String> derivative =
+			    Differentiator.derive(parse(expression), new BinaryTreeNode<String>("x"));
+			assertMatchesEvaluator(derivative);
+			assertMatchesEvaluator(Simplifier.simplify(derivative));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.BytecodeCompiler#compile(structures.BinaryTreeNode, java.util.List)}
+	 * caching the generated hidden classes.
+	 */
+	@Test
+	void testCompileCached() {
+		BytecodeCompiler.clearCache();
+		final ToDoubleFunction<double[]> first =
+		    BytecodeCompiler.compile(parse("(x * sin(y)) + 2"), VARIABLES);
+		assertTrue(first.getClass().isHidden());
+		assertSame(first, BytecodeCompiler.compile(parse("2 + (sin(y) * x)"), VARIABLES));
+		assertEquals(1, BytecodeCompiler.getCacheSize());
+		BytecodeCompiler.compile(parse("(x * sin(y)) + 2"), List.of("y", "x"));
+		assertEquals(2, BytecodeCompiler.getCacheSize());
+		BytecodeCompiler.clearCache();
+		assertEquals(0, BytecodeCompiler.getCacheSize());
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.BytecodeCompiler#compile(structures.BinaryTreeNode, java.util.List)} with
+	 * an unknown symbol.
+	 */
+	@Test
+	void testCompileUnknownSymbol() {
+		assertThrows(IllegalArgumentException.class,
+		    () -> BytecodeCompiler.compile(parse("x + z"), VARIABLES));
+	}
+
+}
@@ -0,0 +1,158 @@
+/**
+ * BytecodeCompilerThroughputBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.ToDoubleFunction;
+import model.BytecodeCompiler;
+import model.Differentiator;
+import model.Evaluator;
+import model.ExpressionParser;
+import model.PostfixProgram;
+import model.Simplifier;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+/**
+ * This class compares the throughput of the derivatives of the expressions text file compiled
+ * into the Evaluator's closures, into bytecode by the BytecodeCompiler and into a
+ * PostfixProgram run by its interpreter. Every simplified derivative is evaluated at the same
+ * points with each backend, rounds of each alternate after a warm-up, and the fastest round of
+ * each is reported with the time the compilation itself took.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public class BytecodeCompilerThroughputBenchmark {
+
+	/** The File containing the list of expressions to be differentiated and evaluated. */
+	private final static File EXPRESSIONS_FILE = new File("src" + File.separator +
+	    "expressions.txt");
+
+	/** The hard coded variable of differentiation used for all differentiations. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/** The variables of the compiled derivatives. */
+	private static final List<String> VARIABLES = List.of("x");
+
+	/** The number of points every derivative is evaluated at in a round. */
+	private static final int POINTS = 1000;
+
+	/** The number of rounds run before measuring. */
+	private static final int WARM_UP_ROUNDS = 100;
+
+	/** The number of measured rounds of each backend. */
+	private static final int MEASURED_ROUNDS = 50;
+
+	/** The sum of every value evaluated, printed so the evaluations cannot be eliminated. */
+	private static double mySink;
+
+	/** A private constructor to inhibit external instantiation. */
+	private BytecodeCompilerThroughputBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - the optional path of the expressions file
+	 * @throws FileNotFoundException if the expressions file does not exist
+	 */
+	public static void main(final String[] theArgs) throws FileNotFoundException {
+		ExpressionParser.setValidFunctions();
+		final File file = theArgs.length > 0 ? new File(theArgs[0]) : EXPRESSIONS_FILE;
+		final List<BinaryTreeNode<String>> derivatives = new ArrayList<>();
+		int skipped = 0;
+		try (Scanner scanner = new Scanner(file)) {
+			while (scanner.hasNextLine()) {
+				final BinaryTree<String> tree = ExpressionParser.shuntingYardTree(
+				    ExpressionParser.stringToList(scanner.nextLine()));
+				if (ExpressionParser.getIsValid() && tree != null) {
+					final BinaryTreeNode<String> derivative =
+					    Simplifier.simplify(Differentiator.derive(tree.getNode(), VAR_DIFF));
+					try { // skips the derivatives with a symbol the Evaluator does not know
+						Evaluator.compile(derivative, VARIABLES);
+						derivatives.add(derivative);
+					} catch (final IllegalArgumentException theException) {
+						skipped++;
+					}
+				}
+			}
+		}
+		final List<ToDoubleFunction<double[]>> closures = new ArrayList<>();
+		final List<ToDoubleFunction<double[]>> generated = new ArrayList<>();
+		final List<ToDoubleFunction<double[]>> interpreted = new ArrayList<>();
+		long start = System.nanoTime();
+		for (BinaryTreeNode<String> derivative : derivatives) {
+			closures.add(Evaluator.compile(derivative, VARIABLES));
+		}
+		final long closureCompile = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (BinaryTreeNode<String> derivative : derivatives) {
+			generated.add(BytecodeCompiler.compile(derivative, VARIABLES));
+		}
+		final long bytecodeCompile = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (BinaryTreeNode<String> derivative : derivatives) {
+			interpreted.add(PostfixProgram.compile(derivative, VARIABLES).toFunction());
+		}
+		final long postfixCompile = System.nanoTime() - start;
+
+		final double[][] points = new double[POINTS][];
+		for (int i = 0; i < POINTS; i++) {
+			points[i] = new double[] {0.1 + 2.0 * i / POINTS};
+		}
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+			round(closures, points);
+			round(generated, points);
+			round(interpreted, points);
+		}
+		long closureBest = Long.MAX_VALUE;
+		long bytecodeBest = Long.MAX_VALUE;
+		long postfixBest = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			closureBest = Math.min(closureBest, round(closures, points));
+			bytecodeBest = Math.min(bytecodeBest, round(generated, points));
+			postfixBest = Math.min(postfixBest, round(interpreted, points));
+		}
+		final double evaluations = (double) derivatives.size() * POINTS;
+		System.out.println(derivatives.size() + " derivatives (" + skipped + " skipped) at " +
+		    POINTS + " points, fastest of " + MEASURED_ROUNDS + " rounds");
+		System.out.printf("closures: compile %.3f ms, %.2f ns per evaluation%n",
+		    closureCompile / 1e6, closureBest / evaluations);
+		System.out.printf("bytecode: compile %.3f ms, %.2f ns per evaluation%n",
+		    bytecodeCompile / 1e6, bytecodeBest / evaluations);
+		System.out.printf("postfix:  compile %.3f ms, %.2f ns per evaluation%n",
+		    postfixCompile / 1e6, postfixBest / evaluations);
+		System.out.printf("speedup: %.2fx (checksum %s)%n", (double) closureBest / bytecodeBest,
+		    mySink);
+	}
+
+	/**
+	 * Evaluates every one of the specified compiled derivatives at every one of the specified
+	 * points and returns the time taken.
+	 *
+	 * @param theCompiled	the compiled derivatives being evaluated
+	 * @param thePoints		the points the derivatives are evaluated at
+	 * @return the time taken, in nanoseconds
+	 */
+	private static long round(final List<ToDoubleFunction<double[]>> theCompiled,
+	    final double[][] thePoints) {
+		double sum = 0;
+		final long start = System.nanoTime();
+		for (ToDoubleFunction<double[]> compiled : theCompiled) {
+			for (double[] point : thePoints) {
+				sum += compiled.applyAsDouble(point);
+			}
+		}
+		final long result = System.nanoTime() - start;
+		mySink += sum;
+		return result;
+	}
+}
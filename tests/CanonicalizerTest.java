@@ -0,0 +1,104 @@
+/**
+ * CanonicalizerTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Canonicalizer;
+import model.Differentiator;
+import model.Simplifier;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the Canonicalizer class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class CanonicalizerTest extends ExpressionFixture {
+
+	/**
+	 * Returns the canonical form of the specified expression, as a String.
+	 *
+	 * @param theExpression the expression being canonicalized
+	 * @return the canonical form of the expression as a String
+	 */
+	private static String canonical(final String theExpression) {
+		return Differentiator.treeNodeToString(Canonicalizer.canonicalize(parse(theExpression)),
+		    0);
+	}
+
+	/**
+	 * Test method for {@link model.Canonicalizer#canonicalize(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testOrder() {
+		assertEquals("5 * x", canonical("x * 5"));
+		assertEquals("5 * x", canonical("5 * x"));
+		assertEquals("((2 + x) + sin(x)) + (x ^ 2)", canonical("(x ^ 2) + (sin(x) + (x + 2))"));
+		assertEquals("(-1 + 0.5) + 3", canonical("3 + (0.5 + -1)"));
+		assertEquals("(a + 2b) + c", canonical("c + (2b + a)"));
+		assertEquals("x - 5", canonical("x - 5"));
+		assertEquals("(1 + x) / (x + x)", canonical("(x + 1) / (x + x)"));
+	}
+
+	/**
+	 * Test method for {@link model.Canonicalizer#canonicalize(structures.BinaryTreeNode)}
+	 * on equivalent expressions.
+	 */
+	@Test
+	void testEquivalentInputs() {
+		final String[][] pairs = {{"(x * sin(x)) + (2 * x)", "(x * 2) + (sin(x) * x)"},
+		    {"(a * b) * (c * d)", "d * (c * (b * a))"},
+		    {"cos(x + (y * 3)) ^ 2", "cos((3 * y) + x) ^ 2"}};
+		for (String[] pair : pairs) {
+			assertEquals(canonical(pair[0]), canonical(pair[1]));
+		}
+		assertFalse(canonical("x - y").equals(canonical("y - x")));
+	}
+
+	/**
+	 * Test method for {@link model.Canonicalizer#canonicalize(structures.BinaryTreeNode)}
+	 * sharing equal subtrees.
+	 */
+	@Test
+	void testSharesEqualSubtrees() {
+		final BinaryTreeNode<String> root = Canonicalizer.canonicalize(parse("sin(x * 2) + " +
+		    "(cos(x) * sin(2 * x))"));
+		final BinaryTreeNode<String> product = root.getRight();
+		assertEquals("*", product.getElement());
+		assertSame(root.getLeft(), product.getRight());
+	}
+
+	/**
+	 * Test method for {@link model.Canonicalizer#isCommutative(String)}.
+	 */
+	@Test
+	void testIsCommutative() {
+		assertTrue(Canonicalizer.isCommutative("+"));
+		assertTrue(Canonicalizer.isCommutative("*"));
+		assertFalse(Canonicalizer.isCommutative("-"));
+		assertFalse(Canonicalizer.isCommutative("^"));
+	}
+
+	/**
+	 * Test method for {@link model.Simplifier#simplify(structures.BinaryTreeNode)} with a
+	 * function operand on either side of a commutative operator.
+	 */
+	@Test
+	void testSimplifierEitherSide() {
+		final String[][] pairs = {{"0 * sin(x)", "sin(x) * 0"}, {"1 * sin(x)", "sin(x) * 1"},
+		    {"x * sin(x)", "sin(x) * x"}, {"0 + ln(x)", "ln(x) + 0"}};
+		for (String[] pair : pairs) {
+			assertEquals(Differentiator.treeNodeToString(Simplifier.simplify(parse(pair[0])), 0),
+			    Differentiator.treeNodeToString(Simplifier.simplify(parse(pair[1])), 0));
+		}
+	}
+
+}
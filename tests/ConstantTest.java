@@ -0,0 +1,155 @@
+/**
+ * ConstantTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Constant;
+import model.Constant.Mode;
+import model.Differentiator;
+import model.ExpressionParser;
+import model.Simplifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the Constant class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+class ConstantTest extends ExpressionFixture {
+
+	/**
+	 * Restore the default mode after each test.
+	 */
+	@AfterEach
+	void tearDown() {
+		Constant.setMode(Mode.EXACT);
+	}
+
+	/**
+	 * Returns the specified expression simplified by the Simplifier, as a String.
+	 *
+	 * @param theExpression the expression being simplified
+	 * @return the simplified expression as a String
+	 */
+	private static String simplify(final String theExpression) {
+		return Differentiator.treeNodeToString(Simplifier.simplify(ExpressionParser
+		    .shuntingYardTree(ExpressionParser.stringToList(theExpression)).getNode()), 0);
+	}
+
+	/**
+	 * Test method for {@link model.Constant#add(Constant)}.
+	 */
+	@Test
+	void testExactArithmetic() {
+		final Constant tenth = Constant.valueOf("0.1");
+		assertEquals("0.3", tenth.add(Constant.valueOf("0.2")).toString());
+		assertEquals("0.3333333333333333",
+		    Constant.valueOf(1).divide(Constant.valueOf(3)).toString());
+		assertEquals("1", Constant.valueOf(1).divide(Constant.valueOf(3))
+		    .multiply(Constant.valueOf(3)).toString());
+		assertEquals("-0.25", Constant.valueOf("2").pow(Constant.valueOf("-2")).negate()
+		    .toString());
+		assertEquals(Mode.EXACT, tenth.multiply(Constant.valueOf(10)).getKind());
+		assertTrue(tenth.multiply(Constant.valueOf(10)).isOne());
+	}
+
+	/**
+	 * Test method for {@link model.Constant#multiply(Constant)}.
+	 */
+	@Test
+	void testOverflowPromotion() {
+		final Constant max = Constant.valueOf(Long.MAX_VALUE);
+		assertEquals("9223372036854775808", max.add(Constant.valueOf(1)).toString());
+		assertEquals("85070591730234615847396907784232501249", max.multiply(max).toString());
+		assertEquals("9223372036854775807",
+		    max.multiply(max).divide(max).toString());
+		assertEquals("1267650600228229401496703205376",
+		    Constant.valueOf(2).pow(Constant.valueOf(100)).toString());
+	}
+
+	/**
+	 * Test method for {@link model.Constant#pow(Constant)}.
+	 */
+	@Test
+	void testInexact() {
+		final Constant root = Constant.valueOf(2).pow(Constant.valueOf("0.5"));
+		assertEquals(Mode.DOUBLE, root.getKind());
+		assertEquals(Math.sqrt(2), root.doubleValue(), 0.0);
+		assertEquals("Infinity", Constant.valueOf(1).divide(Constant.valueOf(0)).toString());
+		assertFalse(Constant.valueOf(0).divide(Constant.valueOf(0)).isFinite());
+		assertEquals("5", Constant.valueOf(5.0).toString());
+		assertEquals("0.000001", Constant.valueOf(1e-6).toString());
+	}
+
+	/**
+	 * Test method for {@link model.Constant#setMode(Mode)}.
+	 */
+	@Test
+	void testModes() {
+		Constant.setMode(Mode.DECIMAL);
+		assertEquals(Mode.DECIMAL, Constant.valueOf("0.1").getKind());
+		assertEquals("0.3", Constant.valueOf("0.1").add(Constant.valueOf("0.2")).toString());
+		assertEquals("0.6666666666666667",
+		    Constant.valueOf("2").divide(Constant.valueOf("3")).toString());
+
+		Constant.setMode(Mode.DOUBLE);
+		assertEquals(Mode.DOUBLE, Constant.valueOf("0.1").getKind());
+		assertEquals("0.30000000000000004",
+		    Constant.valueOf("0.1").add(Constant.valueOf("0.2")).toString());
+	}
+
+	/**
+	 * Test method for {@link model.Constant#valueOf(String)}.
+	 */
+	@Test
+	void testValueOfCached() {
+		assertSame(Constant.valueOf("12.5"), Constant.valueOf("12.5"));
+		assertEquals("12.5", Constant.valueOf("12.50").toString());
+		assertEquals("-3", Constant.valueOf("-3.0").toString());
+	}
+
+	/**
+	 * Test method for {@link model.Simplifier#simplify(structures.BinaryTreeNode)} with exact
+	 * constant folding.
+	 */
+	@Test
+	void testSimplifyExact() {
+		assertEquals("0.3", simplify("0.1 + 0.2"));
+		assertEquals("1", simplify("(1 / 4) * 4"));
+		assertEquals("0", simplify("(0.1 * 3) - 0.3"));
+		assertEquals("0.5x", simplify("x / 2"));
+		assertEquals("1.5x", simplify("0.5x + x"));
+		assertEquals("1", simplify("(1 / 3) * 3"));
+		assertEquals("1", simplify("(1 / 7) * 7"));
+		assertEquals("(x / 3) * 3", simplify("(x / 3) * 3"));
+		assertEquals("2 / 3", simplify("(1 / 3) + (1 / 3)"));
+	}
+
+	/**
+	 * Test method for {@link model.Constant#toNode()}.
+	 */
+	@Test
+	void testToNode() {
+		final Constant third = Constant.valueOf(1).divide(Constant.valueOf(-3));
+		assertFalse(third.isTerminating());
+		assertEquals("-1 / 3", Differentiator.treeNodeToString(third.toNode(), 0));
+		assertTrue(Constant.valueOf(third.toNode()).multiply(Constant.valueOf(-3)).isOne());
+		assertEquals("0.25", Differentiator.treeNodeToString(Constant.valueOf(1)
+		    .divide(Constant.valueOf(4)).toNode(), 0));
+		assertEquals("-2.5", Constant.valueOf(parse("-5 / 2")).toString());
+		assertNull(Constant.valueOf(parse("x / 2")));
+
+		Constant.setMode(Mode.DECIMAL);
+		assertTrue(Constant.valueOf("2").divide(Constant.valueOf("3")).isTerminating());
+	}
+
+}
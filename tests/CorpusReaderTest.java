@@ -0,0 +1,148 @@
+/**
+ * CorpusReaderTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import model.CorpusReader;
+import model.ExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the CorpusReader class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class CorpusReaderTest extends ExpressionFixture {
+
+	/** The number of lines of the generated corpora. */
+	private static final int LINES = 500;
+
+	/**
+	 * Test method for {@link model.CorpusReader#mapLines(ForkJoinPool,
+	 * java.util.function.Function, Consumer)} with chunks and regions much smaller than the file.
+	 *
+	 * @throws IOException if the corpus cannot be written or read
+	 */
+	@Test
+	void testMapLines() throws IOException {
+		final List<String> expected = new ArrayList<String>();
+		final StringBuilder corpus = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			final String line = i % 10 == 0 ? "" : "sin(x) * " + i;
+			expected.add(line);
+			corpus.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+		}
+		corpus.append("x ^ 2");
+		expected.add("x ^ 2");
+		final Path file = write(corpus.toString());
+		try {
+			final List<String> lines = new ArrayList<String>();
+			assertEquals(expected.size(), new CorpusReader(file, 64, 256).mapLines(
+			    ForkJoinPool.commonPool(), CharSequence::toString, lines::add));
+			assertEquals(expected, lines);
+			lines.clear();
+			assertEquals(expected.size(), new CorpusReader(file).mapLines(
+			    ForkJoinPool.commonPool(), CharSequence::toString, lines::add));
+			assertEquals(expected, lines);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.CorpusReader#forEachLine(ForkJoinPool, Consumer)} lexing every
+	 * line where it lies.
+	 *
+	 * @throws IOException if the corpus cannot be written or read
+	 */
+	@Test
+	void testForEachLine() throws IOException {
+		final StringBuilder corpus = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			corpus.append(i % 2 == 0 ? "(x + " + i + ") * cos(x)" : "((x + 1)").append('\n');
+		}
+		final Path file = write(corpus.toString());
+		try {
+			final AtomicInteger tokens = new AtomicInteger();
+			final AtomicInteger valid = new AtomicInteger();
+			final Consumer<CharSequence> lexer = line -> {
+				tokens.addAndGet(ExpressionParser.stringToList(line).size());
+				ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(line));
+				if (ExpressionParser.getIsValid()) {
+					valid.incrementAndGet();
+				}
+			};
+			assertEquals(LINES, new CorpusReader(file, 100, 1000).forEachLine(
+			    ForkJoinPool.commonPool(), lexer));
+			assertEquals(LINES / 2, valid.get());
+			assertEquals(LINES / 2 * (ExpressionParser.stringToList("(x + 0) * cos(x)").size() +
+			    ExpressionParser.stringToList("((x + 1)").size()), tokens.get());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.CorpusReader#mapLines(ForkJoinPool,
+	 * java.util.function.Function, Consumer)} with an empty file and a line longer than a
+	 * region.
+	 *
+	 * @throws IOException if the corpus cannot be written or read
+	 */
+	@Test
+	void testMapLinesBounds() throws IOException {
+		final Path empty = write("");
+		final Path wide = write("x\n" + "x + ".repeat(100) + "x\nx\n");
+		try {
+			assertEquals(0, new CorpusReader(empty).mapLines(ForkJoinPool.commonPool(),
+			    CharSequence::length, null));
+			assertEquals(3, new CorpusReader(wide, 16, 512).mapLines(ForkJoinPool.commonPool(),
+			    CharSequence::length, null));
+			assertThrows(IOException.class, () -> new CorpusReader(wide, 16, 64).mapLines(
+			    ForkJoinPool.commonPool(), CharSequence::length, null));
+		} finally {
+			Files.delete(empty);
+			Files.delete(wide);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.CorpusReader#CorpusReader(Path, int, int)} with invalid
+	 * sizes.
+	 */
+	@Test
+	void testCorpusReaderInvalid() {
+		final Path file = Path.of("corpus.txt");
+		assertThrows(IllegalArgumentException.class, () -> new CorpusReader(file, 0, 64));
+		assertThrows(IllegalArgumentException.class, () -> new CorpusReader(file, 64, 16));
+		assertEquals(file, new CorpusReader(file, 64, 64).getPath());
+	}
+
+	/**
+	 * Returns a new temporary file containing the specified text.
+	 *
+	 * @param theText the text of the file
+	 * @return the path of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	private static Path write(final String theText) throws IOException {
+		final Path result = Files.createTempFile("corpus", ".txt");
+		Files.writeString(result, theText, StandardCharsets.ISO_8859_1);
+		return result;
+	}
+
+}
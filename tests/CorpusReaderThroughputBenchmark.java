@@ -0,0 +1,171 @@
+/**
+ * CorpusReaderThroughputBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import model.CorpusReader;
+import model.DerivativeVerifier;
+import model.ExpressionParser;
+
+/**
+ * This class compares the time of lexing and parsing every line of a large corpus of random
+ * expressions read line by line into Strings on a single thread, with the same corpus streamed
+ * by a CorpusReader, whose lines are lexed where they are mapped, on a single worker and across
+ * every processor. The heap in use after each is printed, as it should not grow with the size
+ * of the corpus; running with an -Xmx smaller than the corpus shows the same. Each is measured
+ * after a warm-up and the fastest of a few rounds is reported.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class CorpusReaderThroughputBenchmark {
+
+	/** The number of distinct random expressions of the corpus. */
+	private static final int DISTINCT = 20_000;
+
+	/** The number of times the distinct expressions are repeated in the corpus. */
+	private static final int REPEATS = 25;
+
+	/** The largest depth of the random expressions. */
+	private static final int DEPTH = 4;
+
+	/** The seed of the random expressions. */
+	private static final long SEED = 42;
+
+	/** The number of rounds of each measurement, after as many warm-up rounds. */
+	private static final int ROUNDS = 3;
+
+	/** A private constructor to inhibit external instantiation. */
+	private CorpusReaderThroughputBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - the optional path of a corpus to read
+	 * @throws IOException if the corpus cannot be written or read
+	 */
+	public static void main(final String[] theArgs) throws IOException {
+		ExpressionParser.setValidFunctions();
+		final Path file = theArgs.length > 0 ? Path.of(theArgs[0]) : generate();
+		try {
+			final ForkJoinPool single = new ForkJoinPool(1);
+			final long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+			final long[] tokens = new long[best.length];
+			final long[] heap = new long[best.length];
+			long lines = 0;
+			for (int round = 0; round < 2 * ROUNDS; round++) {
+				final long[] times = new long[best.length];
+				final LongAdder[] counts = {new LongAdder(), new LongAdder(), new LongAdder()};
+				long start = System.nanoTime();
+				try (BufferedReader input = Files.newBufferedReader(file)) {
+					String line = input.readLine();
+					while (line != null) {
+						counts[0].add(parse(line));
+						line = input.readLine();
+					}
+				}
+				times[0] = System.nanoTime() - start;
+				heap[0] = Math.max(heap[0], usedHeap());
+				start = System.nanoTime();
+				lines = new CorpusReader(file).forEachLine(single,
+				    line -> counts[1].add(parse(line)));
+				times[1] = System.nanoTime() - start;
+				heap[1] = Math.max(heap[1], usedHeap());
+				start = System.nanoTime();
+				new CorpusReader(file).forEachLine(ForkJoinPool.commonPool(),
+				    line -> counts[2].add(parse(line)));
+				times[2] = System.nanoTime() - start;
+				heap[2] = Math.max(heap[2], usedHeap());
+				if (round >= ROUNDS) {
+					for (int i = 0; i < best.length; i++) {
+						best[i] = Math.min(best[i], times[i]);
+						tokens[i] = counts[i].sum();
+					}
+				}
+			}
+			single.shutdown();
+			System.out.printf("%,d lines, %.1f MB, max heap %d MB%n", lines,
+			    Files.size(file) / 1e6, Runtime.getRuntime().maxMemory() >> 20);
+			print("BufferedReader, 1 thread: ", best[0], lines, tokens[0], heap[0]);
+			print("CorpusReader, 1 worker:   ", best[1], lines, tokens[1], heap[1]);
+			print("CorpusReader, " + ForkJoinPool.getCommonPoolParallelism() + " workers:  ",
+			    best[2], lines, tokens[2], heap[2]);
+		} finally {
+			if (theArgs.length == 0) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of tokens of the specified line, once it is lexed and parsed.
+	 *
+	 * @param theLine the line being parsed
+	 * @return the number of tokens of the line
+	 */
+	private static int parse(final CharSequence theLine) {
+		final ArrayList<String> tokens = ExpressionParser.stringToList(theLine);
+		final int result = tokens.size();
+		ExpressionParser.shuntingYardTree(tokens);
+		return result;
+	}
+
+	/**
+	 * Prints the throughput of a measurement.
+	 *
+	 * @param theName	the name of the measurement
+	 * @param theNanos	the fastest time of the measurement
+	 * @param theLines	the number of lines parsed
+	 * @param theTokens	the number of tokens parsed, as a checksum
+	 * @param theHeap	the largest heap in use after a round
+	 */
+	private static void print(final String theName, final long theNanos, final long theLines,
+	    final long theTokens, final long theHeap) {
+		System.out.printf("%s %.3f s, %,.0f lines/s, %,d tokens, %.1f MB heap in use%n",
+		    theName, theNanos / 1e9, theLines / (theNanos / 1e9), theTokens, theHeap / 1e6);
+	}
+
+	/**
+	 * Returns the number of bytes of heap in use, once the garbage is collected.
+	 *
+	 * @return the number of bytes of heap in use
+	 */
+	private static long usedHeap() {
+		final Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Writes the corpus of random expressions to a temporary file.
+	 *
+	 * @return the path of the corpus
+	 * @throws IOException if the corpus cannot be written
+	 */
+	private static Path generate() throws IOException {
+		final List<String> expressions = DerivativeVerifier.generate(DISTINCT, DEPTH, "x", SEED);
+		final Path result = Files.createTempFile("corpus", ".txt");
+		try (BufferedWriter output = Files.newBufferedWriter(result, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < REPEATS; i++) {
+				for (String expression : expressions) {
+					output.write(expression);
+					output.newLine();
+				}
+			}
+		}
+		return result;
+	}
+}
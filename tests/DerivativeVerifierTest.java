@@ -0,0 +1,158 @@
+/**
+ * DerivativeVerifierTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import model.DerivativeVerifier;
+import model.DerivativeVerifier.Mismatch;
+import model.DerivativeVerifier.Report;
+import model.Differentiator;
+import model.ExpressionParser;
+import model.Gradient;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the DerivativeVerifier class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class DerivativeVerifierTest extends ExpressionFixture {
+
+	/** The number of sample points of every expression. */
+	private static final int SAMPLES = 40;
+
+	/**
+	 * Test method for {@link model.DerivativeVerifier#verify(int, long)}.
+	 */
+	@Test
+	void testVerify() {
+		final List<String> corpus = List.of("sin(x)", "cos(2 * x)", "x * x",
+		    "(x + 5) + (5 + x)", "sin(sin(x))", "(x - 1) / ((x ^ 2) + 1)", "2.71828 ^ tan(x)");
+		final Report report = DerivativeVerifier.compile(corpus, "x", -3, 3).verify(SAMPLES, 1);
+		assertEquals(List.of(), report.getMismatches());
+		assertEquals(corpus.size(), report.getExpressions());
+		assertEquals(0, report.getSkipped());
+		assertEquals(0, report.getUnverified());
+		assertEquals(corpus.size() * SAMPLES, report.getComparisons() +
+		    report.getInconclusive());
+		assertTrue(report.getComparisons() > corpus.size() * SAMPLES * 9 / 10);
+	}
+
+	/**
+	 * Test method for {@link model.DerivativeVerifier#verify(int, long)} with expressions
+	 * defined on part of the sampled range or nowhere in it.
+	 */
+	@Test
+	void testVerifyDomains() {
+		final List<String> corpus = List.of("ln(x)", "x ^ (1 / 2)", "arcsin(x)",
+		    "tan(x) ^ 2", "ln(0 - (x ^ 2))");
+		final Report report =
+		    DerivativeVerifier.compile(corpus, "x", -3, 3, DerivativeVerifierTest::partial)
+		        .verify(SAMPLES, 2);
+		assertEquals(List.of(), report.getMismatches());
+		assertEquals(1, report.getUnverified());
+		assertTrue(report.getComparisons() > (corpus.size() - 1) * SAMPLES * 9 / 10);
+	}
+
+	/**
+	 * Test method for {@link model.DerivativeVerifier#verify(int, long)} with a wrong
+	 * differentiation and one whose derivative cannot be evaluated.
+	 */
+	@Test
+	void testVerifyMismatches() {
+		final List<String> corpus = List.of("x ^ 2", "sin(x)", "2.71828 ^ x", "5");
+		final Report report = DerivativeVerifier.compile(corpus, "x", -3, 3,
+		    (root, varDiff) -> root).verify(SAMPLES, 3);
+		final List<Mismatch> mismatches = report.getMismatches();
+		assertEquals(3, mismatches.size());
+		assertEquals("x ^ 2", mismatches.get(0).getExpression());
+		assertEquals("sin(x)", mismatches.get(1).getExpression());
+		assertEquals("5", mismatches.get(2).getExpression());
+		final Mismatch mismatch = mismatches.get(0);
+		assertNull(mismatch.getError());
+		assertEquals(mismatch.getPoint() * mismatch.getPoint(), mismatch.getSymbolic(), 1e-12);
+		assertEquals(2 * mismatch.getPoint(), mismatch.getNumeric(), 1e-9);
+		final Report failed = DerivativeVerifier.compile(List.of("x"), "x", -3, 3,
+		    (root, varDiff) -> new BinaryTreeNode<String>("dy/dx")).verify(SAMPLES, 3);
+		assertEquals(1, failed.getMismatches().size());
+		assertNotNull(failed.getMismatches().get(0).getError());
+		assertTrue(Double.isNaN(failed.getMismatches().get(0).getPoint()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.DerivativeVerifier#compile(List, String, double, double)} with expressions
+	 * that cannot be verified and an invalid range.
+	 */
+	@Test
+	void testCompileSkipped() {
+		final DerivativeVerifier verifier =
+		    DerivativeVerifier.compile(List.of("x * y", "((x + 1)", "x"), "x", 0, 1);
+		assertEquals(1, verifier.getSize());
+		assertEquals(2, verifier.verify(SAMPLES, 4).getSkipped());
+		assertThrows(IllegalArgumentException.class,
+		    () -> DerivativeVerifier.compile(List.of("x"), "x", 1, 1));
+		assertThrows(IllegalArgumentException.class,
+		    () -> DerivativeVerifier.compile(List.of("x"), "x", 0, Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Test method for {@link model.DerivativeVerifier#verify(ForkJoinPool, int, long)} giving
+	 * the same report whatever the parallelism.
+	 */
+	@Test
+	void testVerifyDeterministic() {
+		final DerivativeVerifier verifier = DerivativeVerifier.compile(
+		    DerivativeVerifier.generate(300, 3, "x", 5), "x", -3, 3,
+		    DerivativeVerifierTest::partial);
+		final ForkJoinPool single = new ForkJoinPool(1);
+		final Report serial = verifier.verify(single, 10, 6);
+		single.shutdown();
+		final Report parallel = verifier.verify(10, 6);
+		assertEquals(List.of(), parallel.getMismatches());
+		assertEquals(serial.getComparisons(), parallel.getComparisons());
+		assertEquals(serial.getInconclusive(), parallel.getInconclusive());
+		assertEquals(serial.getUnverified(), parallel.getUnverified());
+	}
+
+	/**
+	 * Test method for {@link model.DerivativeVerifier#generate(int, int, String, long)}.
+	 */
+	@Test
+	void testGenerate() {
+		final List<String> expressions = DerivativeVerifier.generate(200, 4, "x", 7);
+		assertEquals(expressions, DerivativeVerifier.generate(200, 4, "x", 7));
+		for (String expression : expressions) {
+			final BinaryTree<String> tree =
+			    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(expression));
+			assertTrue(ExpressionParser.getIsValid(), expression);
+			assertTrue(List.of("x").containsAll(Gradient.variables(tree.getNode())),
+			    expression);
+		}
+	}
+
+	/**
+	 * Returns the partial derivative of the specified root's expression.
+	 *
+	 * @param theRoot		the root node representing the expression
+	 * @param theVarDiff	the variable of differentiation represented by a node
+	 * @return the partial derivative of the expression
+	 */
+	private static BinaryTreeNode<String> partial(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff) {
+		return Differentiator.derivePartial(theRoot, theVarDiff);
+	}
+
+}
@@ -0,0 +1,128 @@
+/**
+ * DerivativeVerifierThroughputBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import model.DerivativeVerifier;
+import model.DerivativeVerifier.Report;
+import model.ExpressionParser;
+
+/**
+ * This class measures the throughput of the DerivativeVerifier on the expressions of the
+ * expressions text file and on a larger corpus of random expressions, on a single thread and
+ * across the common ForkJoinPool, and prints the mismatches it finds. The one-off time of
+ * deriving and compiling every corpus is reported separately, and each verification is
+ * measured after a warm-up and the fastest of a few rounds is reported.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class DerivativeVerifierThroughputBenchmark {
+
+	/** The File containing the list of expressions to be verified. */
+	private final static File EXPRESSIONS_FILE = new File("src" + File.separator +
+	    "expressions.txt");
+
+	/** The number of random expressions verified. */
+	private static final int GENERATED = 20_000;
+
+	/** The largest depth of the random expressions. */
+	private static final int DEPTH = 4;
+
+	/** The number of sample points of every expression. */
+	private static final int SAMPLES = 50;
+
+	/** The seed of the random expressions and sample points. */
+	private static final long SEED = 42;
+
+	/** The number of rounds of each measurement, after as many warm-up rounds. */
+	private static final int ROUNDS = 3;
+
+	/** The largest number of mismatches printed for a corpus. */
+	private static final int PRINTED = 10;
+
+	/** A private constructor to inhibit external instantiation. */
+	private DerivativeVerifierThroughputBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - the optional path of the expressions file
+	 * @throws FileNotFoundException if the expressions file cannot be read
+	 */
+	public static void main(final String[] theArgs) throws FileNotFoundException {
+		ExpressionParser.setValidFunctions();
+		final File file = theArgs.length > 0 ? new File(theArgs[0]) : EXPRESSIONS_FILE;
+		measure(file.getName(), readLines(file));
+		measure("generated", DerivativeVerifier.generate(GENERATED, DEPTH, "x", SEED));
+	}
+
+	/**
+	 * Derives, compiles and verifies the specified corpus, printing the time of every stage
+	 * and the mismatches found.
+	 *
+	 * @param theName		the name of the corpus
+	 * @param theCorpus		the expressions of the corpus
+	 */
+	private static void measure(final String theName, final List<String> theCorpus) {
+		final long start = System.nanoTime();
+		final DerivativeVerifier verifier = DerivativeVerifier.compile(theCorpus, "x", -3, 3);
+		final long compile = System.nanoTime() - start;
+		final ForkJoinPool single = new ForkJoinPool(1);
+		Report serial = null;
+		Report parallel = null;
+		for (int round = 0; round < 2 * ROUNDS; round++) {
+			final Report serialRound = verifier.verify(single, SAMPLES, SEED);
+			final Report parallelRound = verifier.verify(SAMPLES, SEED);
+			if (round >= ROUNDS) {
+				if (serial == null ||
+				    serialRound.getElapsedNanos() < serial.getElapsedNanos()) {
+					serial = serialRound;
+				}
+				if (parallel == null ||
+				    parallelRound.getElapsedNanos() < parallel.getElapsedNanos()) {
+					parallel = parallelRound;
+				}
+			}
+		}
+		single.shutdown();
+		System.out.printf("%s: %d expressions derived and compiled in %.1f ms%n", theName,
+		    theCorpus.size(), compile / 1e6);
+		System.out.println("  1 thread:   " + serial);
+		System.out.println("  " + ForkJoinPool.getCommonPoolParallelism() + " threads:  " +
+		    parallel);
+		final List<DerivativeVerifier.Mismatch> mismatches = parallel.getMismatches();
+		for (int i = 0; i < Math.min(PRINTED, mismatches.size()); i++) {
+			System.out.println("  mismatch " + mismatches.get(i));
+		}
+	}
+
+	/**
+	 * Returns the non-blank lines of the specified file.
+	 *
+	 * @param theFile the file being read
+	 * @return the non-blank lines of the file
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	private static List<String> readLines(final File theFile) throws FileNotFoundException {
+		final List<String> result = new ArrayList<String>();
+		try (Scanner input = new Scanner(theFile)) {
+			while (input.hasNextLine()) {
+				final String line = input.nextLine().trim();
+				if (!line.isEmpty()) {
+					result.add(line);
+				}
+			}
+		}
+		return result;
+	}
+}
@@ -7,6 +7,7 @@ package tests;
 import java.util.ArrayList;
 import model.Differentiator;
 import model.ExpressionParser;
+import model.RewriteEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import structures.BinaryTree;
@@ -20,7 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * Unit tests for the Differentiator class.
  *
  * @author Jacob Klymenko
- * @version 1.0
+ * @version 1.2
  */
 class DifferentiatorTest {
 
@@ -256,7 +257,7 @@ class DifferentiatorTest {
 
 		myVarOpNum = new BinaryTreeNode<String>("^", myVariable, myConstant);
 		final BinaryTreeNode<String> diffVarOpNum = Differentiator.derive(myVarOpNum, VAR_DIFF);
-		assertEquals("(5 * x) ^ (5 - 1)", Differentiator.treeNodeToString(diffVarOpNum, 0));
+		assertEquals("5 * (x ^ (5 - 1))", Differentiator.treeNodeToString(diffVarOpNum, 0));
 
 		myNumOpVar = new BinaryTreeNode<String>("^", myConstant, myVariable);
 		final BinaryTreeNode<String> diffNumOpVar = Differentiator.derive(myNumOpVar, VAR_DIFF);
@@ -279,7 +280,7 @@ class DifferentiatorTest {
 	void testDeriveExponentNonVarDiff() {
 		myVarOpNum = new BinaryTreeNode<String>("^", myNonVarDiff, myConstant);
 		final BinaryTreeNode<String> diffVarOpNum = Differentiator.derive(myVarOpNum, VAR_DIFF);
-		assertEquals("dy/dx * ((5 * y) ^ (5 - 1))", Differentiator.treeNodeToString(diffVarOpNum, 0));
+		assertEquals("dy/dx * (5 * (y ^ (5 - 1)))", Differentiator.treeNodeToString(diffVarOpNum, 0));
 
 		myNumOpVar = new BinaryTreeNode<String>("^", myConstant, myNonVarDiff);
 		final BinaryTreeNode<String> diffNumOpVar = Differentiator.derive(myNumOpVar, VAR_DIFF);
@@ -408,14 +409,14 @@ class DifferentiatorTest {
 		final String[] diffNestedExps = {"(1 + 0) + (0 + 1)",
 		    "((1 + 0) * (5 + x)) + ((x + 5) * (0 + 1))",
 		    "((cos(sin(x)) * cos(x)) * tan(x)) + (sin(sin(x)) * (sec(x) ^ 2))",
-		    "((((2 * x) ^ (2 - 1)) * x) - ((x ^ 2) * 1)) / (x ^ 2)",
+		    "(((2 * (x ^ (2 - 1))) * x) - ((x ^ 2) * 1)) / (x ^ 2)",
 		    "(e ^ ((x + 1) * ln(x))) * (((1 + 0) * ln(x)) + ((x + 1) * (1 / x)))",
-		    "(((1 / x) * (x ^ 3)) - (ln(x) * ((3 * x) ^ (3 - 1)))) / ((x ^ 3) ^ 2)",
-		    "((1 * ((x - 1) ^ (1 / 2))) - (x * (((1 / 2) * (x - 1)) ^ ((1 / 2) - 1)))) / (((x - 1) ^ (1 / 2)) ^ 2)",
+		    "(((1 / x) * (x ^ 3)) - (ln(x) * (3 * (x ^ (3 - 1))))) / ((x ^ 3) ^ 2)",
+		    "((1 * ((x - 1) ^ (1 / 2))) - (x * (((1 / 2) * ((x - 1) ^ ((1 / 2) - 1))) * (1 - 0)))) / (((x - 1) ^ (1 / 2)) ^ 2)",
 		    "(1 / ((sin(x) ^ 2) + 1)) * cos(x)",
 		    "(0 - (1 / (((5 * x) ^ 2) + 1))) * ((0 * x) + (5 * 1))",
-		    "(0 - (csc((x ^ 2)) * cot((x ^ 2)))) * ((2 * x) ^ (2 - 1))",
-		    "((((0 * (x ^ (1 / 2))) + (3 * (((1 / 2) * x) ^ ((1 / 2) - 1)))) * 2) - ((3 * (x ^ (1 / 2))) * 0)) / (2 ^ 2)",
+		    "(0 - (csc((x ^ 2)) * cot((x ^ 2)))) * (2 * (x ^ (2 - 1)))",
+		    "((((0 * (x ^ (1 / 2))) + (3 * ((1 / 2) * (x ^ ((1 / 2) - 1))))) * 2) - ((3 * (x ^ (1 / 2))) * 0)) / (2 ^ 2)",
 		    "(1 / ((5 * x) * ln(2))) * ((0 * x) + (5 * 1))"};
 		// unit testing
 		BinaryTreeNode<String> currDerivative;
@@ -425,6 +426,29 @@ class DifferentiatorTest {
 		}
 	}
 
+	/**
+	 * Test method for
+	 * {@link model.Differentiator#deriveSimplified(structures.BinaryTreeNode, structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testDeriveSimplified() {
+		ExpressionParser.setValidFunctions();
+		final String[] expressions = {"(x ^ 3) + (3 * x)", "sin(x) * 5",
+		    "((1 + 0) * (5 + x)) + ((x + 5) * (0 + 1))", "arctan(2 * x)", "x / (x + 1)"};
+		final String[] derivatives = {"(3 * (x ^ 2)) + 3", "cos(x) * 5", "2",
+		    "(1 / (((2 * x) ^ 2) + 1)) * 2", "((x + 1) - x) / ((x + 1) ^ 2)"};
+		for (int i = 0; i < expressions.length; i++) {
+			final BinaryTreeNode<String> root = ExpressionParser.shuntingYardTree(
+			    ExpressionParser.stringToList(expressions[i])).getNode();
+			final String fused =
+			    Differentiator.treeNodeToString(Differentiator.deriveSimplified(root, VAR_DIFF), 0);
+			assertEquals(derivatives[i], fused);
+			// the same as rewriting the whole unsimplified derivative afterwards
+			assertEquals(Differentiator.treeNodeToString(
+			    RewriteEngine.rewrite(Differentiator.derive(root, VAR_DIFF)), 0), fused);
+		}
+	}
+
 	/**
 	 * Test method for {@link model.Differentiator#isOperator(java.lang.String)}.
 	 */
@@ -461,4 +485,35 @@ class DifferentiatorTest {
 		assertEquals("(cos(2.5) + log_2((9.1 + (6.7 ^ 1.2)))) * (5.3 + sin((0.75 * pi)))",
 		    Differentiator.treeNodeToString(expTree2.getNode(), 0));
 	}
+
+	/**
+	 * Test method for {@link model.Differentiator#reset()} and successive derivations on one
+	 * and several threads, which each find their own variable other than the variable of
+	 * differentiation.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	void testReset() throws InterruptedException {
+		final BinaryTreeNode<String> otherNonVarDiff = new BinaryTreeNode<String>("z");
+		final BinaryTreeNode<String> withY =
+		    new BinaryTreeNode<String>("*", myConstant, myNonVarDiff);
+		final BinaryTreeNode<String> withZ =
+		    new BinaryTreeNode<String>("*", myConstant, otherNonVarDiff);
+		assertEquals("(0 * y) + (5 * dy/dx)",
+		    Differentiator.treeNodeToString(Differentiator.derive(withY, VAR_DIFF), 0));
+		final String[] onOtherThread = new String[1];
+		final Thread thread = new Thread(() -> onOtherThread[0] =
+		    Differentiator.treeNodeToString(Differentiator.derive(withZ, VAR_DIFF), 0));
+		thread.start();
+		thread.join();
+		assertEquals("(0 * z) + (5 * dz/dx)", onOtherThread[0]);
+		assertEquals("(0 * z) + (5 * dz/dx)",
+		    Differentiator.treeNodeToString(Differentiator.derive(withZ, VAR_DIFF), 0));
+		Differentiator.reset();
+		assertEquals("(0 * y) + (5 * dy/dx)",
+		    Differentiator.treeNodeToString(Differentiator.derive(withY, VAR_DIFF), 0));
+		assertEquals("(0 * z) + (5 * dz/dx)",
+		    Differentiator.treeNodeToString(Differentiator.derive(withZ, VAR_DIFF), 0));
+	}
 }
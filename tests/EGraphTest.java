@@ -0,0 +1,122 @@
+/**
+ * EGraphTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Differentiator;
+import model.EGraph;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the EGraph class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class EGraphTest extends ExpressionFixture {
+
+	/**
+	 * Returns the expression of the class of the specified id with the fewest nodes.
+	 *
+	 * @param theGraph	the e-graph holding the class
+	 * @param theId		the id of the class
+	 * @return the expression with the fewest nodes as a String
+	 */
+	private static String extract(final EGraph theGraph, final int theId) {
+		return Differentiator.treeNodeToString(theGraph.extract(theId, node -> 1), 0);
+	}
+
+	/**
+	 * Test method for {@link model.EGraph#add(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testAddHashCons() {
+		final EGraph graph = new EGraph();
+		final int first = graph.add(parse("(x + 1) * (x + 1)"));
+		assertEquals(4, graph.nodeCount());
+		assertEquals(graph.find(first), graph.add(parse("(x + 1) * (x + 1)")));
+		assertEquals(4, graph.classCount());
+	}
+
+	/**
+	 * Test method for {@link model.EGraph#add(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testAddCoefficients() {
+		final EGraph graph = new EGraph();
+		assertEquals("5 * x", extract(graph, graph.add(parse("5x"))));
+		assertEquals("x * sin(x)", extract(graph, graph.add(new BinaryTreeNode<String>("xsin",
+		    new BinaryTreeNode<String>("x"), null))));
+		assertEquals("dy/dx", extract(graph, graph.add(new BinaryTreeNode<String>("dy/dx"))));
+	}
+
+	/**
+	 * Test method for {@link model.EGraph#getConstant(int)}.
+	 */
+	@Test
+	void testConstantFolding() {
+		final EGraph graph = new EGraph();
+		final int sum = graph.add(parse("2 + (3 * 4)"));
+		assertEquals(14.0, graph.getConstant(sum), 0.0);
+		assertEquals("14", extract(graph, sum));
+		assertNull(graph.getConstant(graph.add(parse("x + 1"))));
+	}
+
+	/**
+	 * Test method for {@link model.EGraph#rebuild()}.
+	 */
+	@Test
+	void testRebuildCongruence() {
+		final EGraph graph = new EGraph();
+		final int sinX = graph.add(parse("sin(x)"));
+		final int sinY = graph.add(parse("sin(y)"));
+		assertNotEquals(graph.find(sinX), graph.find(sinY));
+		assertTrue(graph.union(graph.add("x"), graph.add("y")));
+		graph.rebuild();
+		assertEquals(graph.find(sinX), graph.find(sinY));
+		assertFalse(graph.union(sinX, sinY));
+	}
+
+	/**
+	 * Test method for {@link model.EGraph#rebuild()}.
+	 */
+	@Test
+	void testRebuildConstant() {
+		final EGraph graph = new EGraph();
+		final int product = graph.add(parse("x * (y + 2)"));
+		graph.union(graph.add("x"), graph.addNumber(3));
+		graph.union(graph.add("y"), graph.addNumber(1));
+		graph.rebuild();
+		assertEquals(9.0, graph.getConstant(product), 0.0);
+		assertEquals("9", extract(graph, product));
+	}
+
+	/**
+	 * Test method for {@link model.EGraph#extract(int, java.util.function.ToDoubleFunction)}.
+	 */
+	@Test
+	void testExtractCheapest() {
+		final EGraph graph = new EGraph();
+		final int expression = graph.add(parse("(x * 1) + y"));
+		graph.union(graph.add(parse("x * 1")), graph.add("x"));
+		graph.rebuild();
+		assertEquals("x + y", extract(graph, expression));
+
+		final int sum = graph.add(parse("x + x"));
+		graph.union(sum, graph.add(parse("2 * x")));
+		graph.rebuild();
+		assertEquals("2 * x", Differentiator.treeNodeToString(graph.extract(sum,
+		    node -> node.getElement().equals("+") ? 5 : 1), 0));
+		assertEquals("x + x", Differentiator.treeNodeToString(graph.extract(sum,
+		    node -> node.getElement().equals("*") ? 5 : 1), 0));
+	}
+
+}
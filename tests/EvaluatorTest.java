@@ -0,0 +1,121 @@
+/**
+ * EvaluatorTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import model.Evaluator;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the Evaluator class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class EvaluatorTest extends ExpressionFixture {
+
+	/** The variables used for all the tests. */
+	private static final List<String> VARIABLES = List.of("x", "y");
+
+	/**
+	 * Returns the value of the specified expression at the specified values of x and y.
+	 *
+	 * @param theExpression	the expression being evaluated
+	 * @param theX			the value of x
+	 * @param theY			the value of y
+	 * @return the value of the expression
+	 */
+	private static double evaluate(final String theExpression, final double theX,
+	    final double theY) {
+		return Evaluator.compile(parse(theExpression), VARIABLES)
+		    .applyAsDouble(new double[] {theX, theY});
+	}
+
+	/**
+	 * Test method for {@link model.Evaluator#compile(structures.BinaryTreeNode, java.util.List)}.
+	 */
+	@Test
+	void testCompileOperators() {
+		assertEquals(7.0, evaluate("(x * y) + 1", 2, 3), 1e-12);
+		assertEquals(0.5, evaluate("(x - y) / 2", 4, 3), 1e-12);
+		assertEquals(8.0, evaluate("x ^ y", 2, 3), 1e-12);
+		assertEquals(12.0, evaluate("4x * y", 1, 3), 1e-12);
+	}
+
+	/**
+	 * Test method for {@link model.Evaluator#compile(structures.BinaryTreeNode, java.util.List)}
+	 * with functions.
+	 */
+	@Test
+	void testCompileFunctions() {
+		assertEquals(Math.cos(2) / Math.sin(2), evaluate("cot(x)", 2, 0), 1e-12);
+		assertEquals(3.0, evaluate("log_2(x)", 8, 0), 1e-12);
+		assertEquals(1.0, evaluate("ln(e)", 0, 0), 1e-12);
+		assertEquals(Math.acos(0.5), evaluate("arcsec(x)", 2, 0), 1e-12);
+	}
+
+	/**
+	 * Test method for {@link model.Evaluator#compile(structures.BinaryTreeNode, java.util.List)}
+	 * with an unknown symbol.
+	 */
+	@Test
+	void testCompileUnknownSymbol() {
+		assertThrows(IllegalArgumentException.class, () -> evaluate("x + z", 1, 1));
+	}
+
+	/**
+	 * Test method for {@link model.Evaluator#compile(structures.BinaryTreeNode, java.util.List)}
+	 * with integer exponents.
+	 */
+	@Test
+	void testCompileIntegerPowers() {
+		assertEquals(8.0, evaluate("x ^ 3", 2, 0), 1e-12);
+		assertEquals(-512.0, evaluate("(0 - x) ^ 3", 8, 0), 1e-9);
+		assertEquals(0.25, evaluate("x ^ -2", 2, 0), 1e-12);
+		assertEquals(1.0, evaluate("x ^ 0", 0, 0), 0);
+		assertEquals(Math.pow(1.1, 64), evaluate("x ^ 64", 1.1, 0), 1e-9);
+		assertEquals(Math.pow(1.1, 65), evaluate("x ^ 65", 1.1, 0), 1e-9);
+		assertEquals(Math.sqrt(2), evaluate("x ^ 0.5", 2, 0), 1e-12);
+		assertEquals(9.0, evaluate("x ^ (1 + 1)", 3, 0), 1e-12);
+	}
+
+	/**
+	 * Test method for {@link model.Evaluator#compile(structures.BinaryTreeNode, java.util.List)}
+	 * folding constant subtrees.
+	 */
+	@Test
+	void testCompileConstantFolding() {
+		assertEquals(Math.sin(1) + 3, evaluate("sin(2 - 1) + ((x * 0) + 3)", 7, 0), 1e-12);
+		assertEquals(2 * Math.E, evaluate("2e", 0, 0), 1e-12);
+	}
+
+	/**
+	 * Test method for {@link model.Evaluator#compile(structures.BinaryTreeNode, String)}.
+	 */
+	@Test
+	void testCompileSingleVariable() {
+		final String[] expressions = {"(x * x) + 1", "(3x - 1) / (x ^ 2)", "sin(x) ^ 3",
+		    "abs(x - 2)", "sin(x) + cos(x)", "tan(x) * sec(x)", "csc(x) - cot(x)",
+		    "arcsin(x / 2) + arccos(x / 2)", "arctan(x) + arccot(x)",
+		    "arcsec(x + 1) + arccsc(x + 1)", "(ln(x) + log(x)) + log_10(x)", "x ^ x",
+		    "-sin(x)", "2.5x * e"};
+		for (String expression : expressions) {
+			final BinaryTreeNode<String> root = parse(expression);
+			final double expected = Evaluator.compile(root, List.of("x")).applyAsDouble(
+			    new double[] {0.75});
+			assertEquals(expected, Evaluator.compile(root, "x").applyAsDouble(0.75), 1e-12,
+			    expression);
+		}
+		assertEquals(Math.log(0.75), Evaluator.compile(parse("ln(x)"), "x").applyAsDouble(0.75),
+		    1e-12);
+		assertThrows(IllegalArgumentException.class,
+		    () -> Evaluator.compile(parse("x + y"), "x"));
+	}
+
+}
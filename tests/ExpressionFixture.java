@@ -0,0 +1,39 @@
+/**
+ * ExpressionFixture - Derivatives Calculator
+ */
+
+package tests;
+
+import model.ExpressionParser;
+import org.junit.jupiter.api.BeforeEach;
+import structures.BinaryTreeNode;
+
+/**
+ * The shared fixture of the unit tests on parsed expressions. It sets the valid functions
+ * accepted by this program before each test and parses the expressions the tests use.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+abstract class ExpressionFixture {
+
+	/**
+	 * Set the valid functions accepted by this program before each test.
+	 */
+	@BeforeEach
+	void setValidFunctions() {
+		ExpressionParser.setValidFunctions();
+	}
+
+	/**
+	 * Returns the root node of the binary tree parsed from the specified expression.
+	 *
+	 * @param theExpression the expression being parsed
+	 * @return the root node of the parsed expression
+	 */
+	static BinaryTreeNode<String> parse(final String theExpression) {
+		return ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(theExpression))
+		    .getNode();
+	}
+
+}
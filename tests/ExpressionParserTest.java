@@ -18,7 +18,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * Unit tests for the ExpressionParser class.
  *
  * @author Jacob Klymenko
- * @version 3.0
+ * @version 3.1
  */
 class ExpressionParserTest {
 
@@ -87,6 +87,19 @@ class ExpressionParserTest {
 		assertEquals(myTempList, ExpressionParser.stringToList(myValidExp2));
 	}
 
+	/**
+	 * Test method for {@link model.ExpressionParser#stringToList(java.lang.CharSequence)}
+	 * giving the same tokens as the String overload, for a sequence that is not a String.
+	 */
+	@Test
+	void testStringToListCharSequence() {
+		final StringBuilder input = new StringBuilder("  ").append(myValidExp2).append('\t');
+		assertEquals(ExpressionParser.stringToList(myValidExp2),
+		    ExpressionParser.stringToList(input.subSequence(2, input.length() - 1)));
+		assertEquals(ExpressionParser.stringToList(myValidExp1),
+		    ExpressionParser.stringToList(new StringBuilder(myValidExp1)));
+	}
+
 	/**
 	 * Test method for {@link model.ExpressionParser#shuntingYardTree(java.util.ArrayList)}.
 	 */
@@ -0,0 +1,135 @@
+/**
+ * ExpressionTemplateTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import model.Differentiator;
+import model.Evaluator;
+import model.ExpressionTemplate;
+import model.Gradient;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the ExpressionTemplate class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class ExpressionTemplateTest extends ExpressionFixture {
+
+	/** The template of every test. */
+	private static final String TEMPLATE = "((a * (x ^ 3)) + (2b * sin(x))) - (c / x)";
+
+	/** The values of x every bound expression is evaluated at. */
+	private static final double[] VALUES = {-2.5, -1, 0.3, 1, 1.7, 3};
+
+	/**
+	 * Returns the value of the template's expression at the specified values.
+	 *
+	 * @param theX	the value of x
+	 * @param theA	the value of a
+	 * @param theB	the value of b
+	 * @param theC	the value of c
+	 * @return the value of the expression
+	 */
+	private static double function(final double theX, final double theA, final double theB,
+	    final double theC) {
+		return theA * theX * theX * theX + 2 * theB * Math.sin(theX) - theC / theX;
+	}
+
+	/**
+	 * Returns the value of the template's derivative at the specified values.
+	 *
+	 * @param theX	the value of x
+	 * @param theA	the value of a
+	 * @param theB	the value of b
+	 * @param theC	the value of c
+	 * @return the value of the derivative
+	 */
+	private static double derivative(final double theX, final double theA, final double theB,
+	    final double theC) {
+		return 3 * theA * theX * theX + 2 * theB * Math.cos(theX) + theC / (theX * theX);
+	}
+
+	/**
+	 * Test method for {@link model.ExpressionTemplate#evaluate(double, double...)} and
+	 * {@link model.ExpressionTemplate#evaluateDerivative(double, double...)}.
+	 */
+	@Test
+	void testEvaluate() {
+		final ExpressionTemplate template = ExpressionTemplate.compile(TEMPLATE, "x", "a", "b",
+		    "c");
+		final double[][] parameters = {{1, 2, 3}, {-0.5, 0, 4}, {2.25, -1, 0}};
+		for (double[] p : parameters) {
+			for (double x : VALUES) {
+				assertEquals(function(x, p[0], p[1], p[2]), template.evaluate(x, p), 1e-12);
+				assertEquals(derivative(x, p[0], p[1], p[2]),
+				    template.evaluateDerivative(x, p), 1e-12);
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link model.ExpressionTemplate#bind(double...)} and
+	 * {@link model.ExpressionTemplate#bindDerivative(double...)}.
+	 */
+	@Test
+	void testBind() {
+		final ExpressionTemplate template = ExpressionTemplate.compile(TEMPLATE, "x", "a", "b",
+		    "c");
+		final double[][] parameters = {{1, 2, 3}, {-0.5, 0, 4}, {2.25, -1, 0}};
+		for (double[] p : parameters) {
+			final BinaryTreeNode<String> function = template.bind(p);
+			final BinaryTreeNode<String> derivative = template.bindDerivative(p);
+			assertEquals(List.of("x"), Gradient.variables(function));
+			assertEquals(List.of("x"), Gradient.variables(derivative));
+			for (double x : VALUES) {
+				assertEquals(function(x, p[0], p[1], p[2]),
+				    Evaluator.compile(function, "x").applyAsDouble(x), 1e-12,
+				    Differentiator.treeNodeToString(function, 0));
+				assertEquals(derivative(x, p[0], p[1], p[2]),
+				    Evaluator.compile(derivative, "x").applyAsDouble(x), 1e-12,
+				    Differentiator.treeNodeToString(derivative, 0));
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link model.ExpressionTemplate#bindDerivative(double...)} with a
+	 * parameter prefixed to a function.
+	 */
+	@Test
+	void testBindFunctionPrefix() {
+		final BinaryTreeNode<String> root = new BinaryTreeNode<String>("asin",
+		    new BinaryTreeNode<String>("x"), null);
+		final ExpressionTemplate template = ExpressionTemplate.compile(root, "x", "a");
+		assertEquals(3 * Math.cos(0.5), template.evaluateDerivative(0.5, 3), 1e-12);
+		assertEquals(3 * Math.sin(0.5),
+		    Evaluator.compile(template.bind(3), "x").applyAsDouble(0.5), 1e-12);
+		assertEquals("sin(x)", Differentiator.treeNodeToString(template.bind(1), 0));
+	}
+
+	/**
+	 * Test method for {@link model.ExpressionTemplate#compile(String, String, String...)} with
+	 * invalid arguments.
+	 */
+	@Test
+	void testCompileInvalid() {
+		assertThrows(IllegalArgumentException.class,
+		    () -> ExpressionTemplate.compile("(a * x) + d", "x", "a"));
+		assertThrows(IllegalArgumentException.class,
+		    () -> ExpressionTemplate.compile("a * x", "x", "a", "a"));
+		assertThrows(IllegalArgumentException.class,
+		    () -> ExpressionTemplate.compile("a * x", "x", "x"));
+		final ExpressionTemplate template = ExpressionTemplate.compile("a * x", "x", "a");
+		assertThrows(IllegalArgumentException.class, () -> template.evaluate(1));
+		assertThrows(IllegalArgumentException.class, () -> template.bind(Double.NaN));
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+ * ExpressionTemplateThroughputBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Differentiator;
+import model.Evaluator;
+import model.ExpressionParser;
+import model.ExpressionTemplate;
+import model.Simplifier;
+import structures.BinaryTreeNode;
+
+/**
+ * This class compares the time per coefficient set of differentiating many variants of the
+ * same expression, which differ only in their numeric coefficients. Every variant either goes
+ * through the full symbolic pipeline, from its String to its simplified derivative printed and
+ * evaluated, or is bound to an ExpressionTemplate derived and compiled once, evaluating its
+ * derivative with and without printing it. Each is measured after a warm-up and the fastest of
+ * a few rounds is reported.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class ExpressionTemplateThroughputBenchmark {
+
+	/** The template of the variants, whose parameters are a, b and c. */
+	private static final String TEMPLATE = "((a * (x ^ 3)) + (b * sin(x))) - (c * ln(x))";
+
+	/** The number of variants differentiated in a round. */
+	private static final int VARIANTS = 2000;
+
+	/** The value of x every derivative is evaluated at. */
+	private static final double X = 1.5;
+
+	/** The number of rounds of each measurement, after as many warm-up rounds. */
+	private static final int ROUNDS = 5;
+
+	/** The sum of every value evaluated, printed so the evaluations cannot be eliminated. */
+	private static double mySink;
+
+	/** A private constructor to inhibit external instantiation. */
+	private ExpressionTemplateThroughputBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - unused
+	 */
+	public static void main(final String[] theArgs) {
+		ExpressionParser.setValidFunctions();
+		final double[][] parameters = new double[VARIANTS][];
+		final String[] variants = new String[VARIANTS];
+		for (int i = 0; i < VARIANTS; i++) {
+			parameters[i] = new double[] {1 + i % 7, 2 + i % 11, 3 + i % 13};
+			variants[i] = TEMPLATE.replace("a", String.valueOf((int) parameters[i][0]))
+			    .replace("b", String.valueOf((int) parameters[i][1]))
+			    .replace("c", String.valueOf((int) parameters[i][2]));
+		}
+		long start = System.nanoTime();
+		ExpressionTemplate template = ExpressionTemplate.compile(TEMPLATE, "x", "a", "b", "c");
+		final long compile = System.nanoTime() - start;
+		final long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+		for (int round = 0; round < 2 * ROUNDS; round++) {
+			final long[] times = new long[best.length];
+			start = System.nanoTime();
+			for (String variant : variants) {
+				final BinaryTreeNode<String> derivative = Simplifier.simplify(
+				    Differentiator.derivePartial(ExpressionParser.shuntingYardTree(
+				        ExpressionParser.stringToList(variant)).getNode(),
+				        new BinaryTreeNode<String>("x")));
+				mySink += Differentiator.treeNodeToString(derivative, 0).length() +
+				    Evaluator.compile(derivative, "x").applyAsDouble(X);
+			}
+			times[0] = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (double[] p : parameters) {
+				mySink += Differentiator.treeNodeToString(template.bindDerivative(p), 0).length() +
+				    template.evaluateDerivative(X, p);
+			}
+			times[1] = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (double[] p : parameters) {
+				mySink += template.evaluateDerivative(X, p);
+			}
+			times[2] = System.nanoTime() - start;
+			if (round >= ROUNDS) {
+				for (int i = 0; i < best.length; i++) {
+					best[i] = Math.min(best[i], times[i]);
+				}
+			}
+		}
+		System.out.printf("%,d variants of %s, template compiled in %.1f ms%n", VARIANTS,
+		    TEMPLATE, compile / 1e6);
+		System.out.printf("full pipeline per variant: %.2f us per variant%n",
+		    best[0] / 1e3 / VARIANTS);
+		System.out.printf("template, printed:         %.2f us per variant%n",
+		    best[1] / 1e3 / VARIANTS);
+		System.out.printf("template, evaluated only:  %.3f us per variant (checksum %s)%n",
+		    best[2] / 1e3 / VARIANTS, mySink);
+	}
+}
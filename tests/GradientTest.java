@@ -0,0 +1,115 @@
+/**
+ * GradientTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.Differentiator;
+import model.Gradient;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for the Gradient class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class GradientTest extends ExpressionFixture {
+
+	/** The variables of differentiation used for all the tests. */
+	private static final List<String> VARIABLES = List.of("x", "y", "z");
+
+	/**
+	 * Returns the partial derivatives as Strings.
+	 *
+	 * @param thePartials the partial derivatives
+	 * @return the partial derivatives as Strings
+	 */
+	private static List<String> toStrings(final List<BinaryTreeNode<String>> thePartials) {
+		final List<String> result = new ArrayList<>();
+		for (BinaryTreeNode<String> partial : thePartials) {
+			result.add(Differentiator.treeNodeToString(partial, 0));
+		}
+		return result;
+	}
+
+	/**
+	 * Test method for {@link model.Gradient#gradient(structures.BinaryTreeNode, java.util.List)}.
+	 */
+	@Test
+	void testGradient() {
+		final List<BinaryTreeNode<String>> gradient =
+		    Gradient.gradient(parse("(x * y) + (5 * z)"), VARIABLES);
+		assertEquals(List.of("y", "x", "5"), toStrings(gradient));
+	}
+
+	/**
+	 * Test method for {@link model.Gradient#gradient(structures.BinaryTreeNode, java.util.List)}
+	 * with a variable the expression does not depend on.
+	 */
+	@Test
+	void testGradientZero() {
+		final List<BinaryTreeNode<String>> gradient =
+		    Gradient.gradient(parse("(x / y) - 3"), VARIABLES);
+		assertEquals(List.of("1 / y", "(0 - x) / (y ^ 2)", "0"), toStrings(gradient));
+	}
+
+	/**
+	 * Test method for {@link model.Gradient#gradient(structures.BinaryTreeNode, java.util.List)}
+	 * sharing the chain rule factor between the partial derivatives.
+	 */
+	@Test
+	void testGradientSharedFactor() {
+		final List<BinaryTreeNode<String>> gradient =
+		    Gradient.gradient(parse("sin(x * y)"), VARIABLES);
+		assertEquals("cos((x * y)) * y", toStrings(gradient).get(0));
+		assertEquals("cos((x * y)) * x", toStrings(gradient).get(1));
+		assertSame(gradient.get(0).getLeft(), gradient.get(1).getLeft());
+	}
+
+	/**
+	 * Test method for {@link model.Gradient#gradient(structures.BinaryTreeNode, java.util.List)}
+	 * with exponents.
+	 */
+	@Test
+	void testGradientExponent() {
+		assertEquals(List.of("3 * (x ^ (3 - 1))", "0", "0"),
+		    toStrings(Gradient.gradient(parse("x ^ 3"), VARIABLES)));
+		assertEquals(List.of("0", "(2 ^ y) * ln(2)", "0"),
+		    toStrings(Gradient.gradient(parse("2 ^ y"), VARIABLES)));
+		assertEquals(List.of("(x ^ y) * (y / x)", "(x ^ y) * ln(x)", "0"),
+		    toStrings(Gradient.gradient(parse("x ^ y"), VARIABLES)));
+	}
+
+	/**
+	 * Test method for {@link model.Gradient#jacobian(java.util.List, java.util.List)}.
+	 */
+	@Test
+	void testJacobian() {
+		final BinaryTreeNode<String> shared = parse("x * y");
+		final BinaryTreeNode<String> first = new BinaryTreeNode<String>("sin", shared, null);
+		final BinaryTreeNode<String> second =
+		    new BinaryTreeNode<String>("+", shared, new BinaryTreeNode<String>("z"));
+		final List<List<BinaryTreeNode<String>>> jacobian =
+		    Gradient.jacobian(List.of(first, second), VARIABLES);
+		assertEquals(List.of("y", "x", "1"), toStrings(jacobian.get(1)));
+		// the derivatives of the shared subtree are the same nodes in both rows
+		assertSame(jacobian.get(0).get(0).getRight(), jacobian.get(1).get(0));
+		assertSame(jacobian.get(0).get(1).getRight(), jacobian.get(1).get(1));
+	}
+
+	/**
+	 * Test method for {@link model.Gradient#variables(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testVariables() {
+		assertEquals(List.of("x", "y"), Gradient.variables(parse("(e ^ (5x)) + ln(y * 2)")));
+	}
+
+}
@@ -0,0 +1,91 @@
+/**
+ * GridEvaluatorTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.concurrent.ForkJoinPool;
+import model.GridEvaluator;
+import model.GridEvaluator.Axis;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the GridEvaluator class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class GridEvaluatorTest extends ExpressionFixture {
+
+	/**
+	 * Test method for {@link model.GridEvaluator#evaluate()} on a single axis split into
+	 * several chunks.
+	 */
+	@Test
+	void testEvaluateOneAxis() {
+		final int points = 10_001;
+		final double[][] result =
+		    GridEvaluator.compile("sin((x ^ 2) * 3)", "x", new Axis("x", -2, 2, points))
+		    .evaluate();
+		for (int i = 0; i < points; i++) {
+			final double x = -2 + 4.0 * i / (points - 1);
+			assertEquals(Math.sin(3 * x * x), result[0][i], 1e-12);
+			assertEquals(6 * x * Math.cos(3 * x * x), result[1][i], 1e-9);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.GridEvaluator#evaluate()} on two axes, in row-major order.
+	 */
+	@Test
+	void testEvaluateTwoAxes() {
+		final GridEvaluator evaluator = GridEvaluator.compile("(x ^ 2) * sin(y)", "y",
+		    new Axis("x", 0, 3, 61), new Axis("y", -1, 1, 101));
+		final double[][] result = evaluator.evaluate();
+		assertEquals(61 * 101, evaluator.getSize());
+		for (int i = 0; i < 61; i++) {
+			for (int j = 0; j < 101; j++) {
+				final double x = 3.0 * i / 60;
+				final double y = -1 + 2.0 * j / 100;
+				assertEquals(x * x * Math.sin(y), result[0][i * 101 + j], 1e-12);
+				assertEquals(x * x * Math.cos(y), result[1][i * 101 + j], 1e-12);
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link model.GridEvaluator#evaluate(ForkJoinPool, double[], double[])}
+	 * into preallocated arrays.
+	 */
+	@Test
+	void testEvaluatePreallocated() {
+		final GridEvaluator evaluator =
+		    GridEvaluator.compile("(x ^ 3) - x", "x", new Axis("x", 1, 1, 1));
+		final double[] values = {7, 7};
+		final double[] derivatives = {7, 7};
+		evaluator.evaluate(new ForkJoinPool(2), values, derivatives);
+		assertEquals(0, values[0], 1e-12);
+		assertEquals(2, derivatives[0], 1e-12);
+		assertEquals(7, values[1], 0);
+		assertThrows(IllegalArgumentException.class,
+		    () -> evaluator.evaluate(ForkJoinPool.commonPool(), values, new double[0]));
+	}
+
+	/**
+	 * Test method for {@link model.GridEvaluator#compile(String, String, Axis...)} with invalid
+	 * arguments.
+	 */
+	@Test
+	void testCompileInvalid() {
+		assertThrows(IllegalArgumentException.class,
+		    () -> GridEvaluator.compile("x + z", "x", new Axis("x", 0, 1, 10)));
+		assertThrows(IllegalArgumentException.class, () -> GridEvaluator.compile("x", "x"));
+		assertThrows(IllegalArgumentException.class, () -> GridEvaluator.compile("x * x", "x",
+		    new Axis("x", 0, 1, 10), new Axis("x", 0, 1, 10)));
+		assertThrows(IllegalArgumentException.class, () -> new Axis("x", 0, 1, 0));
+	}
+
+}
@@ -0,0 +1,100 @@
+/**
+ * GridEvaluatorThroughputBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import model.Differentiator;
+import model.Evaluator;
+import model.ExpressionParser;
+import model.GridEvaluator;
+import model.GridEvaluator.Axis;
+import model.Simplifier;
+import structures.BinaryTreeNode;
+
+/**
+ * This class compares the time per grid point of evaluating an expression and its derivative
+ * the way an external loop calling the calculator does, parsing and deriving the expression
+ * again at every point, with a GridEvaluator deriving and compiling it once and evaluating the
+ * grid in parallel. Both are measured after a warm-up and the fastest of a few rounds is
+ * reported.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class GridEvaluatorThroughputBenchmark {
+
+	/** The expression evaluated with its derivative. */
+	private static final String EXPRESSION = "ln((x ^ 4) + (2 * x)) * sin(x / 3)";
+
+	/** The number of points evaluated by the loop parsing at every point. */
+	private static final int LOOP_POINTS = 20_000;
+
+	/** The number of points of the grid. */
+	private static final int GRID_POINTS = 10_000_000;
+
+	/** The number of rounds of each measurement, after as many warm-up rounds. */
+	private static final int ROUNDS = 5;
+
+	/** The sum of every value evaluated, printed so the evaluations cannot be eliminated. */
+	private static double mySink;
+
+	/** A private constructor to inhibit external instantiation. */
+	private GridEvaluatorThroughputBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - unused
+	 */
+	public static void main(final String[] theArgs) {
+		ExpressionParser.setValidFunctions();
+		long loopBest = Long.MAX_VALUE;
+		long gridBest = Long.MAX_VALUE;
+		final double[] values = new double[GRID_POINTS];
+		final double[] derivatives = new double[GRID_POINTS];
+		for (int round = 0; round < 2 * ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < LOOP_POINTS; i++) {
+				loopPoint(1 + 2.0 * i / LOOP_POINTS);
+			}
+			final long loop = System.nanoTime() - start;
+			start = System.nanoTime();
+			GridEvaluator.compile(EXPRESSION, "x", new Axis("x", 1, 3, GRID_POINTS))
+			    .evaluate(ForkJoinPool.commonPool(), values, derivatives);
+			final long grid = System.nanoTime() - start;
+			mySink += values[GRID_POINTS / 2] + derivatives[GRID_POINTS / 2];
+			if (round >= ROUNDS) {
+				loopBest = Math.min(loopBest, loop);
+				gridBest = Math.min(gridBest, grid);
+			}
+		}
+		System.out.println("parallelism: " + ForkJoinPool.getCommonPoolParallelism());
+		System.out.printf("loop parsing at every point: %.1f ns per point%n",
+		    (double) loopBest / LOOP_POINTS);
+		System.out.printf("grid, compiled once:         %.2f ns per point%n",
+		    (double) gridBest / GRID_POINTS);
+		System.out.printf("speedup: %.0fx (checksum %s)%n",
+		    (double) loopBest / LOOP_POINTS / ((double) gridBest / GRID_POINTS), mySink);
+	}
+
+	/**
+	 * Parses, derives and evaluates the expression and its derivative at the specified value,
+	 * like an external loop calling the calculator once per point.
+	 *
+	 * @param theValue the value of x
+	 */
+	private static void loopPoint(final double theValue) {
+		final BinaryTreeNode<String> root = ExpressionParser.shuntingYardTree(
+		    ExpressionParser.stringToList(EXPRESSION)).getNode();
+		final BinaryTreeNode<String> derivative = Simplifier.simplify(
+		    Differentiator.derivePartial(root, new BinaryTreeNode<String>("x")));
+		final double[] point = {theValue};
+		mySink += Evaluator.compile(root, List.of("x")).applyAsDouble(point) +
+		    Evaluator.compile(derivative, List.of("x")).applyAsDouble(point);
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * HessianTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import model.Differentiator;
+import model.Hessian;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for the Hessian class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class HessianTest extends ExpressionFixture {
+
+	/** The variables of differentiation used for all the tests. */
+	private static final List<String> VARIABLES = List.of("x", "y", "z");
+
+	/**
+	 * Test method for {@link model.Hessian#of(structures.BinaryTreeNode, java.util.List)}.
+	 */
+	@Test
+	void testOf() {
+		final Hessian hessian = Hessian.of(parse("(x * y) + (z ^ 2)"), VARIABLES);
+		assertEquals("1", Differentiator.treeNodeToString(hessian.get(0, 1), 0));
+		assertEquals("1", Differentiator.treeNodeToString(hessian.get(1, 0), 0));
+		assertEquals("0", Differentiator.treeNodeToString(hessian.get(0, 0), 0));
+		assertEquals("0", Differentiator.treeNodeToString(hessian.get(1, 2), 0));
+		// only the two structurally non-zero entries of the upper triangle are stored
+		assertEquals(2, hessian.getEntries().entryCount());
+		assertNull(hessian.getEntries().get(0, 2));
+	}
+
+	/**
+	 * Test method for {@link model.Hessian#getGradient()}.
+	 */
+	@Test
+	void testGetGradient() {
+		final Hessian hessian = Hessian.of(parse("(x * y) + 3"), VARIABLES);
+		assertEquals("y", Differentiator.treeNodeToString(hessian.getGradient().get(0), 0));
+		assertEquals("x", Differentiator.treeNodeToString(hessian.getGradient().get(1), 0));
+		assertEquals("0", Differentiator.treeNodeToString(hessian.getGradient().get(2), 0));
+	}
+
+	/**
+	 * Test method for {@link model.Hessian#of(structures.BinaryTreeNode, java.util.List)}
+	 * reusing the first-order gradient trees.
+	 */
+	@Test
+	void testOfReusesGradient() {
+		final Hessian hessian = Hessian.of(parse("sin(x * y)"), VARIABLES);
+		// d/dy (cos(x * y) * y) ends in the cos(x * y) factor of the gradient itself
+		final BinaryTreeNode<String> gradientX = hessian.getGradient().get(0);
+		assertSame(gradientX.getLeft(), hessian.get(0, 1).getRight());
+	}
+
+	/**
+	 * Test method for {@link model.Hessian#compile()}.
+	 */
+	@Test
+	void testCompile() {
+		final Hessian hessian = Hessian.of(parse("((x ^ 2) * y) + sin(z)"), VARIABLES);
+		final double[] result = new double[9];
+		hessian.compile().evaluate(new double[] {3, 2, 0.5}, result);
+		final double[] expected = {4, 6, 0, 6, 0, 0, 0, 0, -Math.sin(0.5)};
+		assertArrayEquals(expected, result, 1e-12);
+	}
+
+}
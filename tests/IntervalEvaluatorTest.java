@@ -0,0 +1,154 @@
+/**
+ * IntervalEvaluatorTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+import model.Differentiator;
+import model.Evaluator;
+import model.Interval;
+import model.IntervalEvaluator;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the IntervalEvaluator class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+class IntervalEvaluatorTest extends ExpressionFixture {
+
+	/** The number of random points every enclosure is checked at. */
+	private static final int SAMPLES = 2000;
+
+	/**
+	 * Asserts that the enclosure of the specified root's expression over [from, to] holds its
+	 * value at random points of the interval wherever it is defined.
+	 *
+	 * @param theRoot	the root node of the expression
+	 * @param theFrom	the lower bound of x
+	 * @param theTo		the upper bound of x
+	 */
+	private static void assertEncloses(final BinaryTreeNode<String> theRoot,
+	    final double theFrom, final double theTo) {
+		final Interval enclosure =
+		    IntervalEvaluator.evaluate(theRoot, Map.of("x", Interval.of(theFrom, theTo)));
+		final ToDoubleFunction<double[]> function = Evaluator.compile(theRoot, List.of("x"));
+		final Random random = new Random(theFrom > 0 ? 1 : 2);
+		for (int i = 0; i < SAMPLES; i++) {
+			final double x = i == 0 ? theFrom : theFrom + (theTo - theFrom) * random.nextDouble();
+			final double value = function.applyAsDouble(new double[] {x});
+			assertTrue(Double.isNaN(value) || Double.isInfinite(value) ||
+			    enclosure.contains(value), Differentiator.treeNodeToString(theRoot, 0) + " = " +
+			    value + " at " + x + " is outside of " + enclosure);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.IntervalEvaluator#evaluate(BinaryTreeNode, Map)}.
+	 */
+	@Test
+	void testEvaluateEncloses() {
+		final String[] expressions = {"((x ^ 3) - (2 * x)) + 1", "(3x - 1) / ((x ^ 2) + 1)",
+		    "(x + 5) ^ 0.5", "abs(x - 1) * e", "sin(x) + cos(2x)", "tan(x) * sec(x)",
+		    "csc(x) - cot(x)", "arcsin(x / 4) + arccos(x / 3)", "arctan(x) + arccot(x)",
+		    "arcsec(x) + arccsc(x)", "(ln(x) + log(x + 3)) + log_10(x + 3)", "-sin(x)",
+		    "xcos(x)", "2.5x ^ x"};
+		for (String expression : expressions) {
+			assertEncloses(parse(expression), -2.5, 3);
+			assertEncloses(parse(expression), 0.2, 0.7);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.IntervalEvaluator#evaluate(BinaryTreeNode, Map)} on
+	 * derivatives, as used for Lipschitz bounds.
+	 */
+	@Test
+	void testEvaluateDerivativesEnclose() {
+		final String[] expressions = {"sin((x ^ 2) * 3)", "ln((x ^ 4) + (2 * x))",
+		    "arctan((x * x) + 1)", "cos((x ^ 3) / (x + 3))"};
+		for (String expression : expressions) {
+			final BinaryTreeNode<String> derivative =
+			    Differentiator.derivePartial(parse(expression), new BinaryTreeNode<String>("x"));
+			assertEncloses(derivative, -2, 2);
+			assertEncloses(derivative, 0.5, 1);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.IntervalEvaluator#evaluate(BinaryTreeNode, Map)} on
+	 * unsimplified derivatives over negative boxes, whose integer exponents such as (4 - 1)
+	 * are rounded outward into intervals around the integer.
+	 */
+	@Test
+	void testEvaluateDerivativesNegativeBox() {
+		final String[] expressions = {"x ^ 4", "(x ^ 3) + (3 * x)", "(x - 1) ^ (8 / 2)",
+		    "sin(x) ^ (5 - 2)"};
+		for (String expression : expressions) {
+			final BinaryTreeNode<String> derivative =
+			    Differentiator.derive(parse(expression), new BinaryTreeNode<String>("x"));
+			assertFalse(IntervalEvaluator.evaluate(derivative,
+			    Map.of("x", Interval.of(-3, -1))).isEmpty(), expression);
+			assertEncloses(derivative, -3, -1);
+			assertEncloses(derivative, -2, 2);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.IntervalEvaluator#range(BinaryTreeNode, Map, double)}.
+	 */
+	@Test
+	void testRange() {
+		final BinaryTreeNode<String> root = parse("(x * x) - x");
+		final Map<String, Interval> box = Map.of("x", Interval.of(0, 2));
+		final Interval naive = IntervalEvaluator.evaluate(root, box);
+		final Interval range = IntervalEvaluator.range(root, box, 1e-6);
+		assertTrue(naive.getWidth() > 4);
+		assertTrue(range.contains(-0.25) && range.contains(2));
+		assertEquals(-0.25, range.getLower(), 1e-5);
+		assertEquals(2, range.getUpper(), 1e-5);
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.IntervalEvaluator#range(BinaryTreeNode, Map, double, int, ForkJoinPool)} over
+	 * two variables and over a box where the expression is partly undefined.
+	 */
+	@Test
+	void testRangeParallel() {
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		final Interval range = IntervalEvaluator.range(parse("sin(x) * cos(y)"),
+		    Map.of("x", Interval.of(0, 3), "y", Interval.of(-1, 1)), 1e-4, 100_000, pool);
+		assertEquals(0, range.getLower(), 1e-3);
+		assertEquals(1, range.getUpper(), 1e-3);
+		assertTrue(range.contains(0) && range.contains(1));
+		final Interval ln = IntervalEvaluator.range(parse("ln(x)"),
+		    Map.of("x", Interval.of(-1, Math.E)), 1e-6, 1000, pool);
+		assertEquals(1, ln.getUpper(), 1e-6);
+		assertTrue(IntervalEvaluator.range(parse("ln(x)"), Map.of("x", Interval.of(-3, -1)),
+		    1e-6).isEmpty());
+	}
+
+	/**
+	 * Test method for {@link model.IntervalEvaluator#evaluate(BinaryTreeNode, Map)} with an
+	 * unknown symbol.
+	 */
+	@Test
+	void testEvaluateUnknownSymbol() {
+		assertThrows(IllegalArgumentException.class,
+		    () -> IntervalEvaluator.evaluate(parse("x + z"), Map.of("x", Interval.point(1))));
+	}
+
+}
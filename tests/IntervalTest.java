@@ -0,0 +1,152 @@
+/**
+ * IntervalTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Interval;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the Interval class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+class IntervalTest {
+
+	/**
+	 * Asserts that the specified interval encloses the specified bounds and is barely wider,
+	 * by a relative 1e-12 at most on each side.
+	 *
+	 * @param theLower		the expected lower bound
+	 * @param theUpper		the expected upper bound
+	 * @param theInterval	the interval being checked
+	 */
+	private static void assertEncloses(final double theLower, final double theUpper,
+	    final Interval theInterval) {
+		assertTrue(theInterval.getLower() <= theLower && theUpper <= theInterval.getUpper(),
+		    theInterval + " does not enclose [" + theLower + ", " + theUpper + "]");
+		assertEquals(theLower, theInterval.getLower(), 1e-12 * Math.max(1, Math.abs(theLower)));
+		assertEquals(theUpper, theInterval.getUpper(), 1e-12 * Math.max(1, Math.abs(theUpper)));
+	}
+
+	/**
+	 * Test method for {@link model.Interval#valueOf(String)}.
+	 */
+	@Test
+	void testValueOf() {
+		assertEquals(Interval.point(0.5), Interval.valueOf("0.5"));
+		final Interval tenth = Interval.valueOf("0.1");
+		assertTrue(tenth.contains(0.1));
+		assertEquals(Math.nextUp(0.1), tenth.getUpper());
+		assertEquals(Math.nextDown(0.1), tenth.getLower());
+		assertThrows(IllegalArgumentException.class, () -> Interval.of(2, 1));
+	}
+
+	/**
+	 * Test method for {@link model.Interval#add(Interval)} and the other arithmetic
+	 * operations, rounded outward.
+	 */
+	@Test
+	void testArithmetic() {
+		final Interval a = Interval.of(-1, 2);
+		final Interval b = Interval.of(3, 4);
+		assertEncloses(2, 6, a.add(b));
+		assertEncloses(-5, -1, a.subtract(b));
+		assertEncloses(-4, 8, a.multiply(b));
+		assertEncloses(-1.0 / 3, 2.0 / 3, a.divide(b));
+		assertEquals(Interval.ENTIRE, b.divide(a));
+		assertTrue(b.divide(Interval.point(0)).isEmpty());
+		final Interval sum = Interval.valueOf("0.1").add(Interval.valueOf("0.2"));
+		assertTrue(sum.getLower() < 0.3 && 0.3 < sum.getUpper());
+		assertEncloses(0, 0, Interval.point(0).multiply(Interval.ENTIRE));
+	}
+
+	/**
+	 * Test method for {@link model.Interval#power(Interval)} and {@link model.Interval#power(int)}.
+	 */
+	@Test
+	void testPower() {
+		final Interval a = Interval.of(-2, 3);
+		assertEncloses(0, 9, a.power(2));
+		assertEncloses(-8, 27, a.power(Interval.point(3)));
+		assertEncloses(1, 1, a.power(0));
+		assertEquals(Interval.ENTIRE, a.power(-1));
+		assertEncloses(1.0 / 9, 1.0 / 4, Interval.of(2, 3).power(-2));
+		assertEncloses(0, Math.sqrt(3), a.power(Interval.point(0.5)));
+		assertTrue(Interval.of(-3, -2).power(Interval.point(0.5)).isEmpty());
+		assertEncloses(Math.pow(2, 0.5), 9, Interval.of(2, 3).power(Interval.of(0.5, 2)));
+		final Interval four = Interval.point(5).subtract(Interval.point(1));
+		assertTrue(four.getWidth() > 0);
+		assertTrue(Interval.of(-2, -1).power(four).contains(1));
+		assertTrue(Interval.of(-2, -1).power(four).contains(16));
+		assertTrue(a.power(four).contains(0) && a.power(four).contains(81));
+		final Interval three = Interval.point(8).divide(Interval.point(2)).subtract(
+		    Interval.point(1));
+		assertTrue(Interval.of(-2, -1).power(three).contains(-8));
+		assertTrue(Interval.of(-2, -1).power(three).contains(-1));
+		assertTrue(Interval.of(-3, -2).power(Interval.of(3.5, 3.9)).isEmpty());
+	}
+
+	/**
+	 * Test method for {@link model.Interval#sin()}, {@link model.Interval#cos()} and
+	 * {@link model.Interval#tan()} over their periods.
+	 */
+	@Test
+	void testTrigonometric() {
+		assertEncloses(Math.sin(0.1), 1, Interval.of(0.1, 3).sin());
+		assertEncloses(-1, Math.sin(2), Interval.of(2, 5).sin());
+		assertEncloses(-1, 1, Interval.of(1, 8).sin());
+		assertEncloses(Math.cos(0.2), 1, Interval.of(-0.1, 0.2).cos());
+		assertEncloses(-1, Math.cos(4), Interval.of(3, 4).cos());
+		assertEncloses(-1, 1, Interval.of(-1e13, 1e13).cos());
+		assertEncloses(Math.tan(-1), Math.tan(1), Interval.of(-1, 1).tan());
+		assertEquals(Interval.ENTIRE, Interval.of(1, 2).tan());
+		assertEncloses(1 / Math.tan(2), 1 / Math.tan(1), Interval.of(1, 2).cot());
+		assertEquals(Interval.ENTIRE, Interval.of(3, 4).cot());
+		assertEncloses(1, 1 / Math.cos(1), Interval.of(-0.5, 1).sec());
+		assertEncloses(1, 1 / Math.sin(1), Interval.of(1, 2).csc());
+		assertEquals(Interval.ENTIRE, Interval.of(-1, 1).csc());
+	}
+
+	/**
+	 * Test method for {@link model.Interval#arcsin()} and the other inverse trigonometric
+	 * functions over their domains.
+	 */
+	@Test
+	void testInverseTrigonometric() {
+		assertEncloses(Math.asin(0.5), Math.PI / 2, Interval.of(0.5, 2).arcsin());
+		assertTrue(Interval.of(2, 3).arcsin().isEmpty());
+		assertEncloses(0, Math.acos(-0.5), Interval.of(-0.5, 7).arccos());
+		assertEncloses(Math.atan(-2), Math.atan(3), Interval.of(-2, 3).arctan());
+		assertEncloses(Math.PI / 2 - Math.atan(3), Math.PI / 2 - Math.atan(-2),
+		    Interval.of(-2, 3).arccot());
+		assertEncloses(0, Math.PI, Interval.of(-2, 3).arcsec());
+		assertEncloses(Math.acos(0.5), Math.acos(0.25), Interval.of(2, 4).arcsec());
+		assertEncloses(Math.asin(0.25), Math.asin(0.5), Interval.of(2, 4).arccsc());
+		assertEncloses(Math.asin(-0.5), Math.asin(-1.0 / 3), Interval.of(-3, -2).arccsc());
+	}
+
+	/**
+	 * Test method for {@link model.Interval#ln()} and {@link model.Interval#abs()}.
+	 */
+	@Test
+	void testLnAndAbs() {
+		final Interval ln = Interval.of(-1, Math.E).ln();
+		assertEquals(Double.NEGATIVE_INFINITY, ln.getLower());
+		assertEquals(1, ln.getUpper(), 1e-12);
+		assertTrue(ln.contains(1));
+		assertTrue(Interval.of(-2, -1).ln().isEmpty());
+		assertEncloses(0, 3, Interval.of(-2, 3).abs());
+		assertEncloses(1, 2, Interval.of(-2, -1).abs());
+		assertFalse(Interval.EMPTY.hull(Interval.point(1)).isEmpty());
+		assertEquals("[]", Interval.EMPTY.toString());
+	}
+
+}
@@ -0,0 +1,80 @@
+/**
+ * LetProgramTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import model.Differentiator;
+import model.Evaluator;
+import model.LetProgram;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the LetProgram class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class LetProgramTest extends ExpressionFixture {
+
+	/** The hard coded variable of differentiation used for all the tests. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/**
+	 * Test method for {@link model.LetProgram#eliminate(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testEliminate() {
+		final LetProgram program = LetProgram.eliminate(parse("((x + 1) * (x + 1)) + (x + 1)"));
+		assertEquals("t1 = x + 1; result = (t1 * t1) + t1", program.toString());
+		assertEquals(11, program.getNodeCountBefore());
+		assertEquals(8, program.getNodeCountAfter());
+	}
+
+	/**
+	 * Test method for {@link model.LetProgram#eliminate(structures.BinaryTreeNode)} with a
+	 * temporary name which clashes with a variable.
+	 */
+	@Test
+	void testEliminateNameClash() {
+		final LetProgram program = LetProgram.eliminate(parse("(t1 * x) / (t1 * x)"));
+		assertEquals(List.of("t2"), program.getNames());
+	}
+
+	/**
+	 * Test method for {@link model.LetProgram#eliminate(structures.BinaryTreeNode)} with a
+	 * subtree referenced from many places.
+	 */
+	@Test
+	void testEliminateShared() {
+		BinaryTreeNode<String> root = new BinaryTreeNode<String>("x");
+		for (int i = 0; i < 40; i++) {
+			root = new BinaryTreeNode<String>("+", root, root);
+		}
+		final LetProgram program = LetProgram.eliminate(root);
+		assertEquals((1L << 41) - 1, program.getNodeCountBefore());
+		assertEquals(39, program.getNames().size());
+		assertEquals(Math.pow(2, 40) * 3,
+		    program.compile(List.of("x")).applyAsDouble(new double[] {3}), 1e-3);
+	}
+
+	/**
+	 * Test method for {@link model.LetProgram#compile(java.util.List)}.
+	 */
+	@Test
+	void testCompile() {
+		final BinaryTreeNode<String> derivative =
+		    Differentiator.derive(parse("((x + 1) / (x - 1)) / ((x + 1) / (x - 1))"), VAR_DIFF);
+		final LetProgram program = LetProgram.eliminate(derivative);
+		assertTrue(program.getNodeCountAfter() < program.getNodeCountBefore());
+		final double[] point = {2.5};
+		assertEquals(Evaluator.compile(derivative, List.of("x")).applyAsDouble(point),
+		    program.compile(List.of("x")).applyAsDouble(point), 1e-12);
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * NaryNodeTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Differentiator;
+import model.NaryNode;
+import model.NaryNode.Kind;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the NaryNode class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class NaryNodeTest extends ExpressionFixture {
+
+	/** The hard coded variable of differentiation used for all the tests. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/**
+	 * Returns the specified expression simplified through its n-ary form, as a String.
+	 *
+	 * @param theExpression the expression being simplified
+	 * @return the simplified expression as a String
+	 */
+	private static String simplify(final String theExpression) {
+		return Differentiator.treeNodeToString(NaryNode.simplify(parse(theExpression)), 0);
+	}
+
+	/**
+	 * Test method for {@link model.NaryNode#of(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testOfFlattens() {
+		final NaryNode sum = NaryNode.of(parse("(a - (b - c)) + (d + e)"));
+		assertEquals(Kind.SUM, sum.getKind());
+		assertEquals(5, sum.operandCount());
+		assertFalse(sum.isNegated(0));
+		assertTrue(sum.isNegated(1));
+		assertFalse(sum.isNegated(2));
+		assertFalse(sum.isNegated(4));
+
+		final NaryNode product = NaryNode.of(parse("(a * b) * (c * (d / e))"));
+		assertEquals(Kind.PRODUCT, product.getKind());
+		assertEquals(4, product.operandCount());
+		assertEquals("/", product.getOperand(3).getElement());
+		assertEquals(NaryNode.of(parse("a * (b * (c * (d / e)))")), product);
+	}
+
+	/**
+	 * Test method for {@link model.NaryNode#toTree()}.
+	 */
+	@Test
+	void testToTree() {
+		assertEquals("((a - b) + c) - d",
+		    NaryNode.of(parse("(a - (b - c)) - d")).toString());
+		assertEquals("0 - (a * b)", NaryNode.sum(new NaryNode[] {
+		    NaryNode.product(NaryNode.operation("a"), NaryNode.operation("b"))},
+		    new boolean[] {true}).toString());
+	}
+
+	/**
+	 * Test method for {@link model.NaryNode#simplify(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testSimplifyCollects() {
+		assertEquals("5x + 3", simplify("x + 1 + (2 * x) + (2 + (2x))"));
+		assertEquals("x", simplify("(x + y) - (y - 0)"));
+		assertEquals("0", simplify("(sin(x) * 2) - (2 * sin(x))"));
+		assertEquals("6 * (x ^ 3)", simplify("(2 * x) * (x * 3) * x"));
+		assertEquals("0", simplify("x * 0 * y"));
+		assertEquals("y - 2z", simplify("y - ((2 * z) + 0)"));
+		assertEquals("0.25", simplify("1 / 4"));
+	}
+
+	/**
+	 * Test method for {@link model.NaryNode#derive(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testDerive() {
+		final NaryNode derivative = NaryNode.of(parse("(x * x * x) + (3 * x) - 7"))
+		    .derive(VAR_DIFF);
+		assertEquals(Kind.SUM, derivative.getKind());
+		assertEquals("(3 * (x ^ 2)) + 3", derivative.simplify().toString());
+		assertEquals("2 * cos(x)", NaryNode.of(parse("sin(x) * 2")).derive(VAR_DIFF)
+		    .simplify().toString());
+	}
+
+}
@@ -0,0 +1,120 @@
+/**
+ * PolynomialTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Differentiator;
+import model.Polynomial;
+import model.Simplifier;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for the Polynomial class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class PolynomialTest extends ExpressionFixture {
+
+	/** The hard coded variable of differentiation used for all the tests. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/**
+	 * Returns the canonical form of the polynomial of the specified expression, as a String.
+	 *
+	 * @param theExpression the expression being converted
+	 * @return the canonical form of the polynomial as a String
+	 */
+	private static String canonical(final String theExpression) {
+		return Polynomial.of(parse(theExpression)).toString();
+	}
+
+	/**
+	 * Returns the specified expression with its polynomial subtrees collected, as a String.
+	 *
+	 * @param theExpression the expression being collected
+	 * @return the collected expression as a String
+	 */
+	private static String collect(final String theExpression) {
+		return Differentiator.treeNodeToString(Polynomial.collect(parse(theExpression)), 0);
+	}
+
+	/**
+	 * Test method for {@link model.Polynomial#of(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testOfLikeTerms() {
+		assertEquals("8x", canonical("5x + 3x"));
+		assertEquals("0", canonical("(x * y) - (y * x)"));
+		assertEquals("(2 * (x ^ 2)) + 3x", canonical("(x * (x + 1)) + ((x ^ 2) + (2 * x))"));
+		assertEquals("((x ^ 2) + (2 * (x * y))) + (y ^ 2)", canonical("(x + y) ^ 2"));
+		assertEquals("0.5x - 1", canonical("(x - 2) / 2"));
+	}
+
+	/**
+	 * Test method for {@link model.Polynomial#of(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testOfNotPolynomial() {
+		assertNull(Polynomial.of(parse("sin(x) + 1")));
+		assertNull(Polynomial.of(parse("1 / x")));
+		assertNull(Polynomial.of(parse("x ^ 0.5")));
+		assertNull(Polynomial.of(parse("x ^ (0 - 1)")));
+		assertNull(Polynomial.of(parse("(x + 1) ^ 1000")));
+	}
+
+	/**
+	 * Test method for {@link model.Polynomial#pow(int)}.
+	 */
+	@Test
+	void testPow() {
+		final Polynomial binomial = Polynomial.of(parse("x + 1"));
+		assertEquals(11, binomial.pow(10).termCount());
+		assertEquals(10, binomial.pow(10).degree());
+		assertEquals("1", binomial.pow(0).toString());
+		assertEquals(Polynomial.of(parse("(x + 1) * (x + 1) * (x + 1)")), binomial.pow(3));
+	}
+
+	/**
+	 * Test method for {@link model.Polynomial#derive(String)}.
+	 */
+	@Test
+	void testDerive() {
+		final Polynomial cubic = Polynomial.of(parse("(x ^ 3) + (2 * x) + (x * y)"));
+		assertEquals("((3 * (x ^ 2)) + y) + 2", cubic.derive("x").toString());
+		assertEquals("x", cubic.derive("y").toString());
+		assertEquals("0", cubic.derive("z").toString());
+	}
+
+	/**
+	 * Test method for {@link model.Polynomial#collect(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testCollect() {
+		assertEquals("sin(3x) + 4x", collect("sin(x + x + x) + ((2 * x) + (2 * x))"));
+		assertEquals("(x ^ 2) - 1", collect("(x + 1) * (x - 1)"));
+		assertEquals("(x + 1) * (x + 2)", collect("(x + 1) * (x + 2)"));
+
+		// an unchanged expression is returned as it is
+		final BinaryTreeNode<String> root = parse("sin(x) * 2");
+		assertSame(root, Polynomial.collect(root));
+	}
+
+	/**
+	 * Test method for {@link model.Simplifier#simplifyFully(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testSimplifyFullyDerivative() {
+		final BinaryTreeNode<String> derivative =
+		    Differentiator.derive(parse("(x * (x + 1)) + (3 * x)"), VAR_DIFF);
+		assertEquals("2x + 4",
+		    Differentiator.treeNodeToString(Simplifier.simplifyFully(derivative), 0));
+	}
+
+}
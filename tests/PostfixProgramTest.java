@@ -0,0 +1,165 @@
+/**
+ * PostfixProgramTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import model.Differentiator;
+import model.Evaluator;
+import model.ExpressionParser;
+import model.PostfixProgram;
+import model.Simplifier;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the PostfixProgram class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class PostfixProgramTest extends ExpressionFixture {
+
+	/** The values of x every expression is evaluated at. */
+	private static final double[] VALUES = {-2.5, -1, -0.3, 0, 0.4, 1, 1.7, 3};
+
+	/** The expressions evaluated, covering every operator and function. */
+	private static final String[] EXPRESSIONS = {"(x * x) + 1", "(3x - 1) / (x ^ 2)", "x ^ 3",
+	    "x ^ -3", "x ^ 0", "(x + 5) ^ 0.5", "x ^ x", "abs(x - 1)", "sin(x) + cos(x)",
+	    "tan(x) * sec(x)", "csc(x) - cot(x)", "arcsin(x / 4) + arccos(x / 4)",
+	    "arctan(x) + arccot(x)", "arcsec(x + 4) + arccsc(x + 4)",
+	    "(ln(x + 3) + log(x + 3)) + log_10(x + 3)", "-sin(x)", "xcos(x)", "2.5x * e",
+	    "sin(2 - 1) + ((x * 0) + 3)", "5", "x"};
+
+	/**
+	 * Asserts that the specified program evaluates the specified root's expression like the
+	 * Evaluator at every value.
+	 *
+	 * @param theRoot		the root node of the expression
+	 * @param theProgram	the program of the expression
+	 */
+	private static void assertMatchesEvaluator(final BinaryTreeNode<String> theRoot,
+	    final PostfixProgram theProgram) {
+		final ToDoubleFunction<double[]> expected = Evaluator.compile(theRoot, List.of("x"));
+		final double[] frame = theProgram.newFrame();
+		for (double value : VALUES) {
+			final double[] vars = {value};
+			assertEquals(expected.applyAsDouble(vars), theProgram.evaluate(vars, frame), 1e-12,
+			    Differentiator.treeNodeToString(theRoot, 0) + " at " + value);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.PostfixProgram#compilePostfix(List, List)}.
+	 */
+	@Test
+	void testCompilePostfix() {
+		for (String expression : EXPRESSIONS) {
+			final PostfixProgram program = PostfixProgram.compilePostfix(
+			    ExpressionParser.shuntingYardPostfix(ExpressionParser.stringToList(expression)),
+			    List.of("x"));
+			assertMatchesEvaluator(parse(expression), program);
+		}
+	}
+
+	/**
+	 * Test method for {@link model.PostfixProgram#compile(BinaryTreeNode, List)}.
+	 */
+	@Test
+	void testCompileTree() {
+		for (String expression : EXPRESSIONS) {
+			final BinaryTreeNode<String> root = parse(expression);
+			assertMatchesEvaluator(root, PostfixProgram.compile(root, List.of("x")));
+		}
+	}
+
+	/**
+	 * Test method for {@link model.PostfixProgram#compile(BinaryTreeNode, List)} on derivatives
+	 * sharing subtrees.
+	 */
+	@Test
+	void testCompileDerivatives() {
+		final String[] expressions = {"sin((x ^ 2) * 3)", "ln((x ^ 4) + (2 * x))",
+		    "arctan((x * x) + 1)", "cos((x ^ 3) / (x + 3))"};
+		for (String expression : expressions) {
+			final BinaryTreeNode<String> derivative =
+			    Differentiator.derive(parse(expression), new BinaryTreeNode<String>("x"));
+			assertMatchesEvaluator(derivative, PostfixProgram.compile(derivative, List.of("x")));
+			final BinaryTreeNode<String> simplified = Simplifier.simplify(derivative);
+			assertMatchesEvaluator(simplified, PostfixProgram.compile(simplified, List.of("x")));
+		}
+	}
+
+	/**
+	 * Test method for {@link model.PostfixProgram#compile(BinaryTreeNode, List)} with a shared
+	 * subtree kept in a local slot.
+	 */
+	@Test
+	void testCompileSharedSubtree() {
+		final BinaryTreeNode<String> shared = parse("sin(x) + 1");
+		final BinaryTreeNode<String> root = new BinaryTreeNode<String>("*", shared, shared);
+		final PostfixProgram program = PostfixProgram.compile(root, List.of("x"));
+		assertTrue(program.toString().contains("store 0"));
+		assertTrue(program.toString().contains("load 0"));
+		assertEquals(Math.pow(Math.sin(0.5) + 1, 2),
+		    program.evaluate(new double[] {0.5}, program.newFrame()), 1e-12);
+	}
+
+	/**
+	 * Test method for {@link model.PostfixProgram#compile(BinaryTreeNode, List)} folding
+	 * constants and integer powers.
+	 */
+	@Test
+	void testCompileFolding() {
+		assertEquals("const 6.0\n", PostfixProgram.compile(parse("(2 * 3) - sin(0)"),
+		    List.of("x")).toString());
+		assertEquals(1, PostfixProgram.compile(parse("(1 + 2) * (4 - 1)"), List.of("x"))
+		    .getLength());
+		assertEquals("var 0\npowi 3\n", PostfixProgram.compile(parse("x ^ 3"), List.of("x"))
+		    .toString());
+		assertEquals("var 0\n", PostfixProgram.compile(parse("x ^ 1"), List.of("x"))
+		    .toString());
+	}
+
+	/**
+	 * Test method for {@link model.PostfixProgram#evaluate(double[], double[])} with several
+	 * variables.
+	 */
+	@Test
+	void testEvaluateVariables() {
+		final PostfixProgram program =
+		    PostfixProgram.compile(parse("(x * y) - (2z / y)"), List.of("x", "y", "z"));
+		assertEquals(2 * 4 - 2 * 3 / 4.0,
+		    program.toFunction().applyAsDouble(new double[] {2, 4, 3}), 1e-12);
+	}
+
+	/**
+	 * Test method for {@link model.PostfixProgram#compile(BinaryTreeNode, List)} with an unknown
+	 * symbol.
+	 */
+	@Test
+	void testCompileUnknownSymbol() {
+		assertThrows(IllegalArgumentException.class,
+		    () -> PostfixProgram.compile(parse("x + z"), List.of("x")));
+		assertThrows(IllegalArgumentException.class,
+		    () -> PostfixProgram.compilePostfix(List.of("x", "+"), List.of("x")));
+	}
+
+	/**
+	 * Test method for {@link model.ExpressionParser#shuntingYardPostfix(java.util.ArrayList)}.
+	 */
+	@Test
+	void testShuntingYardPostfix() {
+		assertEquals(List.of("x", "2", "^", "3", "*", "sin"), ExpressionParser
+		    .shuntingYardPostfix(ExpressionParser.stringToList("sin((x ^ 2) * 3)")));
+		assertEquals(List.of("x", "1", "+"),
+		    ExpressionParser.shuntingYardPostfix(ExpressionParser.stringToList("x + 1")));
+	}
+
+}
@@ -0,0 +1,101 @@
+/**
+ * ResourceGovernorTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.time.Duration;
+import model.Differentiator;
+import model.ResourceGovernor;
+import model.ResourceGovernor.Result;
+import model.ResourceGovernor.Status;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the ResourceGovernor class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class ResourceGovernorTest extends ExpressionFixture {
+
+	/** The hard coded variable of differentiation used for all the tests. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/** A generous timeout for the tests which should not reach it. */
+	private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
+	/**
+	 * Returns a tower of the specified height of exponents of the variable of differentiation,
+	 * such as x ^ (x ^ x).
+	 *
+	 * @param theHeight the number of exponents in the tower
+	 * @return the root node of the tower
+	 */
+	private static BinaryTreeNode<String> tower(final int theHeight) {
+		BinaryTreeNode<String> root = new BinaryTreeNode<String>("x");
+		for (int i = 0; i < theHeight; i++) {
+			root = new BinaryTreeNode<String>("^", new BinaryTreeNode<String>("x"), root);
+		}
+		return root;
+	}
+
+	/**
+	 * Test method for {@link model.ResourceGovernor#derive(structures.BinaryTreeNode, structures.BinaryTreeNode, long, java.time.Duration)}.
+	 */
+	@Test
+	void testDeriveCompleted() {
+		final BinaryTreeNode<String> root = new BinaryTreeNode<String>("*",
+		    new BinaryTreeNode<String>("5"), new BinaryTreeNode<String>("x"));
+		final Result result = ResourceGovernor.derive(root, VAR_DIFF, 1000, TIMEOUT);
+		assertEquals(Status.COMPLETED, result.getStatus());
+		assertFalse(result.isExceeded());
+		assertEquals("(0 * x) + (5 * 1)", Differentiator.treeNodeToString(result.getTree(), 0));
+		assertTrue(result.getNodeCount() > 0);
+	}
+
+	/**
+	 * Test method for {@link model.ResourceGovernor#derive(structures.BinaryTreeNode, structures.BinaryTreeNode, long, java.time.Duration)}
+	 * with a node budget which is too small.
+	 */
+	@Test
+	void testDeriveNodeLimit() {
+		final Result result = ResourceGovernor.derive(tower(12), VAR_DIFF, 20, TIMEOUT);
+		assertEquals(Status.NODE_LIMIT_EXCEEDED, result.getStatus());
+		assertTrue(result.isExceeded());
+		assertNull(result.getTree());
+		assertEquals(20, result.getNodeCount());
+	}
+
+	/**
+	 * Test method for {@link model.ResourceGovernor#deriveAndSimplify(structures.BinaryTreeNode, structures.BinaryTreeNode, long, java.time.Duration)}
+	 * with a deadline which has already passed.
+	 */
+	@Test
+	void testDeriveAndSimplifyDeadline() {
+		final Result result = ResourceGovernor.deriveAndSimplify(tower(12), VAR_DIFF,
+		    Long.MAX_VALUE, Duration.ZERO);
+		assertEquals(Status.DEADLINE_EXCEEDED, result.getStatus());
+		assertNull(result.getTree());
+	}
+
+	/**
+	 * Test method for {@link model.ResourceGovernor#simplify(structures.BinaryTreeNode, long, java.time.Duration)}.
+	 */
+	@Test
+	void testSimplify() {
+		final BinaryTreeNode<String> root = new BinaryTreeNode<String>("+",
+		    new BinaryTreeNode<String>("x"), new BinaryTreeNode<String>("x"));
+		final Result result = ResourceGovernor.simplify(root, 10, TIMEOUT);
+		assertEquals("2x", Differentiator.treeNodeToString(result.getTree(), 0));
+		assertEquals(Status.NODE_LIMIT_EXCEEDED,
+		    ResourceGovernor.simplify(root, 1, TIMEOUT).getStatus());
+	}
+
+}
@@ -0,0 +1,124 @@
+/**
+ * RewriteEngineTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.Differentiator;
+import model.RewriteEngine;
+import model.Simplifier;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the RewriteEngine class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class RewriteEngineTest extends ExpressionFixture {
+
+	/** The hard coded variable of differentiation used for all the tests. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/**
+	 * Returns the specified expression rewritten by the RewriteEngine, as a String.
+	 *
+	 * @param theExpression the expression being rewritten
+	 * @return the rewritten expression as a String
+	 */
+	private static String rewrite(final String theExpression) {
+		return Differentiator.treeNodeToString(RewriteEngine.rewrite(parse(theExpression)), 0);
+	}
+
+	/**
+	 * Test method for {@link model.RewriteEngine#rewrite(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testRewriteNestedIdentities() {
+		assertEquals("5", rewrite("(0 * x) + (5 * 1)"));
+		assertEquals("x", rewrite("((x + 0) * 1) ^ 1"));
+		assertEquals("sin(x)", rewrite("0 + (1 * sin(x))"));
+		assertEquals("0", rewrite("0 / (x + 1)"));
+		assertEquals("1", rewrite("(x + 1) ^ (2 - 2)"));
+	}
+
+	/**
+	 * Test method for {@link model.RewriteEngine#rewrite(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testRewriteConstants() {
+		assertEquals("14", rewrite("2 + (3 * 4)"));
+		assertEquals("0.5", rewrite("1 / 2"));
+		assertEquals("6 * x", rewrite("2 * (3 * x)"));
+		assertEquals("1", rewrite("cos(0)"));
+		assertEquals("sin(1)", rewrite("sin(1)"));
+		assertEquals("1 / 0", rewrite("1 / 0"));
+	}
+
+	/**
+	 * Test method for {@link model.RewriteEngine#rewrite(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testRewriteSameOperands() {
+		assertEquals("0", rewrite("sin(x) - sin(x)"));
+		assertEquals("1", rewrite("(x + 1) / (x + 1)"));
+		assertEquals("2 * (x ^ 2)", rewrite("(x ^ 2) + (x ^ 2)"));
+		assertEquals("(x + 1) ^ 2", rewrite("(x + 1) * (x + 1)"));
+		assertEquals("x - y", rewrite("x - y"));
+	}
+
+	/**
+	 * Test method for {@link model.RewriteEngine#run(structures.BinaryTreeNode, int)}.
+	 */
+	@Test
+	void testRunStatistics() {
+		final RewriteEngine.Result result = RewriteEngine.run(parse("(0 * x) + (5 * 1)"),
+		    RewriteEngine.DEFAULT_MAX_ITERATIONS);
+		assertEquals("5", result.getTree().getElement());
+		assertTrue(result.isConverged());
+		assertEquals(7, result.getNodeCountBefore());
+		assertEquals(1, result.getNodeCountAfter());
+		assertEquals(3, result.getRewriteCount());
+		assertEquals(2, result.getIterations());
+	}
+
+	/**
+	 * Test method for {@link model.RewriteEngine#run(structures.BinaryTreeNode, int)}.
+	 */
+	@Test
+	void testRunIterationLimit() {
+		final RewriteEngine.Result result = RewriteEngine.run(parse("(0 * x) + (5 * 1)"), 1);
+		assertEquals(1, result.getIterations());
+		assertFalse(result.isConverged());
+		assertEquals("5", result.getTree().getElement());
+	}
+
+	/**
+	 * Test method for {@link model.RewriteEngine#rewrite(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testRewriteUnchanged() {
+		final BinaryTreeNode<String> root = parse("sin(x) * (x + 2)");
+		assertSame(root, RewriteEngine.rewrite(root));
+	}
+
+	/**
+	 * Test method for {@link model.Simplifier#simplifyFully(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testSimplifyFully() {
+		final BinaryTreeNode<String> derivative =
+		    Differentiator.derive(parse("((1 + 0) * (5 + x)) + ((x + 5) * (0 + 1))"), VAR_DIFF);
+		assertEquals("((0 * (5 + x)) + 1) + (1 + ((x + 5) * 0))",
+		    Differentiator.treeNodeToString(Simplifier.simplify(derivative), 0));
+		assertEquals("2",
+		    Differentiator.treeNodeToString(Simplifier.simplifyFully(derivative), 0));
+	}
+
+}
@@ -0,0 +1,114 @@
+/**
+ * RootFinderTest - Derivatives Calculator
+ */
+
+package tests;
+
+import model.RootFinder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the RootFinder class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class RootFinderTest extends ExpressionFixture {
+
+	/**
+	 * Test method for {@link model.RootFinder#newton(double, double...)}.
+	 */
+	@Test
+	void testNewton() {
+		final RootFinder finder = RootFinder.compile("((x ^ 3) - (2 * x)) - 5", "x");
+		final double root = finder.newton(2);
+		assertEquals(2.0945514815423265, root, 1e-12);
+		assertEquals(root, finder.newton(-3), 1e-12);
+		assertEquals(Math.PI, RootFinder.compile("sin(x)", "x").newton(3), 1e-13);
+		assertEquals(0.7390851332151607, RootFinder.compile("cos(x) - x", "x").newton(0),
+		    1e-13);
+	}
+
+	/**
+	 * Test method for {@link model.RootFinder#newton(double, double...)} where Newton's method
+	 * cannot converge.
+	 */
+	@Test
+	void testNewtonFails() {
+		final RootFinder finder = RootFinder.compile("(x ^ 2) + 1", "x");
+		assertTrue(Double.isNaN(finder.newton(0)));
+		assertTrue(Double.isNaN(finder.newton(1)));
+	}
+
+	/**
+	 * Test method for {@link model.RootFinder#newton(double, double...)} damping the steps of
+	 * a function where the undamped iterations cycle.
+	 */
+	@Test
+	void testNewtonDamped() {
+		assertEquals(0, RootFinder.compile("arctan(x)", "x").newton(1.5), 1e-13);
+	}
+
+	/**
+	 * Test method for {@link model.RootFinder#brent(double, double, double...)}.
+	 */
+	@Test
+	void testBrent() {
+		final RootFinder finder = RootFinder.compile("((x ^ 3) - (2 * x)) - 5", "x");
+		assertEquals(2.0945514815423265, finder.brent(2, 3), 1e-12);
+		assertEquals(2.0945514815423265, finder.brent(3, -10), 1e-12);
+		assertEquals(2, RootFinder.compile("(x ^ 2) - 4", "x").brent(2, 5), 0);
+		assertEquals(Math.log(2), RootFinder.compile("(e ^ x) - 2", "x").brent(0, 1), 1e-13);
+		assertTrue(Double.isNaN(finder.brent(3, 4)));
+	}
+
+	/**
+	 * Test method for {@link model.RootFinder#newton(double, double...)} and
+	 * {@link model.RootFinder#brent(double, double, double...)} with parameters.
+	 */
+	@Test
+	void testParameters() {
+		final RootFinder finder = RootFinder.compile("(x ^ 2) - a", "x", "a");
+		assertEquals(Math.sqrt(2), finder.newton(1, 2), 1e-14);
+		assertEquals(Math.sqrt(10), finder.brent(0, 10, 10), 1e-13);
+		assertThrows(IllegalArgumentException.class, () -> finder.newton(1));
+		assertThrows(IllegalArgumentException.class,
+		    () -> RootFinder.compile("(x ^ 2) - b", "x", "a"));
+	}
+
+	/**
+	 * Test method for {@link model.RootFinder#newton(double[], double[][])} and
+	 * {@link model.RootFinder#brent(double[], double[], double[][])}.
+	 */
+	@Test
+	void testBatch() {
+		final RootFinder finder = RootFinder.compile("(x ^ 2) - a", "x", "a");
+		final int count = 3000;
+		final double[] starts = new double[count];
+		final double[] lowers = new double[count];
+		final double[] uppers = new double[count];
+		final double[][] parameters = new double[count][];
+		for (int i = 0; i < count; i++) {
+			starts[i] = 1;
+			uppers[i] = 1 + i;
+			parameters[i] = new double[] {i};
+		}
+		final double[] newton = finder.newton(starts, parameters);
+		final double[] brent = finder.brent(lowers, uppers, parameters);
+		for (int i = 0; i < count; i++) {
+			assertEquals(Math.sqrt(i), newton[i], 1e-7 * Math.max(1, Math.sqrt(i)));
+			assertEquals(Math.sqrt(i), brent[i], 1e-12 * Math.max(1, Math.sqrt(i)));
+		}
+		final double[] shared = finder.newton(new double[] {1, -1, 5}, new double[] {9});
+		assertEquals(3, shared[0], 1e-13);
+		assertEquals(-3, shared[1], 1e-13);
+		assertEquals(3, shared[2], 1e-13);
+		assertThrows(IllegalArgumentException.class,
+		    () -> finder.newton(starts, new double[] {1}, new double[] {2}));
+	}
+
+}
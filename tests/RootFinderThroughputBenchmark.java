@@ -0,0 +1,90 @@
+/**
+ * RootFinderThroughputBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import model.ExpressionParser;
+import model.RootFinder;
+
+/**
+ * This class measures the time of a single root finding solve with a RootFinder, once its
+ * expression is derived and compiled, for Newton's method and for Brent's method, one solve
+ * at a time and in parallel batches over many parameter sets. Each is measured after a
+ * warm-up and the fastest of a few rounds is reported with the one-off compilation time.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class RootFinderThroughputBenchmark {
+
+	/** The expression solved for x, for every value of the parameter a. */
+	private static final String EXPRESSION = "((x ^ 3) + (a * sin(x))) - (2 * a)";
+
+	/** The number of parameter sets solved in a round. */
+	private static final int PROBLEMS = 100_000;
+
+	/** The number of rounds of each measurement, after as many warm-up rounds. */
+	private static final int ROUNDS = 5;
+
+	/** The sum of every root found, printed so the solves cannot be eliminated. */
+	private static double mySink;
+
+	/** A private constructor to inhibit external instantiation. */
+	private RootFinderThroughputBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - unused
+	 */
+	public static void main(final String[] theArgs) {
+		ExpressionParser.setValidFunctions();
+		long start = System.nanoTime();
+		final RootFinder finder = RootFinder.compile(EXPRESSION, "x", "a");
+		final long compile = System.nanoTime() - start;
+		final double[] starts = new double[PROBLEMS];
+		final double[] lowers = new double[PROBLEMS];
+		final double[] uppers = new double[PROBLEMS];
+		final double[][] parameters = new double[PROBLEMS][];
+		for (int i = 0; i < PROBLEMS; i++) {
+			starts[i] = 1;
+			uppers[i] = 3;
+			parameters[i] = new double[] {1 + 9.0 * i / PROBLEMS};
+		}
+		final long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+		for (int round = 0; round < 2 * ROUNDS; round++) {
+			final long[] times = new long[best.length];
+			start = System.nanoTime();
+			for (int i = 0; i < PROBLEMS; i++) {
+				mySink += finder.newton(starts[i], parameters[i]);
+			}
+			times[0] = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < PROBLEMS; i++) {
+				mySink += finder.brent(lowers[i], uppers[i], parameters[i]);
+			}
+			times[1] = System.nanoTime() - start;
+			start = System.nanoTime();
+			mySink += finder.newton(starts, parameters)[PROBLEMS / 2];
+			times[2] = System.nanoTime() - start;
+			start = System.nanoTime();
+			mySink += finder.brent(lowers, uppers, parameters)[PROBLEMS / 2];
+			times[3] = System.nanoTime() - start;
+			if (round >= ROUNDS) {
+				for (int i = 0; i < best.length; i++) {
+					best[i] = Math.min(best[i], times[i]);
+				}
+			}
+		}
+		System.out.printf("%s, %,d parameter sets, compiled in %.1f ms%n", EXPRESSION, PROBLEMS,
+		    compile / 1e6);
+		System.out.printf("newton, one at a time: %.3f us per solve%n", best[0] / 1e3 / PROBLEMS);
+		System.out.printf("brent, one at a time:  %.3f us per solve%n", best[1] / 1e3 / PROBLEMS);
+		System.out.printf("newton, batch:         %.3f us per solve%n", best[2] / 1e3 / PROBLEMS);
+		System.out.printf("brent, batch:          %.3f us per solve (checksum %s)%n",
+		    best[3] / 1e3 / PROBLEMS, mySink);
+	}
+}
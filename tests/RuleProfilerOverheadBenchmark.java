@@ -0,0 +1,107 @@
+/**
+ * RuleProfilerOverheadBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import model.Differentiator;
+import model.ExpressionParser;
+import model.RuleProfiler;
+import model.Simplifier;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+/**
+ * This class measures the cost of counting rule firings with the RuleProfiler, as the share
+ * of the time the Simplifier takes to fully simplify the derivatives of the expressions text
+ * file. Rounds with counting enabled and disabled alternate after a warm-up, so both see the
+ * same state of the virtual machine, and the fastest round of each is compared. The budget
+ * for the counters is two percent of the simplification time.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+public class RuleProfilerOverheadBenchmark {
+
+	/** The File containing the list of expressions to be differentiated and simplified. */
+	private final static File EXPRESSIONS_FILE = new File("src" + File.separator +
+	    "expressions.txt");
+
+	/** The hard coded variable of differentiation used for all differentiations. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/** The number of rounds run before measuring. */
+	private static final int WARM_UP_ROUNDS = 200;
+
+	/** The number of measured rounds of each kind. */
+	private static final int MEASURED_ROUNDS = 200;
+
+	/** The largest acceptable overhead of the counters, as a percentage. */
+	private static final double BUDGET_PERCENT = 2.0;
+
+	/** A private constructor to inhibit external instantiation. */
+	private RuleProfilerOverheadBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - the optional path of the expressions file
+	 * @throws FileNotFoundException if the expressions file does not exist
+	 */
+	public static void main(final String[] theArgs) throws FileNotFoundException {
+		ExpressionParser.setValidFunctions();
+		final File file = theArgs.length > 0 ? new File(theArgs[0]) : EXPRESSIONS_FILE;
+		final List<BinaryTreeNode<String>> derivatives = new ArrayList<>();
+		try (Scanner scanner = new Scanner(file)) {
+			while (scanner.hasNextLine()) {
+				final BinaryTree<String> tree = ExpressionParser.shuntingYardTree(
+				    ExpressionParser.stringToList(scanner.nextLine()));
+				if (ExpressionParser.getIsValid() && tree != null) {
+					derivatives.add(Differentiator.derive(tree.getNode(), VAR_DIFF));
+				}
+			}
+		}
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+			RuleProfiler.setEnabled(i % 2 == 0);
+			round(derivatives);
+		}
+		long enabled = Long.MAX_VALUE;
+		long disabled = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			RuleProfiler.setEnabled(true);
+			enabled = Math.min(enabled, round(derivatives));
+			RuleProfiler.setEnabled(false);
+			disabled = Math.min(disabled, round(derivatives));
+		}
+		RuleProfiler.setEnabled(true);
+		final double overhead = 100.0 * (enabled - disabled) / disabled;
+		System.out.println(derivatives.size() + " derivatives, fastest of " + MEASURED_ROUNDS +
+		    " rounds");
+		System.out.printf("counting enabled:  %.3f ms%n", enabled / 1e6);
+		System.out.printf("counting disabled: %.3f ms%n", disabled / 1e6);
+		System.out.printf("overhead: %.2f%% (budget %.1f%%) %s%n", overhead, BUDGET_PERCENT,
+		    overhead <= BUDGET_PERCENT ? "within budget" : "OVER BUDGET");
+		System.out.print(RuleProfiler.report());
+	}
+
+	/**
+	 * Fully simplifies every one of the specified derivatives and returns the time taken.
+	 *
+	 * @param theDerivatives the derivatives being simplified
+	 * @return the time taken, in nanoseconds
+	 */
+	private static long round(final List<BinaryTreeNode<String>> theDerivatives) {
+		final long start = System.nanoTime();
+		for (BinaryTreeNode<String> derivative : theDerivatives) {
+			Simplifier.simplifyFully(derivative);
+		}
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * RuleProfilerTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import java.util.Map;
+import model.Differentiator;
+import model.RewriteEngine;
+import model.RuleProfiler;
+import model.Simplifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the RuleProfiler class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class RuleProfilerTest extends ExpressionFixture {
+
+	/**
+	 * Reset the counts of the rule firings before each test.
+	 */
+	@BeforeEach
+	void setUp() {
+		RuleProfiler.reset();
+	}
+
+	/**
+	 * Restore counting and the fixed rule order after each test.
+	 */
+	@AfterEach
+	void tearDown() {
+		RuleProfiler.setEnabled(true);
+		RewriteEngine.setAdaptive(false);
+	}
+
+	/**
+	 * Test method for {@link model.RuleProfiler#getCount(String)}.
+	 */
+	@Test
+	void testSimplifierCounts() {
+		Simplifier.simplify(parse("(2 + 3) * (x + x)"));
+		Simplifier.simplify(parse("sin(x) * 0"));
+		assertEquals(1, RuleProfiler.getCount("simplifier.fold-constants"));
+		assertEquals(1, RuleProfiler.getCount("simplifier.combine-like-terms"));
+		assertEquals(1, RuleProfiler.getCount("simplifier.function-multiply-zero"));
+		assertEquals(0, RuleProfiler.getCount("simplifier.divide-same"));
+		assertEquals(0, RuleProfiler.getCount("no-such-rule"));
+	}
+
+	/**
+	 * Test method for {@link model.RuleProfiler#snapshot()}.
+	 */
+	@Test
+	void testRewriteCounts() {
+		RewriteEngine.rewrite(parse("((x * 1) + 0) * 1"));
+		final Map<String, Long> counts = RuleProfiler.snapshot();
+		assertEquals(2, (long) counts.get("rewrite.multiply-one-right"));
+		assertEquals(1, (long) counts.get("rewrite.add-zero-right"));
+		assertEquals(0, (long) counts.get("rewrite.divide-same"));
+		assertTrue(RuleProfiler.report().contains("rewrite.multiply-one-right"));
+	}
+
+	/**
+	 * Test method for {@link model.RuleProfiler#setEnabled(boolean)}.
+	 */
+	@Test
+	void testDisabled() {
+		RuleProfiler.setEnabled(false);
+		assertFalse(RuleProfiler.isEnabled());
+		RewriteEngine.rewrite(parse("x * 1"));
+		assertEquals(0, RuleProfiler.getCount("rewrite.multiply-one-right"));
+	}
+
+	/**
+	 * Test method for {@link model.RewriteEngine#setAdaptive(boolean)}.
+	 */
+	@Test
+	void testAdaptiveOrder() {
+		final BinaryTreeNode<String> derivative =
+		    Differentiator.derive(parse("(x * sin(x)) + ((x ^ 2) * 5)"), new BinaryTreeNode<>("x"));
+		final String expected =
+		    Differentiator.treeNodeToString(Simplifier.simplifyFully(derivative), 0);
+		for (int i = 0; i < 100; i++) {
+			RewriteEngine.rewrite(parse("(x * 1) * 1"));
+		}
+		RewriteEngine.setAdaptive(true);
+		assertTrue(RewriteEngine.isAdaptive());
+		final Map<String, Long> counts = RuleProfiler.snapshot();
+		for (List<String> bucket : RewriteEngine.getRuleOrder()) {
+			for (int i = 1; i < bucket.size(); i++) {
+				assertTrue(counts.get("rewrite." + bucket.get(i - 1)) >=
+				    counts.get("rewrite." + bucket.get(i)));
+			}
+		}
+		assertEquals(expected,
+		    Differentiator.treeNodeToString(Simplifier.simplifyFully(derivative), 0));
+	}
+
+}
@@ -0,0 +1,123 @@
+/**
+ * SaturationSimplifierTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.time.Duration;
+import java.util.List;
+import model.Differentiator;
+import model.Evaluator;
+import model.SaturationSimplifier;
+import model.SaturationSimplifier.CostModel;
+import model.SaturationSimplifier.Stop;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the SaturationSimplifier class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class SaturationSimplifierTest extends ExpressionFixture {
+
+	/** The hard coded variable of differentiation used for all the tests. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/**
+	 * Returns the specified expression simplified by equality saturation, as a String.
+	 *
+	 * @param theExpression the expression being simplified
+	 * @return the simplified expression as a String
+	 */
+	private static String simplify(final String theExpression) {
+		return Differentiator.treeNodeToString(
+		    SaturationSimplifier.simplify(parse(theExpression)), 0);
+	}
+
+	/**
+	 * Test method for {@link model.SaturationSimplifier#simplify(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testSimplifyPythagorean() {
+		assertEquals("1", simplify("(sin(x) ^ 2) + (cos(x) ^ 2)"));
+		assertEquals("4", simplify("(cos(x + 1) ^ 2) + (3 + (sin(x + 1) ^ 2))"));
+		assertEquals("5", simplify("(5 * (sin(x) ^ 2)) + (5 * (cos(x) ^ 2))"));
+	}
+
+	/**
+	 * Test method for {@link model.SaturationSimplifier#simplify(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testSimplifyAlgebra() {
+		assertEquals("7 * x", simplify("(3 * x) + (4 * x)"));
+		assertEquals("0", simplify("(x * y) - (y * x)"));
+		assertEquals("x", simplify("(x * y) / y"));
+		assertEquals("x", simplify("(2 * (x + 1)) - (x + 2)"));
+		assertEquals("x ^ 3", simplify("(x ^ 2) * x"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.SaturationSimplifier#run(structures.BinaryTreeNode, CostModel, long, Duration)}.
+	 */
+	@Test
+	void testRunDerivative() {
+		final BinaryTreeNode<String> derivative =
+		    Differentiator.derive(parse("((1 + 0) * (5 + x)) + ((x + 5) * (0 + 1))"), VAR_DIFF);
+		final SaturationSimplifier.Result result = SaturationSimplifier.run(derivative,
+		    CostModel.NODE_COUNT, SaturationSimplifier.DEFAULT_MAX_NODES,
+		    SaturationSimplifier.DEFAULT_TIMEOUT);
+		assertEquals(Stop.SATURATED, result.getStop());
+		assertEquals("2", Differentiator.treeNodeToString(result.getTree(), 0));
+		assertEquals(15.0, result.getCostBefore(), 0.0);
+		assertEquals(1.0, result.getCostAfter(), 0.0);
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.SaturationSimplifier#run(structures.BinaryTreeNode, CostModel, long, Duration)}.
+	 */
+	@Test
+	void testRunBudgets() {
+		final BinaryTreeNode<String> derivative =
+		    Differentiator.derive(parse("2 ^ (3 ^ (4 ^ x))"), VAR_DIFF);
+		final SaturationSimplifier.Result limited = SaturationSimplifier.run(derivative,
+		    CostModel.EVALUATION_COST, 500, Duration.ofSeconds(10));
+		assertEquals(Stop.NODE_LIMIT, limited.getStop());
+		assertTrue(limited.getCostAfter() <= limited.getCostBefore());
+
+		// the best expression found so far is still equivalent
+		final double[] point = {0.3};
+		assertEquals(Evaluator.compile(derivative, List.of("x")).applyAsDouble(point),
+		    Evaluator.compile(limited.getTree(), List.of("x")).applyAsDouble(point), 1e-9);
+
+		final SaturationSimplifier.Result late = SaturationSimplifier.run(derivative,
+		    CostModel.EVALUATION_COST, SaturationSimplifier.DEFAULT_MAX_NODES, Duration.ZERO);
+		assertEquals(Stop.DEADLINE, late.getStop());
+	}
+
+	/**
+	 * Test method for
+	 * {@link model.SaturationSimplifier#run(structures.BinaryTreeNode, CostModel, long, Duration)}.
+	 */
+	@Test
+	void testRunCostModels() {
+		final BinaryTreeNode<String> root = parse("(x ^ 2) / x");
+		final SaturationSimplifier.Result byCount = SaturationSimplifier.run(root,
+		    CostModel.NODE_COUNT, SaturationSimplifier.DEFAULT_MAX_NODES,
+		    SaturationSimplifier.DEFAULT_TIMEOUT);
+		assertEquals("x", Differentiator.treeNodeToString(byCount.getTree(), 0));
+		final SaturationSimplifier.Result byEvaluation = SaturationSimplifier.run(root,
+		    CostModel.EVALUATION_COST, SaturationSimplifier.DEFAULT_MAX_NODES,
+		    SaturationSimplifier.DEFAULT_TIMEOUT);
+		assertEquals("x", Differentiator.treeNodeToString(byEvaluation.getTree(), 0));
+		assertEquals(1.0, byEvaluation.getCostAfter(), 0.0);
+		assertEquals(12.0, byEvaluation.getCostBefore(), 0.0);
+	}
+
+}
@@ -0,0 +1,199 @@
+/**
+ * SimplificationCacheHitRateBenchmark - Derivatives Calculator
+ */
+
+package tests;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.Canonicalizer;
+import model.Differentiator;
+import model.ExpressionParser;
+import model.SimplificationCache;
+import structures.BinaryTree;
+import structures.BinaryTreeNode;
+
+/**
+ * This class measures the hit rate of the SimplificationCache on two workloads: the
+ * expressions of the expressions text file, simplified twice as two rounds of requests, and a
+ * synthetic mix resembling production traffic, in which a few popular expression shapes with
+ * varying constants make up most of the requests and are simplified by several threads
+ * sharing one cache. Every workload is measured on the derivatives as they are and after
+ * the Canonicalizer has put them in canonical order.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+public class SimplificationCacheHitRateBenchmark {
+
+	/** The File containing the list of expressions to be differentiated and simplified. */
+	private final static File EXPRESSIONS_FILE = new File("src" + File.separator +
+	    "expressions.txt");
+
+	/** The hard coded variable of differentiation used for all differentiations. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/**
+	 * The shapes of the synthetic requests, from the most to the least popular, some written
+	 * with their operands in either order.
+	 */
+	private static final String[] SHAPES = {"(x ^ %d) + (%d * x)", "sin(%d * x)",
+	    "(%2$d * x) + (x ^ %1$d)", "(x ^ %d) * ln(x)", "2.71828 ^ (%d * x)",
+	    "sin(x * %d)", "cos(x ^ %d) / (x + %d)", "ln(x) * (x ^ %d)", "((x ^ 2) + %d) ^ %d",
+	    "tan(x) * (x ^ %d)", "ln((%d * x) + %d)", "ln(%2$d + (x * %1$d))"};
+
+	/** The number of synthetic requests. */
+	private static final int SYNTHETIC_REQUESTS = 20000;
+
+	/** The number of distinct constants substituted into the synthetic shapes. */
+	private static final int SYNTHETIC_CONSTANTS = 12;
+
+	/** The number of threads simplifying the synthetic requests. */
+	private static final int THREADS = 4;
+
+	/** The memory ceiling of the caches, in bytes. */
+	private static final long MAX_BYTES = 8L * 1024 * 1024;
+
+	/** A private constructor to inhibit external instantiation. */
+	private SimplificationCacheHitRateBenchmark() {
+		// do nothing
+	}
+
+	/**
+	 * The start point for the empirical testing program.
+	 *
+	 * @param theArgs the command line arguments - the optional path of the expressions file
+	 * @throws Exception if the expressions file cannot be read or a thread fails
+	 */
+	public static void main(final String[] theArgs) throws Exception {
+		ExpressionParser.setValidFunctions();
+		final File file = theArgs.length > 0 ? new File(theArgs[0]) : EXPRESSIONS_FILE;
+		final List<BinaryTreeNode<String>> corpus = deriveAll(readLines(file));
+		final List<BinaryTreeNode<String>> synthetic = deriveAll(syntheticMix());
+		for (boolean isCanonical : new boolean[] {false, true}) {
+			final String form = isCanonical ? "canonical" : "as derived";
+			final SimplificationCache corpusCache =
+			    new SimplificationCache(MAX_BYTES, SimplificationCache.DEFAULT_STRIPES);
+			for (int round = 1; round <= 2; round++) {
+				for (BinaryTreeNode<String> derivative : corpus) {
+					corpusCache.simplify(prepare(derivative, isCanonical));
+				}
+				System.out.println("expressions file, " + form + ", round " + round + ": " +
+				    corpusCache);
+			}
+			final SimplificationCache mixCache =
+			    new SimplificationCache(MAX_BYTES, SimplificationCache.DEFAULT_STRIPES);
+			final long start = System.nanoTime();
+			simplifyAll(synthetic, mixCache, isCanonical);
+			System.out.println("synthetic mix, " + form + ", " + THREADS + " threads, " +
+			    (System.nanoTime() - start) / 1000000 + " ms: " + mixCache);
+		}
+	}
+
+	/**
+	 * Simplifies the specified derivatives with the specified cache on several threads.
+	 *
+	 * @param theDerivatives	the derivatives being simplified
+	 * @param theCache			the cache shared by the threads
+	 * @param theIsCanonical	whether the derivatives are canonicalized first
+	 * @throws Exception if a thread fails
+	 */
+	private static void simplifyAll(final List<BinaryTreeNode<String>> theDerivatives,
+	    final SimplificationCache theCache, final boolean theIsCanonical) throws Exception {
+		final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<BinaryTreeNode<String>>> results = new ArrayList<>();
+			for (BinaryTreeNode<String> derivative : theDerivatives) {
+				results.add(pool.submit(() ->
+				    theCache.simplify(prepare(derivative, theIsCanonical))));
+			}
+			for (Future<BinaryTreeNode<String>> result : results) {
+				result.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the specified derivative, in canonical order if requested.
+	 *
+	 * @param theDerivative		the derivative being prepared
+	 * @param theIsCanonical	whether the derivative is canonicalized
+	 * @return the prepared derivative
+	 */
+	private static BinaryTreeNode<String> prepare(final BinaryTreeNode<String> theDerivative,
+	    final boolean theIsCanonical) {
+		return theIsCanonical ? Canonicalizer.canonicalize(theDerivative) : theDerivative;
+	}
+
+	/**
+	 * Returns the lines of the specified file.
+	 *
+	 * @param theFile the file being read
+	 * @return the lines of the file
+	 * @throws FileNotFoundException if the file does not exist
+	 */
+	private static List<String> readLines(final File theFile) throws FileNotFoundException {
+		final List<String> result = new ArrayList<>();
+		try (Scanner scanner = new Scanner(theFile)) {
+			while (scanner.hasNextLine()) {
+				result.add(scanner.nextLine());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the derivatives of the specified expressions which are valid.
+	 *
+	 * @param theExpressions the expressions being derived
+	 * @return the derivatives of the valid expressions
+	 */
+	private static List<BinaryTreeNode<String>> deriveAll(final List<String> theExpressions) {
+		final List<BinaryTreeNode<String>> result = new ArrayList<>();
+		for (String expression : theExpressions) {
+			final BinaryTree<String> tree =
+			    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(expression));
+			if (ExpressionParser.getIsValid() && tree != null) {
+				result.add(Differentiator.derive(tree.getNode(), VAR_DIFF));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the synthetic requests: every request picks a shape with a probability falling
+	 * off as the inverse of its rank, and small constants more often than large ones.
+	 *
+	 * @return the expressions of the synthetic requests
+	 */
+	private static List<String> syntheticMix() {
+		final Random random = new Random(42);
+		double total = 0;
+		for (int rank = 1; rank <= SHAPES.length; rank++) {
+			total += 1.0 / rank;
+		}
+		final List<String> result = new ArrayList<>();
+		for (int i = 0; i < SYNTHETIC_REQUESTS; i++) {
+			double pick = random.nextDouble() * total;
+			int shape = 0;
+			while (shape < SHAPES.length - 1 && pick >= 1.0 / (shape + 1)) {
+				pick -= 1.0 / (shape + 1);
+				shape++;
+			}
+			final int first = 2 + (int) Math.abs(random.nextGaussian() * SYNTHETIC_CONSTANTS / 3)
+			    % SYNTHETIC_CONSTANTS;
+			final int second = 1 + random.nextInt(SYNTHETIC_CONSTANTS);
+			result.add(String.format(SHAPES[shape], first, second));
+		}
+		return result;
+	}
+}
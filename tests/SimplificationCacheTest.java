@@ -0,0 +1,167 @@
+/**
+ * SimplificationCacheTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.Constant;
+import model.Constant.Mode;
+import model.Differentiator;
+import model.ExpressionParser;
+import model.SimplificationCache;
+import model.Simplifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the SimplificationCache class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class SimplificationCacheTest extends ExpressionFixture {
+
+	/** The hard coded variable of differentiation used for all the tests. */
+	private static final BinaryTreeNode<String> VAR_DIFF = new BinaryTreeNode<String>("x");
+
+	/**
+	 * Remove the shared cache and restore the default mode after each test.
+	 */
+	@AfterEach
+	void tearDown() {
+		SimplificationCache.setShared(null);
+		Constant.setMode(Mode.EXACT);
+	}
+
+	/**
+	 * Returns the derivative of the specified expression.
+	 *
+	 * @param theExpression the expression being derived
+	 * @return the root node of the derivative
+	 */
+	private static BinaryTreeNode<String> derive(final String theExpression) {
+		return Differentiator.derive(ExpressionParser.shuntingYardTree(
+		    ExpressionParser.stringToList(theExpression)).getNode(), VAR_DIFF);
+	}
+
+	/**
+	 * Returns the specified root as a String.
+	 *
+	 * @param theRoot the root node being printed
+	 * @return the root as a String
+	 */
+	private static String print(final BinaryTreeNode<String> theRoot) {
+		return Differentiator.treeNodeToString(theRoot, 0);
+	}
+
+	/**
+	 * Test method for {@link model.SimplificationCache#simplify(structures.BinaryTreeNode)}.
+	 */
+	@Test
+	void testSimplifyMatchesSimplifier() {
+		final SimplificationCache cache = new SimplificationCache();
+		final String[] expressions = {"(x ^ 3) + (3 * x)", "sin(x ^ 2) * cos(x)",
+		    "(x + 1) / (x - 1)", "ln(5 * x) - (2.71828 ^ x)"};
+		for (String expression : expressions) {
+			final String expected = print(Simplifier.simplify(derive(expression)));
+			assertEquals(expected, print(cache.simplify(derive(expression))));
+			assertEquals(expected, print(cache.simplify(derive(expression))));
+		}
+		assertTrue(cache.getHits() > 0);
+		assertTrue(cache.getMisses() > 0);
+		assertEquals(0, cache.getEvictions());
+	}
+
+	/**
+	 * Test method for {@link model.SimplificationCache#simplify(structures.BinaryTreeNode)}
+	 * with a repeated request.
+	 */
+	@Test
+	void testRepeatedRequestHits() {
+		final SimplificationCache cache = new SimplificationCache();
+		final BinaryTreeNode<String> first = cache.simplify(derive("sin(x ^ 2)"));
+		final long misses = cache.getMisses();
+		final BinaryTreeNode<String> second = cache.simplify(derive("sin(x ^ 2)"));
+		assertSame(first, second);
+		assertEquals(misses, cache.getMisses());
+		assertEquals(misses, cache.getHits());
+	}
+
+	/**
+	 * Test method for {@link model.SimplificationCache#setShared(SimplificationCache)}.
+	 */
+	@Test
+	void testShared() {
+		final SimplificationCache cache = new SimplificationCache();
+		SimplificationCache.setShared(cache);
+		assertSame(cache, SimplificationCache.getShared());
+		assertEquals("2x", print(Simplifier.simplifyFully(derive("(x ^ 2) + 1"))));
+		assertTrue(cache.size() > 0);
+	}
+
+	/**
+	 * Test method for {@link model.SimplificationCache#getEvictions()}.
+	 */
+	@Test
+	void testMemoryCeiling() {
+		final SimplificationCache cache = new SimplificationCache(4096, 1);
+		for (int i = 0; i < 50; i++) {
+			cache.simplify(derive("(x ^ " + (i + 2) + ") * sin(x)"));
+		}
+		assertTrue(cache.getEvictions() > 0);
+		assertTrue(cache.getBytes() <= 4096);
+		assertThrows(IllegalArgumentException.class, () -> new SimplificationCache(0, 1));
+	}
+
+	/**
+	 * Test method for {@link model.SimplificationCache#simplify(structures.BinaryTreeNode)}
+	 * under another mode of Constant.
+	 */
+	@Test
+	void testModeSeparatesEntries() {
+		final SimplificationCache cache = new SimplificationCache();
+		final BinaryTreeNode<String> root = new BinaryTreeNode<String>("+",
+		    new BinaryTreeNode<String>("0.1"), new BinaryTreeNode<String>("0.2"));
+		assertEquals("0.3", print(cache.simplify(root)));
+		Constant.setMode(Mode.DOUBLE);
+		assertEquals("0.30000000000000004", print(cache.simplify(root)));
+	}
+
+	/**
+	 * Test method for {@link model.SimplificationCache#simplify(structures.BinaryTreeNode)}
+	 * from several threads.
+	 *
+	 * @throws Exception if a thread fails
+	 */
+	@Test
+	void testConcurrent() throws Exception {
+		final SimplificationCache cache = new SimplificationCache(1 << 16, 4);
+		final String expected = print(Simplifier.simplify(derive("(x ^ 3) * ln(x)")));
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 64; i++) {
+				final BinaryTreeNode<String> derivative = derive("(x ^ 3) * ln(x)");
+				results.add(pool.submit(() -> print(cache.simplify(derivative))));
+			}
+			for (Future<String> result : results) {
+				assertEquals(expected, result.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertTrue(cache.getHits() > cache.getMisses());
+	}
+
+}
@@ -1,5 +1,5 @@
 /**
- * SimplifierReductionTest - Derivatives Calculator
+ * SimplifierReductionBenchmark - Derivatives Calculator
  */
 
 package tests;
@@ -25,7 +25,7 @@ import structures.BinaryTreeNode;
  * @author Jacob Klymenko
  * @version 1.0
  */
-public class SimplifierReductionTest {
+public class SimplifierReductionBenchmark {
 
 	/** The File containing the list of expressions to be differentiated and simplified. */
 	private final static File EXPRESSIONS_FILE = new File("src\\expressions.txt");
@@ -49,7 +49,7 @@ public class SimplifierReductionTest {
 	private static Double mySimpNodeOutputAverage = 0.0;
 
 	/** A private constructor to inhibit external instantiation. */
-	private SimplifierReductionTest() {
+	private SimplifierReductionBenchmark() {
 		// do nothing
 	}
 
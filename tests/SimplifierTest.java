@@ -18,7 +18,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
  * Unit tests for the Simplifier class.
  *
  * @author Jacob Klymenko
- * @version 1.0
+ * @version 1.2
  */
 class SimplifierTest {
 
@@ -45,10 +45,10 @@ class SimplifierTest {
 			expsTree[i] = ExpressionParser.shuntingYardTree(expsList);
 		}
 		// the simplified form of each expression in order
-		final String[] simplifiedExps = {"0.0", "1.0", "0 + x", "1.0", "x + 0", "2.0x",
-		    "x + 1", "1.0x ^ 2", "2.0x ^ 2", "0.0", "0 * (1 / x)", "2.0",
-		    "(1.0 * (5 + x)) + ((x + 5) * 1.0)",
-		    "4.0", "-5.0", "0.2"};
+		final String[] simplifiedExps = {"0", "1", "0 + x", "1", "x + 0", "2x",
+		    "x + 1", "x ^ 2", "2 * (x ^ 2)", "0", "0 * (1 / x)", "2",
+		    "(1 * (5 + x)) + ((x + 5) * 1)",
+		    "4", "-5", "0.2"};
 		// unit testing
 		BinaryTreeNode<String> currSimpExp;
 		for (int i = 0; i < expsTree.length; i++) {
@@ -57,4 +57,54 @@ class SimplifierTest {
 		}
 	}
 
+	/**
+	 * Test method for {@link model.Simplifier#simplify(structures.BinaryTreeNode)} with
+	 * coefficients which cancel out but belong to different variables.
+	 */
+	@Test
+	void testSimplifyDifferentVariables() {
+		final String[] expressions = {"1 - x", "x - 1", "2x + 2", "x - y"};
+		for (int i = 0; i < expressions.length; i++) {
+			final BinaryTree<String> tree =
+			    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(expressions[i]));
+			assertEquals(expressions[i],
+			    Differentiator.treeNodeToString(Simplifier.simplify(tree.getNode()), 0));
+		}
+	}
+
+	/**
+	 * Test method for {@link model.Simplifier#simplifyFully(structures.BinaryTreeNode)} with a
+	 * derivative whose square keeps its coefficient outside the power, such as
+	 * (2 * x) * x = 2 * (x ^ 2) rather than (2x) ^ 2.
+	 */
+	@Test
+	void testSimplifyFullyCoefficientSquare() {
+		final BinaryTree<String> tree =
+		    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList("(x ^ 2) / x"));
+		final BinaryTreeNode<String> derivative =
+		    Differentiator.derive(tree.getNode(), new BinaryTreeNode<String>("x"));
+		assertEquals("1",
+		    Differentiator.treeNodeToString(Simplifier.simplifyFully(derivative), 0));
+	}
+
+	/**
+	 * Test method for {@link model.Simplifier#simplify(structures.BinaryTreeNode)} and
+	 * {@link model.Simplifier#simplifyFully(structures.BinaryTreeNode)} with fractions without
+	 * a finite decimal expansion, which must fold back to exactly what they were divided from.
+	 */
+	@Test
+	void testSimplifyFractionRoundTrip() {
+		final String[] expressions = {"(1 / 3) * 3", "(1 / 7) * 7", "(x / 3) * 3", "2 / 6"};
+		final String[] simplifiedExps = {"1", "1", "(x / 3) * 3", "1 / 3"};
+		final String[] fullySimplifiedExps = {"1", "1", "x", "0.3333333333333333"};
+		for (int i = 0; i < expressions.length; i++) {
+			final BinaryTree<String> tree =
+			    ExpressionParser.shuntingYardTree(ExpressionParser.stringToList(expressions[i]));
+			assertEquals(simplifiedExps[i],
+			    Differentiator.treeNodeToString(Simplifier.simplify(tree.getNode()), 0));
+			assertEquals(fullySimplifiedExps[i],
+			    Differentiator.treeNodeToString(Simplifier.simplifyFully(tree.getNode()), 0));
+		}
+	}
+
 }
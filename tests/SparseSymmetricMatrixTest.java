@@ -0,0 +1,62 @@
+/**
+ * SparseSymmetricMatrixTest - Derivatives Calculator
+ */
+
+package tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import structures.SparseSymmetricMatrix;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the SparseSymmetricMatrix class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class SparseSymmetricMatrixTest {
+
+	/** A SparseSymmetricMatrix to use in the tests. */
+	private SparseSymmetricMatrix<String> myMatrix;
+
+	/**
+	 * Initialize the test fixture before each test.
+	 */
+	@BeforeEach
+	void setUp() {
+		myMatrix = new SparseSymmetricMatrix<String>(3);
+	}
+
+	/**
+	 * Test method for {@link structures.SparseSymmetricMatrix#set(int, int, java.lang.Object)}.
+	 */
+	@Test
+	void testSet() {
+		myMatrix.set(2, 0, "a");
+		assertEquals("a", myMatrix.get(0, 2));
+		assertEquals("a", myMatrix.get(2, 0));
+		assertEquals(1, myMatrix.entryCount());
+		myMatrix.set(0, 2, "b");
+		assertEquals(1, myMatrix.entryCount());
+		myMatrix.set(0, 2, null);
+		assertNull(myMatrix.get(2, 0));
+		assertEquals(0, myMatrix.entryCount());
+	}
+
+	/**
+	 * Test method for {@link structures.SparseSymmetricMatrix#getRow(int)}.
+	 */
+	@Test
+	void testGetRow() {
+		myMatrix.set(1, 1, "a");
+		myMatrix.set(2, 1, "b");
+		assertEquals(3, myMatrix.size());
+		assertEquals(2, myMatrix.getRow(1).size());
+		assertTrue(myMatrix.getRow(2).isEmpty());
+	}
+
+}
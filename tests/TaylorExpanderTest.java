@@ -0,0 +1,73 @@
+/**
+ * TaylorExpanderTest - Derivatives Calculator
+ */
+
+package tests;
+
+import java.util.List;
+import model.Differentiator;
+import model.Evaluator;
+import model.TaylorExpander;
+import org.junit.jupiter.api.Test;
+import structures.BinaryTreeNode;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the TaylorExpander class.
+ *
+ * @author Jacob Klymenko
+ * @version 1.0
+ */
+class TaylorExpanderTest extends ExpressionFixture {
+
+	/**
+	 * Test method for {@link model.TaylorExpander#coefficients(double, int)}.
+	 */
+	@Test
+	void testCoefficients() {
+		final TaylorExpander sine = new TaylorExpander(parse("sin(x)"), "x");
+		final double[] expected = {0, 1, 0, -1.0 / 6, 0, 1.0 / 120};
+		assertArrayEquals(expected, sine.coefficients(0, 5), 1e-12);
+
+		final TaylorExpander log = new TaylorExpander(parse("ln(x)"), "x");
+		assertArrayEquals(new double[] {0, 1, -0.5, 1.0 / 3}, log.coefficients(1, 3), 1e-12);
+	}
+
+	/**
+	 * Test method for {@link model.TaylorExpander#expand(double, int)}.
+	 */
+	@Test
+	void testExpand() {
+		final BinaryTreeNode<String> polynomial =
+		    TaylorExpander.expand(parse("x * x"), "x", 1, 2);
+		assertEquals("(1 + (2 * (x - 1))) + ((x - 1) ^ 2)",
+		    Differentiator.treeNodeToString(polynomial, 0));
+	}
+
+	/**
+	 * Test method for {@link model.TaylorExpander#expand(double, int)} approximating the
+	 * expression near the point of expansion.
+	 */
+	@Test
+	void testExpandApproximation() {
+		final BinaryTreeNode<String> polynomial =
+		    TaylorExpander.expand(parse("e ^ (2 * x)"), "x", 0, 8);
+		final double value =
+		    Evaluator.compile(polynomial, List.of("x")).applyAsDouble(new double[] {0.1});
+		assertEquals(Math.exp(0.2), value, 1e-10);
+	}
+
+	/**
+	 * Test method for {@link model.TaylorExpander#getDerivative(int)}.
+	 */
+	@Test
+	void testGetDerivative() {
+		final TaylorExpander expander = new TaylorExpander(parse("cos(x) * 5"), "x");
+		assertEquals(expander.getDerivative(2), expander.getDerivative(2));
+		assertEquals("0", Differentiator.treeNodeToString(
+		    new TaylorExpander(parse("3"), "x").getDerivative(1), 0));
+	}
+
+}
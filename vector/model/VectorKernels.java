@@ -0,0 +1,155 @@
+/**
+ * VectorKernels - Derivatives Calculator
+ */
+
+package model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorKernels executes the arithmetic operations of a BatchEvaluator's program on the SIMD
+ * lanes of the processor, through the incubating Vector API, and leaves the values past the
+ * last full vector to the scalar kernels. The BatchEvaluator loads this class by name, so it
+ * still runs on the scalar kernels when the jdk.incubator.vector module is absent. This class
+ * lives in its own vector source folder, so the rest of the program compiles without the
+ * module; compiling and running it requires the option --add-modules jdk.incubator.vector.
+ *
+ * @author Jacob Klymenko
+ * @version 1.1
+ */
+final class VectorKernels extends BatchEvaluator.Kernels {
+
+	/** The widest vector shape the processor supports. */
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * Returns true if these kernels run on SIMD lanes.
+	 *
+	 * @return true, as these kernels are vectorized
+	 */
+	@Override
+	boolean isVectorized() {
+		return true;
+	}
+
+	/**
+	 * Adds the specified registers.
+	 *
+	 * @param theFirst	the first operand
+	 * @param theSecond	the second operand
+	 * @param theTarget	the register the sums are written to
+	 * @param theFrom	the first index of the range, inclusive
+	 * @param theTo		the last index of the range, exclusive
+	 */
+	@Override
+	void add(final double[] theFirst, final double[] theSecond, final double[] theTarget,
+	    final int theFrom, final int theTo) {
+		super.add(theFirst, theSecond, theTarget,
+		    lanewise(VectorOperators.ADD, theFirst, theSecond, theTarget, theFrom, theTo), theTo);
+	}
+
+	/**
+	 * Subtracts the second specified register from the first.
+	 *
+	 * @param theFirst	the first operand
+	 * @param theSecond	the second operand
+	 * @param theTarget	the register the differences are written to
+	 * @param theFrom	the first index of the range, inclusive
+	 * @param theTo		the last index of the range, exclusive
+	 */
+	@Override
+	void subtract(final double[] theFirst, final double[] theSecond, final double[] theTarget,
+	    final int theFrom, final int theTo) {
+		super.subtract(theFirst, theSecond, theTarget,
+		    lanewise(VectorOperators.SUB, theFirst, theSecond, theTarget, theFrom, theTo), theTo);
+	}
+
+	/**
+	 * Multiplies the specified registers.
+	 *
+	 * @param theFirst	the first operand
+	 * @param theSecond	the second operand
+	 * @param theTarget	the register the products are written to
+	 * @param theFrom	the first index of the range, inclusive
+	 * @param theTo		the last index of the range, exclusive
+	 */
+	@Override
+	void multiply(final double[] theFirst, final double[] theSecond, final double[] theTarget,
+	    final int theFrom, final int theTo) {
+		super.multiply(theFirst, theSecond, theTarget,
+		    lanewise(VectorOperators.MUL, theFirst, theSecond, theTarget, theFrom, theTo), theTo);
+	}
+
+	/**
+	 * Divides the first specified register by the second.
+	 *
+	 * @param theFirst	the first operand
+	 * @param theSecond	the second operand
+	 * @param theTarget	the register the quotients are written to
+	 * @param theFrom	the first index of the range, inclusive
+	 * @param theTo		the last index of the range, exclusive
+	 */
+	@Override
+	void divide(final double[] theFirst, final double[] theSecond, final double[] theTarget,
+	    final int theFrom, final int theTo) {
+		super.divide(theFirst, theSecond, theTarget,
+		    lanewise(VectorOperators.DIV, theFirst, theSecond, theTarget, theFrom, theTo), theTo);
+	}
+
+	/**
+	 * Raises the specified register to the specified integer exponent, by repeated squaring
+	 * like the Evaluator, so every lane gets the same result as the scalar kernel.
+	 *
+	 * @param theBase		the register of the bases
+	 * @param theExponent	the integer exponent
+	 * @param theTarget		the register the powers are written to
+	 * @param theFrom		the first index of the range, inclusive
+	 * @param theTo			the last index of the range, exclusive
+	 */
+	@Override
+	void power(final double[] theBase, final int theExponent, final double[] theTarget,
+	    final int theFrom, final int theTo) {
+		final int bound = theFrom + SPECIES.loopBound(theTo - theFrom);
+		final DoubleVector one = DoubleVector.broadcast(SPECIES, 1);
+		for (int i = theFrom; i < bound; i += SPECIES.length()) {
+			DoubleVector power = one;
+			DoubleVector square = DoubleVector.fromArray(SPECIES, theBase, i);
+			for (int remaining = Math.abs(theExponent); remaining != 0; remaining >>= 1) {
+				if ((remaining & 1) != 0) {
+					power = power.mul(square);
+				}
+				square = square.mul(square);
+			}
+			(theExponent < 0 ? one.div(power) : power).intoArray(theTarget, i);
+		}
+		super.power(theBase, theExponent, theTarget, bound, theTo);
+	}
+
+	/**
+	 * Applies the specified binary operator to every full vector of the specified range of the
+	 * specified registers, and returns the index of the first value past the last full vector,
+	 * which is left for the scalar kernels.
+	 *
+	 * @param theOperator	the operator being applied
+	 * @param theFirst		the first operand
+	 * @param theSecond		the second operand
+	 * @param theTarget		the register the results are written to
+	 * @param theFrom		the first index of the range, inclusive
+	 * @param theTo			the last index of the range, exclusive
+	 * @return the index of the first value past the last full vector
+	 */
+	private static int lanewise(final VectorOperators.Binary theOperator,
+	    final double[] theFirst, final double[] theSecond, final double[] theTarget,
+	    final int theFrom, final int theTo) {
+		final int result = theFrom + SPECIES.loopBound(theTo - theFrom);
+		for (int i = theFrom; i < result; i += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, theFirst, i)
+			    .lanewise(theOperator, DoubleVector.fromArray(SPECIES, theSecond, i))
+			    .intoArray(theTarget, i);
+		}
+		return result;
+	}
+
+}
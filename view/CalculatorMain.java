@@ -4,21 +4,34 @@
 
 package view;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.CorpusReader;
 import model.Differentiator;
 import model.ExpressionParser;
+import model.RewriteEngine;
+import model.RuleProfiler;
 import model.Simplifier;
 import structures.BinaryTree;
 import structures.BinaryTreeNode;
 
 /**
- * A console-based program to perform symbolic differentiation on mathematical expressions.
+ * A console-based program to perform symbolic differentiation on mathematical expressions,
+ * either interactively or in batch over the lines of a file.
  *
  * @author Jacob Klymenko
- * @version 3.2
+ * @version 3.7
  */
 public class CalculatorMain {
 
@@ -37,6 +50,9 @@ public class CalculatorMain {
 	/** Whether user input is valid or not, depending on the number of variables in input. */
 	private static boolean myInputVariableValidity = true;
 
+	/** Whether the unsimplified derivative is built and shown along with the simplified one. */
+	private static boolean myIsExtended = false;
+
 	/** A private constructor to inhibit external instantiation. */
 	private CalculatorMain() {
 		// do nothing
@@ -45,29 +61,195 @@ public class CalculatorMain {
 	/**
 	 * The start point for this program.
 	 *
-	 * @param theArgs the command line arguments - ignored
+	 * @param theArgs the command line arguments - "--extended" also shows the unsimplified
+	 * 					derivative, "--profile-rules" prints how often every simplification
+	 * 					rule fired at exit, "--adaptive-rules" reorders the rewrite rules
+	 * 					by how often they fire, and "--batch <input> <output>" differentiates
+	 * 					every line of the input file into the output file instead of
+	 * 					reading the console
 	 */
 	public static void main(final String[] theArgs) {
-		System.out.println("single variable derivatives calculator... STAAARRT!!!");
+		Path batchInput = null;
+		Path batchOutput = null;
+		for (int i = 0; i < theArgs.length; i++) {
+			final String arg = theArgs[i];
+			if (arg.equals("--extended")) {
+				myIsExtended = true;
+			} else if (arg.equals("--profile-rules")) {
+				RuleProfiler.dumpAtExit(System.err);
+			} else if (arg.equals("--adaptive-rules")) {
+				RewriteEngine.setAdaptive(true);
+			} else if (arg.equals("--batch") && i + 2 < theArgs.length) {
+				batchInput = Paths.get(theArgs[i + 1]);
+				batchOutput = Paths.get(theArgs[i + 2]);
+				i += 2;
+			}
+		}
 		ExpressionParser.setValidFunctions();
-		try (Scanner console = new Scanner(System.in)) {
-			for (;;) {
-				start(console);
-				if (myUserQuitOption) {
-					break;
+		if (batchInput != null) {
+			try {
+				runBatch(batchInput, batchOutput);
+			} catch (final IOException theError) {
+				System.out.println("could not process the batch files: " + theError);
+			}
+		} else {
+			System.out.println("single variable derivatives calculator... STAAARRT!!!");
+			try (Scanner console = new Scanner(System.in)) {
+				for (;;) {
+					start(console);
+					if (myUserQuitOption) {
+						break;
+					}
+					if (!myInputVariableValidity) {
+						System.out.println("\nplease include less than three variables in " +
+						    "your input expression.");
+					}
 				}
-				if (!myInputVariableValidity) {
-					System.out.println("\nplease include less than three variables in your " +
-					    "input expression.");
+			}
+			System.out.println("\nthank you for trying out this calculator!");
+		}
+	}
+
+	/**
+	 * Differentiates every line of the specified input file, in Leibniz's notation such as
+	 * "d/dx x ^ 2", and writes the simplified derivatives to the specified output file in the
+	 * order of the input lines. The input file is memory-mapped by a CorpusReader, whose
+	 * chunks of lines are differentiated by a pool of one worker per processor, and a summary
+	 * of the throughput and the errors is printed at the end. The unsimplified derivative is
+	 * not built in batch.
+	 *
+	 * @param theInput	the file of expressions to differentiate, one per line
+	 * @param theOutput	the file the derivatives are written to, one per input line
+	 * @throws IOException if a file cannot be read or written
+	 */
+	private static void runBatch(final Path theInput, final Path theOutput) throws IOException {
+		final long start = System.nanoTime();
+		final int workers = Runtime.getRuntime().availableProcessors();
+		final ForkJoinPool pool = new ForkJoinPool(workers);
+		final AtomicInteger errors = new AtomicInteger();
+		long lines = 0;
+		try (BufferedWriter output = Files.newBufferedWriter(theOutput, StandardCharsets.UTF_8)) {
+			lines = new CorpusReader(theInput).mapLines(pool,
+			    line -> differentiateLine(line, errors), line -> writeLine(output, line));
+		} catch (final UncheckedIOException theError) {
+			throw theError.getCause();
+		} finally {
+			pool.shutdownNow();
+		}
+		final double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("differentiated %d lines with %d workers in %.3f s (%.0f lines/s), " +
+		    "%d errors, written to %s%n", lines, workers, seconds, lines / seconds,
+		    errors.get(), theOutput);
+	}
+
+	/**
+	 * Writes the specified batch line to the specified output.
+	 *
+	 * @param theOutput	the output the line is written to
+	 * @param theLine	the line of output
+	 * @throws UncheckedIOException if the line cannot be written
+	 */
+	private static void writeLine(final BufferedWriter theOutput, final String theLine) {
+		try {
+			theOutput.write(theLine);
+			theOutput.newLine();
+		} catch (final IOException theError) {
+			throw new UncheckedIOException(theError);
+		}
+	}
+
+	/**
+	 * Returns the specified batch line followed by its simplified derivative, or by the reason
+	 * it could not be differentiated, which is counted on the specified counter. A blank line
+	 * stays blank. The expression is lexed from the line as it is, without copying it first.
+	 * Unlike the interactive mode, this method only uses the state of the current thread, so
+	 * lines can be differentiated by several workers at once.
+	 *
+	 * @param theLine	the expression in Leibniz's notation, such as "d/dx x ^ 2"
+	 * @param theErrors	the counter of the lines that could not be differentiated
+	 * @return the line of output
+	 */
+	private static String differentiateLine(final CharSequence theLine,
+	    final AtomicInteger theErrors) {
+		int from = 0;
+		int to = theLine.length();
+		while (from < to && theLine.charAt(from) <= ' ') {
+			from++;
+		}
+		while (to > from && theLine.charAt(to - 1) <= ' ') {
+			to--;
+		}
+		final CharSequence line = theLine.subSequence(from, to);
+		String result = "";
+		if (line.length() > 0) {
+			String error = null;
+			String derivative = null;
+			try {
+				if (line.length() <= DIFF_VAR_POS + 2 || line.charAt(0) != 'd' ||
+				    line.charAt(1) != '/' || line.charAt(2) != 'd') {
+					error = "missing Leibniz's notation";
+				} else {
+					final BinaryTreeNode<String> varDiff = new BinaryTreeNode<String>(
+					    String.valueOf(line.charAt(DIFF_VAR_POS)));
+					final BinaryTree<String> tree = ExpressionParser.shuntingYardTree(
+					    ExpressionParser.stringToList(line.subSequence(DIFF_VAR_POS + 2,
+					        line.length())));
+					if (!ExpressionParser.getIsValid() || tree == null) {
+						error = "not a valid arithmetic expression";
+					} else if (!hasValidNumVars(tree.getNode(), varDiff.getElement())) {
+						error = "more than two variables";
+					} else {
+						derivative = differentiate(tree.getNode(), varDiff, false)[1];
+					}
 				}
+			} catch (final RuntimeException theError) {
+				error = "evaluation error";
+			}
+			if (error == null) {
+				result = new StringBuilder().append(line).append(" = ").append(derivative)
+				    .toString();
+			} else {
+				theErrors.incrementAndGet();
+				result = new StringBuilder().append(line).append(" : error: ").append(error)
+				    .toString();
 			}
 		}
-		System.out.println("\nthank you for trying out this calculator!");
+		return result;
 	}
 
 	/**
-	 * Starts the first round of asking for and differentiating a symbolic expression. Both
-	 * methods of parsing and differentiating are shown to the user.
+	 * Returns the unsimplified derivative of the specified root's expression, if it is
+	 * requested, and its simplified derivative. The derivative is simplified while it is
+	 * derived unless the unsimplified one is requested. Any variable other than the variable
+	 * of differentiation left by the previous derivation on the current thread is forgotten
+	 * first.
+	 *
+	 * @param theRoot		the root node of the expression
+	 * @param theVarDiff	the chosen variable of differentiation represented by a node
+	 * @param theIsExtended	whether the unsimplified derivative is built as well
+	 * @return the unsimplified derivative, or null if it was not built, and the simplified
+	 *         derivative
+	 */
+	private static String[] differentiate(final BinaryTreeNode<String> theRoot,
+	    final BinaryTreeNode<String> theVarDiff, final boolean theIsExtended) {
+		Differentiator.reset();
+		String derivativeStr = null;
+		BinaryTreeNode<String> outputTreeNode = null;
+		if (theIsExtended) {
+			outputTreeNode = Differentiator.derive(theRoot, theVarDiff);
+			derivativeStr = Differentiator.treeNodeToString(outputTreeNode, 0);
+		} else {
+			outputTreeNode = Differentiator.deriveSimplified(theRoot, theVarDiff);
+		}
+		final BinaryTreeNode<String> simplifiedExp = Simplifier.simplifyFully(outputTreeNode);
+		return new String[] {derivativeStr,
+		    Differentiator.treeNodeToString(simplifiedExp, 0)};
+	}
+
+	/**
+	 * Starts the first round of asking for and differentiating a symbolic expression. The
+	 * derivative is simplified while it is derived, unless the extended form was requested,
+	 * in which case the unsimplified derivative is built and shown as well.
 	 *
 	 * @param theConsole a Scanner used to gather user input
 	 */
@@ -83,7 +265,8 @@ public class CalculatorMain {
 		final String varDiff = myUserInput.substring(DIFF_VAR_POS, DIFF_VAR_POS + 1);
 		myVarDiff = new BinaryTreeNode<String>(varDiff);
 		// check to see if user exceeded variable limit
-		if (!hasValidNumVars(tree.getNode(), myVarDiff.getElement())) {
+		myInputVariableValidity = hasValidNumVars(tree.getNode(), myVarDiff.getElement());
+		if (!myInputVariableValidity) {
 			return;
 		}
 		// main portion
@@ -91,13 +274,8 @@ public class CalculatorMain {
 			return;
 		} else {
 			try {
-				final BinaryTreeNode<String> outputTreeNode =
-				    Differentiator.derive(tree.getNode(), myVarDiff);
-				final String derivativeStr = Differentiator.treeNodeToString(outputTreeNode, 0);
-				final BinaryTreeNode<String> simplifiedExp =
-				    Simplifier.simplify(outputTreeNode);
-				final String simplifiedStr = Differentiator.treeNodeToString(simplifiedExp, 0);
-				displayResult(myUserInput, derivativeStr, simplifiedStr);
+				final String[] solution = differentiate(tree.getNode(), myVarDiff, myIsExtended);
+				displayResult(myUserInput, solution[0], solution[1]);
 			} catch (final Exception error) {
 				System.out.println("evaluation error has occured!");
 			}
@@ -188,29 +366,28 @@ public class CalculatorMain {
 				}
 			}
 			// determines number of variables in the user input expression
-			if (distinctVars.size() > 2) {
-				myInputVariableValidity = false;
-				result = false;
-			} else {
-				myInputVariableValidity = true;
-				result = true;
-			}
+			result = distinctVars.size() <= 2;
 		}
 		return result;
 	}
 
 	/**
-	 * Displays the derivative of the user input in both a simplified and extended form.
+	 * Displays the derivative of the user input in a simplified form, and in an extended form
+	 * if it was built.
 	 *
 	 * @param theUserInput				the user inputed expression to be differentiated
-	 * @param theDerivative				the unsimplified derivative of the user chosen expression
+	 * @param theDerivative				the unsimplified derivative of the user chosen expression,
+	 * 									or null if it was not built
 	 * @param theSimplfiedDerivative	the simplified derivative of the user chosen expression
 	 */
 	private static void displayResult(final String theUserInput, final String theDerivative,
 	    final String theSimplfiedDerivative) {
 		System.out.println("\nsimplified solution:\n" + theUserInput + " = " +
 		    theSimplfiedDerivative);
-		System.out.println("extended solution:\n" + theUserInput + " = " + theDerivative + "\n");
+		if (theDerivative != null) {
+			System.out.println("extended solution:\n" + theUserInput + " = " + theDerivative +
+			    "\n");
+		}
 	}
 
 }